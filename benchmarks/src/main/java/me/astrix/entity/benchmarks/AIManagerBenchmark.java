@@ -0,0 +1,85 @@
+package me.astrix.entity.benchmarks;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.benchmarks.stub.BukkitStubs;
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.managers.AIManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI tick and single manager update cost with the {@link me.astrix.entity.example.custom.CustomMobs}
+ * behavior stacks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AIManagerBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int entities;
+
+    /**
+     * The stub world has no players, so with LOD every manager is in the far tier.
+     */
+    @Param({"false", "true"})
+    private boolean lod;
+
+    private EntityAI entityAI;
+    private List<AIManager> managers;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BukkitStubs.install();
+        entityAI = new EntityAI();
+        entityAI.setLodEnabled(lod);
+
+        BenchmarkPopulation.spawnCustomMobs(new StubWorld("ai-manager"), entities);
+
+        // Applies registrations and builds the spatial index and walkability cache
+        entityAI.tick();
+        managers = entityAI.getManagedEntities();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityAI.disable();
+    }
+
+    /**
+     * One full AI tick over the whole population.
+     */
+    @Benchmark
+    public void aiTick() {
+        entityAI.tick();
+    }
+
+    /**
+     * One {@link AIManager#update()}, cycling through the population.
+     */
+    @Benchmark
+    public void managerUpdate() {
+        managers.get(cursor).update();
+        if (++cursor == managers.size()) {
+            cursor = 0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package me.astrix.entity.benchmarks;
+
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.example.custom.CustomMobs;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spawns benchmark populations on a square grid with a fixed spacing,
+ * so the number of neighbors per entity stays the same at every population size.
+ */
+final class BenchmarkPopulation {
+
+    static final double SPACING = 4.0;
+
+    // Keeps spawn columns clear of the stub terrain's walls
+    private static final double OFFSET = 2.5;
+
+    private BenchmarkPopulation() {
+    }
+
+    /**
+     * Spawns Forest Guardians, Pack Hunters and Skittish Scouts in equal parts,
+     * each with its {@link CustomMobs} behavior stack.
+     *
+     * @param world The world to spawn in
+     * @param count Number of mobs
+     */
+    static void spawnCustomMobs(StubWorld world, int count) {
+        CustomMobs customMobs = new CustomMobs();
+        for (int i = 0; i < count; i++) {
+            Location location = gridLocation(world, count, i);
+            switch (i % 3) {
+                case 0 -> customMobs.spawnForestGuardian(location);
+                case 1 -> customMobs.spawnPackHunter(location);
+                default -> customMobs.spawnSkittishScout(location);
+            }
+        }
+    }
+
+    /**
+     * Spawns zombies without AI.
+     *
+     * @param world The world to spawn in
+     * @param count Number of mobs
+     * @return The spawned mobs
+     */
+    static List<Mob> spawnZombies(StubWorld world, int count) {
+        List<Mob> mobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mobs.add(world.spawn(gridLocation(world, count, i), EntityType.ZOMBIE));
+        }
+        return mobs;
+    }
+
+    static Location gridLocation(StubWorld world, int count, int index) {
+        int side = (int) Math.ceil(Math.sqrt(count));
+        return new Location(world.world(),
+                (index % side) * SPACING + OFFSET,
+                StubWorld.GROUND_Y,
+                (index / side) * SPACING + OFFSET);
+    }
+}
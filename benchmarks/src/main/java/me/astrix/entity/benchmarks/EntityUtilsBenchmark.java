@@ -0,0 +1,79 @@
+package me.astrix.entity.benchmarks;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.benchmarks.stub.BukkitStubs;
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.utils.EntityUtils;
+import org.bukkit.Location;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Zombie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EntityUtils} nearest-entity lookups and group averages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityUtilsBenchmark {
+
+    private static final double SEARCH_RADIUS = 16.0;
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int entities;
+
+    private EntityAI entityAI;
+    private List<Mob> mobs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BukkitStubs.install();
+        entityAI = new EntityAI();
+        mobs = BenchmarkPopulation.spawnZombies(new StubWorld("entity-utils"), entities);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityAI.disable();
+    }
+
+    /**
+     * One indexed nearest-zombie lookup, cycling through the population.
+     */
+    @Benchmark
+    public Optional<Zombie> findNearestEntity() {
+        Optional<Zombie> nearest = EntityUtils.findNearestEntity(mobs.get(cursor), Zombie.class, SEARCH_RADIUS);
+        if (++cursor == entities) {
+            cursor = 0;
+        }
+        return nearest;
+    }
+
+    /**
+     * The average location of the whole population.
+     */
+    @Benchmark
+    public Location calculateAverageLocation() {
+        return EntityUtils.calculateAverageLocation(mobs);
+    }
+}
@@ -0,0 +1,157 @@
+package me.astrix.entity.benchmarks;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.benchmarks.stub.BukkitStubs;
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.navigation.AdvancedNavigator;
+import org.bukkit.Location;
+import org.bukkit.entity.Mob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AdvancedNavigator} movement and terrain checks. Every navigator heads to a
+ * target 30 blocks away, across at least one wall of the stub terrain. For shared
+ * movement, the navigators of each 64x64 block area converge on the area's center.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NavigatorBenchmark {
+
+    private static final MethodHandle IS_VALID_MOVE = navigatorHandle("isValidMove",
+            MethodType.methodType(boolean.class, double.class, double.class, double.class));
+    private static final MethodHandle CURRENT = navigatorGetter("current");
+    private static final double TARGET_DISTANCE = 30.0;
+    private static final int SHARED_AREA_SIZE = 64;
+    private static final int SHARED_FIELD_RADIUS = 48;
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int entities;
+
+    private EntityAI entityAI;
+    private AdvancedNavigator[] navigators;
+    private Location[] targets;
+    private Location[] sharedTargets;
+    private Location[] steps;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BukkitStubs.install();
+        entityAI = new EntityAI();
+
+        List<Mob> mobs = BenchmarkPopulation.spawnZombies(new StubWorld("navigator"), entities);
+        navigators = new AdvancedNavigator[entities];
+        targets = new Location[entities];
+        sharedTargets = new Location[entities];
+        steps = new Location[entities];
+
+        for (int i = 0; i < entities; i++) {
+            Mob mob = mobs.get(i);
+            navigators[i] = new AdvancedNavigator(mob, 0.4, 2.0);
+            // Steps are checked against the location read at the start of each move
+            mob.getLocation(currentLocation(navigators[i]));
+            targets[i] = mob.getLocation().add(TARGET_DISTANCE, 0, 0);
+            sharedTargets[i] = areaCenter(mob.getLocation());
+            steps[i] = mob.getLocation().add(0.4, 0, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityAI.disable();
+    }
+
+    /**
+     * One {@link AdvancedNavigator#moveTo(Location)}, cycling through the navigators.
+     * A new AI tick starts after every full cycle, so paths age and re-plan as in game.
+     */
+    @Benchmark
+    public void moveTo() {
+        navigators[cursor].moveTo(targets[cursor]);
+        advance();
+    }
+
+    /**
+     * One {@link AdvancedNavigator#moveToShared(Location, int)}, cycling through the navigators.
+     * The navigators of an area share one flow field instead of planning a path each.
+     */
+    @Benchmark
+    public void moveToShared() {
+        navigators[cursor].moveToShared(sharedTargets[cursor], SHARED_FIELD_RADIUS);
+        advance();
+    }
+
+    /**
+     * One terrain check of a single step, as done before every direct movement.
+     */
+    @Benchmark
+    public boolean isValidMove() throws Throwable {
+        Location step = steps[cursor];
+        boolean valid = (boolean) IS_VALID_MOVE.invokeExact(navigators[cursor], step.getX(), step.getY(), step.getZ());
+        advance();
+        return valid;
+    }
+
+    private void advance() {
+        if (++cursor == entities) {
+            cursor = 0;
+            entityAI.tick();
+        }
+    }
+
+    private static Location areaCenter(Location location) {
+        int half = SHARED_AREA_SIZE / 2;
+        return new Location(location.getWorld(),
+                Math.floorDiv(location.getBlockX(), SHARED_AREA_SIZE) * SHARED_AREA_SIZE + half,
+                location.getY(),
+                Math.floorDiv(location.getBlockZ(), SHARED_AREA_SIZE) * SHARED_AREA_SIZE + half);
+    }
+
+    private static Location currentLocation(AdvancedNavigator navigator) {
+        try {
+            return (Location) CURRENT.invokeExact(navigator);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle navigatorHandle(String name, MethodType type) {
+        try {
+            return MethodHandles.privateLookupIn(AdvancedNavigator.class, MethodHandles.lookup())
+                    .findVirtual(AdvancedNavigator.class, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle navigatorGetter(String name) {
+        try {
+            return MethodHandles.privateLookupIn(AdvancedNavigator.class, MethodHandles.lookup())
+                    .findGetter(AdvancedNavigator.class, name, Location.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
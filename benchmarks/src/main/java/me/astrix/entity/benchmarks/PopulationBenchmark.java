@@ -0,0 +1,72 @@
+package me.astrix.entity.benchmarks;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.benchmarks.stub.BukkitStubs;
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.population.MobPopulation;
+import me.astrix.entity.population.ReturnHomeKernel;
+import me.astrix.entity.population.WanderKernel;
+import org.bukkit.entity.Mob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick cost of a structure-of-arrays {@link MobPopulation}, to compare with
+ * {@link AIManagerBenchmark#aiTick()} at the same entity counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PopulationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int entities;
+
+    private EntityAI entityAI;
+    private MobPopulation population;
+    private long tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BukkitStubs.install();
+        entityAI = new EntityAI();
+
+        StubWorld world = new StubWorld("population");
+        population = entityAI.createPopulation(world.world());
+        population.addKernel(new ReturnHomeKernel(16.0, 0.3));
+        population.addKernel(new WanderKernel(10.0, 0.2, 20, 100));
+
+        for (Mob mob : BenchmarkPopulation.spawnZombies(world, entities)) {
+            population.add(mob);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityAI.disable();
+    }
+
+    /**
+     * One population tick: read positions, run both kernels, apply velocities.
+     */
+    @Benchmark
+    public void populationTick() {
+        population.tick(tick++);
+    }
+}
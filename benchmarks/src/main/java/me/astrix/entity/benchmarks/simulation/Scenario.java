@@ -0,0 +1,119 @@
+package me.astrix.entity.benchmarks.simulation;
+
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.example.custom.CustomMobs;
+import org.bukkit.Location;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Populations a {@link Simulation} spawns, built from the {@link CustomMobs} archetypes.
+ * Mobs are scattered over a square whose size keeps the density the same at every scale.
+ */
+public enum Scenario {
+
+    /**
+     * Forest Guardians, Pack Hunters and Skittish Scouts in equal parts.
+     */
+    MIXED(0) {
+        @Override
+        void spawn(CustomMobs customMobs, StubWorld world, int count, Random random) {
+            double side = side(count);
+            for (int i = 0; i < count; i++) {
+                Location location = randomLocation(world, side, random);
+                switch (i % 3) {
+                    case 0 -> customMobs.spawnForestGuardian(location);
+                    case 1 -> customMobs.spawnPackHunter(location);
+                    default -> customMobs.spawnSkittishScout(location);
+                }
+            }
+        }
+    },
+
+    /**
+     * Packs of eight hunters with a leader, see {@link CustomMobs#spawnPackHunterPack(Location, int)},
+     * each with a Skittish Scout to hunt spawned next to it. A population not divisible
+     * by the size of a pack and its scout is topped up with Skittish Scouts.
+     */
+    PACKS(0) {
+        @Override
+        void spawn(CustomMobs customMobs, StubWorld world, int count, Random random) {
+            double side = side(count);
+            for (int i = 0; i < count / (PACK_SIZE + 1); i++) {
+                Location center = randomLocation(world, side, random);
+                customMobs.spawnPackHunterPack(center, PACK_SIZE);
+                customMobs.spawnSkittishScout(center.add(0, 0, PREY_DISTANCE));
+            }
+            for (int i = 0; i < count % (PACK_SIZE + 1); i++) {
+                customMobs.spawnSkittishScout(randomLocation(world, side, random));
+            }
+        }
+    },
+
+    /**
+     * Forest Guardians holding territories, with a storm every other weather cycle
+     * so they seek shelter and return.
+     */
+    GUARDS(600) {
+        @Override
+        void spawn(CustomMobs customMobs, StubWorld world, int count, Random random) {
+            double side = side(count);
+            for (int i = 0; i < count; i++) {
+                customMobs.spawnForestGuardian(randomLocation(world, side, random));
+            }
+        }
+    };
+
+    private static final int PACK_SIZE = 8;
+    private static final double PREY_DISTANCE = 10.0;
+    private static final double AREA_PER_MOB = 16.0;
+    private static final int WALL_SPACING = 24;
+
+    /**
+     * Ticks between weather changes, 0 to keep the weather clear.
+     */
+    final int weatherCycleTicks;
+
+    Scenario(int weatherCycleTicks) {
+        this.weatherCycleTicks = weatherCycleTicks;
+    }
+
+    /**
+     * Spawns the population of this scenario into a world.
+     *
+     * @param customMobs Factory of the mob archetypes
+     * @param world The world to spawn in
+     * @param count Number of mobs
+     * @param random Seeded source of the spawn positions
+     */
+    abstract void spawn(CustomMobs customMobs, StubWorld world, int count, Random random);
+
+    /**
+     * Parses a scenario name, ignoring case.
+     *
+     * @param name The name
+     * @return The scenario
+     */
+    static Scenario parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown scenario: " + name);
+        }
+    }
+
+    private static double side(int count) {
+        return Math.ceil(Math.sqrt(count * AREA_PER_MOB));
+    }
+
+    private static Location randomLocation(StubWorld world, double side, Random random) {
+        double x = random.nextDouble() * side;
+        double z = random.nextDouble() * side;
+        // Keep spawns out of the stub terrain's walls
+        if (Math.floorMod((int) Math.floor(x), WALL_SPACING) == 0) {
+            x += 1.0;
+        }
+        return new Location(world.world(), x, StubWorld.GROUND_Y, z);
+    }
+}
@@ -0,0 +1,188 @@
+package me.astrix.entity.benchmarks.simulation;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.benchmarks.stub.BukkitStubs;
+import me.astrix.entity.benchmarks.stub.StubWorld;
+import me.astrix.entity.example.custom.CustomMobs;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.scheduler.WorldParallelScheduler;
+import me.astrix.entity.signals.EntityDeathSignal;
+import me.astrix.entity.signals.SignalBus;
+import me.astrix.entity.signals.WeatherSignal;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs unchanged {@link AIManager}s and behaviors over stub worlds for a number of
+ * ticks, without a server, and measures how long the AI ticks take.
+ * <p>
+ * Every tick runs {@link EntityAI#tick()} and then steps the worlds, so mobs move by
+ * the velocities their behaviors set, take damage and die. Deaths and weather changes
+ * are fed to the AI as the server's event listeners would. The spawn positions and
+ * behavior random generators are seeded and paths are searched on the ticking thread,
+ * so runs with the same settings on the global scheduler end in the same state.
+ * </p>
+ */
+public final class Simulation {
+
+    private final Scenario scenario;
+    private final int mobs;
+    private final int worlds;
+    private final long seed;
+    private final boolean parallelWorlds;
+
+    /**
+     * Creates a simulation.
+     *
+     * @param scenario Population to spawn
+     * @param mobs Number of mobs, split evenly between the worlds
+     * @param worlds Number of worlds
+     * @param seed Seed of the spawn positions and behavior random generators
+     * @param parallelWorlds Whether to update the worlds in parallel with the {@link WorldParallelScheduler}
+     */
+    public Simulation(Scenario scenario, int mobs, int worlds, long seed, boolean parallelWorlds) {
+        if (mobs <= 0 || worlds <= 0) {
+            throw new IllegalArgumentException("Mob and world counts must be positive");
+        }
+        this.scenario = scenario;
+        this.mobs = mobs;
+        this.worlds = worlds;
+        this.seed = seed;
+        this.parallelWorlds = parallelWorlds;
+    }
+
+    /**
+     * Spawns the population and runs the simulation.
+     *
+     * @param warmupTicks Ticks run before measuring, so caches fill and the JIT compiles the hot paths
+     * @param ticks Ticks measured
+     * @return The measurements
+     */
+    public SimulationReport run(int warmupTicks, int ticks) {
+        if (warmupTicks < 0 || ticks <= 0) {
+            throw new IllegalArgumentException("Tick counts must be positive");
+        }
+
+        BukkitStubs.install();
+        EntityAI entityAI = new EntityAI();
+        try {
+            entityAI.setRandomSeed(seed);
+            entityAI.getPathRequests().setExecutor(Runnable::run);
+            if (parallelWorlds) {
+                entityAI.setScheduler(new WorldParallelScheduler());
+            }
+
+            List<StubWorld> stubWorlds = spawn(entityAI);
+            for (int tick = 0; tick < warmupTicks; tick++) {
+                tick(entityAI, stubWorlds, tick);
+            }
+
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long[] tickNanos = new long[ticks];
+            long physicsNanos = 0;
+
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long started = System.nanoTime();
+            for (int i = 0; i < ticks; i++) {
+                long tickStart = System.nanoTime();
+                tickNanos[i] = tick(entityAI, stubWorlds, warmupTicks + i);
+                physicsNanos += System.nanoTime() - tickStart - tickNanos[i];
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            Arrays.sort(tickNanos);
+            int alive = 0;
+            long checksum = 17;
+            for (StubWorld world : stubWorlds) {
+                for (LivingEntity entity : world.world().getLivingEntities()) {
+                    alive++;
+                    checksum = checksum * 31 + positionHash(entity.getLocation());
+                }
+            }
+
+            return new SimulationReport(scenario, mobs, worlds, seed, parallelWorlds, ticks, elapsedNanos,
+                    percentile(tickNanos, 0.50), percentile(tickNanos, 0.99), tickNanos[ticks - 1],
+                    physicsNanos / ticks, allocatedBytes, alive, entityAI.getManagedEntities().size(), checksum);
+        } finally {
+            entityAI.disable();
+        }
+    }
+
+    private List<StubWorld> spawn(EntityAI entityAI) {
+        Random random = new Random(seed);
+        CustomMobs customMobs = new CustomMobs();
+        List<StubWorld> stubWorlds = new ArrayList<>(worlds);
+
+        for (int i = 0; i < worlds; i++) {
+            StubWorld world = new StubWorld("simulation-" + i);
+            world.simulate(dead -> died(entityAI, dead));
+            scenario.spawn(customMobs, world, mobs / worlds + (i < mobs % worlds ? 1 : 0), random);
+            stubWorlds.add(world);
+        }
+        return stubWorlds;
+    }
+
+    /**
+     * Runs one AI tick and steps the worlds.
+     *
+     * @return Duration of the AI tick, in nanoseconds
+     */
+    private long tick(EntityAI entityAI, List<StubWorld> stubWorlds, int tick) {
+        if (scenario.weatherCycleTicks > 0 && tick > 0 && tick % scenario.weatherCycleTicks == 0) {
+            boolean storm = (tick / scenario.weatherCycleTicks) % 2 == 1;
+            for (StubWorld world : stubWorlds) {
+                changeWeather(entityAI, world, storm);
+            }
+        }
+
+        long start = System.nanoTime();
+        entityAI.tick();
+        long aiNanos = System.nanoTime() - start;
+
+        for (int i = 0, size = stubWorlds.size(); i < size; i++) {
+            stubWorlds.get(i).step();
+        }
+        return aiNanos;
+    }
+
+    private static void changeWeather(EntityAI entityAI, StubWorld stubWorld, boolean storm) {
+        World world = stubWorld.world();
+        stubWorld.setWeather(storm, false);
+        entityAI.getWeatherCache().update(world, storm, false);
+        entityAI.getSignalBus().publish(new WeatherSignal(world, entityAI.getWeatherCache().getWeather(world)));
+    }
+
+    private static void died(EntityAI entityAI, LivingEntity dead) {
+        SignalBus bus = entityAI.getSignalBus();
+        if (bus.hasSubscribers(EntityDeathSignal.class)) {
+            Location location = dead.getLocation();
+            bus.publish(new EntityDeathSignal(dead, location.getWorld(),
+                    location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+        }
+
+        AIManager manager = entityAI.getManager(dead);
+        if (manager != null) {
+            entityAI.releaseAIManager(manager);
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static long positionHash(Location location) {
+        return Double.hashCode(location.getX()) * 961L
+                + Double.hashCode(location.getY()) * 31L
+                + Double.hashCode(location.getZ());
+    }
+}
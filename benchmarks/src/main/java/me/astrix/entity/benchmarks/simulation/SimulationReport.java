@@ -0,0 +1,62 @@
+package me.astrix.entity.benchmarks.simulation;
+
+import java.util.Locale;
+
+/**
+ * Measurements of a {@link Simulation} run. Tick times cover {@code EntityAI.tick()}
+ * only; allocation is counted on the ticking thread and includes the stubs' own.
+ *
+ * @param scenario The simulated scenario
+ * @param mobs Number of mobs spawned
+ * @param worlds Number of worlds
+ * @param seed The seed
+ * @param parallelWorlds Whether worlds were updated in parallel
+ * @param ticks Number of measured ticks
+ * @param elapsedNanos Wall time of the measured ticks, world steps included
+ * @param p50TickNanos Median AI tick time
+ * @param p99TickNanos 99th percentile AI tick time
+ * @param maxTickNanos Slowest AI tick
+ * @param meanPhysicsNanos Mean time per tick spent stepping the stub worlds
+ * @param allocatedBytes Bytes allocated by the ticking thread over the measured ticks
+ * @param alive Mobs alive at the end
+ * @param managers AI managers left at the end
+ * @param checksum Hash of the final mob positions, equal for equal runs
+ */
+public record SimulationReport(Scenario scenario, int mobs, int worlds, long seed, boolean parallelWorlds,
+                               int ticks, long elapsedNanos, long p50TickNanos, long p99TickNanos,
+                               long maxTickNanos, long meanPhysicsNanos, long allocatedBytes,
+                               int alive, int managers, long checksum) {
+
+    /**
+     * Returns the number of ticks simulated per second of wall time.
+     *
+     * @return Ticks per second
+     */
+    public double ticksPerSecond() {
+        return ticks / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Formats the report for the console.
+     *
+     * @return The report, one measurement per line
+     */
+    public String format() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format(Locale.ROOT, """
+                        Scenario:    %s, %d mobs in %d world(s), seed %d, %s scheduler
+                        Throughput:  %d ticks in %.2f s, %.1f ticks/s
+                        AI tick:     p50 %.3f ms, p99 %.3f ms, max %.3f ms
+                        World step:  %.3f ms per tick
+                        Allocation:  %.1f KB per tick, %.1f MB/s
+                        Population:  %d alive, %d managers
+                        Checksum:    %016x""",
+                scenario.name().toLowerCase(Locale.ROOT), mobs, worlds, seed,
+                parallelWorlds ? "world-parallel" : "global",
+                ticks, seconds, ticksPerSecond(),
+                p50TickNanos / 1e6, p99TickNanos / 1e6, maxTickNanos / 1e6,
+                meanPhysicsNanos / 1e6,
+                allocatedBytes / 1024.0 / ticks, allocatedBytes / 1048576.0 / seconds,
+                alive, managers, checksum);
+    }
+}
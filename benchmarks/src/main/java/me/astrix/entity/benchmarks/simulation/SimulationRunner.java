@@ -0,0 +1,67 @@
+package me.astrix.entity.benchmarks.simulation;
+
+/**
+ * Command line entry point for load-testing the AI with a {@link Simulation}.
+ * <pre>
+ * java -cp benchmarks.jar me.astrix.entity.benchmarks.simulation.SimulationRunner \
+ *     --scenario packs --mobs 5000 --ticks 1200 --seed 42
+ * </pre>
+ */
+public final class SimulationRunner {
+
+    private static final String USAGE = """
+            Usage: SimulationRunner [options]
+              --scenario <mixed|packs|guards>  Population to spawn (default mixed)
+              --mobs <n>                       Number of mobs (default 1000)
+              --worlds <n>                     Number of worlds sharing the mobs (default 1)
+              --ticks <n>                      Measured ticks (default 1200)
+              --warmup <n>                     Ticks run before measuring (default 200)
+              --seed <n>                       Seed of spawns and behavior randomness (default 1)
+              --parallel-worlds                Update worlds in parallel""";
+
+    private SimulationRunner() {
+    }
+
+    public static void main(String[] args) {
+        Scenario scenario = Scenario.MIXED;
+        int mobs = 1000;
+        int worlds = 1;
+        int ticks = 1200;
+        int warmup = 200;
+        long seed = 1L;
+        boolean parallelWorlds = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--scenario" -> scenario = Scenario.parse(value(args, ++i));
+                    case "--mobs" -> mobs = Integer.parseInt(value(args, ++i));
+                    case "--worlds" -> worlds = Integer.parseInt(value(args, ++i));
+                    case "--ticks" -> ticks = Integer.parseInt(value(args, ++i));
+                    case "--warmup" -> warmup = Integer.parseInt(value(args, ++i));
+                    case "--seed" -> seed = Long.parseLong(value(args, ++i));
+                    case "--parallel-worlds" -> parallelWorlds = true;
+                    case "--help" -> {
+                        System.out.println(USAGE);
+                        return;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        SimulationReport report = new Simulation(scenario, mobs, worlds, seed, parallelWorlds).run(warmup, ticks);
+        System.out.println(report.format());
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,131 @@
+package me.astrix.entity.benchmarks.stub;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.StubMethod;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight Bukkit stand-ins for running the AI without a server.
+ * <p>
+ * Bukkit types are interfaces with hundreds of methods, so every stub is an abstract
+ * class implementing only what the AI calls. A concrete subclass generated once per
+ * stub class returns defaults from all other methods. The AI calls the stubs like any
+ * other class, without reflection or boxing, so allocation profiles of the benchmarks
+ * show what the AI allocates rather than what the stubs do.
+ * </p>
+ */
+public final class BukkitStubs {
+
+    private static final Logger LOGGER = Logger.getLogger("EntityAI-Benchmarks");
+    private static final Map<List<Class<?>>, Supplier<?>> FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        // Keep warnings logged by the library out of the benchmark output
+        LOGGER.setLevel(Level.OFF);
+        LOGGER.setUseParentHandlers(false);
+    }
+
+    private BukkitStubs() {
+    }
+
+    /**
+     * Installs a stub server as the Bukkit singleton, once per JVM.
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Bukkit.setServer(factory(StubServer.class).get());
+    }
+
+    /**
+     * Returns a factory of concrete instances of an abstract stub class. Abstract
+     * methods of the class and the extra interfaces return {@code null}, zero or
+     * {@code false}. Generated classes are cached, so this is cheap after the first call.
+     *
+     * @param stubClass The stub class, with a constructor without parameters
+     * @param extraTypes Additional interfaces the instances implement
+     * @param <T> Type of the stub class
+     * @return The factory
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Supplier<T> factory(Class<T> stubClass, Class<?>... extraTypes) {
+        List<Class<?>> key = new ArrayList<>(extraTypes.length + 1);
+        key.add(stubClass);
+        key.addAll(Arrays.asList(extraTypes));
+        return (Supplier<T>) FACTORIES.computeIfAbsent(key, types -> generate(stubClass, extraTypes));
+    }
+
+    private static <T> Supplier<T> generate(Class<T> stubClass, Class<?>[] extraTypes) {
+        try {
+            // Defined next to the stub class, so package-private stubs can be subclassed
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(stubClass, MethodHandles.lookup());
+            Class<? extends T> type = new ByteBuddy()
+                    .subclass(stubClass)
+                    .implement(extraTypes)
+                    .method(ElementMatchers.isAbstract())
+                    .intercept(StubMethod.INSTANCE)
+                    .make()
+                    .load(stubClass.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(lookup))
+                    .getLoaded();
+
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return stubClass.cast((Object) constructor.invokeExact());
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Cannot create a stub " + stubClass.getSimpleName(), e);
+                }
+            };
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot generate a stub " + stubClass.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * The stub server, which answers the few calls the AI makes outside of worlds.
+     */
+    abstract static class StubServer implements Server {
+
+        @Override
+        public Logger getLogger() {
+            return LOGGER;
+        }
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public String getVersion() {
+            return "stub";
+        }
+
+        @Override
+        public String getBukkitVersion() {
+            return "stub";
+        }
+
+        @Override
+        public boolean isPrimaryThread() {
+            return true;
+        }
+    }
+}
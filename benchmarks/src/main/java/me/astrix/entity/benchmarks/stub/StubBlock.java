@@ -0,0 +1,92 @@
+package me.astrix.entity.benchmarks.stub;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
+
+import java.util.function.Supplier;
+
+/**
+ * Stub {@link Block}, a position in a {@link StubWorld} that reads and changes its material.
+ */
+abstract class StubBlock implements Block {
+
+    private static final Supplier<StubBlock> FACTORY = BukkitStubs.factory(StubBlock.class);
+
+    private StubWorld world;
+    private int x;
+    private int y;
+    private int z;
+
+    static StubBlock at(StubWorld world, int x, int y, int z) {
+        StubBlock block = FACTORY.get();
+        block.world = world;
+        block.x = x;
+        block.y = y;
+        block.z = z;
+        return block;
+    }
+
+    @Override
+    public Material getType() {
+        return world.getType(x, y, z);
+    }
+
+    @Override
+    public void setType(Material type) {
+        world.setType(x, y, z, type);
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getZ() {
+        return z;
+    }
+
+    @Override
+    public World getWorld() {
+        return world.world();
+    }
+
+    @Override
+    public Location getLocation() {
+        return new Location(world.world(), x, y, z);
+    }
+
+    @Override
+    public Location getLocation(Location location) {
+        if (location != null) {
+            location.setWorld(world.world());
+            location.setX(x);
+            location.setY(y);
+            location.setZ(z);
+        }
+        return location;
+    }
+
+    @Override
+    public Biome getBiome() {
+        return Biome.PLAINS;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getType().isAir();
+    }
+
+    @Override
+    public boolean isPassable() {
+        return !getType().isSolid();
+    }
+}
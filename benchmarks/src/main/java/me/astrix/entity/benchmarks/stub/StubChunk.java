@@ -0,0 +1,60 @@
+package me.astrix.entity.benchmarks.stub;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+import java.util.function.Supplier;
+
+/**
+ * Stub {@link Chunk} of a {@link StubWorld}. Chunks are always loaded, and their
+ * snapshots read the world's current blocks.
+ */
+abstract class StubChunk implements Chunk {
+
+    private static final Supplier<StubChunk> FACTORY = BukkitStubs.factory(StubChunk.class);
+
+    private StubWorld world;
+    private int chunkX;
+    private int chunkZ;
+    private StubChunkSnapshot snapshot;
+
+    static StubChunk at(StubWorld world, int chunkX, int chunkZ) {
+        StubChunk chunk = FACTORY.get();
+        chunk.world = world;
+        chunk.chunkX = chunkX;
+        chunk.chunkZ = chunkZ;
+        chunk.snapshot = StubChunkSnapshot.of(world, chunkX, chunkZ);
+        return chunk;
+    }
+
+    @Override
+    public int getX() {
+        return chunkX;
+    }
+
+    @Override
+    public int getZ() {
+        return chunkZ;
+    }
+
+    @Override
+    public World getWorld() {
+        return world.world();
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return true;
+    }
+
+    @Override
+    public ChunkSnapshot getChunkSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public ChunkSnapshot getChunkSnapshot(boolean includeMaxBlockY, boolean includeBiome, boolean includeBiomeTempRain) {
+        return snapshot;
+    }
+}
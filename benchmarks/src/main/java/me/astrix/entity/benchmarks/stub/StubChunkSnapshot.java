@@ -0,0 +1,53 @@
+package me.astrix.entity.benchmarks.stub;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+
+import java.util.function.Supplier;
+
+/**
+ * Stub {@link ChunkSnapshot} of a {@link StubWorld}. It reads the world's current
+ * blocks rather than a copy, which is equivalent while nothing changes them during a tick.
+ */
+abstract class StubChunkSnapshot implements ChunkSnapshot {
+
+    private static final Supplier<StubChunkSnapshot> FACTORY = BukkitStubs.factory(StubChunkSnapshot.class);
+
+    private StubWorld world;
+    private int chunkX;
+    private int chunkZ;
+
+    static StubChunkSnapshot of(StubWorld world, int chunkX, int chunkZ) {
+        StubChunkSnapshot snapshot = FACTORY.get();
+        snapshot.world = world;
+        snapshot.chunkX = chunkX;
+        snapshot.chunkZ = chunkZ;
+        return snapshot;
+    }
+
+    @Override
+    public int getX() {
+        return chunkX;
+    }
+
+    @Override
+    public int getZ() {
+        return chunkZ;
+    }
+
+    @Override
+    public String getWorldName() {
+        return world.world().getName();
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        return world.getType((chunkX << 4) + x, y, (chunkZ << 4) + z);
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        return Biome.PLAINS;
+    }
+}
@@ -0,0 +1,268 @@
+package me.astrix.entity.benchmarks.stub;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.util.Vector;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stub {@link Mob}. Mobs stay where they were spawned unless teleported, and damage
+ * is ignored, so the population is identical across benchmark iterations. In a
+ * {@link StubWorld#simulate simulated} world they move by their velocity and die
+ * once their health runs out.
+ */
+abstract class StubMob implements Mob {
+
+    private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger();
+    private static final long UUID_MOST_BITS = 0x53747562_4D6F6200L;
+
+    // Per tick, roughly as applied to vanilla mobs
+    private static final double GRAVITY = 0.08;
+    private static final double AIR_DRAG = 0.98;
+    private static final double GROUND_FRICTION = 0.546;
+    private static final double AIR_FRICTION = 0.91;
+    private static final double MAX_HEALTH = 20.0;
+
+    private final int entityId = NEXT_ENTITY_ID.incrementAndGet();
+    // Derived from the entity id, so simulations spawning in the same order get the same ids
+    private final UUID uniqueId = new UUID(UUID_MOST_BITS, entityId);
+    private final Vector velocity = new Vector();
+    private StubWorld world;
+    private EntityType type;
+    private double x;
+    private double y;
+    private double z;
+    private boolean onGround = true;
+    private double health = MAX_HEALTH;
+    private LivingEntity target;
+    private String customName;
+    private boolean removed;
+
+    /**
+     * Creates a mob, which implements the interface of its type when that is a {@link Mob}.
+     *
+     * @param world The world
+     * @param type The entity type
+     * @param x Spawn x coordinate
+     * @param y Spawn y coordinate
+     * @param z Spawn z coordinate
+     * @return The mob
+     */
+    static StubMob spawn(StubWorld world, EntityType type, double x, double y, double z) {
+        Class<?> entityClass = type.getEntityClass();
+        StubMob mob = entityClass != null && entityClass.isInterface() && Mob.class.isAssignableFrom(entityClass)
+                ? BukkitStubs.factory(StubMob.class, entityClass).get()
+                : BukkitStubs.factory(StubMob.class).get();
+        mob.world = world;
+        mob.type = type;
+        mob.x = x;
+        mob.y = y;
+        mob.z = z;
+        return mob;
+    }
+
+    @Override
+    public Location getLocation() {
+        return new Location(world.world(), x, y, z);
+    }
+
+    @Override
+    public Location getLocation(Location location) {
+        if (location != null) {
+            location.setWorld(world.world());
+            location.setX(x);
+            location.setY(y);
+            location.setZ(z);
+        }
+        return location;
+    }
+
+    @Override
+    public World getWorld() {
+        return world.world();
+    }
+
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public EntityType getType() {
+        return type;
+    }
+
+    @Override
+    public String getName() {
+        return customName != null ? customName : type.name();
+    }
+
+    @Override
+    public boolean isDead() {
+        return removed;
+    }
+
+    @Override
+    public boolean isValid() {
+        return !removed;
+    }
+
+    @Override
+    public boolean isOnGround() {
+        return onGround;
+    }
+
+    @Override
+    public double getHealth() {
+        return health;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public double getMaxHealth() {
+        return MAX_HEALTH;
+    }
+
+    @Override
+    public void damage(double amount) {
+        if (!world.isSimulated() || removed) {
+            return;
+        }
+
+        health -= amount;
+        if (health <= 0) {
+            health = 0;
+            removed = true;
+            world.died(this);
+        }
+    }
+
+    @Override
+    public void damage(double amount, Entity source) {
+        damage(amount);
+    }
+
+    @Override
+    public Vector getVelocity() {
+        return velocity.clone();
+    }
+
+    @Override
+    public void setVelocity(Vector velocity) {
+        this.velocity.copy(velocity);
+    }
+
+    @Override
+    public boolean teleport(Location location) {
+        x = location.getX();
+        y = location.getY();
+        z = location.getZ();
+        return true;
+    }
+
+    @Override
+    public LivingEntity getTarget() {
+        return target;
+    }
+
+    @Override
+    public void setTarget(LivingEntity target) {
+        this.target = target;
+    }
+
+    @Override
+    public String getCustomName() {
+        return customName;
+    }
+
+    @Override
+    public void setCustomName(String customName) {
+        this.customName = customName;
+    }
+
+    @Override
+    public boolean isAware() {
+        return true;
+    }
+
+    @Override
+    public void remove() {
+        removed = true;
+        world.remove(this);
+    }
+
+    @Override
+    public String toString() {
+        return "StubMob{" + type + " #" + entityId + "}";
+    }
+
+    /**
+     * Moves the mob by its velocity for one tick. Mobs are two blocks tall and step
+     * up single blocks while on the ground.
+     */
+    void step() {
+        double vx = velocity.getX();
+        double vy = (velocity.getY() - GRAVITY) * AIR_DRAG;
+        double vz = velocity.getZ();
+
+        if (moveHorizontally(x + vx, z)) {
+            x += vx;
+        } else {
+            vx = 0;
+        }
+        if (moveHorizontally(x, z + vz)) {
+            z += vz;
+        } else {
+            vz = 0;
+        }
+
+        double nextY = y + vy;
+        if (vy < 0 && world.isSolid(floor(x), floor(nextY), floor(z))) {
+            y = floor(nextY) + 1;
+            vy = 0;
+            onGround = true;
+        } else if (vy > 0 && world.isSolid(floor(x), floor(nextY) + 1, floor(z))) {
+            vy = 0;
+        } else {
+            y = nextY;
+            onGround = false;
+        }
+
+        double friction = onGround ? GROUND_FRICTION : AIR_FRICTION;
+        velocity.setX(vx * friction).setY(vy).setZ(vz * friction);
+    }
+
+    /**
+     * Checks whether the mob fits at a horizontal position, stepping up onto a single block if needed.
+     */
+    private boolean moveHorizontally(double nextX, double nextZ) {
+        int blockX = floor(nextX);
+        int blockY = floor(y);
+        int blockZ = floor(nextZ);
+        if (!world.isSolid(blockX, blockY, blockZ) && !world.isSolid(blockX, blockY + 1, blockZ)) {
+            return true;
+        }
+
+        if (onGround && !world.isSolid(blockX, blockY + 1, blockZ) && !world.isSolid(blockX, blockY + 2, blockZ)
+                && !world.isSolid(floor(x), blockY + 2, floor(z))) {
+            y = blockY + 1;
+            return true;
+        }
+        return false;
+    }
+
+    private static int floor(double value) {
+        return (int) Math.floor(value);
+    }
+}
@@ -0,0 +1,320 @@
+package me.astrix.entity.benchmarks.stub;
+
+import me.astrix.entity.utils.LongObjectHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.HeightMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.entity.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Stub world with a flat grass plain at {@link #GROUND_Y}, crossed by one block high
+ * stone walls with gaps so navigation has obstacles to path around.
+ * All chunks are loaded and there are no players.
+ * <p>
+ * Blocks changed with {@link #setType(int, int, int, Material)} are kept in memory on
+ * top of the generated terrain. Time, weather, mob movement and damage only take
+ * effect in worlds a simulation {@link #step() steps}, so benchmark iterations always
+ * see the same world.
+ * </p>
+ */
+public final class StubWorld {
+
+    public static final int GROUND_Y = 64;
+    private static final int MIN_HEIGHT = -64;
+    private static final int MAX_HEIGHT = 320;
+    private static final int WALL_SPACING = 24;
+    private static final int GAP_SPACING = 8;
+    private static final Supplier<View> VIEWS = BukkitStubs.factory(View.class);
+
+    private final UUID uid;
+    private final String name;
+    private final List<LivingEntity> livingEntities = new ArrayList<>();
+    private final List<StubMob> mobs = new ArrayList<>();
+    private final LongObjectHashMap<Material> changedBlocks = new LongObjectHashMap<>(64);
+    private final View world;
+
+    private long time = 6000L;
+    private boolean storm;
+    private boolean thundering;
+    private boolean simulated;
+    private Consumer<LivingEntity> deathListener = entity -> {
+    };
+
+    /**
+     * Creates a world. Its UUID is derived from the name, so names must be unique per AI instance.
+     *
+     * @param name The world name
+     */
+    public StubWorld(String name) {
+        this.name = name;
+        this.uid = UUID.nameUUIDFromBytes(("StubWorld:" + name).getBytes(StandardCharsets.UTF_8));
+        this.world = VIEWS.get();
+        this.world.stub = this;
+    }
+
+    /**
+     * @return The Bukkit view of this world
+     */
+    public World world() {
+        return world;
+    }
+
+    /**
+     * Spawns a stub mob and adds it to the world.
+     *
+     * @param location Spawn location
+     * @param type Entity type, its interface is implemented by the stub when it is a {@link Mob}
+     * @return The mob
+     */
+    public Mob spawn(Location location, EntityType type) {
+        StubMob mob = StubMob.spawn(this, type, location.getX(), location.getY(), location.getZ());
+        mobs.add(mob);
+        livingEntities.add(mob);
+        return mob;
+    }
+
+    void remove(StubMob mob) {
+        mobs.remove(mob);
+        livingEntities.remove(mob);
+    }
+
+    void died(StubMob mob) {
+        remove(mob);
+        deathListener.accept(mob);
+    }
+
+    /**
+     * @return The number of living entities in the world
+     */
+    public int size() {
+        return livingEntities.size();
+    }
+
+    /**
+     * Makes the world simulated: mobs take damage and die, and {@link #step()} moves them.
+     *
+     * @param deathListener Called with every mob that dies
+     */
+    public void simulate(Consumer<LivingEntity> deathListener) {
+        this.simulated = true;
+        this.deathListener = deathListener;
+    }
+
+    boolean isSimulated() {
+        return simulated;
+    }
+
+    /**
+     * Advances a simulated world by one tick: the time of day moves on and every
+     * mob moves by its velocity, with gravity, friction and block collisions.
+     */
+    public void step() {
+        if (!simulated) {
+            throw new IllegalStateException("World is not simulated");
+        }
+
+        time++;
+        for (int i = 0, size = mobs.size(); i < size; i++) {
+            mobs.get(i).step();
+        }
+    }
+
+    /**
+     * Sets the weather.
+     *
+     * @param storm Whether it rains
+     * @param thundering Whether it thunders
+     */
+    public void setWeather(boolean storm, boolean thundering) {
+        this.storm = storm;
+        this.thundering = thundering;
+    }
+
+    /**
+     * Changes a block. Nothing is notified; callers invalidate the AI's caches themselves.
+     *
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @param material The new material
+     */
+    public void setType(int x, int y, int z, Material material) {
+        changedBlocks.put(blockKey(x, y, z), material);
+    }
+
+    /**
+     * Returns the material at a block position.
+     *
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @return The changed material, or the generated one
+     */
+    public Material getType(int x, int y, int z) {
+        if (changedBlocks.size() > 0) {
+            Material changed = changedBlocks.get(blockKey(x, y, z));
+            if (changed != null) {
+                return changed;
+            }
+        }
+        return generatedAt(x, y, z);
+    }
+
+    /**
+     * Checks whether a block stops movement.
+     */
+    boolean isSolid(int x, int y, int z) {
+        return y < MIN_HEIGHT || (y < MAX_HEIGHT && getType(x, y, z).isSolid());
+    }
+
+    /**
+     * Returns the generated terrain material at a block position.
+     */
+    static Material generatedAt(int x, int y, int z) {
+        if (y < GROUND_Y - 1) {
+            return Material.STONE;
+        }
+        if (y == GROUND_Y - 1) {
+            return Material.GRASS_BLOCK;
+        }
+        if (y == GROUND_Y && Math.floorMod(x, WALL_SPACING) == 0 && Math.floorMod(z, GAP_SPACING) != 0) {
+            return Material.STONE;
+        }
+        return Material.AIR;
+    }
+
+    private int highestBlockY(int x, int z) {
+        int y = MAX_HEIGHT - 1;
+        while (y > MIN_HEIGHT && getType(x, y, z) == Material.AIR) {
+            y--;
+        }
+        return y;
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    /**
+     * The Bukkit view of a stub world.
+     */
+    abstract static class View implements World {
+
+        private StubWorld stub;
+
+        @Override
+        public UUID getUID() {
+            return stub.uid;
+        }
+
+        @Override
+        public String getName() {
+            return stub.name;
+        }
+
+        @Override
+        public List<LivingEntity> getLivingEntities() {
+            return stub.livingEntities;
+        }
+
+        @Override
+        public List<Entity> getEntities() {
+            return new ArrayList<>(stub.livingEntities);
+        }
+
+        @Override
+        public List<Player> getPlayers() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public int getMinHeight() {
+            return MIN_HEIGHT;
+        }
+
+        @Override
+        public int getMaxHeight() {
+            return MAX_HEIGHT;
+        }
+
+        @Override
+        public boolean isChunkLoaded(int x, int z) {
+            return true;
+        }
+
+        @Override
+        public boolean isChunkLoaded(Chunk chunk) {
+            return true;
+        }
+
+        @Override
+        public Chunk getChunkAt(int x, int z) {
+            return StubChunk.at(stub, x, z);
+        }
+
+        @Override
+        public Block getBlockAt(int x, int y, int z) {
+            return StubBlock.at(stub, x, y, z);
+        }
+
+        @Override
+        public Block getBlockAt(Location location) {
+            return StubBlock.at(stub, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
+
+        @Override
+        public int getHighestBlockYAt(int x, int z) {
+            return stub.highestBlockY(x, z);
+        }
+
+        @Override
+        public int getHighestBlockYAt(int x, int z, HeightMap heightMap) {
+            return stub.highestBlockY(x, z);
+        }
+
+        @Override
+        public long getTime() {
+            return stub.time;
+        }
+
+        @Override
+        public long getFullTime() {
+            return stub.time;
+        }
+
+        @Override
+        public boolean hasStorm() {
+            return stub.storm;
+        }
+
+        @Override
+        public boolean isThundering() {
+            return stub.thundering;
+        }
+
+        @Override
+        public Entity spawnEntity(Location location, EntityType type) {
+            return stub.spawn(location, type);
+        }
+
+        @Override
+        public String toString() {
+            return "StubWorld{" + stub.name + "}";
+        }
+    }
+}
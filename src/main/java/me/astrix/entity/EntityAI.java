@@ -1,14 +1,53 @@
 package me.astrix.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import me.astrix.entity.commands.AIStatsCommand;
+import me.astrix.entity.enums.LodTier;
+import me.astrix.entity.enums.TickMode;
+import me.astrix.entity.jfr.AITickEvent;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.behaviors.impl.WeatherReactiveBehavior;
+import me.astrix.entity.lifecycle.HibernationStore;
+import me.astrix.entity.listeners.BehaviorTriggerListener;
+import me.astrix.entity.listeners.LifecycleListener;
+import me.astrix.entity.listeners.WalkabilityListener;
 import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.ManagerRegistry;
+import me.astrix.entity.managers.PackManager;
+import me.astrix.entity.metrics.AIMetrics;
+import me.astrix.entity.navigation.FlowFieldService;
+import me.astrix.entity.navigation.PathRequestService;
+import me.astrix.entity.navigation.ShelterIndex;
+import me.astrix.entity.navigation.WalkabilityCache;
+import me.astrix.entity.navigation.pathfinding.BlockPositions;
+import me.astrix.entity.navigation.pathfinding.PathCache;
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import me.astrix.entity.perception.WeatherCache;
+import me.astrix.entity.pipeline.AIPipeline;
+import me.astrix.entity.population.MobPopulation;
+import me.astrix.entity.scheduler.AIScheduler;
+import me.astrix.entity.scheduler.GlobalTickScheduler;
+import me.astrix.entity.scheduler.RegionScheduler;
+import me.astrix.entity.signals.SignalBus;
+import me.astrix.entity.signals.TriggerDispatcher;
+import me.astrix.entity.spatial.SpatialIndex;
+import me.astrix.entity.trace.TraceRecorder;
+import me.astrix.entity.utils.LongIntHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
 
 @Getter
 public class EntityAI {
@@ -16,8 +55,62 @@ public class EntityAI {
     @Getter
     private static EntityAI instance;
     private final Plugin plugin;
-    private final List<AIManager> managedEntities;
-    private BukkitTask aiUpdateTask;
+    private final ManagerRegistry registry;
+    private final SpatialIndex spatialIndex;
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<PathFinder> pathFinders = ThreadLocal.withInitial(PathFinder::new);
+    private final PathCache pathCache;
+    private final PathRequestService pathRequests;
+    private final WalkabilityCache walkabilityCache;
+    private final FlowFieldService flowFields;
+    private final ShelterIndex shelterIndex;
+    private final WeatherCache weatherCache;
+    private final SignalBus signalBus;
+    private final AIPipeline pipeline;
+    private final HibernationStore hibernationStore;
+    private final AIMetrics metrics;
+    private final TraceRecorder traceRecorder;
+    private AIScheduler scheduler;
+    @Getter(AccessLevel.NONE)
+    private SplittableRandom seeds;
+
+    private TickMode tickMode = TickMode.FULL;
+    private long tickBudgetNanos = DEFAULT_TICK_BUDGET_NANOS;
+    private int maxStarvationTicks = DEFAULT_MAX_STARVATION_TICKS;
+    private int maxStarvedUpdates = DEFAULT_MAX_STARVED_UPDATES;
+    // Registry index the budgeted update resumes at, kept in case the manager there is removed
+    private int roundRobinCursor;
+    // The manager the budgeted update resumes at, followed when the registry moves it
+    @Getter(AccessLevel.NONE)
+    private AIManager roundRobinNext;
+    private long currentTick;
+
+    private boolean lodEnabled = true;
+    private double lodNearDistance = DEFAULT_LOD_NEAR_DISTANCE;
+    private double lodMediumDistance = DEFAULT_LOD_MEDIUM_DISTANCE;
+    @Getter(AccessLevel.NONE)
+    private final int[] lodIntervals = {1, 4, 20}; // Indexed by LodTier ordinal
+    @Getter(AccessLevel.NONE)
+    private final List<AIManager> dueManagers = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final List<MobPopulation> populations = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final List<PackManager> packs = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final LongIntHashMap preparedSections = new LongIntHashMap(64);
+    @Getter(AccessLevel.NONE)
+    private final Location prepareLocation = new Location(null, 0, 0, 0);
+
+    private static final long DEFAULT_TICK_BUDGET_NANOS = 10_000_000L; // 10 ms of the 50 ms tick
+    private static final int DEFAULT_MAX_STARVATION_TICKS = 20;
+    private static final int DEFAULT_MAX_STARVED_UPDATES = 128;
+    private static final double DEFAULT_LOD_NEAR_DISTANCE = 16.0;
+    private static final double DEFAULT_LOD_MEDIUM_DISTANCE = 48.0;
+    private static final int LOD_REFRESH_TICKS = 10;
+    private static final int SWEEP_INTERVAL_TICKS = 20;
+    private static final int HIBERNATION_EXPIRY_INTERVAL_TICKS = 1200;
+    // Paths closer than this are searched while updating, further ones from a snapshot
+    private static final int PREPARE_CHUNK_RADIUS = 2;
 
     /**
      * Constructor for the EntityAI class.
@@ -25,54 +118,663 @@ public class EntityAI {
      * @param plugin The instance of the plugin using this AI library.
      */
     public EntityAI(JavaPlugin plugin) {
+        this((Plugin) plugin);
+
+        plugin.getServer().getPluginManager().registerEvents(new WalkabilityListener(walkabilityCache), plugin);
+        plugin.getServer().getPluginManager().registerEvents(new BehaviorTriggerListener(this), plugin);
+        plugin.getServer().getPluginManager().registerEvents(new LifecycleListener(this), plugin);
+
+        this.scheduler = new GlobalTickScheduler();
+        if (RegionScheduler.isSupported()) {
+            // Region-threaded servers have no main thread to tick on, the region scheduler is opt-in
+            Bukkit.getLogger().warning("EntityAI does not tick on region-threaded servers until a scheduler"
+                    + " is installed with setScheduler, see RegionScheduler");
+        } else {
+            startAIUpdateLoop();
+        }
+    }
+
+    /**
+     * Creates an instance that is not bound to a plugin, for benchmarks and simulations.
+     * No listeners are registered and no update loop is scheduled; the caller advances
+     * the AI by calling {@link #tick()}.
+     */
+    public EntityAI() {
+        this((Plugin) null);
+        this.scheduler = new GlobalTickScheduler();
+    }
+
+    private EntityAI(Plugin plugin) {
         instance = this;
         this.plugin = plugin;
-        this.managedEntities = new ArrayList<>();
+        this.registry = new ManagerRegistry();
+        this.spatialIndex = new SpatialIndex();
+        this.pathCache = new PathCache();
+        this.walkabilityCache = new WalkabilityCache();
+        this.pathRequests = new PathRequestService(walkabilityCache, pathCache);
+        this.flowFields = new FlowFieldService(walkabilityCache);
+        this.shelterIndex = new ShelterIndex(walkabilityCache);
+        this.weatherCache = new WeatherCache();
+        this.signalBus = new SignalBus(walkabilityCache);
+        new TriggerDispatcher(registry).register(signalBus);
+        this.pipeline = new AIPipeline();
+        this.hibernationStore = new HibernationStore();
+        this.metrics = new AIMetrics();
+        this.traceRecorder = new TraceRecorder();
+    }
+
+    /**
+     * Binds the AI statistics command to a command declared in the plugin's plugin.yml.
+     *
+     * @param name Name of the command as declared in plugin.yml
+     */
+    public void registerStatsCommand(String name) {
+        if (!(plugin instanceof JavaPlugin javaPlugin)) {
+            throw new IllegalStateException("Commands cannot be registered without a plugin");
+        }
+
+        PluginCommand command = javaPlugin.getCommand(name);
+        if (command == null) {
+            throw new IllegalArgumentException("Command " + name + " is not declared in plugin.yml");
+        }
 
-        // Optional: Start AI update loop
-        startAIUpdateLoop();
+        AIStatsCommand executor = new AIStatsCommand(this);
+        command.setExecutor(executor);
+        command.setTabCompleter(executor);
     }
 
     /**
      * Adds an entity to be managed by the AI system.
+     * May be called from any thread; managers created off the main thread start
+     * updating on the next tick.
      *
      * @param entity The mob entity to be managed.
      * @return The created AIManager for the entity.
      */
     public AIManager createAIForEntity(Mob entity) {
         AIManager aiManager = new AIManager(entity);
-        managedEntities.add(aiManager);
+        registry.add(aiManager);
+        scheduler.track(aiManager);
         return aiManager;
     }
 
+    /**
+     * Returns the managed entities.
+     *
+     * @return A copy of the registered managers
+     */
+    public List<AIManager> getManagedEntities() {
+        return registry.snapshot();
+    }
+
+    /**
+     * Returns the manager of an entity.
+     *
+     * @param entity The entity
+     * @return The entity's AIManager, or {@code null} if it is not managed
+     */
+    public AIManager getManager(Entity entity) {
+        return registry.get(entity.getUniqueId());
+    }
+
+    /**
+     * Creates a pack whose leader runs the given behaviors while the other members follow it.
+     *
+     * @param leaderBehaviors Factories of the behaviors run by the pack leader
+     * @return The new, empty pack
+     */
+    public PackManager createPack(BehaviorFactory... leaderBehaviors) {
+        PackManager pack = new PackManager(List.of(leaderBehaviors));
+        packs.add(pack);
+        return pack;
+    }
+
+    /**
+     * Stops updating a pack and removes the pack behaviors from its members.
+     *
+     * @param pack The pack
+     */
+    public void removePack(PackManager pack) {
+        packs.remove(pack);
+        pack.disband();
+    }
+
+    /**
+     * Creates a structure-of-arrays population for large numbers of simple mobs,
+     * updated every tick by its kernels instead of per-mob managers.
+     *
+     * @param world The world of the population's mobs
+     * @return The new, empty population
+     * @throws IllegalStateException If the AI runs on a {@link RegionScheduler}, where no
+     *                               thread may move mobs of every region in batch
+     */
+    public MobPopulation createPopulation(World world) {
+        if (scheduler instanceof RegionScheduler) {
+            throw new IllegalStateException("Populations are not supported on region-threaded servers");
+        }
+        MobPopulation population = new MobPopulation(world);
+        populations.add(population);
+        return population;
+    }
+
+    /**
+     * Stops updating a population and removes its mobs.
+     *
+     * @param population The population
+     */
+    public void removePopulation(MobPopulation population) {
+        populations.remove(population);
+        population.clear();
+    }
+
     /**
      * Removes an entity from AI management.
      *
      * @param aiManager The AIManager to remove.
      */
     public void removeAIManager(AIManager aiManager) {
-        managedEntities.remove(aiManager);
+        registry.remove(aiManager);
+    }
+
+    /**
+     * Removes an entity from AI management and detaches its behaviors,
+     * so the manager and behaviors can be garbage collected.
+     *
+     * @param aiManager The AIManager to release.
+     */
+    public void releaseAIManager(AIManager aiManager) {
+        removeAIManager(aiManager);
+        aiManager.clearBehaviors();
+        hibernationStore.discard(aiManager.getEntity().getUniqueId());
+    }
+
+    /**
+     * Stores the state of an entity's AI in the {@link HibernationStore} and releases
+     * its manager. Called when the entity unloads.
+     *
+     * @param aiManager The AIManager to hibernate.
+     */
+    public void hibernate(AIManager aiManager) {
+        hibernationStore.store(aiManager, currentTick);
+        removeAIManager(aiManager);
+        aiManager.clearBehaviors();
+    }
+
+    /**
+     * Rebuilds the AI of an entity that was hibernated. Called when the entity loads again.
+     *
+     * @param entity The loaded mob.
+     * @return The new AIManager, or {@code null} if the entity was not hibernated or is already managed.
+     */
+    public AIManager rehydrate(Mob entity) {
+        if (!hibernationStore.contains(entity.getUniqueId()) || getManager(entity) != null) {
+            return null;
+        }
+
+        AIManager aiManager = createAIForEntity(entity);
+        hibernationStore.restore(aiManager);
+        return aiManager;
+    }
+
+    /**
+     * Returns the path finder of the calling thread. Path finders keep their search
+     * state between calls, so managers updating in parallel each use their own.
+     *
+     * @return The calling thread's path finder
+     */
+    public PathFinder getPathFinder() {
+        return pathFinders.get();
+    }
+
+    /**
+     * Seeds the random generators of behaviors created from now on, so headless
+     * simulations creating behaviors in the same order behave the same on every run.
+     *
+     * @param seed The seed
+     */
+    public synchronized void setRandomSeed(long seed) {
+        this.seeds = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates a random generator for a behavior, seeded from the {@link #setRandomSeed(long)
+     * random seed} when one is set.
+     *
+     * @return A new random generator
+     */
+    public synchronized Random newRandom() {
+        return seeds != null ? new Random(seeds.nextLong()) : new Random();
+    }
+
+    /**
+     * Replaces the scheduler deciding on which threads the AI ticks and managers update.
+     * Defaults to the {@link GlobalTickScheduler}. On region-threaded servers, where it
+     * cannot run, the AI does not tick until a scheduler such as the experimental
+     * {@link RegionScheduler} is installed.
+     *
+     * @param scheduler The new scheduler
+     */
+    public void setScheduler(AIScheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("Scheduler cannot be null");
+        }
+        if (scheduler instanceof RegionScheduler && !populations.isEmpty()) {
+            throw new IllegalStateException("Populations are not supported on region-threaded servers");
+        }
+
+        this.scheduler.stop();
+        this.scheduler = scheduler;
+        if (plugin != null) {
+            startAIUpdateLoop();
+        }
+    }
+
+    /**
+     * Runs a task using an entity on the thread that owns it: immediately when called
+     * from that thread, otherwise once the owning thread gets to it. Use it for
+     * interactions with entities that may be updated by another thread, such as
+     * damaging the target of a behavior.
+     *
+     * @param entity The entity the task uses
+     * @param task The task
+     */
+    public void runFor(Entity entity, Runnable task) {
+        scheduler.execute(entity, task);
+    }
+
+    /**
+     * Damages an entity from the thread that owns it, see {@link #runFor(Entity, Runnable)}.
+     *
+     * @param target The entity to damage
+     * @param amount Amount of damage
+     * @param source The damaging entity, or {@code null}
+     */
+    public void damage(LivingEntity target, double amount, Entity source) {
+        if (scheduler.isOwnedByCurrentThread(target)) {
+            // Direct call without a task, the common case
+            applyDamage(target, amount, source);
+        } else {
+            scheduler.execute(target, () -> applyDamage(target, amount, source));
+        }
+    }
+
+    private static void applyDamage(LivingEntity target, double amount, Entity source) {
+        if (source != null) {
+            target.damage(amount, source);
+        } else {
+            target.damage(amount);
+        }
+    }
+
+    /**
+     * Sets how managed entities are updated each tick.
+     *
+     * @param tickMode {@link TickMode#FULL} to update every manager each tick (default),
+     *                 or {@link TickMode#BUDGETED} to update round-robin within the tick budget.
+     *                 The budget applies while managers update on a single thread.
+     */
+    public void setTickMode(TickMode tickMode) {
+        if (tickMode == null) {
+            throw new IllegalArgumentException("Tick mode cannot be null");
+        }
+        this.tickMode = tickMode;
+    }
+
+    /**
+     * Sets the time the budgeted scheduler may spend updating managers per tick.
+     *
+     * @param tickBudgetNanos Budget in nanoseconds, must be positive
+     */
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        if (tickBudgetNanos <= 0) {
+            throw new IllegalArgumentException("Tick budget must be positive");
+        }
+        this.tickBudgetNanos = tickBudgetNanos;
+    }
+
+    /**
+     * Sets how many consecutive ticks a manager may be skipped by the budgeted
+     * scheduler before it is updated regardless of the remaining budget.
+     *
+     * @param maxStarvationTicks Maximum number of skipped ticks, must not be negative
+     */
+    public void setMaxStarvationTicks(int maxStarvationTicks) {
+        if (maxStarvationTicks < 0) {
+            throw new IllegalArgumentException("Max starvation ticks cannot be negative");
+        }
+        this.maxStarvationTicks = maxStarvationTicks;
+    }
+
+    /**
+     * Sets how many starved managers the budgeted scheduler updates per tick beyond the
+     * budget. The others stay starved and are updated on the following ticks.
+     *
+     * @param maxStarvedUpdates Maximum number of starved managers updated per tick, must be positive
+     */
+    public void setMaxStarvedUpdates(int maxStarvedUpdates) {
+        if (maxStarvedUpdates <= 0) {
+            throw new IllegalArgumentException("Max starved updates must be positive");
+        }
+        this.maxStarvedUpdates = maxStarvedUpdates;
+    }
+
+    /**
+     * Enables or disables level-of-detail scheduling. When enabled (default), managers
+     * far from every player are updated less often, see {@link #setLodInterval(LodTier, int)}.
+     *
+     * @param lodEnabled Whether update rates depend on the distance to the nearest player
+     */
+    public void setLodEnabled(boolean lodEnabled) {
+        this.lodEnabled = lodEnabled;
+        if (!lodEnabled) {
+            registry.forEach(manager -> manager.setLodTier(LodTier.NEAR));
+        }
+    }
+
+    /**
+     * Sets the player distances separating the level-of-detail tiers.
+     *
+     * @param nearDistance Managers within this distance of a player are {@link LodTier#NEAR}
+     * @param mediumDistance Managers within this distance of a player are {@link LodTier#MEDIUM},
+     *                       the others {@link LodTier#FAR}
+     */
+    public void setLodDistances(double nearDistance, double mediumDistance) {
+        if (nearDistance < 0 || mediumDistance < nearDistance) {
+            throw new IllegalArgumentException("LOD distances must satisfy 0 <= near <= medium");
+        }
+        this.lodNearDistance = nearDistance;
+        this.lodMediumDistance = mediumDistance;
+    }
+
+    /**
+     * Sets how often managers of a level-of-detail tier are updated.
+     * Defaults are every tick for {@link LodTier#NEAR}, every 4 ticks for
+     * {@link LodTier#MEDIUM} and every 20 ticks for {@link LodTier#FAR}.
+     *
+     * @param tier The tier
+     * @param intervalTicks Ticks between updates, must be positive
+     */
+    public void setLodInterval(LodTier tier, int intervalTicks) {
+        if (tier == null) {
+            throw new IllegalArgumentException("LOD tier cannot be null");
+        }
+        if (intervalTicks <= 0) {
+            throw new IllegalArgumentException("LOD interval must be positive");
+        }
+        lodIntervals[tier.ordinal()] = intervalTicks;
+    }
+
+    /**
+     * Returns how often managers of a level-of-detail tier are updated.
+     *
+     * @param tier The tier
+     * @return Ticks between updates
+     */
+    public int getLodInterval(LodTier tier) {
+        return lodIntervals[tier.ordinal()];
     }
 
     /**
      * Starts the AI update loop that runs every tick.
      */
     private void startAIUpdateLoop() {
-        aiUpdateTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
-            // Create a copy to avoid concurrent modification
-            List<AIManager> currentManagers = new ArrayList<>(managedEntities);
-            currentManagers.forEach(AIManager::update);
-        }, 0L, 1L); // Run every tick
+        scheduler.start(this);
+    }
+
+    /**
+     * Runs one AI tick: applies pending registry changes and worker decisions,
+     * then has the {@link AIScheduler} update the managers due this tick. Called
+     * every server tick by the scheduler; headless instances call it directly.
+     */
+    public void tick() {
+        AITickEvent event = new AITickEvent();
+        event.begin();
+        currentTick++;
+
+        // Apply managers added and removed from other threads since the previous tick
+        registry.flushPending();
+
+        // Catch entities that died, were removed or unloaded without an event
+        if (currentTick % SWEEP_INTERVAL_TICKS == 0) {
+            sweepInvalidManagers();
+        }
+        if (currentTick % HIBERNATION_EXPIRY_INTERVAL_TICKS == 0) {
+            hibernationStore.evictExpired(currentTick);
+        }
+
+        // Act: apply the decisions made on the workers since the previous tick
+        pipeline.applyDecisions(scheduler);
+
+        // Worlds are re-indexed lazily on their first query this tick
+        spatialIndex.nextTick();
+        walkabilityCache.flush();
+        flowFields.tick(currentTick);
+
+        // Deliver the world changes of the previous tick, firing triggers before managers update
+        signalBus.tick(currentTick);
+
+        // Packs refresh their leader, centroid and target before their members update
+        for (int i = 0, size = packs.size(); i < size; i++) {
+            packs.get(i).tick();
+        }
+
+        // Removals made while updating are deferred until the end of the tick
+        registry.beginIteration();
+        try {
+            // Sense: behaviors update on the scheduler's threads, pipelined ones submit snapshots
+            scheduler.updateManagers(this);
+        } finally {
+            registry.endIteration();
+        }
+
+        // Populations run their kernels over all mobs at once, every tick
+        for (int i = 0, size = populations.size(); i < size; i++) {
+            populations.get(i).tick(currentTick);
+        }
+
+        // Think: decide on the worker pool while the server finishes its tick
+        pipeline.dispatch();
+
+        if (event.shouldCommit()) {
+            event.setTick(currentTick);
+            event.setTickMode(tickMode.name());
+            event.setRegisteredManagers(registry.size());
+            event.setDueManagers(dueManagers.size());
+            event.commit();
+        }
+    }
+
+    /**
+     * Hibernates managers whose entity is in an unloaded chunk and releases
+     * the managers of entities that are dead or were removed.
+     */
+    private void sweepInvalidManagers() {
+        // Removing swaps the last manager into the hole, which this loop has already visited
+        for (int i = registry.size() - 1; i >= 0; i--) {
+            AIManager manager = registry.get(i);
+            Mob entity = manager.getEntity();
+            if (entity.isValid()) {
+                continue;
+            }
+
+            Location location = entity.getLocation();
+            boolean unloaded = !entity.isDead()
+                    && !location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            if (unloaded) {
+                hibernate(manager);
+            } else {
+                releaseAIManager(manager);
+            }
+        }
+    }
+
+    /**
+     * Collects the managers to update this tick. With level-of-detail scheduling,
+     * tiers are re-assigned every few ticks and managers are skipped between the
+     * updates of their tier, staggered so they do not all update on the same tick.
+     * Called by the {@link AIScheduler} during the tick.
+     *
+     * @return The managers due this tick, valid until the next call
+     */
+    public List<AIManager> collectDueManagers() {
+        dueManagers.clear();
+        for (int i = 0, size = registry.size(); i < size; i++) {
+            AIManager manager = registry.get(i);
+            if (isDue(manager)) {
+                dueManagers.add(manager);
+            }
+        }
+        return dueManagers;
+    }
+
+    private boolean isDue(AIManager manager) {
+        if (!lodEnabled) {
+            return true;
+        }
+
+        if ((currentTick + manager.getUpdatePhase()) % LOD_REFRESH_TICKS == 0) {
+            double distance = spatialIndex.nearestPlayerDistanceSquared(manager.getEntity());
+            manager.setLodTier(distance <= lodNearDistance * lodNearDistance ? LodTier.NEAR
+                    : distance <= lodMediumDistance * lodMediumDistance ? LodTier.MEDIUM : LodTier.FAR);
+        }
+        return manager.isDue(currentTick, lodIntervals[manager.getLodTier().ordinal()]);
+    }
+
+    /**
+     * Updates managers on the calling thread, all of them or, in {@link TickMode#BUDGETED}
+     * mode, as many as the tick budget allows. Called by the {@link AIScheduler} during the tick.
+     *
+     * @param managers The managers due this tick
+     */
+    public void updateManagers(List<AIManager> managers) {
+        if (tickMode == TickMode.BUDGETED) {
+            updateWithinBudget(managers);
+        } else {
+            for (int i = 0, size = managers.size(); i < size; i++) {
+                updateManager(managers.get(i));
+            }
+        }
+    }
+
+    /**
+     * Updates a manager due this tick on the thread owning its entity, for schedulers
+     * that update each manager from its entity's own task.
+     *
+     * @param manager The manager
+     */
+    public void updateOwnedManager(AIManager manager) {
+        if (manager.isRegistered() && isDue(manager)) {
+            manager.update();
+        }
+    }
+
+    /**
+     * Updates managers round-robin, continuing where the previous tick stopped,
+     * until the tick budget is spent. Managers that were not reached accumulate
+     * starvation and are updated anyway once they exceed {@code maxStarvationTicks},
+     * at most {@code maxStarvedUpdates} of them per tick.
+     * <p>
+     * The cursor follows the registry order rather than the due managers, which
+     * change from tick to tick with the level of detail.
+     * </p>
+     *
+     * @param currentManagers Snapshot of the managers to update this tick, in registry order
+     */
+    private void updateWithinBudget(List<AIManager> currentManagers) {
+        int size = currentManagers.size();
+        if (size == 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        int start = resumePosition(currentManagers);
+        int visited = 0;
+
+        // Always update at least one manager so the cursor keeps moving
+        do {
+            updateManager(currentManagers.get((start + visited) % size));
+            visited++;
+        } while (visited < size && System.nanoTime() - deadline < 0);
+
+        roundRobinNext = currentManagers.get((start + visited) % size);
+        roundRobinCursor = registry.indexOf(roundRobinNext);
+
+        // Age the managers that were skipped and rescue the ones starved for too long
+        int rescued = 0;
+        for (int i = visited; i < size; i++) {
+            AIManager manager = currentManagers.get((start + i) % size);
+            if (manager.markStarved() > maxStarvationTicks && rescued < maxStarvedUpdates) {
+                updateManager(manager);
+                rescued++;
+            }
+        }
+    }
+
+    /**
+     * Finds the first due manager at or after the registry index the previous budgeted update stopped at.
+     *
+     * @param currentManagers The managers due this tick, in registry order
+     * @return Position in the due managers to resume at
+     */
+    private int resumePosition(List<AIManager> currentManagers) {
+        int resumeIndex = roundRobinNext != null ? registry.indexOf(roundRobinNext) : -1;
+        if (resumeIndex < 0) {
+            resumeIndex = roundRobinCursor;
+        }
+        for (int i = 0, size = currentManagers.size(); i < size; i++) {
+            if (registry.indexOf(currentManagers.get(i)) >= resumeIndex) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads on the calling thread what updating managers of one world reads from it
+     * through the Bukkit API: the world's entities, and the walkability sections and
+     * shelter columns around each manager. Called by schedulers before updating the
+     * managers on a thread that {@link AIScheduler#canReadWorld(World) may not read the world}.
+     *
+     * @param managers The due managers of one world, not empty
+     */
+    public void prepareWorld(List<AIManager> managers) {
+        World world = managers.get(0).getEntity().getWorld();
+        spatialIndex.prepare(world);
+
+        // Managers in the same chunk section read the same terrain
+        preparedSections.clear();
+        for (int i = 0, size = managers.size(); i < size; i++) {
+            Location location = managers.get(i).getEntity().getLocation(prepareLocation);
+            int x = location.getBlockX();
+            int y = location.getBlockY();
+            int z = location.getBlockZ();
+            long section = BlockPositions.pack(x >> 4, y >> 4, z >> 4);
+            if (preparedSections.containsKey(section)) {
+                continue;
+            }
+            preparedSections.put(section, 1);
+
+            walkabilityCache.prepare(world, x, y, z, PREPARE_CHUNK_RADIUS);
+            shelterIndex.prepare(world, x, z, WeatherReactiveBehavior.SHELTER_SEARCH_RADIUS);
+        }
+    }
+
+    /**
+     * Updates a manager unless it was removed earlier in this tick.
+     *
+     * @param manager The manager to update
+     */
+    public void updateManager(AIManager manager) {
+        if (manager.isRegistered()) {
+            manager.update();
+        }
     }
 
     /**
      * Stops the AI update loop.
      */
     public void stopAIUpdateLoop() {
-        if (aiUpdateTask != null) {
-            aiUpdateTask.cancel();
-            aiUpdateTask = null;
-        }
+        scheduler.stop();
     }
 
     /**
@@ -80,6 +782,22 @@ public class EntityAI {
      */
     public void disable() {
         stopAIUpdateLoop();
-        managedEntities.clear();
+        pipeline.shutdown();
+        pathRequests.shutdown();
+        traceRecorder.stop();
+        registry.clear();
+        dueManagers.clear();
+        roundRobinNext = null;
+        hibernationStore.clear();
+        populations.forEach(MobPopulation::clear);
+        populations.clear();
+        packs.clear();
+        spatialIndex.clear();
+        pathCache.clear();
+        flowFields.clear();
+        shelterIndex.clear();
+        weatherCache.clear();
+        signalBus.clear();
+        walkabilityCache.clear();
     }
 }
@@ -1,9 +1,18 @@
 package me.astrix.entity.behaviors;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import me.astrix.entity.enums.BehaviorTrigger;
+import me.astrix.entity.enums.LodTier;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.perception.Blackboard;
+import org.bukkit.Location;
 import org.bukkit.entity.Mob;
 
+import java.util.Collections;
+import java.util.Set;
+
 @Getter
 @RequiredArgsConstructor
 public abstract class AIBehavior {
@@ -24,6 +33,18 @@ public abstract class AIBehavior {
      */
     protected boolean isActive;
 
+    /**
+     * The manager this behavior is registered with, or {@code null} while detached.
+     */
+    protected AIManager manager;
+
+    @Getter(AccessLevel.NONE)
+    private Blackboard detachedBlackboard;
+    @Getter(AccessLevel.NONE)
+    private Location detachedHomeLocation;
+
+    private static final int DEFAULT_MAX_STALENESS_TICKS = 20;
+
     /**
      * Called when the behavior starts.
      * Implementations should define what happens when the behavior is initiated.
@@ -51,4 +72,111 @@ public abstract class AIBehavior {
     public boolean canRun() {
         return true;
     }
+
+    /**
+     * Returns the events that can change the result of {@link #canRun()}.
+     * <p>
+     * Behaviors declaring triggers have {@code canRun()} re-evaluated only when one of them
+     * fires, when {@link AIManager#requestReevaluation()} is called, or after
+     * {@link #getMaxStalenessTicks()}. Behaviors without triggers (default) are polled
+     * on every update. Read once when the behavior is added to a manager.
+     * </p>
+     *
+     * @return The triggers of this behavior
+     */
+    public Set<BehaviorTrigger> getTriggers() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns the radius watched by {@link BehaviorTrigger#ENTITY_ENTERED_RADIUS}.
+     *
+     * @return Radius in blocks
+     */
+    public double getTriggerRadius() {
+        return 0.0;
+    }
+
+    /**
+     * Returns the maximum number of ticks a cached {@link #canRun()} result of a
+     * triggered behavior is reused before it is evaluated again.
+     *
+     * @return Maximum staleness in ticks
+     */
+    public int getMaxStalenessTicks() {
+        return DEFAULT_MAX_STALENESS_TICKS;
+    }
+
+    /**
+     * Returns a factory recreating this behavior with the same configuration.
+     * Used to rebuild the AI of entities that were unloaded; behaviors returning
+     * {@code null} (default) are dropped when their entity hibernates.
+     *
+     * @return The factory, or {@code null} if the behavior cannot be recreated
+     */
+    public BehaviorFactory getFactory() {
+        return null;
+    }
+
+    /**
+     * Attaches this behavior to the manager it is registered with.
+     * Called by {@link AIManager}; pass {@code null} to detach.
+     *
+     * @param manager The owning manager
+     */
+    public void attach(AIManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the level-of-detail tier of this entity.
+     *
+     * @return The tier, {@link LodTier#NEAR} while detached
+     */
+    public LodTier getLodTier() {
+        return manager != null ? manager.getLodTier() : LodTier.NEAR;
+    }
+
+    /**
+     * Returns the number of ticks since the entity was last updated. Behaviors that
+     * change something by a fixed amount per update should scale it by this delta,
+     * so entities updated less often by the level-of-detail scheduler behave the same.
+     *
+     * @return Ticks since the previous update, 1 while detached
+     */
+    public int getTickDelta() {
+        return manager != null ? manager.getTickDelta() : 1;
+    }
+
+    /**
+     * Returns the perception blackboard shared by all behaviors of this entity.
+     * Behaviors that are not registered with a manager get a private one.
+     *
+     * @return The blackboard for this tick
+     */
+    public Blackboard getBlackboard() {
+        if (manager != null) {
+            return manager.getBlackboard();
+        }
+        if (detachedBlackboard == null) {
+            detachedBlackboard = new Blackboard(entity, null);
+        }
+        return detachedBlackboard;
+    }
+
+    /**
+     * Returns the location the entity considers home. It is kept once per entity by
+     * its manager, so behaviors need no copy of their own.
+     *
+     * @return The manager's home location, or where the entity was when first asked while detached
+     */
+    public Location getHomeLocation() {
+        if (manager != null) {
+            return manager.getHomeLocation();
+        }
+        if (detachedHomeLocation == null) {
+            detachedHomeLocation = entity.getLocation();
+        }
+        return detachedHomeLocation;
+    }
 }
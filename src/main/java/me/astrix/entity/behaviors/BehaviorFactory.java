@@ -0,0 +1,19 @@
+package me.astrix.entity.behaviors;
+
+import org.bukkit.entity.Mob;
+
+/**
+ * Recreates a behavior for an entity, e.g. when the AI of an unloaded entity is rehydrated.
+ * Factories should capture only the behavior's configuration, never the entity itself.
+ */
+@FunctionalInterface
+public interface BehaviorFactory {
+
+    /**
+     * Creates the behavior.
+     *
+     * @param entity The mob the behavior is for
+     * @return A new, detached behavior
+     */
+    AIBehavior create(Mob entity);
+}
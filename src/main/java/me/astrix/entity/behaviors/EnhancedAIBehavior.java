@@ -1,7 +1,9 @@
 package me.astrix.entity.behaviors;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import me.astrix.entity.EntityAI;
 import me.astrix.entity.enums.EntityEmotionalState;
 import org.bukkit.Location;
 import org.bukkit.entity.Mob;
@@ -12,15 +14,16 @@ import java.util.Random;
 @Setter
 public abstract class EnhancedAIBehavior extends AIBehavior {
 
-    /** Random instance for behavior calculations */
-    protected final Random random = new Random();
-
     /** The emotional state of the entity, default is NEUTRAL */
     protected EntityEmotionalState emotionalState = EntityEmotionalState.NEUTRAL;
 
-    /** The home or starting location of the entity */
+    /** A home location for this behavior only, {@code null} to use the entity's */
     protected Location homeLocation;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Random detachedRandom;
+
     /**
      * Constructor for the enhanced AI behavior.
      *
@@ -29,7 +32,32 @@ public abstract class EnhancedAIBehavior extends AIBehavior {
      */
     public EnhancedAIBehavior(Mob entity, double priority) {
         super(entity, priority);
-        this.homeLocation = entity.getLocation().clone();
+    }
+
+    /**
+     * Returns the home or starting location of the entity.
+     *
+     * @return The location set on this behavior, otherwise the entity's home location
+     */
+    @Override
+    public Location getHomeLocation() {
+        return homeLocation != null ? homeLocation : super.getHomeLocation();
+    }
+
+    /**
+     * Returns the random generator for behavior calculations, shared by all behaviors
+     * of the entity. Behaviors that are not registered with a manager get a private one.
+     *
+     * @return The random generator
+     */
+    public Random getRandom() {
+        if (manager != null) {
+            return manager.getRandom();
+        }
+        if (detachedRandom == null) {
+            detachedRandom = EntityAI.getInstance().newRandom();
+        }
+        return detachedRandom;
     }
 
     /**
@@ -43,15 +71,11 @@ public abstract class EnhancedAIBehavior extends AIBehavior {
     /**
      * Determines if the entity is currently in danger.
      *
+     * Shares the scan with the other behaviors of the entity through the blackboard.
+     *
      * @return true if the entity is threatened, false otherwise
      */
     protected boolean isInDanger() {
-        return entity.getNearbyEntities(5, 5, 5).stream()
-                .filter(e -> e instanceof Mob)
-                .anyMatch(e -> {
-                    Mob nearbyMob = (Mob) e;
-                    return nearbyMob.getHealth() > entity.getHealth() &&
-                            nearbyMob.getLocation().distance(entity.getLocation()) < 3;
-                });
+        return getBlackboard().isInDanger();
     }
 }
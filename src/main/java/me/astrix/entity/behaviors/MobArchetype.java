@@ -0,0 +1,125 @@
+package me.astrix.entity.behaviors;
+
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.tree.BehaviorTree;
+import org.bukkit.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable AI of a kind of mob: the behaviors every mob of the kind runs and,
+ * optionally, a behavior tree.
+ * <p>
+ * One archetype is shared by any number of entities. Built from behavior prototypes
+ * such as {@link me.astrix.entity.behaviors.impl.HuntingBehavior.Prototype}, the
+ * configuration is held once for the whole kind, and each entity's behaviors keep
+ * only their own state. The random generator and home location come from the manager.
+ * </p>
+ * <pre>
+ * MobArchetype guardian = MobArchetype.builder()
+ *         .behavior(new TerritorialBehavior.Prototype(null, 20.0))
+ *         .behavior(WeatherReactiveBehavior::new)
+ *         .behavior(new RandomWanderBehavior.Prototype(15.0))
+ *         .build();
+ *
+ * for (Mob mob : spawned) {
+ *     guardian.createAI(mob);
+ * }
+ * </pre>
+ */
+@Getter
+public final class MobArchetype {
+
+    /**
+     * Factories of the behaviors each entity runs, usually shared prototypes.
+     */
+    private final List<BehaviorFactory> behaviors;
+
+    /**
+     * Behavior tree each entity runs, or {@code null} to use only the priority list.
+     */
+    private final BehaviorTree tree;
+
+    private MobArchetype(List<BehaviorFactory> behaviors, BehaviorTree tree) {
+        this.behaviors = Collections.unmodifiableList(new ArrayList<>(behaviors));
+        this.tree = tree;
+    }
+
+    /**
+     * Creates the AI of an entity of this kind, registered with {@link EntityAI}.
+     *
+     * @param entity The mob
+     * @return The manager running the archetype's behaviors
+     */
+    public AIManager createAI(Mob entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("The entity cannot be null.");
+        }
+
+        AIManager manager = EntityAI.getInstance().createAIForEntity(entity);
+        for (int i = 0, size = behaviors.size(); i < size; i++) {
+            manager.addBehavior(behaviors.get(i).create(entity));
+        }
+        if (tree != null) {
+            manager.setBehaviorTree(tree);
+        }
+        return manager;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects the behaviors and tree of an archetype.
+     */
+    public static final class Builder {
+
+        private final List<BehaviorFactory> behaviors = new ArrayList<>();
+        private BehaviorTree tree;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a behavior every entity of the archetype runs.
+         *
+         * @param factory Creates the behavior, e.g. a behavior prototype
+         * @return This builder
+         */
+        public Builder behavior(BehaviorFactory factory) {
+            if (factory == null) {
+                throw new IllegalArgumentException("Factory cannot be null");
+            }
+            behaviors.add(factory);
+            return this;
+        }
+
+        /**
+         * Sets the behavior tree every entity of the archetype runs.
+         *
+         * @param tree The tree
+         * @return This builder
+         */
+        public Builder tree(BehaviorTree tree) {
+            this.tree = tree;
+            return this;
+        }
+
+        /**
+         * Builds the archetype.
+         *
+         * @return The immutable archetype
+         */
+        public MobArchetype build() {
+            if (behaviors.isEmpty() && tree == null) {
+                throw new IllegalStateException("An archetype needs at least one behavior or a behavior tree");
+            }
+            return new MobArchetype(behaviors, tree);
+        }
+    }
+}
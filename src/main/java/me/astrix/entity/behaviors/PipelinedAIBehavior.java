@@ -0,0 +1,119 @@
+package me.astrix.entity.behaviors;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.pipeline.PipelineTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Mob;
+
+/**
+ * AI behavior whose update is split across the sense/think/act pipeline.
+ * <p>
+ * {@link #sense()} captures an immutable snapshot on the thread updating the manager,
+ * {@link #decide(Object)} turns it into a decision on a worker thread and
+ * {@link #act(Object)} applies the decision on the thread owning the entity during the next
+ * tick. Each behavior has at most one decision in flight; while it is pending,
+ * {@code update()} does nothing.
+ * </p>
+ *
+ * @param <S> Type of the sensed snapshot, must be immutable
+ * @param <D> Type of the decision
+ */
+public abstract class PipelinedAIBehavior<S, D> extends AIBehavior {
+
+    private final Task task = new Task();
+    private boolean inFlight;
+
+    /**
+     * Constructor for a pipelined AI behavior.
+     *
+     * @param entity The mob this behavior is associated with
+     * @param priority The priority level of this behavior
+     */
+    public PipelinedAIBehavior(Mob entity, double priority) {
+        super(entity, priority);
+    }
+
+    /**
+     * Captures everything the decision needs. Called on the thread updating the manager.
+     *
+     * @return An immutable snapshot, or {@code null} to skip deciding this tick
+     */
+    protected abstract S sense();
+
+    /**
+     * Computes a decision from a snapshot. Called on a worker thread, so
+     * implementations must only read the snapshot and never touch the Bukkit API.
+     *
+     * @param snapshot The snapshot returned by {@link #sense()}
+     * @return The decision, or {@code null} for no action
+     */
+    protected abstract D decide(S snapshot);
+
+    /**
+     * Applies a decision, e.g. sets velocity, deals damage or plays sounds.
+     * Called on the thread owning the entity, only while the behavior is active.
+     *
+     * @param decision The decision returned by {@link #decide(Object)}
+     */
+    protected abstract void act(D decision);
+
+    /**
+     * Senses and hands the snapshot to the pipeline.
+     */
+    @Override
+    public final void update() {
+        if (inFlight) {
+            return;
+        }
+
+        S snapshot = sense();
+        if (snapshot == null) {
+            return;
+        }
+
+        inFlight = true;
+        task.snapshot = snapshot;
+        EntityAI.getInstance().getPipeline().submit(task);
+    }
+
+    /**
+     * Checks whether a decision is waiting to be applied.
+     *
+     * @return Whether a decision is in flight
+     */
+    public boolean isDecisionPending() {
+        return inFlight;
+    }
+
+    /**
+     * Reused for every decision, which is safe because only one is in flight at a time.
+     * Hand-over between threads is ordered by the pipeline's executor and completion queue.
+     */
+    private final class Task implements PipelineTask {
+        private S snapshot;
+        private D decision;
+
+        @Override
+        public void think() {
+            decision = decide(snapshot);
+        }
+
+        @Override
+        public Entity getOwner() {
+            return entity;
+        }
+
+        @Override
+        public void act() {
+            D result = decision;
+            snapshot = null;
+            decision = null;
+            inFlight = false;
+
+            // Drop decisions for behaviors that stopped or entities that are gone
+            if (result != null && isActive && entity.isValid()) {
+                PipelinedAIBehavior.this.act(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package me.astrix.entity.behaviors.impl;
+
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.PackManager;
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import org.bukkit.Location;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+import org.bukkit.util.Vector;
+
+/**
+ * Keeps a pack member in its formation slot around the leader and joins the attack
+ * on the leader's target. Steers directly without pathfinding or perception scans;
+ * when the way to the slot is blocked the member heads for the leader, who found a path.
+ */
+public class FormationFollowBehavior extends AIBehavior {
+
+    private static final double SPEED = 0.4;
+    private static final double CATCH_UP_SPEED = 0.6;
+    private static final double CATCH_UP_DISTANCE = 8.0;
+    private static final double SLOT_TOLERANCE = 1.0;
+    private static final double ENGAGE_DISTANCE = 8.0;
+    private static final double ATTACK_DISTANCE = 2.0;
+    private static final double ATTACK_DAMAGE = 2.0;
+    private static final double JUMP_VELOCITY = 0.42;
+
+    @Getter
+    private final PackManager pack;
+
+    private final Location location = new Location(null, 0, 0, 0);
+    private final Location destination = new Location(null, 0, 0, 0);
+
+    /**
+     * Constructs a follower behavior. The entity joins the pack when the behavior is
+     * added to its manager.
+     *
+     * @param entity The pack member
+     * @param pack The pack
+     */
+    public FormationFollowBehavior(Mob entity, PackManager pack) {
+        super(entity, 0.2);
+        this.pack = pack;
+    }
+
+    @Override
+    public void attach(AIManager manager) {
+        super.attach(manager);
+        if (manager != null) {
+            pack.join(manager);
+        }
+    }
+
+    @Override
+    public boolean canRun() {
+        return !pack.isLeader(entity);
+    }
+
+    @Override
+    public void update() {
+        if (!isActive) return;
+
+        entity.getLocation(location);
+
+        // Fight alongside the leader when its target is close
+        LivingEntity target = pack.getTarget();
+        if (target != null && target.getWorld() == location.getWorld()) {
+            target.getLocation(destination);
+            double distanceSquared = destination.distanceSquared(location);
+            if (distanceSquared <= ENGAGE_DISTANCE * ENGAGE_DISTANCE) {
+                steer(SPEED, false);
+                if (distanceSquared <= ATTACK_DISTANCE * ATTACK_DISTANCE) {
+                    EntityAI.getInstance().damage(target, ATTACK_DAMAGE, entity);
+                }
+                return;
+            }
+        }
+
+        if (pack.getFormationPosition(entity, destination) == null
+                || destination.getWorld() != location.getWorld()) {
+            return;
+        }
+
+        double distanceSquared = destination.distanceSquared(location);
+        if (distanceSquared <= SLOT_TOLERANCE * SLOT_TOLERANCE) {
+            return;
+        }
+
+        double speed = distanceSquared > CATCH_UP_DISTANCE * CATCH_UP_DISTANCE ? CATCH_UP_SPEED : SPEED;
+        int stepY = stepHeight(speed);
+        if (stepY == Integer.MIN_VALUE) {
+            // Fall back on the leader's trail
+            pack.getLeader().getEntity().getLocation(destination);
+            stepY = location.getBlockY();
+        }
+        steer(speed, stepY > location.getBlockY());
+    }
+
+    /**
+     * Sets the horizontal velocity towards {@link #destination}, keeping the vertical
+     * velocity so gravity and knockback still apply.
+     *
+     * @param jump Whether to jump onto a block one higher
+     */
+    private void steer(double speed, boolean jump) {
+        double dx = destination.getX() - location.getX();
+        double dz = destination.getZ() - location.getZ();
+        double length = Math.sqrt(dx * dx + dz * dz);
+        if (length <= 1.0E-6) {
+            return;
+        }
+
+        Vector velocity = entity.getVelocity();
+        velocity.setX(dx * speed / length).setZ(dz * speed / length);
+        if (jump && entity.isOnGround()) {
+            velocity.setY(JUMP_VELOCITY);
+        }
+        entity.setVelocity(velocity);
+    }
+
+    /**
+     * Resolves the feet height after the next step towards {@link #destination},
+     * with the same step-up and drop rules as paths.
+     *
+     * @return The feet y coordinate, or {@link Integer#MIN_VALUE} if the step is blocked
+     */
+    private int stepHeight(double speed) {
+        double dx = destination.getX() - location.getX();
+        double dz = destination.getZ() - location.getZ();
+        double length = Math.sqrt(dx * dx + dz * dz);
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        if (length <= 1.0E-6) {
+            return y;
+        }
+
+        double scale = speed / length;
+        int stepX = (int) Math.floor(location.getX() + dx * scale) - x;
+        int stepZ = (int) Math.floor(location.getZ() + dz * scale) - z;
+        if (stepX == 0 && stepZ == 0) {
+            return y;
+        }
+        return PathFinder.step(EntityAI.getInstance().getWalkabilityCache().forWorld(location.getWorld()),
+                x, y, z, stepX, stepZ);
+    }
+
+    @Override
+    public void start() {
+        isActive = true;
+    }
+
+    @Override
+    public void stop() {
+        isActive = false;
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return member -> new FormationFollowBehavior(member, pack);
+    }
+}
@@ -1,20 +1,71 @@
 package me.astrix.entity.behaviors.impl;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
+import me.astrix.entity.EntityAI;
 import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.navigation.AdvancedNavigator;
+import me.astrix.entity.navigation.FlowFieldService;
+import me.astrix.entity.utils.VectorMath;
+import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 
-import java.util.List;
+import java.util.function.Predicate;
 
 @Getter
 public class HuntingBehavior extends AIBehavior {
 
-    private final Class<? extends LivingEntity> preyType;
-    private final AdvancedNavigator navigator;
+    /**
+     * The configuration, shared by every hunter of the same kind.
+     */
+    private final Prototype prototype;
+
+    /**
+     * The navigator, created once the hunter first finds prey.
+     */
+    private AdvancedNavigator navigator;
     private LivingEntity currentTarget;
-    private final double searchRadius;
+
+    /**
+     * Additional test prey must pass, e.g. to spare the hunter's pack, or {@code null}.
+     */
+    @Setter
+    private Predicate<? super LivingEntity> preyFilter;
+
+    @Getter(AccessLevel.NONE)
+    private final Location location = new Location(null, 0, 0, 0);
+    @Getter(AccessLevel.NONE)
+    private final Location preyLocation = new Location(null, 0, 0, 0);
+
+    private static final double ATTACK_DISTANCE = 2.0;
+
+    // Prey may flee this far beyond the search radius before the hunters lose its flow field
+    private static final int FLOW_FIELD_MARGIN = 8;
+
+    /**
+     * Immutable configuration of a hunting behavior. Create one per kind of hunter and
+     * pass it to every behavior, or use it as the {@link BehaviorFactory}.
+     *
+     * @param preyType     The type of entity the hunters target.
+     * @param searchRadius The radius in which the hunters search for prey.
+     */
+    public record Prototype(Class<? extends LivingEntity> preyType, double searchRadius) implements BehaviorFactory {
+
+        /**
+         * @return The radius of the prey's shared flow field
+         */
+        public int flowFieldRadius() {
+            return Math.min(FlowFieldService.MAX_RADIUS, (int) Math.ceil(searchRadius) + FLOW_FIELD_MARGIN);
+        }
+
+        @Override
+        public HuntingBehavior create(Mob hunter) {
+            return new HuntingBehavior(hunter, this);
+        }
+    }
 
     /**
      * Creates a new hunting behavior for the given hunter.
@@ -24,10 +75,18 @@ public class HuntingBehavior extends AIBehavior {
      * @param searchRadius The radius in which the hunter searches for prey.
      */
     public HuntingBehavior(Mob hunter, Class<? extends LivingEntity> preyType, double searchRadius) {
+        this(hunter, new Prototype(preyType, searchRadius));
+    }
+
+    /**
+     * Creates a new hunting behavior sharing the configuration of a prototype.
+     *
+     * @param hunter    The mob that will be performing the hunting behavior.
+     * @param prototype The configuration.
+     */
+    public HuntingBehavior(Mob hunter, Prototype prototype) {
         super(hunter, 0.8);
-        this.preyType = preyType;
-        this.searchRadius = searchRadius;
-        this.navigator = new AdvancedNavigator(hunter, 0.6, 2.0);
+        this.prototype = prototype;
     }
 
     /**
@@ -49,20 +108,24 @@ public class HuntingBehavior extends AIBehavior {
     public void update() {
         if (!isActive) return;
 
-        // Find all nearby entities of the specified prey type
-        List<LivingEntity> potentialPrey = entity.getNearbyEntities(searchRadius, searchRadius, searchRadius)
-                .stream()
-                .filter(preyType::isInstance)
-                .map(e -> (LivingEntity) e)
-                .toList();
+        // Find the closest entity of the specified prey type
+        LivingEntity prey = EntityAI.getInstance().getSpatialIndex()
+                .findNearest(entity, prototype.searchRadius(), prototype.preyType(), preyFilter);
 
         // If there is a valid target, move towards it and attack when close enough
-        if (!potentialPrey.isEmpty()) {
-            currentTarget = potentialPrey.get(0);
-            navigator.moveTo(currentTarget.getLocation());
+        if (prey != null) {
+            if (prey != currentTarget && manager != null) {
+                manager.setTarget(prey);
+            }
+            currentTarget = prey;
+            if (navigator == null) {
+                navigator = new AdvancedNavigator(entity, 0.6, 2.0);
+            }
+            // Hunters chasing the same prey share its flow field
+            navigator.moveToShared(currentTarget.getLocation(preyLocation), prototype.flowFieldRadius());
 
-            if (entity.getLocation().distance(currentTarget.getLocation()) <= 2.0) {
-                currentTarget.damage(2.0);
+            if (VectorMath.isWithin(entity.getLocation(location), preyLocation, ATTACK_DISTANCE)) {
+                EntityAI.getInstance().damage(currentTarget, 2.0, null);
             }
         }
     }
@@ -74,5 +137,16 @@ public class HuntingBehavior extends AIBehavior {
     public void stop() {
         isActive = false;
         currentTarget = null;
+        if (navigator != null) {
+            navigator.stop();
+        }
+        if (manager != null) {
+            manager.setTarget(null);
+        }
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return prototype;
     }
 }
@@ -1,19 +1,55 @@
 package me.astrix.entity.behaviors.impl;
 
+import lombok.Getter;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.behaviors.EnhancedAIBehavior;
+import me.astrix.entity.enums.BehaviorTrigger;
 import me.astrix.entity.enums.EntityEmotionalState;
 import me.astrix.entity.navigation.AdvancedNavigator;
+import me.astrix.entity.perception.Blackboard;
+import me.astrix.entity.utils.VectorMath;
 import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 import org.bukkit.util.Vector;
 
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class PanicBehavior extends EnhancedAIBehavior {
 
-    private final AdvancedNavigator navigator;
-    private final double panicSpeedMultiplier;
+    @Getter
+    private final Prototype prototype;
+
+    // Created on the first panic, most entities never panic
+    private AdvancedNavigator navigator;
+
+    private final Location threatLocation = new Location(null, 0, 0, 0);
+    private final Location panicDestination = new Location(null, 0, 0, 0);
+    private final Vector panicDirection = new Vector();
+
+    private static final Set<BehaviorTrigger> TRIGGERS =
+            EnumSet.of(BehaviorTrigger.ENTITY_ENTERED_RADIUS, BehaviorTrigger.DAMAGED);
+
+    /**
+     * Immutable configuration of a panic behavior, shared by every entity of the same kind.
+     *
+     * @param baseSpeed The base movement speed of the entities
+     */
+    public record Prototype(double baseSpeed) implements BehaviorFactory {
+
+        /**
+         * @return The speed of panicking entities, also the distance they flee per update
+         */
+        public double panicSpeed() {
+            return baseSpeed * 1.5;
+        }
+
+        @Override
+        public PanicBehavior create(Mob entity) {
+            return new PanicBehavior(entity, this);
+        }
+    }
 
     /**
      * Constructs a new PanicBehavior for an entity.
@@ -22,9 +58,18 @@ public class PanicBehavior extends EnhancedAIBehavior {
      * @param baseSpeed The base movement speed of the entity
      */
     public PanicBehavior(Mob entity, double baseSpeed) {
+        this(entity, new Prototype(baseSpeed));
+    }
+
+    /**
+     * Constructs a new PanicBehavior sharing the configuration of a prototype.
+     *
+     * @param entity The mob experiencing panic
+     * @param prototype The configuration
+     */
+    public PanicBehavior(Mob entity, Prototype prototype) {
         super(entity, 1.0); // High priority behavior
-        this.panicSpeedMultiplier = baseSpeed * 1.5;
-        this.navigator = new AdvancedNavigator(entity, panicSpeedMultiplier, 1.0);
+        this.prototype = prototype;
     }
 
     @Override
@@ -35,32 +80,29 @@ public class PanicBehavior extends EnhancedAIBehavior {
 
     @Override
     public void update() {
-        // Stop panicking if no longer in danger
+        // Calm down once no longer in danger and head back home until the behavior is stopped
         if (!isInDanger()) {
-            stop();
+            emotionalState = EntityEmotionalState.NEUTRAL;
+            navigator().moveTo(getHomeLocation());
             return;
         }
+        emotionalState = EntityEmotionalState.SCARED;
 
-        // Find nearby threats
-        List<LivingEntity> nearbyThreats = entity.getNearbyEntities(5, 5, 5).stream()
-                .filter(e -> e instanceof Mob)
-                .map(e -> (LivingEntity) e)
-                .toList();
+        // The threat isInDanger() already found this tick, not merely the closest mob
+        LivingEntity threat = getBlackboard().getNearestThreat();
 
-        if (!nearbyThreats.isEmpty()) {
-            // Get the closest threat
-            LivingEntity threat = nearbyThreats.get(0);
-            Location threatLocation = threat.getLocation();
+        if (threat != null) {
+            threat.getLocation(threatLocation);
+            entity.getLocation(panicDestination);
 
             // Calculate panic direction (away from threat)
-            Vector panicDirection = entity.getLocation().toVector()
-                    .subtract(threatLocation.toVector())
-                    .normalize()
-                    .multiply(panicSpeedMultiplier);
-
-            // Move to panic destination
-            Location panicDestination = entity.getLocation().clone().add(panicDirection);
-            navigator.moveTo(panicDestination);
+            if (VectorMath.setScaled(panicDirection,
+                    panicDestination.getX() - threatLocation.getX(),
+                    panicDestination.getY() - threatLocation.getY(),
+                    panicDestination.getZ() - threatLocation.getZ(), prototype.panicSpeed())) {
+                // Move to panic destination
+                navigator().moveTo(panicDestination.add(panicDirection));
+            }
         }
     }
 
@@ -68,12 +110,35 @@ public class PanicBehavior extends EnhancedAIBehavior {
     public void stop() {
         isActive = false;
         emotionalState = EntityEmotionalState.NEUTRAL;
-        // Return to home/original location
-        navigator.moveTo(homeLocation);
+        if (navigator != null) {
+            navigator.stop();
+        }
+    }
+
+    private AdvancedNavigator navigator() {
+        if (navigator == null) {
+            navigator = new AdvancedNavigator(entity, prototype.panicSpeed(), 1.0);
+        }
+        return navigator;
     }
 
     @Override
     public boolean canRun() {
         return isInDanger();
     }
+
+    @Override
+    public Set<BehaviorTrigger> getTriggers() {
+        return TRIGGERS;
+    }
+
+    @Override
+    public double getTriggerRadius() {
+        return Blackboard.THREAT_RADIUS;
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return prototype;
+    }
 }
@@ -1,14 +1,37 @@
 package me.astrix.entity.behaviors.impl;
 
+import lombok.Getter;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.behaviors.EnhancedAIBehavior;
 import me.astrix.entity.navigation.AdvancedNavigator;
 import org.bukkit.Location;
 import org.bukkit.entity.Mob;
 
+import java.util.Random;
+
 public class RandomWanderBehavior extends EnhancedAIBehavior {
 
-    private final AdvancedNavigator navigator;
-    private final double wanderRadius;
+    @Getter
+    private final Prototype prototype;
+    private AdvancedNavigator navigator;
+
+    // Reused for every destination, the navigator only keeps the latest one
+    private final Location destination = new Location(null, 0, 0, 0);
+
+    private static final double WANDER_CHANCE_PER_TICK = 0.1;
+
+    /**
+     * Immutable configuration of a wander behavior, shared by every entity of the same kind.
+     *
+     * @param wanderRadius The maximum distance the entities wander from their home location
+     */
+    public record Prototype(double wanderRadius) implements BehaviorFactory {
+
+        @Override
+        public RandomWanderBehavior create(Mob entity) {
+            return new RandomWanderBehavior(entity, this);
+        }
+    }
 
     /**
      * Constructs a new RandomWanderBehavior for an entity.
@@ -17,37 +40,55 @@ public class RandomWanderBehavior extends EnhancedAIBehavior {
      * @param wanderRadius The maximum distance the entity can wander from its home location
      */
     public RandomWanderBehavior(Mob entity, double wanderRadius) {
+        this(entity, new Prototype(wanderRadius));
+    }
+
+    /**
+     * Constructs a new RandomWanderBehavior sharing the configuration of a prototype.
+     *
+     * @param entity The mob that will wander randomly
+     * @param prototype The configuration
+     */
+    public RandomWanderBehavior(Mob entity, Prototype prototype) {
         super(entity, 0.3); // Low priority behavior
-        this.wanderRadius = wanderRadius;
-        this.navigator = new AdvancedNavigator(entity, 0.4, 2.0);
+        this.prototype = prototype;
     }
 
     @Override
     public void update() {
         // Move to a new random location when current destination is reached
-        // or with a small random chance to introduce variety
-        if (navigator.hasReachedDestination() || random.nextDouble() < 0.1) {
-            Location randomDestination = generateRandomLocation();
-            navigator.moveTo(randomDestination);
+        // or with a small random chance per tick to introduce variety
+        double chance = 1.0 - Math.pow(1.0 - WANDER_CHANCE_PER_TICK, getTickDelta());
+        if (navigator == null) {
+            navigator = new AdvancedNavigator(entity, 0.4, 2.0);
+        }
+        if (navigator.hasReachedDestination() || getRandom().nextDouble() < chance) {
+            navigator.moveTo(generateRandomLocation());
         }
     }
 
     /**
      * Generates a random location within the wander radius.
      *
-     * @return A Location representing a random destination
+     * @return The destination, overwritten on the next call
      */
     private Location generateRandomLocation() {
         // Generate a random angle and distance
+        Random random = getRandom();
         double angle = random.nextDouble() * 2 * Math.PI;
-        double distance = random.nextDouble() * wanderRadius;
+        double distance = random.nextDouble() * prototype.wanderRadius();
 
         // Calculate x and z offsets
         double dx = Math.cos(angle) * distance;
         double dz = Math.sin(angle) * distance;
 
-        // Return a new location relative to the home/center location
-        return homeLocation.clone().add(dx, 0, dz);
+        // Return a location relative to the home/center location
+        Location home = getHomeLocation();
+        destination.setWorld(home.getWorld());
+        destination.setX(home.getX() + dx);
+        destination.setY(home.getY());
+        destination.setZ(home.getZ() + dz);
+        return destination;
     }
 
     @Override
@@ -58,5 +99,13 @@ public class RandomWanderBehavior extends EnhancedAIBehavior {
     @Override
     public void stop() {
         isActive = false;
+        if (navigator != null) {
+            navigator.stop();
+        }
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return prototype;
     }
 }
@@ -1,21 +1,29 @@
 package me.astrix.entity.behaviors.impl;
 
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.behaviors.EnhancedAIBehavior;
 import me.astrix.entity.enums.EntityEmotionalState;
 import me.astrix.entity.navigation.AdvancedNavigator;
-import me.astrix.entity.utils.EntityUtils;
+import me.astrix.entity.utils.VectorMath;
+import org.bukkit.Location;
 import org.bukkit.Sound;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.function.Predicate;
 
 public class SocialInteractionBehavior extends EnhancedAIBehavior {
 
-    private final AdvancedNavigator navigator;
+    private AdvancedNavigator navigator;
     private LivingEntity socialPartner;
 
+    /** Matches mobs of the same kind as this entity */
+    private final Predicate<Mob> sameKind = other -> other.getType() == entity.getType();
+
+    private final Location location = new Location(null, 0, 0, 0);
+    private final Location partnerLocation = new Location(null, 0, 0, 0);
+
     private static final double SEARCH_RADIUS = 10.0;
     private static final double INTERACTION_DISTANCE = 3.0;
 
@@ -26,33 +34,24 @@ public class SocialInteractionBehavior extends EnhancedAIBehavior {
      */
     public SocialInteractionBehavior(Mob entity) {
         super(entity, 0.4); // Medium-low priority
-        this.navigator = new AdvancedNavigator(entity, 0.5, 2.0);
     }
 
     @Override
     public void update() {
-        // Find nearby entities of the same type
-        List<LivingEntity> nearbyEntities = entity.getNearbyEntities(
-                        SEARCH_RADIUS, SEARCH_RADIUS, SEARCH_RADIUS).stream()
-                .filter(e -> e instanceof Mob && e.getClass().equals(entity.getClass()))
-                .map(e -> (LivingEntity) e)
-                .toList();
-
-        if (!nearbyEntities.isEmpty()) {
-            // Find the nearest entity
-            Optional<LivingEntity> nearestEntity = EntityUtils.findNearestEntity(entity, nearbyEntities, SEARCH_RADIUS);
-
-            // Safely assign the social partner
-            socialPartner = nearestEntity.orElse(null);
-
-            if (socialPartner != null) {
-                // Move towards the social partner
-                navigator.moveTo(socialPartner.getLocation());
-
-                // Interact when close enough
-                if (entity.getLocation().distance(socialPartner.getLocation()) <= INTERACTION_DISTANCE) {
-                    performSocialInteraction();
-                }
+        // Find the nearest entity of the same type
+        socialPartner = EntityAI.getInstance().getSpatialIndex()
+                .findNearest(entity, SEARCH_RADIUS, Mob.class, sameKind);
+
+        if (socialPartner != null) {
+            if (navigator == null) {
+                navigator = new AdvancedNavigator(entity, 0.5, 2.0);
+            }
+            // Move towards the social partner
+            navigator.moveTo(socialPartner.getLocation(partnerLocation));
+
+            // Interact when close enough
+            if (VectorMath.isWithin(entity.getLocation(location), partnerLocation, INTERACTION_DISTANCE)) {
+                performSocialInteraction();
             }
         }
     }
@@ -64,14 +63,14 @@ public class SocialInteractionBehavior extends EnhancedAIBehavior {
     private void performSocialInteraction() {
         // Play a sound to simulate interaction
         entity.getWorld().playSound(
-                entity.getLocation(),
+                location,
                 Sound.ENTITY_EXPERIENCE_ORB_PICKUP,
                 0.5f,
                 1.0f
         );
 
         // Potentially change emotional state
-        emotionalState = random.nextBoolean()
+        emotionalState = getRandom().nextBoolean()
                 ? EntityEmotionalState.PLAYFUL
                 : EntityEmotionalState.CURIOUS;
     }
@@ -85,5 +84,13 @@ public class SocialInteractionBehavior extends EnhancedAIBehavior {
     public void stop() {
         isActive = false;
         socialPartner = null;
+        if (navigator != null) {
+            navigator.stop();
+        }
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return SocialInteractionBehavior::new;
     }
 }
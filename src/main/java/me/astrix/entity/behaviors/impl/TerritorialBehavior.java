@@ -1,16 +1,61 @@
 package me.astrix.entity.behaviors.impl;
 
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
 import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.navigation.AdvancedNavigator;
+import me.astrix.entity.navigation.FlowFieldService;
+import me.astrix.entity.utils.VectorMath;
 import org.bukkit.Location;
 import org.bukkit.entity.Mob;
 
 public class TerritorialBehavior extends AIBehavior {
 
-    private final Location territoryCenter;
-    private final double territoryRadius;
+    @Getter
+    private final Prototype prototype;
 
-    private final AdvancedNavigator navigator;
+    private AdvancedNavigator navigator;
+    private final Location location = new Location(null, 0, 0, 0);
+    // The navigator's destination, never the center shared through the prototype
+    private final Location destination = new Location(null, 0, 0, 0);
+
+    // Defenders stray this far beyond the territory before losing the shared flow field
+    private static final int FLOW_FIELD_MARGIN = 16;
+
+    /**
+     * Immutable configuration of a territorial behavior, shared by every defender of the same kind.
+     *
+     * @param territoryCenter The center point of the territory, or {@code null} for each
+     *                        defender to hold the territory around its home location.
+     * @param territoryRadius The radius of the territory to patrol.
+     */
+    public record Prototype(Location territoryCenter, double territoryRadius) implements BehaviorFactory {
+
+        public Prototype {
+            territoryCenter = territoryCenter != null ? territoryCenter.clone() : null;
+        }
+
+        /**
+         * @return A copy of the territory center, or {@code null} if defenders hold their home location
+         */
+        @Override
+        public Location territoryCenter() {
+            return territoryCenter != null ? territoryCenter.clone() : null;
+        }
+
+        /**
+         * @return The radius of the territory's shared flow field
+         */
+        public int flowFieldRadius() {
+            return Math.min(FlowFieldService.MAX_RADIUS, (int) Math.ceil(territoryRadius) + FLOW_FIELD_MARGIN);
+        }
+
+        @Override
+        public TerritorialBehavior create(Mob defender) {
+            return new TerritorialBehavior(defender, this);
+        }
+    }
 
     /**
      * Creates a new territorial behavior for the given defender.
@@ -20,10 +65,42 @@ public class TerritorialBehavior extends AIBehavior {
      * @param territoryRadius The radius of the territory to patrol.
      */
     public TerritorialBehavior(Mob defender, Location territoryCenter, double territoryRadius) {
+        this(defender, new Prototype(territoryCenter, territoryRadius));
+    }
+
+    /**
+     * Creates a new territorial behavior sharing the configuration of a prototype.
+     *
+     * @param defender  The mob that will be performing the territorial behavior.
+     * @param prototype The configuration.
+     */
+    public TerritorialBehavior(Mob defender, Prototype prototype) {
         super(defender, 0.7);
-        this.territoryCenter = territoryCenter;
-        this.territoryRadius = territoryRadius;
-        this.navigator = new AdvancedNavigator(defender, 0.5, 1.0);
+        this.prototype = prototype;
+    }
+
+    /**
+     * Returns the center of the territory this defender holds.
+     *
+     * @return A copy of the prototype's center, or of the defender's home location if it has none
+     */
+    public Location getTerritoryCenter() {
+        return getTerritoryCenter(new Location(null, 0, 0, 0));
+    }
+
+    /**
+     * Writes the center of the territory this defender holds into a location.
+     *
+     * @param into The location to update
+     * @return The updated location
+     */
+    public Location getTerritoryCenter(Location into) {
+        Location center = prototype.territoryCenter != null ? prototype.territoryCenter : getHomeLocation();
+        into.setWorld(center.getWorld());
+        into.setX(center.getX());
+        into.setY(center.getY());
+        into.setZ(center.getZ());
+        return into;
     }
 
     /**
@@ -46,20 +123,20 @@ public class TerritorialBehavior extends AIBehavior {
     public void update() {
         if (!isActive) return;
 
-        // Move the mob towards the center if it's outside the territory
-        if (entity.getLocation().distance(territoryCenter) > territoryRadius) {
-            navigator.moveTo(territoryCenter);
+        // Move the mob towards the center if it's outside the territory, sharing one flow field with all defenders
+        Location territoryCenter = getTerritoryCenter(destination);
+        if (!VectorMath.isWithin(entity.getLocation(location), territoryCenter, prototype.territoryRadius())) {
+            if (navigator == null) {
+                navigator = new AdvancedNavigator(entity, 0.5, 1.0);
+            }
+            navigator.moveToShared(territoryCenter, prototype.flowFieldRadius());
         }
 
-        // If any intruders are nearby, damage them
-        entity.getNearbyEntities(5, 5, 5).stream()
-                .filter(e -> e instanceof Mob && e != entity)
-                .findFirst()
-                .ifPresent(intruder -> {
-                    if (intruder instanceof Mob) {
-                        ((Mob)intruder).damage(1.5);
-                    }
-                });
+        // If any intruders are nearby, damage the closest one
+        Mob intruder = getBlackboard().getNearestMob();
+        if (intruder != null) {
+            EntityAI.getInstance().damage(intruder, 1.5, null);
+        }
     }
 
     /**
@@ -68,5 +145,13 @@ public class TerritorialBehavior extends AIBehavior {
     @Override
     public void stop() {
         isActive = false;
+        if (navigator != null) {
+            navigator.stop();
+        }
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return prototype;
     }
 }
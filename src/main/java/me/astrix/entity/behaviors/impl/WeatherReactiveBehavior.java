@@ -1,16 +1,32 @@
 package me.astrix.entity.behaviors.impl;
 
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.BehaviorFactory;
 import me.astrix.entity.behaviors.EnhancedAIBehavior;
+import me.astrix.entity.enums.BehaviorTrigger;
+import me.astrix.entity.enums.EntityEmotionalState;
 import me.astrix.entity.enums.WeatherType;
 import me.astrix.entity.navigation.AdvancedNavigator;
 import org.bukkit.Location;
-import org.bukkit.World;
-import org.bukkit.block.Biome;
 import org.bukkit.entity.Mob;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class WeatherReactiveBehavior extends EnhancedAIBehavior {
 
-    private final AdvancedNavigator navigator;
+    // Created on first use, most entities see no storm before they unload
+    private AdvancedNavigator navigator;
+    private AdvancedNavigator stormNavigator;
+
+    private Location shelterLocation;
+    private final Location location = new Location(null, 0, 0, 0);
+    private long shelterSearchTick = Long.MIN_VALUE;
+
+    public static final int SHELTER_SEARCH_RADIUS = 16;
+    private static final long SHELTER_SEARCH_INTERVAL_TICKS = 40L;
+
+    private static final Set<BehaviorTrigger> TRIGGERS = EnumSet.of(BehaviorTrigger.WEATHER_CHANGED);
 
     /**
      * Constructs a new WeatherReactiveBehavior for an entity.
@@ -19,79 +35,95 @@ public class WeatherReactiveBehavior extends EnhancedAIBehavior {
      */
     public WeatherReactiveBehavior(Mob entity) {
         super(entity, 0.5); // Medium priority
-        this.navigator = new AdvancedNavigator(entity, 0.4, 2.0);
     }
 
     @Override
     public void update() {
-        World world = entity.getWorld();
-        WeatherType currentWeather = determineWeatherType(world);
-        Biome currentBiome = entity.getLocation().getBlock().getBiome();
-
-        // React based on weather type and biome
-        switch (currentWeather) {
-            case RAIN -> handleRainWeather(currentBiome);
-            case THUNDERSTORM -> handleThunderstorm(currentBiome);
-            case CLEAR -> handleClearWeather(currentBiome);
+        // React based on weather type, tracked from weather events instead of polled
+        switch (getBlackboard().getWeather()) {
+            case RAIN -> handleRainWeather();
+            case THUNDERSTORM -> handleThunderstorm();
+            case CLEAR -> handleClearWeather();
         }
     }
 
     /**
-     * Determines the current weather type for the entity's world.
-     *
-     * @param world The world to check weather conditions
-     * @return The current WeatherType
+     * Handles behavior during rainy conditions.
      */
-    private WeatherType determineWeatherType(World world) {
-        if (world.isThundering()) return WeatherType.THUNDERSTORM;
-        if (world.hasStorm()) return WeatherType.RAIN;
-        return WeatherType.CLEAR;
+    private void handleRainWeather() {
+        emotionalState = EntityEmotionalState.NEUTRAL;
+        if (navigator == null) {
+            navigator = new AdvancedNavigator(entity, 0.4, 2.0);
+        }
+        seekShelter(navigator);
     }
 
     /**
-     * Handles behavior during rainy conditions.
+     * Finds the nearest shelter location for the entity.
+     * <p>
+     * Searches the shelter index, which knows the spots under trees, overhangs,
+     * structures and cave mouths, every few ticks; the result is reused in between.
+     * </p>
      *
-     * @param biome The current biome of the entity
+     * @return A Location representing the nearest shelter, or null if no shelter is found
      */
-    private void handleRainWeather(Biome biome) {
-        Location shelterLocation = findNearestShelter();
-        if (shelterLocation != null) {
-            navigator.moveTo(shelterLocation);
+    private Location findNearestShelter() {
+        long tick = EntityAI.getInstance().getCurrentTick();
+        if (shelterSearchTick == Long.MIN_VALUE || tick - shelterSearchTick >= SHELTER_SEARCH_INTERVAL_TICKS) {
+            shelterLocation = EntityAI.getInstance().getShelterIndex()
+                    .findNearestShelter(entity.getLocation(location), SHELTER_SEARCH_RADIUS);
+            shelterSearchTick = tick;
         }
+        return shelterLocation;
     }
 
     /**
-     * Finds the nearest shelter location for the entity.
+     * Moves the entity under cover unless it already is.
      *
-     * @return A Location representing the nearest shelter, or null if no shelter is found
+     * @param shelterNavigator The navigator to move with
      */
-    private Location findNearestShelter() {
-        // TODO: Implement sophisticated shelter finding logic
-        // This could involve checking for:
-        // - Nearby trees
-        // - Caves
-        // - Structures
-        // - Overhangs
-        return null;
+    private void seekShelter(AdvancedNavigator shelterNavigator) {
+        if (getBlackboard().isSheltered()) {
+            if (shelterNavigator.getDestination() != null) {
+                shelterNavigator.stop();
+            }
+            return;
+        }
+
+        Location shelter = findNearestShelter();
+        if (shelter != null) {
+            shelterNavigator.moveTo(shelter);
+        }
     }
 
     /**
      * Handles behavior during thunderstorms.
-     *
-     * @param biome The current biome of the entity
      */
-    private void handleThunderstorm(Biome biome) {
-        // Trigger panic behavior during severe storms
-        new PanicBehavior(entity, 1.2).start();
+    private void handleThunderstorm() {
+        // Severe storms scare the entity, which hurries to the nearest shelter
+        emotionalState = EntityEmotionalState.SCARED;
+        if (stormNavigator == null) {
+            stormNavigator = new AdvancedNavigator(entity, 0.6, 2.0);
+        }
+        seekShelter(stormNavigator);
     }
 
     /**
      * Handles behavior during clear weather.
-     *
-     * @param biome The current biome of the entity
      */
-    private void handleClearWeather(Biome biome) {
+    private void handleClearWeather() {
         // Default behavior or optional exploration
+        emotionalState = EntityEmotionalState.NEUTRAL;
+    }
+
+    @Override
+    public boolean canRun() {
+        return getBlackboard().getWeather() != WeatherType.CLEAR;
+    }
+
+    @Override
+    public Set<BehaviorTrigger> getTriggers() {
+        return TRIGGERS;
     }
 
     @Override
@@ -102,5 +134,19 @@ public class WeatherReactiveBehavior extends EnhancedAIBehavior {
     @Override
     public void stop() {
         isActive = false;
+        emotionalState = EntityEmotionalState.NEUTRAL;
+        shelterLocation = null;
+        shelterSearchTick = Long.MIN_VALUE;
+        if (navigator != null) {
+            navigator.stop();
+        }
+        if (stormNavigator != null) {
+            stormNavigator.stop();
+        }
+    }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return WeatherReactiveBehavior::new;
     }
 }
@@ -0,0 +1,146 @@
+package me.astrix.entity.commands;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.enums.BehaviorPhase;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.metrics.AIMetrics;
+import me.astrix.entity.metrics.BehaviorMetrics;
+import me.astrix.entity.metrics.LatencyHistogram;
+import me.astrix.entity.metrics.ManagerMetrics;
+import org.bukkit.Location;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lists the most expensive behaviors and entities, and toggles metric recording.
+ * <p>
+ * Usage: {@code /<command> <behaviors|entities> [count]} or {@code /<command> <enable|disable|reset>}.
+ * </p>
+ */
+public class AIStatsCommand implements TabExecutor {
+
+    private static final List<String> SUBCOMMANDS = List.of("behaviors", "entities", "enable", "disable", "reset");
+    private static final int DEFAULT_COUNT = 10;
+
+    private final EntityAI entityAI;
+
+    public AIStatsCommand(EntityAI entityAI) {
+        this.entityAI = entityAI;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 0) {
+            return false;
+        }
+
+        AIMetrics metrics = entityAI.getMetrics();
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "behaviors" -> listBehaviors(sender, metrics, parseCount(args));
+            case "entities" -> listEntities(sender, metrics, parseCount(args));
+            case "enable" -> {
+                metrics.setEnabled(true);
+                sender.sendMessage("AI metrics enabled.");
+            }
+            case "disable" -> {
+                metrics.setEnabled(false);
+                sender.sendMessage("AI metrics disabled.");
+            }
+            case "reset" -> {
+                metrics.reset(entityAI.getRegistry());
+                sender.sendMessage("AI metrics reset.");
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            for (String subcommand : SUBCOMMANDS) {
+                if (subcommand.startsWith(args[0].toLowerCase(Locale.ROOT))) {
+                    completions.add(subcommand);
+                }
+            }
+        }
+        return completions;
+    }
+
+    private void listBehaviors(CommandSender sender, AIMetrics metrics, int count) {
+        warnIfDisabled(sender, metrics);
+
+        List<BehaviorMetrics> top = metrics.topBehaviors(count);
+        sender.sendMessage("Top " + top.size() + " behaviors by total time:");
+        for (BehaviorMetrics behavior : top) {
+            LatencyHistogram update = behavior.getHistogram(BehaviorPhase.UPDATE);
+            LatencyHistogram canRun = behavior.getHistogram(BehaviorPhase.CAN_RUN);
+            sender.sendMessage(String.format(Locale.ROOT,
+                    "%s: %s total, update %d calls p50 %s p99 %s max %s, canRun %d calls p99 %s, %d switches",
+                    behavior.getBehaviorClass().getSimpleName(),
+                    formatNanos(behavior.getTotalNanos()),
+                    update.getCount(), formatNanos(update.getPercentile(50)),
+                    formatNanos(update.getPercentile(99)), formatNanos(update.getMaxNanos()),
+                    canRun.getCount(), formatNanos(canRun.getPercentile(99)),
+                    behavior.getSwitches()));
+        }
+    }
+
+    private void listEntities(CommandSender sender, AIMetrics metrics, int count) {
+        warnIfDisabled(sender, metrics);
+
+        List<AIManager> top = metrics.topManagers(entityAI.getRegistry(), count);
+        sender.sendMessage("Top " + top.size() + " entities by total time:");
+        for (AIManager manager : top) {
+            ManagerMetrics managerMetrics = manager.getMetrics();
+            Location location = manager.getEntity().getLocation();
+            sender.sendMessage(String.format(Locale.ROOT,
+                    "%s #%d at %s %d %d %d: %s total, %d updates mean %s max %s, %d switches, running %s",
+                    manager.getEntity().getType(), manager.getEntity().getEntityId(),
+                    location.getWorld() != null ? location.getWorld().getName() : "?",
+                    location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                    formatNanos(managerMetrics.getTotalNanos()), managerMetrics.getUpdates(),
+                    formatNanos((long) managerMetrics.getMeanNanos()), formatNanos(managerMetrics.getMaxNanos()),
+                    managerMetrics.getSwitches(),
+                    manager.getCurrentBehavior() != null ? manager.getCurrentBehavior().getClass().getSimpleName() : "none"));
+        }
+    }
+
+    private static void warnIfDisabled(CommandSender sender, AIMetrics metrics) {
+        if (!metrics.isEnabled()) {
+            sender.sendMessage("AI metrics are disabled, showing previously recorded values.");
+        }
+    }
+
+    private static int parseCount(String[] args) {
+        if (args.length < 2) {
+            return DEFAULT_COUNT;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(args[1]));
+        } catch (NumberFormatException e) {
+            return DEFAULT_COUNT;
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000_000L) {
+            return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+        }
+        if (nanos >= 1_000_000L) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        }
+        if (nanos >= 1_000L) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        return nanos + "ns";
+    }
+}
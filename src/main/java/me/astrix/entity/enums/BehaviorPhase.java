@@ -0,0 +1,8 @@
+package me.astrix.entity.enums;
+
+public enum BehaviorPhase {
+    CAN_RUN,
+    START,
+    UPDATE,
+    STOP
+}
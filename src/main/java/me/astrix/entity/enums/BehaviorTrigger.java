@@ -0,0 +1,9 @@
+package me.astrix.entity.enums;
+
+public enum BehaviorTrigger {
+    ENTITY_ENTERED_RADIUS,
+    DAMAGED,
+    WEATHER_CHANGED,
+    TARGET_DIED,
+    DAY_PHASE_CHANGED
+}
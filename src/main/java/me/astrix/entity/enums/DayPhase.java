@@ -0,0 +1,8 @@
+package me.astrix.entity.enums;
+
+public enum DayPhase {
+    DAWN,
+    DAY,
+    DUSK,
+    NIGHT
+}
@@ -0,0 +1,7 @@
+package me.astrix.entity.enums;
+
+public enum LodTier {
+    NEAR,
+    MEDIUM,
+    FAR
+}
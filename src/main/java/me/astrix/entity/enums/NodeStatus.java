@@ -0,0 +1,7 @@
+package me.astrix.entity.enums;
+
+public enum NodeStatus {
+    SUCCESS,
+    FAILURE,
+    RUNNING
+}
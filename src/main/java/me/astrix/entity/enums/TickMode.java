@@ -0,0 +1,6 @@
+package me.astrix.entity.enums;
+
+public enum TickMode {
+    FULL,
+    BUDGETED
+}
@@ -1,13 +1,17 @@
 package me.astrix.entity.example;
 
+import me.astrix.entity.EntityAI;
 import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.enums.BehaviorTrigger;
 import me.astrix.entity.utils.EntityUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 
-import java.util.stream.Collectors;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class ScaredBehavior extends AIBehavior {
 
@@ -23,8 +27,19 @@ public class ScaredBehavior extends AIBehavior {
     @Override
     public boolean canRun() {
         // Only run if a threat is nearby
-        return entity.getNearbyEntities(fearRadius, fearRadius, fearRadius)
-                .stream().anyMatch(threatType::isInstance);
+        return EntityAI.getInstance().getSpatialIndex()
+                .anyMatch(entity, fearRadius, threatType, null);
+    }
+
+    @Override
+    public Set<BehaviorTrigger> getTriggers() {
+        // Only check for threats when something moves in or out of range, or we get hurt
+        return EnumSet.of(BehaviorTrigger.ENTITY_ENTERED_RADIUS, BehaviorTrigger.DAMAGED);
+    }
+
+    @Override
+    public double getTriggerRadius() {
+        return fearRadius;
     }
 
     @Override
@@ -38,15 +53,8 @@ public class ScaredBehavior extends AIBehavior {
         if (!isActive) return;
 
         // Find the nearest threat
-        LivingEntity nearestThreat = EntityUtils.findNearestEntity(
-                entity,
-                entity.getNearbyEntities(fearRadius, fearRadius, fearRadius)
-                        .stream()
-                        .filter(threatType::isInstance)
-                        .map(e -> (LivingEntity) e)
-                        .collect(Collectors.toList()),
-                fearRadius
-        ).orElse(null);
+        LivingEntity nearestThreat = EntityUtils.findNearestEntity(entity, threatType, fearRadius)
+                .orElse(null);
 
         if (nearestThreat != null) {
             // Run away from the threat
@@ -60,4 +68,9 @@ public class ScaredBehavior extends AIBehavior {
         isActive = false;
         Bukkit.getLogger().info("Exiting scared state!");
     }
+
+    @Override
+    public BehaviorFactory getFactory() {
+        return mob -> new ScaredBehavior(mob, threatType, fearRadius);
+    }
 }
@@ -1,16 +1,43 @@
 package me.astrix.entity.example.custom;
 
 import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.MobArchetype;
 import me.astrix.entity.behaviors.impl.*;
-import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.PackManager;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Mob;
+import org.bukkit.entity.Villager;
 import org.bukkit.entity.Zombie;
 
 public class CustomMobs {
 
+    // Behavior configurations are built once and shared by every mob of a kind
+    private static final HuntingBehavior.Prototype HUNTING = new HuntingBehavior.Prototype(Zombie.class, 15.0);
+    // Packs are zombies themselves, so they hunt the villager scouts instead
+    private static final HuntingBehavior.Prototype PACK_HUNTING = new HuntingBehavior.Prototype(Villager.class, 15.0);
+    private static final RandomWanderBehavior.Prototype HUNTER_WANDER = new RandomWanderBehavior.Prototype(10.0);
+
+    private static final MobArchetype FOREST_GUARDIAN = MobArchetype.builder()
+            .behavior(new TerritorialBehavior.Prototype(null, 20.0))
+            .behavior(WeatherReactiveBehavior::new)
+            .behavior(new RandomWanderBehavior.Prototype(15.0))
+            .build();
+
+    private static final MobArchetype PACK_HUNTER = MobArchetype.builder()
+            .behavior(HUNTING)
+            .behavior(SocialInteractionBehavior::new)
+            .behavior(HUNTER_WANDER)
+            .build();
+
+    private static final MobArchetype SKITTISH_SCOUT = MobArchetype.builder()
+            .behavior(new PanicBehavior.Prototype(0.6))
+            .behavior(SocialInteractionBehavior::new)
+            .behavior(WeatherReactiveBehavior::new)
+            .behavior(new RandomWanderBehavior.Prototype(8.0))
+            .build();
+
     /**
      * Creates a Forest Guardian mob - a territorial, weather-reactive creature
      * that patrols its woodland territory and seeks shelter during storms.
@@ -30,13 +57,8 @@ public class CustomMobs {
         forestGuardian.setCustomName("Forest Guardian");
         forestGuardian.setCustomNameVisible(true);
 
-        // Create AI Manager
-        AIManager aiManager = EntityAI.getInstance().createAIForEntity(forestGuardian);
-
-        // Add behaviors
-        aiManager.addBehavior(new TerritorialBehavior(forestGuardian, location, 20.0));
-        aiManager.addBehavior(new WeatherReactiveBehavior(forestGuardian));
-        aiManager.addBehavior(new RandomWanderBehavior(forestGuardian, 15.0));
+        // Create the AI from the shared archetype
+        FOREST_GUARDIAN.createAI(forestGuardian);
 
         return forestGuardian;
     }
@@ -59,19 +81,14 @@ public class CustomMobs {
         packHunter.setCustomName("Pack Hunter");
         packHunter.setCustomNameVisible(true);
 
-        // Create AI Manager
-        AIManager aiManager = EntityAI.getInstance().createAIForEntity(packHunter);
-
-        // Add behaviors
-        aiManager.addBehavior(new HuntingBehavior(packHunter, Zombie.class, 15.0));
-        aiManager.addBehavior(new SocialInteractionBehavior(packHunter));
-        aiManager.addBehavior(new RandomWanderBehavior(packHunter, 10.0));
+        // Create the AI from the shared archetype
+        PACK_HUNTER.createAI(packHunter);
     }
 
 
     /**
-     * Creates a Skittish Scout mob - a cautious creature that panics easily
-     * and has complex social and survival behaviors.
+     * Creates a Skittish Scout mob - a cautious villager that panics easily
+     * and has complex social and survival behaviors. Hunter packs prey on scouts.
      *
      * @param location Spawn location for the Skittish Scout
      * @return The spawned Skittish Scout mob
@@ -82,31 +99,33 @@ public class CustomMobs {
         }
 
         World world = location.getWorld();
-        Zombie skittishScout = (Zombie) world.spawnEntity(location, EntityType.ZOMBIE);
+        Villager skittishScout = (Villager) world.spawnEntity(location, EntityType.VILLAGER);
 
         // Customize mob appearance
         skittishScout.setCustomName("Skittish Scout");
         skittishScout.setCustomNameVisible(true);
 
-        // Create AI Manager
-        AIManager aiManager = EntityAI.getInstance().createAIForEntity(skittishScout);
-
-        // Add behaviors
-        aiManager.addBehavior(new PanicBehavior(skittishScout, 0.6));
-        aiManager.addBehavior(new SocialInteractionBehavior(skittishScout));
-        aiManager.addBehavior(new WeatherReactiveBehavior(skittishScout));
-        aiManager.addBehavior(new RandomWanderBehavior(skittishScout, 8.0));
+        // Create the AI from the shared archetype
+        SKITTISH_SCOUT.createAI(skittishScout);
 
         return skittishScout;
     }
 
     /**
      * Spawns multiple Pack Hunters to demonstrate group behavior.
+     * The pack hunts Skittish Scouts and wanders as one unit: only the leader searches
+     * for prey and plans paths, the other hunters follow it in formation.
      *
      * @param centerLocation Center location for spawning pack
      * @param packSize Number of pack hunters to spawn
      */
     public void spawnPackHunterPack(Location centerLocation, int packSize) {
+        if (centerLocation == null || centerLocation.getWorld() == null) {
+            throw new IllegalArgumentException("The location or the world cannot be null.");
+        }
+
+        PackManager pack = EntityAI.getInstance().createPack(PACK_HUNTING, HUNTER_WANDER);
+
         for (int i = 0; i < packSize; i++) {
             // Spread pack members around the center location
             double angle = 2 * Math.PI * i / packSize;
@@ -118,7 +137,10 @@ public class CustomMobs {
                     Math.sin(angle) * radius
             );
 
-            spawnPackHunter(memberLocation);
+            Zombie packHunter = (Zombie) centerLocation.getWorld().spawnEntity(memberLocation, EntityType.ZOMBIE);
+            packHunter.setCustomName("Pack Hunter");
+            packHunter.setCustomNameVisible(true);
+            pack.addMember(packHunter);
         }
     }
 }
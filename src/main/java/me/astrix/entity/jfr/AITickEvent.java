@@ -0,0 +1,29 @@
+package me.astrix.entity.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("me.astrix.entity.AITick")
+@Label("AI Tick")
+@Category("EntityAI")
+@Description("One tick of the AI update loop")
+@Setter
+public class AITickEvent extends Event {
+
+    @Label("Tick")
+    private long tick;
+
+    @Label("Tick Mode")
+    private String tickMode;
+
+    @Label("Registered Managers")
+    private int registeredManagers;
+
+    @Label("Due Managers")
+    @Description("Managers whose level-of-detail interval made them due this tick")
+    private int dueManagers;
+}
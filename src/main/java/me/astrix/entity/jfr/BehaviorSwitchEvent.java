@@ -0,0 +1,25 @@
+package me.astrix.entity.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("me.astrix.entity.BehaviorSwitch")
+@Label("AI Behavior Switch")
+@Category("EntityAI")
+@Description("An entity changed its primary behavior")
+@Setter
+public class BehaviorSwitchEvent extends Event {
+
+    @Label("Entity Id")
+    private int entityId;
+
+    @Label("Previous Behavior")
+    private Class<?> previousBehavior;
+
+    @Label("New Behavior")
+    private Class<?> newBehavior;
+}
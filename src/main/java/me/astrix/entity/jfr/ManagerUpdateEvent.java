@@ -0,0 +1,37 @@
+package me.astrix.entity.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Disabled by default because it is emitted for every manager on every update;
+ * enable {@code me.astrix.entity.ManagerUpdate} in the recording settings to collect it.
+ */
+@Name("me.astrix.entity.ManagerUpdate")
+@Label("AI Manager Update")
+@Category("EntityAI")
+@Description("Behavior selection and update of one entity")
+@Enabled(false)
+@Setter
+public class ManagerUpdateEvent extends Event {
+
+    @Label("Entity Id")
+    private int entityId;
+
+    @Label("Entity Type")
+    private String entityType;
+
+    @Label("LOD Tier")
+    private String lodTier;
+
+    @Label("Current Behavior")
+    private Class<?> currentBehavior;
+
+    @Label("Behaviors")
+    private int behaviors;
+}
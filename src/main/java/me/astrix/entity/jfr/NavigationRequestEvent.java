@@ -0,0 +1,39 @@
+package me.astrix.entity.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("me.astrix.entity.NavigationRequest")
+@Label("AI Navigation Request")
+@Category("EntityAI")
+@Description("A path was planned, from the path cache or by a search")
+@Setter
+public class NavigationRequestEvent extends Event {
+
+    @Label("Entity Id")
+    private int entityId;
+
+    @Label("Cache Hit")
+    private boolean cacheHit;
+
+    @Label("Complete")
+    @Description("Whether the path reaches the goal")
+    private boolean complete;
+
+    @Label("Fallback")
+    @Description("No path was found and the entity steers directly towards the goal")
+    private boolean fallback;
+
+    @Label("Nodes Probed")
+    private int nodesProbed;
+
+    @Label("Path Length")
+    private int pathLength;
+
+    @Label("Goal Distance")
+    private double goalDistance;
+}
@@ -0,0 +1,31 @@
+package me.astrix.entity.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Disabled by default because every blackboard scans once per tick;
+ * enable {@code me.astrix.entity.PerceptionScan} in the recording settings to collect it.
+ */
+@Name("me.astrix.entity.PerceptionScan")
+@Label("AI Perception Scan")
+@Category("EntityAI")
+@Description("A blackboard scanned the spatial index for nearby mobs")
+@Enabled(false)
+@Setter
+public class PerceptionScanEvent extends Event {
+
+    @Label("Entity Id")
+    private int entityId;
+
+    @Label("Radius")
+    private double radius;
+
+    @Label("Mobs Found")
+    private int found;
+}
@@ -0,0 +1,157 @@
+package me.astrix.entity.lifecycle;
+
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.behaviors.EnhancedAIBehavior;
+import me.astrix.entity.behaviors.impl.FormationFollowBehavior;
+import me.astrix.entity.enums.EntityEmotionalState;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.PackManager;
+import me.astrix.entity.tree.BehaviorTree;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Mob;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The state of a hibernated manager, reduced to what is needed to rebuild it:
+ * behavior factories, emotional states, behavior tree, home location and target.
+ */
+final class HibernatedState {
+
+    private static final EntityEmotionalState[] EMOTIONAL_STATES = EntityEmotionalState.values();
+    private static final byte NO_EMOTIONAL_STATE = -1;
+
+    private final UUID worldId;
+    private final long storedTick;
+    private final BehaviorFactory[] factories;
+    private final byte[] emotionalStates;
+    private final UUID homeWorldId;
+    private final double homeX;
+    private final double homeY;
+    private final double homeZ;
+    private final UUID targetId;
+    private final BehaviorTree tree;
+
+    private HibernatedState(UUID worldId, long storedTick, BehaviorFactory[] factories, byte[] emotionalStates,
+                            Location home, UUID targetId, BehaviorTree tree) {
+        this.worldId = worldId;
+        this.storedTick = storedTick;
+        this.factories = factories;
+        this.tree = tree;
+        this.emotionalStates = emotionalStates;
+        this.homeWorldId = home != null && home.getWorld() != null ? home.getWorld().getUID() : null;
+        this.homeX = home != null ? home.getX() : 0.0;
+        this.homeY = home != null ? home.getY() : 0.0;
+        this.homeZ = home != null ? home.getZ() : 0.0;
+        this.targetId = targetId;
+    }
+
+    /**
+     * Captures the state of a manager. Behaviors without a factory are left out.
+     *
+     * @param manager     The manager
+     * @param currentTick The AI tick the state is captured on
+     * @return The captured state
+     */
+    static HibernatedState capture(AIManager manager, long currentTick) {
+        List<AIBehavior> behaviors = manager.getBehaviors();
+        BehaviorFactory[] factories = new BehaviorFactory[behaviors.size()];
+        byte[] emotionalStates = new byte[behaviors.size()];
+        int count = 0;
+        PackManager pack = packOf(behaviors);
+
+        for (AIBehavior behavior : behaviors) {
+            // Leader behaviors are given back by the pack if the entity leads it again
+            if (pack != null && pack.isPackBehavior(behavior)) {
+                continue;
+            }
+
+            BehaviorFactory factory = behavior.getFactory();
+            if (factory == null) {
+                Bukkit.getLogger().warning("Dropping " + behavior.getClass().getSimpleName()
+                        + " on hibernation, it does not provide a BehaviorFactory");
+                continue;
+            }
+
+            factories[count] = factory;
+            emotionalStates[count] = behavior instanceof EnhancedAIBehavior enhanced
+                    ? (byte) enhanced.getEmotionalState().ordinal()
+                    : NO_EMOTIONAL_STATE;
+            count++;
+        }
+
+        if (count < factories.length) {
+            factories = Arrays.copyOf(factories, count);
+            emotionalStates = Arrays.copyOf(emotionalStates, count);
+        }
+        BehaviorTree tree = manager.getBehaviorTree() != null ? manager.getBehaviorTree().getTree() : null;
+        return new HibernatedState(manager.getEntity().getWorld().getUID(), currentTick, factories, emotionalStates,
+                manager.getHomeLocation(), manager.getTargetId(), tree);
+    }
+
+    /**
+     * Rebuilds the captured behaviors and state on a fresh manager.
+     *
+     * @param manager The manager of the reloaded entity
+     */
+    void restore(AIManager manager) {
+        Mob entity = manager.getEntity();
+        Location home = homeLocation(entity.getWorld());
+
+        if (home != null) {
+            manager.setHomeLocation(home);
+        }
+        manager.setTargetId(targetId);
+
+        for (int i = 0; i < factories.length; i++) {
+            AIBehavior behavior = factories[i].create(entity);
+
+            // Behaviors read the home location from the manager
+            if (behavior instanceof EnhancedAIBehavior enhanced && emotionalStates[i] != NO_EMOTIONAL_STATE) {
+                enhanced.setEmotionalState(EMOTIONAL_STATES[emotionalStates[i]]);
+            }
+            manager.addBehavior(behavior);
+        }
+
+        // Tree leaves are recreated by the tree itself, their state starts fresh
+        if (tree != null) {
+            manager.setBehaviorTree(tree);
+        }
+    }
+
+    /**
+     * @return The UUID of the world the entity unloaded in
+     */
+    UUID worldId() {
+        return worldId;
+    }
+
+    /**
+     * @return The AI tick the state was captured on
+     */
+    long storedTick() {
+        return storedTick;
+    }
+
+    private static PackManager packOf(List<AIBehavior> behaviors) {
+        for (AIBehavior behavior : behaviors) {
+            if (behavior instanceof FormationFollowBehavior follow) {
+                return follow.getPack();
+            }
+        }
+        return null;
+    }
+
+    private Location homeLocation(World entityWorld) {
+        if (homeWorldId == null) {
+            return null;
+        }
+        World world = homeWorldId.equals(entityWorld.getUID()) ? entityWorld : Bukkit.getWorld(homeWorldId);
+        return world != null ? new Location(world, homeX, homeY, homeZ) : null;
+    }
+}
@@ -0,0 +1,160 @@
+package me.astrix.entity.lifecycle;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.managers.AIManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * In-memory store of the AI state of unloaded entities, keyed by entity UUID.
+ * <p>
+ * Hibernating a manager keeps only behavior factories and a few primitives, so
+ * the {@code Mob} and behavior objects can be collected while the entity is unloaded.
+ * </p>
+ * <p>
+ * The store is bounded: once it holds {@link #getMaxEntries() maxEntries} states the
+ * oldest is evicted, and states older than {@link #getMaxAgeTicks() maxAgeTicks} are
+ * evicted by {@link #evictExpired(long)}. An entity whose state was evicted loads
+ * again without AI. States of removed entities and unloaded worlds are discarded
+ * by the lifecycle listener.
+ * </p>
+ */
+@Getter
+public class HibernationStore {
+
+    public static final int DEFAULT_MAX_ENTRIES = 50_000;
+    public static final long DEFAULT_MAX_AGE_TICKS = 6 * 60 * 60 * 20L; // 6 hours
+
+    // Insertion ordered, the oldest state comes first. Guarded by this store
+    @Getter(AccessLevel.NONE)
+    private final LinkedHashMap<UUID, HibernatedState> states = new LinkedHashMap<>();
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long maxAgeTicks = DEFAULT_MAX_AGE_TICKS;
+
+    /**
+     * The number of states evicted by the size and age limits.
+     */
+    private long evictions;
+
+    /**
+     * Captures the state of a manager, replacing any state stored for its entity.
+     * Evicts the oldest state if the store is full.
+     *
+     * @param manager     The manager to hibernate
+     * @param currentTick The current AI tick
+     */
+    public synchronized void store(AIManager manager, long currentTick) {
+        UUID entityId = manager.getEntity().getUniqueId();
+        // Re-inserting moves a re-hibernated entity to the end of the order
+        states.remove(entityId);
+        states.put(entityId, HibernatedState.capture(manager, currentTick));
+
+        Iterator<HibernatedState> oldest = states.values().iterator();
+        while (states.size() > maxEntries) {
+            oldest.next();
+            oldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Restores the state stored for the manager's entity and removes it from the store.
+     *
+     * @param manager A fresh manager of the reloaded entity
+     * @return Whether a state was stored for the entity
+     */
+    public boolean restore(AIManager manager) {
+        HibernatedState state;
+        synchronized (this) {
+            state = states.remove(manager.getEntity().getUniqueId());
+        }
+        if (state == null) {
+            return false;
+        }
+        state.restore(manager);
+        return true;
+    }
+
+    /**
+     * Checks whether an entity's AI is hibernated.
+     *
+     * @param entityId The entity UUID
+     * @return Whether a state is stored for the entity
+     */
+    public synchronized boolean contains(UUID entityId) {
+        return states.containsKey(entityId);
+    }
+
+    /**
+     * Drops the stored state of an entity.
+     *
+     * @param entityId The entity UUID
+     */
+    public synchronized void discard(UUID entityId) {
+        states.remove(entityId);
+    }
+
+    /**
+     * Drops the stored states of every entity that unloaded in a world.
+     *
+     * @param worldId The world UUID
+     */
+    public synchronized void discardWorld(UUID worldId) {
+        states.values().removeIf(state -> state.worldId().equals(worldId));
+    }
+
+    /**
+     * Evicts the states stored more than {@link #getMaxAgeTicks() maxAgeTicks} ago.
+     *
+     * @param currentTick The current AI tick
+     */
+    public synchronized void evictExpired(long currentTick) {
+        Iterator<HibernatedState> oldest = states.values().iterator();
+        while (oldest.hasNext() && currentTick - oldest.next().storedTick() > maxAgeTicks) {
+            oldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Sets the number of states kept before the oldest is evicted.
+     *
+     * @param maxEntries The maximum number of states, at least 1
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of entries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Sets how long a state is kept before {@link #evictExpired(long)} evicts it.
+     *
+     * @param maxAgeTicks The maximum age in ticks, at least 1
+     */
+    public synchronized void setMaxAgeTicks(long maxAgeTicks) {
+        if (maxAgeTicks < 1) {
+            throw new IllegalArgumentException("The maximum age must be at least 1 tick");
+        }
+        this.maxAgeTicks = maxAgeTicks;
+    }
+
+    /**
+     * @return The number of hibernated entities
+     */
+    public synchronized int size() {
+        return states.size();
+    }
+
+    /**
+     * Drops every stored state.
+     */
+    public synchronized void clear() {
+        states.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package me.astrix.entity.listeners;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.enums.BehaviorTrigger;
+import me.astrix.entity.signals.EntityDamageSignal;
+import me.astrix.entity.signals.EntityDeathSignal;
+import me.astrix.entity.signals.SignalBus;
+import me.astrix.entity.signals.WeatherSignal;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.weather.ThunderChangeEvent;
+import org.bukkit.event.weather.WeatherChangeEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Converts server events into AI signals on the {@link SignalBus}, from which the
+ * {@link me.astrix.entity.signals.TriggerDispatcher} fires the {@link BehaviorTrigger}s
+ * of the affected managers. Also keeps the {@link me.astrix.entity.perception.WeatherCache}
+ * in sync with weather changes.
+ */
+public class BehaviorTriggerListener implements Listener {
+
+    private final EntityAI entityAI;
+
+    public BehaviorTriggerListener(EntityAI entityAI) {
+        this.entityAI = entityAI;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageEvent event) {
+        SignalBus bus = entityAI.getSignalBus();
+        if (!bus.hasSubscribers(EntityDamageSignal.class)) {
+            return;
+        }
+
+        Entity entity = event.getEntity();
+        Location location = entity.getLocation();
+        bus.publish(new EntityDamageSignal(entity, event.getFinalDamage(), location.getWorld(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        SignalBus bus = entityAI.getSignalBus();
+        if (!bus.hasSubscribers(EntityDeathSignal.class)) {
+            return;
+        }
+
+        LivingEntity dead = event.getEntity();
+        Location location = dead.getLocation();
+        bus.publish(new EntityDeathSignal(dead, location.getWorld(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWeatherChange(WeatherChangeEvent event) {
+        // The event fires before the world changes, so take the new state from the event
+        World world = event.getWorld();
+        entityAI.getWeatherCache().update(world, event.toWeatherState(), world.isThundering());
+        publishWeather(world);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onThunderChange(ThunderChangeEvent event) {
+        World world = event.getWorld();
+        entityAI.getWeatherCache().update(world, world.hasStorm(), event.toThunderState());
+        publishWeather(world);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        entityAI.getWeatherCache().invalidate(event.getWorld());
+    }
+
+    private void publishWeather(World world) {
+        entityAI.getSignalBus().publish(new WeatherSignal(world, entityAI.getWeatherCache().getWeather(world)));
+    }
+}
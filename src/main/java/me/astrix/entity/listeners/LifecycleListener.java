@@ -0,0 +1,108 @@
+package me.astrix.entity.listeners;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.scheduler.AIScheduler;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Mob;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityRemoveEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Hibernates the AI of unloading entities, rehydrates it when they load again
+ * and releases the managers and hibernated states of dead and removed entities
+ * and unloaded worlds. Changes are made inside the scheduler's
+ * {@link AIScheduler#enter(World) world section}.
+ */
+public class LifecycleListener implements Listener {
+
+    private final EntityAI entityAI;
+
+    public LifecycleListener(EntityAI entityAI) {
+        this.entityAI = entityAI;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        AIScheduler scheduler = entityAI.getScheduler();
+        scheduler.enter(event.getWorld());
+        try {
+            for (Entity entity : event.getEntities()) {
+                AIManager manager = entityAI.getManager(entity);
+                if (manager != null) {
+                    entityAI.hibernate(manager);
+                }
+            }
+        } finally {
+            scheduler.exit(event.getWorld());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        AIScheduler scheduler = entityAI.getScheduler();
+        scheduler.enter(event.getWorld());
+        try {
+            for (Entity entity : event.getEntities()) {
+                if (entity instanceof Mob mob) {
+                    entityAI.rehydrate(mob);
+                }
+            }
+        } finally {
+            scheduler.exit(event.getWorld());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        AIManager manager = entityAI.getManager(event.getEntity());
+        if (manager == null) {
+            return;
+        }
+
+        AIScheduler scheduler = entityAI.getScheduler();
+        World world = event.getEntity().getWorld();
+        scheduler.enter(world);
+        try {
+            entityAI.releaseAIManager(manager);
+        } finally {
+            scheduler.exit(world);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveEvent event) {
+        // Unloading entities hibernate instead
+        if (event.getCause() == EntityRemoveEvent.Cause.UNLOAD) {
+            return;
+        }
+
+        Entity entity = event.getEntity();
+        AIManager manager = entityAI.getManager(entity);
+        if (manager == null) {
+            entityAI.getHibernationStore().discard(entity.getUniqueId());
+            return;
+        }
+
+        AIScheduler scheduler = entityAI.getScheduler();
+        World world = entity.getWorld();
+        scheduler.enter(world);
+        try {
+            entityAI.releaseAIManager(manager);
+        } finally {
+            scheduler.exit(world);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        entityAI.getHibernationStore().discardWorld(event.getWorld().getUID());
+    }
+}
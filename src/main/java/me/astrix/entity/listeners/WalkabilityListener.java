@@ -0,0 +1,123 @@
+package me.astrix.entity.listeners;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.navigation.WalkabilityCache;
+import me.astrix.entity.scheduler.AIScheduler;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.List;
+
+/**
+ * Keeps the {@link WalkabilityCache} in sync with block changes and chunk unloads.
+ * Changed blocks are queued without taking the world section, so frequent events such
+ * as block physics never wait for AI updates, and repeated changes of a block are queued once. Chunk and world unloads are applied inside the scheduler's
+ * {@link AIScheduler#enter(World) world section}.
+ */
+public class WalkabilityListener implements Listener {
+
+    private final WalkabilityCache walkabilityCache;
+
+    public WalkabilityListener(WalkabilityCache walkabilityCache) {
+        this.walkabilityCache = walkabilityCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPhysics(BlockPhysicsEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        invalidate(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        invalidateAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        World world = event.getWorld();
+        AIScheduler scheduler = EntityAI.getInstance().getScheduler();
+        scheduler.enter(world);
+        try {
+            walkabilityCache.invalidateChunk(world, event.getChunk().getX(), event.getChunk().getZ());
+        } finally {
+            scheduler.exit(world);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        World world = event.getWorld();
+        AIScheduler scheduler = EntityAI.getInstance().getScheduler();
+        scheduler.enter(world);
+        try {
+            walkabilityCache.invalidateWorld(world);
+        } finally {
+            scheduler.exit(world);
+        }
+    }
+
+    private void invalidate(Block block) {
+        walkabilityCache.invalidateBlock(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    private void invalidateAll(List<Block> blocks) {
+        for (Block block : blocks) {
+            invalidate(block);
+        }
+    }
+}
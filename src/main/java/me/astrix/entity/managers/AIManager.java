@@ -1,13 +1,36 @@
 package me.astrix.entity.managers;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
+import me.astrix.entity.EntityAI;
 import me.astrix.entity.behaviors.AIBehavior;
-import org.bukkit.Bukkit;
+import me.astrix.entity.enums.BehaviorPhase;
+import me.astrix.entity.enums.BehaviorTrigger;
+import me.astrix.entity.enums.LodTier;
+import me.astrix.entity.jfr.BehaviorSwitchEvent;
+import me.astrix.entity.jfr.ManagerUpdateEvent;
+import me.astrix.entity.metrics.AIMetrics;
+import me.astrix.entity.metrics.ManagerMetrics;
+import me.astrix.entity.perception.Blackboard;
+import me.astrix.entity.signals.AISignal;
+import me.astrix.entity.signals.SignalListener;
+import me.astrix.entity.signals.SignalRegion;
+import me.astrix.entity.signals.Subscription;
+import me.astrix.entity.tree.BehaviorTree;
+import me.astrix.entity.tree.BehaviorTreeInstance;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Mob;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
 
 @Getter
 public class AIManager {
@@ -17,6 +40,120 @@ public class AIManager {
     private AIBehavior currentBehavior;
     private final List<AIBehavior> concurrentBehaviors;
 
+    /**
+     * Perceptions shared by all behaviors of the entity, refreshed every tick.
+     */
+    private final Blackboard blackboard;
+
+    /**
+     * The location the entity considers home, defaults to where it was when the manager was created.
+     */
+    @Setter
+    private Location homeLocation;
+
+    /**
+     * Random generator shared by the behaviors of the entity, created on first use.
+     */
+    @Getter(AccessLevel.NONE)
+    private Random random;
+
+    /**
+     * Number of consecutive ticks the budgeted scheduler skipped this manager.
+     */
+    private int starvedTicks;
+
+    /**
+     * Update rate tier, assigned by {@link EntityAI} from the distance to the nearest player.
+     */
+    @Setter
+    private LodTier lodTier = LodTier.NEAR;
+
+    /**
+     * Number of ticks since the previous update, 1 when the manager updates every tick.
+     */
+    private int tickDelta = 1;
+
+    /**
+     * Offset spreading the updates of reduced-rate managers over the ticks of their interval.
+     */
+    private final int updatePhase;
+
+    @Getter(AccessLevel.NONE)
+    private long lastUpdateTick = -1;
+
+    /**
+     * Generation-tagged slot of this manager in the {@link ManagerRegistry}, -1 while not registered.
+     */
+    long handle = -1L;
+
+    /**
+     * Whether this manager is registered, cleared as soon as its removal is requested.
+     * Both fields are maintained by the {@link ManagerRegistry}.
+     */
+    volatile boolean registered;
+
+    /**
+     * The entity this manager's behaviors are focused on, e.g. hunted prey.
+     */
+    private UUID targetId;
+
+    /**
+     * Behavior tree ticked instead of the priority list, or {@code null} to use the list.
+     */
+    private BehaviorTreeInstance behaviorTree;
+
+    /**
+     * Update timings of this manager, recorded while {@link AIMetrics} is enabled.
+     */
+    private final ManagerMetrics metrics = new ManagerMetrics();
+
+    /**
+     * Result of each behavior's {@code canRun()} for the current update, indexed like {@link #behaviors}.
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean[] runnable = new boolean[4];
+    @Getter(AccessLevel.NONE)
+    private int evaluatedCount;
+
+    /**
+     * Trigger bits, staleness and last evaluation tick of each behavior, indexed like {@link #behaviors}.
+     */
+    @Getter(AccessLevel.NONE)
+    private int[] triggerMasks = new int[4];
+    @Getter(AccessLevel.NONE)
+    private int[] maxStalenessTicks = new int[4];
+    @Getter(AccessLevel.NONE)
+    private long[] evaluatedTicks = new long[4];
+
+    /**
+     * Triggers fired since the last update, as bits of {@link BehaviorTrigger} ordinals.
+     */
+    @Getter(AccessLevel.NONE)
+    private int pendingTriggers;
+    @Getter(AccessLevel.NONE)
+    private boolean reevaluateAll = true;
+
+    /**
+     * Largest radius watched for {@link BehaviorTrigger#ENTITY_ENTERED_RADIUS}, 0 if none.
+     */
+    @Getter(AccessLevel.NONE)
+    private double proximityRadius;
+    @Getter(AccessLevel.NONE)
+    private int proximityCount = -1;
+    @Getter(AccessLevel.NONE)
+    private long proximityCheckedTick = Long.MIN_VALUE;
+
+    /**
+     * Signal subscriptions kept centered on the entity, see {@link #subscribe}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<LocalSubscription> subscriptions = new ArrayList<>(0);
+    @Getter(AccessLevel.NONE)
+    private long subscriptionsMovedTick;
+
+    private static final int PROXIMITY_CHECK_TICKS = 5;
+    private static final int SUBSCRIPTION_RECENTER_TICKS = 20;
+
     private static final int MAX_CONCURRENT_BEHAVIORS = 3;
 
     /**
@@ -28,6 +165,22 @@ public class AIManager {
         this.entity = entity;
         this.behaviors = new ArrayList<>();
         this.concurrentBehaviors = new ArrayList<>();
+        this.blackboard = new Blackboard(entity, this);
+        this.homeLocation = entity.getLocation().clone();
+        this.updatePhase = entity.getEntityId() & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the random generator shared by the behaviors of this entity. It comes
+     * from {@link EntityAI#newRandom()}, so seeded runs stay reproducible.
+     *
+     * @return The random generator
+     */
+    public Random getRandom() {
+        if (random == null) {
+            random = EntityAI.getInstance().newRandom();
+        }
+        return random;
     }
 
     /**
@@ -36,9 +189,11 @@ public class AIManager {
      * @param behavior The behavior to add
      */
     public void addBehavior(AIBehavior behavior) {
+        behavior.attach(this);
         behaviors.add(behavior);
         // Sort behaviors by priority (descending)
         behaviors.sort(Comparator.comparingDouble(AIBehavior::getPriority).reversed());
+        refreshTriggers();
     }
 
     /**
@@ -46,52 +201,348 @@ public class AIManager {
      * Implements advanced behavior selection and management.
      */
     public void update() {
+        ManagerUpdateEvent event = new ManagerUpdateEvent();
+        event.begin();
+
+        AIMetrics aiMetrics = EntityAI.getInstance().getMetrics();
+        if (aiMetrics.isEnabled()) {
+            long start = System.nanoTime();
+            updateBehaviors(aiMetrics);
+            metrics.recordUpdate(System.nanoTime() - start);
+        } else {
+            updateBehaviors(null);
+        }
+
+        if (event.shouldCommit()) {
+            event.setEntityId(entity.getEntityId());
+            event.setEntityType(entity.getType().name());
+            event.setLodTier(lodTier.name());
+            event.setCurrentBehavior(currentBehavior != null ? currentBehavior.getClass() : null);
+            event.setBehaviors(behaviors.size());
+            event.commit();
+        }
+    }
+
+    /**
+     * Selects and runs the behaviors of the current tick.
+     *
+     * @param aiMetrics Metrics to record timings into, or {@code null} when disabled
+     */
+    private void updateBehaviors(AIMetrics aiMetrics) {
+        starvedTicks = 0;
+
+        long tick = EntityAI.getInstance().getCurrentTick();
+        tickDelta = lastUpdateTick < 0 ? 1 : (int) Math.max(1, Math.min(Integer.MAX_VALUE, tick - lastUpdateTick));
+        lastUpdateTick = tick;
+
+        if (!subscriptions.isEmpty() && tick - subscriptionsMovedTick >= SUBSCRIPTION_RECENTER_TICKS) {
+            recenterSubscriptions(tick);
+        }
+
+        if (behaviorTree != null) {
+            behaviorTree.tick(tick);
+            return;
+        }
+
+        // Ask the behaviors whose triggers fired; repeated perception is served by the blackboard
+        evaluateRunConditions(tick, aiMetrics);
+
         // Clear expired concurrent behaviors
-        concurrentBehaviors.removeIf(b -> !b.canRun());
+        for (int i = concurrentBehaviors.size() - 1; i >= 0; i--) {
+            if (!isRunnable(concurrentBehaviors.get(i))) {
+                concurrentBehaviors.remove(i);
+            }
+        }
 
         // Select primary behavior
-        AIBehavior selectedBehavior = behaviors.stream()
-                .filter(AIBehavior::canRun)
-                .findFirst()
-                .orElse(null);
+        AIBehavior selectedBehavior = null;
+        for (int i = 0; i < evaluatedCount; i++) {
+            if (runnable[i]) {
+                selectedBehavior = behaviors.get(i);
+                break;
+            }
+        }
 
         // Manage primary behavior
         if (selectedBehavior != currentBehavior) {
+            EntityAI.getInstance().getTraceRecorder().recordSwitch(entity, currentBehavior, selectedBehavior);
+
+            BehaviorSwitchEvent event = new BehaviorSwitchEvent();
+            if (event.shouldCommit()) {
+                event.setEntityId(entity.getEntityId());
+                event.setPreviousBehavior(currentBehavior != null ? currentBehavior.getClass() : null);
+                event.setNewBehavior(selectedBehavior != null ? selectedBehavior.getClass() : null);
+                event.commit();
+            }
+
             if (currentBehavior != null) {
-                currentBehavior.stop();
+                invoke(currentBehavior, BehaviorPhase.STOP, aiMetrics);
             }
             currentBehavior = selectedBehavior;
 
             if (currentBehavior != null) {
-                currentBehavior.start();
-                Bukkit.getLogger().info("Switched to behavior: " + currentBehavior.getClass().getSimpleName());
+                invoke(currentBehavior, BehaviorPhase.START, aiMetrics);
+                if (aiMetrics != null) {
+                    aiMetrics.recordSwitch(currentBehavior);
+                    metrics.recordSwitch();
+                }
             }
         }
 
         // Update primary behavior
         if (currentBehavior != null) {
-            currentBehavior.update();
+            invoke(currentBehavior, BehaviorPhase.UPDATE, aiMetrics);
         }
 
         // Manage concurrent behaviors
-        manageConcurrentBehaviors();
+        manageConcurrentBehaviors(aiMetrics);
+    }
+
+    /**
+     * Runs the start, update or stop phase of a behavior, timing it when metrics are enabled.
+     *
+     * @param behavior The behavior
+     * @param phase The phase to run, not {@link BehaviorPhase#CAN_RUN}
+     * @param aiMetrics Metrics to record into, or {@code null} when disabled
+     */
+    private static void invoke(AIBehavior behavior, BehaviorPhase phase, AIMetrics aiMetrics) {
+        long start = aiMetrics != null ? System.nanoTime() : 0L;
+        switch (phase) {
+            case START -> behavior.start();
+            case UPDATE -> behavior.update();
+            case STOP -> behavior.stop();
+            default -> throw new IllegalArgumentException("Cannot invoke phase " + phase);
+        }
+        if (aiMetrics != null) {
+            aiMetrics.record(behavior, phase, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean canRun(AIBehavior behavior, AIMetrics aiMetrics) {
+        if (aiMetrics == null) {
+            return behavior.canRun();
+        }
+        long start = System.nanoTime();
+        boolean result = behavior.canRun();
+        aiMetrics.record(behavior, BehaviorPhase.CAN_RUN, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Evaluates {@code canRun()} of the behaviors that are polled, had a trigger fire
+     * or whose cached result is stale. The other behaviors keep their cached result.
+     *
+     * @param tick The current AI tick
+     * @param aiMetrics Metrics to record into, or {@code null} when disabled
+     */
+    private void evaluateRunConditions(long tick, AIMetrics aiMetrics) {
+        int fired = pendingTriggers | pollProximity(tick);
+        boolean all = reevaluateAll;
+        pendingTriggers = 0;
+        reevaluateAll = false;
+
+        int count = behaviors.size();
+        for (int i = 0; i < count; i++) {
+            int mask = triggerMasks[i];
+            if (all || mask == 0 || (mask & fired) != 0 || tick - evaluatedTicks[i] >= maxStalenessTicks[i]) {
+                runnable[i] = canRun(behaviors.get(i), aiMetrics);
+                evaluatedTicks[i] = tick;
+            }
+        }
+        evaluatedCount = count;
+    }
+
+    /**
+     * Subscribes to the signals of a type around the entity. The region follows the
+     * entity, re-centered every second, and the subscription is cancelled when the
+     * behaviors are cleared.
+     *
+     * @param type The signal type
+     * @param radius Half the side length of the square region, in blocks
+     * @param listener The listener, called once per tick with the matching signals
+     * @param <T> Type of the signals
+     * @return The subscription
+     */
+    public <T extends AISignal> Subscription subscribe(Class<T> type, double radius, SignalListener<? super T> listener) {
+        Subscription subscription = EntityAI.getInstance().getSignalBus()
+                .subscribe(type, SignalRegion.around(entity.getLocation(), radius), listener);
+        subscriptions.add(new LocalSubscription(subscription, radius));
+        return subscription;
+    }
+
+    private void recenterSubscriptions(long tick) {
+        subscriptionsMovedTick = tick;
+        Location location = entity.getLocation();
+        for (int i = subscriptions.size() - 1; i >= 0; i--) {
+            LocalSubscription local = subscriptions.get(i);
+            if (local.subscription().isCancelled()) {
+                subscriptions.remove(i);
+            } else {
+                local.subscription().setRegion(SignalRegion.around(location, local.radius()));
+            }
+        }
+    }
+
+    /**
+     * Fires {@link BehaviorTrigger#ENTITY_ENTERED_RADIUS} when the number of living
+     * entities within the watched radius changed since the previous check.
+     *
+     * @param tick The current AI tick
+     * @return The trigger bit if it fired, otherwise 0
+     */
+    private int pollProximity(long tick) {
+        if (proximityRadius <= 0 || tick - proximityCheckedTick < PROXIMITY_CHECK_TICKS) {
+            return 0;
+        }
+        proximityCheckedTick = tick;
+
+        int count = EntityAI.getInstance().getSpatialIndex()
+                .count(entity, proximityRadius, LivingEntity.class, null);
+        boolean changed = count != proximityCount;
+        proximityCount = count;
+        return changed ? triggerBit(BehaviorTrigger.ENTITY_ENTERED_RADIUS) : 0;
+    }
+
+    /**
+     * Re-reads the triggers of every behavior after the behavior list changed.
+     */
+    private void refreshTriggers() {
+        int count = behaviors.size();
+        if (runnable.length < count) {
+            int capacity = Math.max(count, runnable.length << 1);
+            runnable = Arrays.copyOf(runnable, capacity);
+            triggerMasks = Arrays.copyOf(triggerMasks, capacity);
+            maxStalenessTicks = Arrays.copyOf(maxStalenessTicks, capacity);
+            evaluatedTicks = Arrays.copyOf(evaluatedTicks, capacity);
+        }
+
+        proximityRadius = 0.0;
+        for (int i = 0; i < count; i++) {
+            AIBehavior behavior = behaviors.get(i);
+            int mask = 0;
+            for (BehaviorTrigger trigger : behavior.getTriggers()) {
+                mask |= triggerBit(trigger);
+            }
+            if ((mask & triggerBit(BehaviorTrigger.ENTITY_ENTERED_RADIUS)) != 0) {
+                proximityRadius = Math.max(proximityRadius, behavior.getTriggerRadius());
+            }
+            triggerMasks[i] = mask;
+            maxStalenessTicks[i] = behavior.getMaxStalenessTicks();
+        }
+
+        // Indices moved, so every cached result is re-evaluated on the next update
+        reevaluateAll = true;
+    }
+
+    /**
+     * Signals that something a behavior's {@code canRun()} depends on has changed.
+     *
+     * @param trigger The trigger that fired
+     */
+    public void fireTrigger(BehaviorTrigger trigger) {
+        pendingTriggers |= triggerBit(trigger);
+    }
+
+    /**
+     * Re-evaluates {@code canRun()} of every behavior on the next update,
+     * regardless of triggers and staleness.
+     */
+    public void requestReevaluation() {
+        reevaluateAll = true;
+    }
+
+    /**
+     * Sets the entity this manager's behaviors are focused on.
+     * Its death fires {@link BehaviorTrigger#TARGET_DIED}.
+     *
+     * @param target The target, or {@code null} to clear it
+     */
+    public void setTarget(LivingEntity target) {
+        setTargetId(target != null ? target.getUniqueId() : null);
+    }
+
+    /**
+     * Sets the id of the entity this manager's behaviors are focused on.
+     *
+     * @param targetId The target's id, or {@code null} to clear it
+     */
+    public void setTargetId(UUID targetId) {
+        if (Objects.equals(this.targetId, targetId)) {
+            return;
+        }
+        this.targetId = targetId;
+        EntityAI.getInstance().getTraceRecorder().recordTarget(entity, targetId);
+    }
+
+    /**
+     * Checks whether this manager's entity is focused on another entity, either
+     * as the target set through {@link #setTarget(LivingEntity)} or as its vanilla target.
+     *
+     * @param other The other entity
+     * @return Whether the entity targets it
+     */
+    public boolean isTargeting(Entity other) {
+        if (targetId != null && targetId.equals(other.getUniqueId())) {
+            return true;
+        }
+        LivingEntity vanillaTarget = entity.getTarget();
+        return vanillaTarget != null && vanillaTarget.equals(other);
+    }
+
+    private static int triggerBit(BehaviorTrigger trigger) {
+        return 1 << trigger.ordinal();
+    }
+
+    private boolean isRunnable(AIBehavior behavior) {
+        int index = behaviors.indexOf(behavior);
+        return index >= 0 && index < evaluatedCount && runnable[index];
     }
 
     /**
      * Manages concurrent behaviors.
      * Allows multiple low-priority behaviors to run simultaneously.
+     *
+     * @param aiMetrics Metrics to record into, or {@code null} when disabled
+     */
+    private void manageConcurrentBehaviors(AIMetrics aiMetrics) {
+        int running = 0;
+        int count = Math.min(evaluatedCount, behaviors.size());
+        for (int i = 0; i < count && running < MAX_CONCURRENT_BEHAVIORS; i++) {
+            AIBehavior behavior = behaviors.get(i);
+            if (behavior == currentBehavior || !runnable[i]) {
+                continue;
+            }
+
+            running++;
+            if (!concurrentBehaviors.contains(behavior)) {
+                invoke(behavior, BehaviorPhase.START, aiMetrics);
+                concurrentBehaviors.add(behavior);
+            }
+            invoke(behavior, BehaviorPhase.UPDATE, aiMetrics);
+        }
+    }
+
+    /**
+     * Checks whether the manager should update on a tick given its update interval.
+     *
+     * @param tick The current AI tick
+     * @param interval Ticks between updates
+     * @return Whether this tick is the manager's turn, or it has waited longer than the interval
+     */
+    public boolean isDue(long tick, int interval) {
+        if (interval <= 1 || lastUpdateTick < 0) {
+            return true;
+        }
+        return (tick + updatePhase) % interval == 0 || tick - lastUpdateTick > interval;
+    }
+
+    /**
+     * Records that the scheduler skipped this manager for a tick.
+     *
+     * @return The number of consecutive ticks this manager has been skipped
      */
-    private void manageConcurrentBehaviors() {
-        behaviors.stream()
-                .filter(b -> b != currentBehavior && b.canRun())
-                .limit(MAX_CONCURRENT_BEHAVIORS)
-                .forEach(behavior -> {
-                    if (!concurrentBehaviors.contains(behavior)) {
-                        behavior.start();
-                        concurrentBehaviors.add(behavior);
-                    }
-                    behavior.update();
-                });
+    public int markStarved() {
+        return ++starvedTicks;
     }
 
     /**
@@ -100,8 +551,15 @@ public class AIManager {
      * @param behavior The behavior to remove
      */
     public void removeBehavior(AIBehavior behavior) {
+        // Stopped while still attached, so it releases its navigation and target
+        if (behavior == currentBehavior || concurrentBehaviors.contains(behavior)) {
+            behavior.stop();
+        }
+
         behaviors.remove(behavior);
         concurrentBehaviors.remove(behavior);
+        behavior.attach(null);
+        refreshTriggers();
 
         if (behavior == currentBehavior) {
             currentBehavior = null;
@@ -109,11 +567,52 @@ public class AIManager {
     }
 
     /**
-     * Clears all behaviors from the manager.
+     * Replaces the priority list with a behavior tree. The tree's leaf behaviors are
+     * created for this entity; behaviors added with {@link #addBehavior(AIBehavior)}
+     * are stopped and no longer updated while a tree is set.
+     *
+     * @param tree The tree to run, or {@code null} to return to the priority list
+     */
+    public void setBehaviorTree(BehaviorTree tree) {
+        if (behaviorTree != null) {
+            behaviorTree.release();
+        }
+
+        stopRunningBehaviors();
+        reevaluateAll = true;
+
+        behaviorTree = tree != null ? tree.instantiate(this) : null;
+    }
+
+    /**
+     * Clears all behaviors from the manager. Running behaviors are stopped first, so
+     * they cancel pending path requests and release shared flow fields.
      */
     public void clearBehaviors() {
+        if (behaviorTree != null) {
+            behaviorTree.release();
+            behaviorTree = null;
+        }
+        stopRunningBehaviors();
+        behaviors.forEach(behavior -> behavior.attach(null));
         behaviors.clear();
+        subscriptions.forEach(local -> local.subscription().cancel());
+        subscriptions.clear();
+        refreshTriggers();
+    }
+
+    /**
+     * Stops the primary and concurrent behaviors.
+     */
+    private void stopRunningBehaviors() {
+        if (currentBehavior != null) {
+            currentBehavior.stop();
+            currentBehavior = null;
+        }
+        concurrentBehaviors.forEach(AIBehavior::stop);
         concurrentBehaviors.clear();
-        currentBehavior = null;
+    }
+
+    private record LocalSubscription(Subscription subscription, double radius) {
     }
 }
@@ -0,0 +1,318 @@
+package me.astrix.entity.managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the managed entities with O(1) add, remove and lookup.
+ * <p>
+ * Managers are kept in a dense array for allocation-free iteration and removed by
+ * swapping the last manager into their place. Each manager also owns a slot whose
+ * generation is bumped on removal, so a {@link AIManager#getHandle() handle} held
+ * elsewhere resolves to {@code null} once its manager is gone instead of to a
+ * manager that reused the slot.
+ * </p>
+ * <p>
+ * The dense array is only mutated on the thread that created the registry. Adds and
+ * removes from other threads are queued until {@link #flushPending()}, and removes
+ * made while the registry is being iterated are deferred until the iteration ends.
+ * Lookups by entity UUID are safe from any thread.
+ * </p>
+ */
+public class ManagerRegistry {
+
+    private static final int FREE = -1;
+
+    private final Thread ownerThread;
+    private final Map<UUID, AIManager> byEntity = new ConcurrentHashMap<>();
+    private final Queue<AIManager> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<AIManager> pendingRemoves = new ConcurrentLinkedQueue<>();
+
+    private AIManager[] dense = new AIManager[64];
+    private int[] denseSlots = new int[64];
+    private int size;
+
+    private int[] slotDense = new int[64];
+    private int[] slotGenerations = new int[64];
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int slotCount;
+
+    private AIManager[] deferredRemoves = new AIManager[16];
+    private int deferredCount;
+    private int iterationDepth;
+
+    /**
+     * Creates a registry owned by the calling thread, normally the server main thread.
+     */
+    public ManagerRegistry() {
+        this.ownerThread = Thread.currentThread();
+    }
+
+    /**
+     * Registers a manager. Safe to call from any thread; adds from other threads
+     * or during iteration take effect on the next {@link #flushPending()}.
+     *
+     * @param manager The manager to add
+     */
+    public void add(AIManager manager) {
+        byEntity.put(manager.getEntity().getUniqueId(), manager);
+
+        if (Thread.currentThread() == ownerThread && iterationDepth == 0) {
+            insert(manager);
+        } else {
+            pendingAdds.add(manager);
+        }
+    }
+
+    /**
+     * Unregisters a manager. It stops being returned by lookups immediately; removes
+     * from other threads or during iteration take effect once that is safe.
+     *
+     * @param manager The manager to remove
+     */
+    public void remove(AIManager manager) {
+        byEntity.remove(manager.getEntity().getUniqueId(), manager);
+        manager.registered = false;
+
+        if (Thread.currentThread() != ownerThread) {
+            pendingRemoves.add(manager);
+        } else if (iterationDepth > 0) {
+            if (deferredCount == deferredRemoves.length) {
+                deferredRemoves = Arrays.copyOf(deferredRemoves, deferredCount << 1);
+            }
+            deferredRemoves[deferredCount++] = manager;
+        } else {
+            erase(manager);
+        }
+    }
+
+    /**
+     * Returns the manager of an entity. Safe to call from any thread.
+     *
+     * @param entityId The entity UUID
+     * @return The manager, or {@code null} if the entity is not managed
+     */
+    public AIManager get(UUID entityId) {
+        return byEntity.get(entityId);
+    }
+
+    /**
+     * Resolves a manager handle.
+     *
+     * @param handle A handle returned by {@link AIManager#getHandle()}
+     * @return The manager, or {@code null} if it has been removed since
+     */
+    public AIManager resolve(long handle) {
+        int slot = (int) handle;
+        if (handle < 0 || slot >= slotCount || slotGenerations[slot] != (int) (handle >>> 32)) {
+            return null;
+        }
+        int index = slotDense[slot];
+        return index == FREE ? null : dense[index];
+    }
+
+    /**
+     * Returns the dense index of a manager, which only changes when a manager
+     * after it is swapped into an earlier hole.
+     *
+     * @param manager The manager
+     * @return The index, or -1 if the manager is not in the dense array
+     */
+    public int indexOf(AIManager manager) {
+        long handle = manager.handle;
+        return handle >= 0 && resolve(handle) == manager ? slotDense[(int) handle] : -1;
+    }
+
+    /**
+     * Returns the number of managers in the dense array, including managers
+     * removed during the current iteration.
+     *
+     * @return The number of managers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a manager by dense index. Check {@link AIManager#isRegistered()}
+     * to skip managers removed during the current iteration.
+     *
+     * @param index Index between 0 and {@link #size()}
+     * @return The manager
+     */
+    public AIManager get(int index) {
+        return dense[index];
+    }
+
+    /**
+     * Defers removals until the matching {@link #endIteration()}. Owner thread only.
+     */
+    public void beginIteration() {
+        iterationDepth++;
+    }
+
+    /**
+     * Ends an iteration and applies the removals it deferred. Owner thread only.
+     */
+    public void endIteration() {
+        if (iterationDepth == 0) {
+            throw new IllegalStateException("No iteration in progress");
+        }
+        if (--iterationDepth == 0) {
+            for (int i = 0; i < deferredCount; i++) {
+                erase(deferredRemoves[i]);
+                deferredRemoves[i] = null;
+            }
+            deferredCount = 0;
+        }
+    }
+
+    /**
+     * Passes every registered manager to an action. Removals made by the action are deferred.
+     *
+     * @param action The action to run
+     */
+    public void forEach(Consumer<? super AIManager> action) {
+        beginIteration();
+        try {
+            for (int i = 0; i < size; i++) {
+                AIManager manager = dense[i];
+                if (manager.registered) {
+                    action.accept(manager);
+                }
+            }
+        } finally {
+            endIteration();
+        }
+    }
+
+    /**
+     * Applies the adds and removes queued by other threads. Owner thread only,
+     * outside of iteration; called at the start of every AI tick.
+     */
+    public void flushPending() {
+        AIManager manager;
+        while ((manager = pendingAdds.poll()) != null) {
+            // Skip managers removed or replaced before they were inserted
+            if (byEntity.get(manager.getEntity().getUniqueId()) == manager) {
+                insert(manager);
+            }
+        }
+        while ((manager = pendingRemoves.poll()) != null) {
+            erase(manager);
+        }
+    }
+
+    /**
+     * Copies the registered managers into a new list.
+     *
+     * @return The managers
+     */
+    public List<AIManager> snapshot() {
+        List<AIManager> managers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (dense[i].registered) {
+                managers.add(dense[i]);
+            }
+        }
+        return managers;
+    }
+
+    /**
+     * Removes every manager. Owner thread only.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            dense[i].registered = false;
+            dense[i].handle = -1L;
+            dense[i] = null;
+        }
+        size = 0;
+
+        // Invalidate every outstanding handle and free all slots
+        if (freeSlots.length < slotCount) {
+            freeSlots = new int[slotCount];
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotGenerations[slot]++;
+            slotDense[slot] = FREE;
+            freeSlots[slot] = slot;
+        }
+        freeCount = slotCount;
+
+        deferredCount = 0;
+        Arrays.fill(deferredRemoves, null);
+        byEntity.clear();
+        pendingAdds.clear();
+        pendingRemoves.clear();
+    }
+
+    private void insert(AIManager manager) {
+        if (manager.handle >= 0) {
+            return;
+        }
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slotDense.length) {
+                slotDense = Arrays.copyOf(slotDense, slotCount << 1);
+                slotGenerations = Arrays.copyOf(slotGenerations, slotCount << 1);
+            }
+            slot = slotCount++;
+        }
+
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size << 1);
+            denseSlots = Arrays.copyOf(denseSlots, size << 1);
+        }
+
+        int index = size++;
+        dense[index] = manager;
+        denseSlots[index] = slot;
+        slotDense[slot] = index;
+
+        manager.handle = (long) slotGenerations[slot] << 32 | slot;
+        manager.registered = true;
+    }
+
+    private void erase(AIManager manager) {
+        long handle = manager.handle;
+        if (handle < 0 || resolve(handle) != manager) {
+            return;
+        }
+
+        int slot = (int) handle;
+        int index = slotDense[slot];
+        int last = --size;
+
+        // Swap the last manager into the hole
+        if (index != last) {
+            AIManager moved = dense[last];
+            int movedSlot = denseSlots[last];
+            dense[index] = moved;
+            denseSlots[index] = movedSlot;
+            slotDense[movedSlot] = index;
+        }
+        dense[last] = null;
+
+        slotDense[slot] = FREE;
+        slotGenerations[slot]++;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+
+        manager.handle = -1L;
+        manager.registered = false;
+    }
+}
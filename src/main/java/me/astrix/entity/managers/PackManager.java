@@ -0,0 +1,381 @@
+package me.astrix.entity.managers;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.behaviors.impl.FormationFollowBehavior;
+import me.astrix.entity.behaviors.impl.HuntingBehavior;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Runs a group of mobs as one unit.
+ * <p>
+ * One member, the leader, runs the pack's behaviors with full perception and
+ * pathfinding. Every other member only runs a {@link FormationFollowBehavior},
+ * keeping its formation slot around the leader and joining the attack on the
+ * leader's target, so the pack's decisions are made once instead of once per
+ * member. A new leader is elected, closest to the centroid, when the leader is
+ * gone. The centroid is kept as running sums updated by each member's movement.
+ * </p>
+ */
+@Getter
+public class PackManager {
+
+    private static final int SLOTS_PER_RING = 8;
+    private static final double RING_SPACING = 2.5;
+
+    /**
+     * Factories of the behaviors the leader runs.
+     */
+    private final List<BehaviorFactory> leaderBehaviors;
+
+    private AIManager leader;
+
+    /**
+     * The leader's current target, resolved once per tick for the whole pack.
+     */
+    private LivingEntity target;
+
+    @Getter(AccessLevel.NONE)
+    private final List<AIManager> members = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<UUID, Integer> memberIndices = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final List<AIBehavior> leaderInstances = new ArrayList<>();
+
+    // Last position of each member and their sums, indexed like members
+    @Getter(AccessLevel.NONE)
+    private double[] lastX = new double[8];
+    @Getter(AccessLevel.NONE)
+    private double[] lastY = new double[8];
+    @Getter(AccessLevel.NONE)
+    private double[] lastZ = new double[8];
+    @Getter(AccessLevel.NONE)
+    private double sumX;
+    @Getter(AccessLevel.NONE)
+    private double sumY;
+    @Getter(AccessLevel.NONE)
+    private double sumZ;
+
+    @Getter(AccessLevel.NONE)
+    private UUID resolvedTargetId;
+    @Getter(AccessLevel.NONE)
+    private final Location scratch = new Location(null, 0, 0, 0);
+    @Getter(AccessLevel.NONE)
+    private final Predicate<LivingEntity> notMember = entity -> !isMember(entity);
+
+    /**
+     * Creates an empty pack. Use {@link EntityAI#createPack(BehaviorFactory...)} to have it ticked.
+     *
+     * @param leaderBehaviors Factories of the behaviors run by the leader
+     */
+    public PackManager(List<BehaviorFactory> leaderBehaviors) {
+        if (leaderBehaviors.isEmpty()) {
+            throw new IllegalArgumentException("A pack needs at least one leader behavior");
+        }
+        this.leaderBehaviors = List.copyOf(leaderBehaviors);
+    }
+
+    /**
+     * Adds a mob to the pack, creating its manager. The first member becomes the leader.
+     *
+     * @param mob The mob
+     * @return The mob's manager
+     */
+    public AIManager addMember(Mob mob) {
+        AIManager manager = EntityAI.getInstance().createAIForEntity(mob);
+        // Joins the pack when the behavior is attached
+        manager.addBehavior(new FormationFollowBehavior(mob, this));
+        return manager;
+    }
+
+    /**
+     * Registers a member. Called by {@link FormationFollowBehavior} when it is attached,
+     * which also covers members whose AI is rebuilt after hibernation. Members whose
+     * manager is no longer registered are dropped on the next {@link #tick()}.
+     *
+     * @param manager The member's manager
+     */
+    public void join(AIManager manager) {
+        UUID id = manager.getEntity().getUniqueId();
+        Integer existing = memberIndices.get(id);
+        if (existing != null) {
+            if (members.get(existing) == manager) {
+                return;
+            }
+            // Rebuilt after hibernation before the stale manager was pruned
+            leave(manager.getEntity());
+        }
+
+        int index = members.size();
+        if (index == lastX.length) {
+            lastX = Arrays.copyOf(lastX, index << 1);
+            lastY = Arrays.copyOf(lastY, index << 1);
+            lastZ = Arrays.copyOf(lastZ, index << 1);
+        }
+
+        members.add(manager);
+        memberIndices.put(id, index);
+
+        manager.getEntity().getLocation(scratch);
+        lastX[index] = scratch.getX();
+        lastY[index] = scratch.getY();
+        lastZ[index] = scratch.getZ();
+        sumX += lastX[index];
+        sumY += lastY[index];
+        sumZ += lastZ[index];
+
+        if (leader == null) {
+            promote(manager);
+        }
+    }
+
+    /**
+     * Unregisters a member, electing a new leader if it led the pack.
+     *
+     * @param entity The member's entity
+     */
+    public void leave(Entity entity) {
+        Integer index = memberIndices.remove(entity.getUniqueId());
+        if (index == null) {
+            return;
+        }
+
+        AIManager manager = members.get(index);
+        sumX -= lastX[index];
+        sumY -= lastY[index];
+        sumZ -= lastZ[index];
+
+        // Swap the last member into the hole
+        int last = members.size() - 1;
+        if (index != last) {
+            AIManager moved = members.get(last);
+            members.set(index, moved);
+            memberIndices.put(moved.getEntity().getUniqueId(), index);
+            lastX[index] = lastX[last];
+            lastY[index] = lastY[last];
+            lastZ[index] = lastZ[last];
+        }
+        members.remove(last);
+
+        if (manager == leader) {
+            demote();
+            electLeader();
+        }
+    }
+
+    /**
+     * Updates the centroid, replaces a leader that is gone and resolves the leader's
+     * target. Called by {@link EntityAI} once per tick before the managers update.
+     */
+    public void tick() {
+        // Single pass: drop members that are gone, add the movement of the rest to the sums
+        for (int i = members.size() - 1; i >= 0; i--) {
+            Mob entity = members.get(i).getEntity();
+            if (!entity.isValid() || !members.get(i).isRegistered()) {
+                leave(entity);
+                continue;
+            }
+
+            entity.getLocation(scratch);
+            sumX += scratch.getX() - lastX[i];
+            sumY += scratch.getY() - lastY[i];
+            sumZ += scratch.getZ() - lastZ[i];
+            lastX[i] = scratch.getX();
+            lastY[i] = scratch.getY();
+            lastZ[i] = scratch.getZ();
+        }
+
+        resolveTarget();
+    }
+
+    /**
+     * Writes the centroid of the pack into a location.
+     *
+     * @param into The location to update
+     * @return The updated location, or {@code null} if the pack is empty
+     */
+    public Location getCentroid(Location into) {
+        int size = members.size();
+        if (size == 0) {
+            return null;
+        }
+        into.setWorld(members.get(0).getEntity().getWorld());
+        into.setX(sumX / size);
+        into.setY(sumY / size);
+        into.setZ(sumZ / size);
+        return into;
+    }
+
+    /**
+     * Writes the formation position of a member, a slot on a ring around the leader.
+     *
+     * @param entity The member
+     * @param into The location to update
+     * @return The updated location, or {@code null} if the entity leads or is not a member
+     */
+    public Location getFormationPosition(Entity entity, Location into) {
+        Integer index = memberIndices.get(entity.getUniqueId());
+        if (index == null || leader == null || members.get(index) == leader) {
+            return null;
+        }
+
+        // The leader's own index is skipped, so followers fill slots 0..n-2
+        int leaderIndex = memberIndices.get(leader.getEntity().getUniqueId());
+        int slot = index < leaderIndex ? index : index - 1;
+        int ring = slot / SLOTS_PER_RING;
+        double angle = 2 * Math.PI * (slot % SLOTS_PER_RING) / SLOTS_PER_RING + ring * (Math.PI / SLOTS_PER_RING);
+        double radius = RING_SPACING * (ring + 1);
+
+        into.setWorld(leader.getEntity().getWorld());
+        into.setX(lastX[leaderIndex] + Math.cos(angle) * radius);
+        into.setY(lastY[leaderIndex]);
+        into.setZ(lastZ[leaderIndex] + Math.sin(angle) * radius);
+        return into;
+    }
+
+    /**
+     * @return Whether the entity leads the pack
+     */
+    public boolean isLeader(Entity entity) {
+        return leader != null && leader.getEntity().getUniqueId().equals(entity.getUniqueId());
+    }
+
+    /**
+     * Checks whether a behavior was added by this pack to its leader. Such behaviors
+     * belong to the pack, not the entity, and are not kept when the entity hibernates.
+     *
+     * @param behavior The behavior
+     * @return Whether the pack owns the behavior
+     */
+    public boolean isPackBehavior(AIBehavior behavior) {
+        return leaderInstances.contains(behavior);
+    }
+
+    /**
+     * @return The number of members
+     */
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * @return A copy of the members' managers
+     */
+    public List<AIManager> getMembers() {
+        return new ArrayList<>(members);
+    }
+
+    /**
+     * Removes the pack behaviors from every member; their managers stay registered.
+     */
+    public void disband() {
+        demote();
+        for (AIManager member : new ArrayList<>(members)) {
+            for (AIBehavior behavior : new ArrayList<>(member.getBehaviors())) {
+                if (behavior instanceof FormationFollowBehavior follow && follow.getPack() == this) {
+                    member.removeBehavior(behavior);
+                }
+            }
+        }
+        members.clear();
+        memberIndices.clear();
+        sumX = sumY = sumZ = 0.0;
+        target = null;
+    }
+
+    private void electLeader() {
+        int size = members.size();
+        if (size == 0) {
+            return;
+        }
+
+        double centerX = sumX / size;
+        double centerZ = sumZ / size;
+        AIManager best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            double dx = lastX[i] - centerX;
+            double dz = lastZ[i] - centerZ;
+            double distance = dx * dx + dz * dz;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = members.get(i);
+            }
+        }
+        promote(best);
+    }
+
+    private void promote(AIManager manager) {
+        leader = manager;
+        for (BehaviorFactory factory : leaderBehaviors) {
+            AIBehavior behavior = factory.create(manager.getEntity());
+            // Members of the same kind as the prey are not hunted by their own leader
+            if (behavior instanceof HuntingBehavior hunting) {
+                hunting.setPreyFilter(notMember);
+            }
+            leaderInstances.add(behavior);
+            manager.addBehavior(behavior);
+        }
+    }
+
+    private void demote() {
+        if (leader != null) {
+            for (AIBehavior behavior : leaderInstances) {
+                leader.removeBehavior(behavior);
+            }
+        }
+        leaderInstances.clear();
+        leader = null;
+        target = null;
+        resolvedTargetId = null;
+    }
+
+    private void resolveTarget() {
+        UUID targetId = leader != null ? leader.getTargetId() : null;
+        if (targetId == null) {
+            target = null;
+            resolvedTargetId = null;
+            return;
+        }
+
+        if (!targetId.equals(resolvedTargetId) || target == null || !target.isValid()) {
+            Entity entity = Bukkit.getEntity(targetId);
+            target = entity instanceof LivingEntity living && entity.isValid() ? living : null;
+            resolvedTargetId = targetId;
+        }
+    }
+
+    /**
+     * Checks whether an entity is a member of the pack.
+     *
+     * @param entity The entity
+     * @return Whether the entity is a member
+     */
+    public boolean isMember(Entity entity) {
+        return memberIndices.containsKey(entity.getUniqueId());
+    }
+
+    /**
+     * @return The world of the pack, or {@code null} if it is empty
+     */
+    public World getWorld() {
+        return members.isEmpty() ? null : members.get(0).getEntity().getWorld();
+    }
+}
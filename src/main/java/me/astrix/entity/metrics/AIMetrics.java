@@ -0,0 +1,99 @@
+package me.astrix.entity.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.enums.BehaviorPhase;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.ManagerRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timing and switch counts of behavior classes and managers.
+ * <p>
+ * Disabled by default; while disabled the managers skip all timing, so the only
+ * cost is one field read per update.
+ * </p>
+ */
+public class AIMetrics {
+
+    /**
+     * Whether managers record timings.
+     */
+    @Getter
+    @Setter
+    private volatile boolean enabled;
+
+    private final Map<Class<? extends AIBehavior>, BehaviorMetrics> behaviors = new ConcurrentHashMap<>();
+
+    /**
+     * Records the duration of a behavior phase.
+     *
+     * @param behavior The behavior
+     * @param phase The phase that ran
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(AIBehavior behavior, BehaviorPhase phase, long nanos) {
+        forBehavior(behavior.getClass()).getHistogram(phase).record(nanos);
+    }
+
+    /**
+     * Records that an entity switched to a behavior as its primary behavior.
+     *
+     * @param behavior The new primary behavior
+     */
+    public void recordSwitch(AIBehavior behavior) {
+        forBehavior(behavior.getClass()).recordSwitch();
+    }
+
+    /**
+     * Returns the metrics of a behavior class, creating them on first use.
+     *
+     * @param behaviorClass The behavior class
+     * @return The metrics of the class
+     */
+    public BehaviorMetrics forBehavior(Class<? extends AIBehavior> behaviorClass) {
+        BehaviorMetrics metrics = behaviors.get(behaviorClass);
+        return metrics != null ? metrics : behaviors.computeIfAbsent(behaviorClass, BehaviorMetrics::new);
+    }
+
+    /**
+     * Returns the behavior classes that took the most time in total.
+     *
+     * @param limit Maximum number of classes
+     * @return The most expensive behavior classes, most expensive first
+     */
+    public List<BehaviorMetrics> topBehaviors(int limit) {
+        List<BehaviorMetrics> sorted = new ArrayList<>(behaviors.values());
+        sorted.sort(Comparator.comparingLong(BehaviorMetrics::getTotalNanos).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Returns the managers that took the most time in total.
+     *
+     * @param registry The registered managers
+     * @param limit Maximum number of managers
+     * @return The most expensive managers, most expensive first
+     */
+    public List<AIManager> topManagers(ManagerRegistry registry, int limit) {
+        List<AIManager> sorted = registry.snapshot();
+        sorted.sort(Comparator.comparingLong((AIManager manager) -> manager.getMetrics().getTotalNanos()).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Clears the metrics of every behavior class and manager.
+     *
+     * @param registry The registered managers
+     */
+    public void reset(ManagerRegistry registry) {
+        behaviors.values().forEach(BehaviorMetrics::reset);
+        registry.forEach(manager -> manager.getMetrics().reset());
+    }
+}
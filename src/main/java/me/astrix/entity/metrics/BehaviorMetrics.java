@@ -0,0 +1,69 @@
+package me.astrix.entity.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.enums.BehaviorPhase;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of one behavior class across all entities.
+ */
+@Getter
+public final class BehaviorMetrics {
+
+    private final Class<? extends AIBehavior> behaviorClass;
+
+    @Getter(AccessLevel.NONE)
+    private final LatencyHistogram[] histograms;
+    @Getter(AccessLevel.NONE)
+    private final LongAdder switches = new LongAdder();
+
+    BehaviorMetrics(Class<? extends AIBehavior> behaviorClass) {
+        this.behaviorClass = behaviorClass;
+        this.histograms = new LatencyHistogram[BehaviorPhase.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Returns the timings of one phase of the behavior.
+     *
+     * @param phase The phase
+     * @return The histogram of the phase
+     */
+    public LatencyHistogram getHistogram(BehaviorPhase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * @return How often entities switched to this behavior as their primary behavior
+     */
+    public long getSwitches() {
+        return switches.sum();
+    }
+
+    /**
+     * @return The time spent in all phases, in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (LatencyHistogram histogram : histograms) {
+            total += histogram.getTotalNanos();
+        }
+        return total;
+    }
+
+    void recordSwitch() {
+        switches.increment();
+    }
+
+    void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        switches.reset();
+    }
+}
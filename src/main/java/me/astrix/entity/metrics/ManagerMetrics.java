@@ -0,0 +1,47 @@
+package me.astrix.entity.metrics;
+
+import lombok.Getter;
+
+/**
+ * Update timings of a single manager. Written by the thread updating the manager.
+ */
+@Getter
+public final class ManagerMetrics {
+
+    private long updates;
+    private long totalNanos;
+    private long maxNanos;
+    private long switches;
+
+    /**
+     * Records one manager update.
+     *
+     * @param nanos Duration of the update in nanoseconds
+     */
+    public void recordUpdate(long nanos) {
+        updates++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Records a primary behavior switch.
+     */
+    public void recordSwitch() {
+        switches++;
+    }
+
+    /**
+     * @return The mean update duration in nanoseconds, 0 if never updated
+     */
+    public double getMeanNanos() {
+        return updates == 0 ? 0.0 : (double) totalNanos / updates;
+    }
+
+    public void reset() {
+        updates = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        switches = 0;
+    }
+}
@@ -1,15 +1,20 @@
 package me.astrix.entity.navigation;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.jfr.NavigationRequestEvent;
+import me.astrix.entity.navigation.pathfinding.Path;
+import me.astrix.entity.navigation.pathfinding.PathCache;
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import me.astrix.entity.utils.VectorMath;
 import org.bukkit.Location;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Mob;
 import org.bukkit.util.Vector;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Getter
 public class AdvancedNavigator {
@@ -19,9 +24,49 @@ public class AdvancedNavigator {
     private final double precision;
     private Location destination;
 
+    /**
+     * The path currently being followed, or {@code null} when steering directly.
+     */
+    private Path path;
+    private int waypointIndex;
+
+    @Getter(AccessLevel.NONE)
+    private PathCache.Key pathKey;
+    @Getter(AccessLevel.NONE)
+    private long plannedTick = Long.MIN_VALUE;
+    @Getter(AccessLevel.NONE)
+    private double closestWaypointDistance;
+    @Getter(AccessLevel.NONE)
+    private int ticksWithoutProgress;
+
+    /**
+     * Path requested from the {@link PathRequestService}, followed once it arrives.
+     */
+    @Getter(AccessLevel.NONE)
+    private CompletableFuture<Path> requestedPath;
+    @Getter(AccessLevel.NONE)
+    private PathCache.Key requestedKey;
+
+    /**
+     * The shared flow field being followed, or {@code null} when navigating by path.
+     */
+    private FlowField flowField;
+
+    // Scratch instances reused every tick, so steering allocates nothing
+    @Getter(AccessLevel.NONE)
+    private final Location current = new Location(null, 0, 0, 0);
+    @Getter(AccessLevel.NONE)
+    private final Vector velocity = new Vector();
+
     private static final double MAX_CLIMB_HEIGHT = 1.0;
     private static final double MAX_FALL_DISTANCE = 3.0;
 
+    private static final long REPLAN_INTERVAL_TICKS = 10L;
+    // Paths to targets at least this far away are searched off the updating thread
+    private static final double ASYNC_PATH_DISTANCE = 32.0;
+    private static final int STUCK_TICKS = 20;
+    private static final double WAYPOINT_REACH_DISTANCE_SQUARED = 0.5 * 0.5;
+
     /**
      * Constructs an AdvancedNavigator for a specific entity.
      *
@@ -37,59 +82,345 @@ public class AdvancedNavigator {
 
     /**
      * Moves the entity towards the target location with advanced pathfinding.
+     * <p>
+     * The entity follows an A* path to the target, shared with other entities through
+     * the path cache. Paths are re-planned when the target moves, when the path ends
+     * before the target or when the entity stops making progress. Paths to distant
+     * targets are {@link #requestPath(Location) requested} asynchronously. Without a
+     * path the entity steers directly towards the target.
+     * </p>
      *
      * @param target Destination location
      */
     public void moveTo(Location target) {
+        releaseFlowField();
         this.destination = target;
+        entity.getLocation(current);
 
         // Check if already close enough
-        if (entity.getLocation().distance(target) <= precision) {
+        if (VectorMath.isWithin(current, target, precision)) {
             return;
         }
 
-        // Calculate direction and normalize
-        Vector direction = target.toVector().subtract(entity.getLocation().toVector()).normalize();
+        steer(target);
+    }
+
+    /**
+     * Moves the entity towards a target many entities converge on, such as a territory
+     * center, a shared home or prey.
+     * <p>
+     * Instead of searching a path per entity, the navigator follows the target's shared
+     * {@link FlowField}, which costs one lookup per tick. Entities outside the field, or
+     * on a floor it does not cover, fall back to {@link #moveTo(Location)}'s path following.
+     * The field is held until the target moves away from it or {@link #stop()} is called.
+     * </p>
+     *
+     * @param target Destination location
+     * @param radius Radius of the shared field, at most {@link FlowFieldService#MAX_RADIUS}
+     */
+    public void moveToShared(Location target, int radius) {
+        this.destination = target;
+        entity.getLocation(current);
+
+        if (VectorMath.isWithin(current, target, precision)) {
+            return;
+        }
+
+        World world = target.getWorld();
+        if (world == null || !world.getUID().equals(current.getWorld().getUID())) {
+            releaseFlowField();
+            steer(target);
+            return;
+        }
+
+        flowField = EntityAI.getInstance().getFlowFields().follow(flowField, world,
+                target.getBlockX(), target.getBlockY(), target.getBlockZ(), radius);
+
+        int cell = flowField.cellAt(current.getBlockX(), current.getBlockY(), current.getBlockZ());
+        if (cell < 0 || flowField.getDistance(cell) <= FlowFieldService.RETARGET_DISTANCE) {
+            // Not covered, or close to the field's target, which may lag a moving target: steer the rest of the way
+            steer(target);
+            return;
+        }
+
+        // A path followed before entering the field is stale once the entity leaves it again
+        path = null;
+
+        int next = flowField.nextCell(cell);
+        if (VectorMath.setScaled(velocity,
+                flowField.getX(next) + 0.5 - current.getX(),
+                flowField.getHeight(next) - current.getY(),
+                flowField.getZ(next) + 0.5 - current.getZ(), speed)) {
+            entity.setVelocity(velocity);
+        }
+    }
+
+    /**
+     * Requests a path from the entity's location to a target, searched on the
+     * {@link PathRequestService}'s workers against a snapshot of the terrain.
+     * <p>
+     * The navigator follows the path on the first move after it arrives, replacing any
+     * earlier request. Until then the entity keeps following its current path, or steers
+     * directly towards the target. {@link #stop()} cancels the request. Must be called
+     * on the thread owning the entity.
+     * </p>
+     *
+     * @param target Destination location, in the entity's world
+     * @return A future completing with the path, or with {@code null} if no step is possible
+     */
+    public CompletableFuture<Path> requestPath(Location target) {
+        World world = entity.getLocation(current).getWorld();
+        if (target.getWorld() != null && !target.getWorld().getUID().equals(world.getUID())) {
+            throw new IllegalArgumentException("Target must be in the entity's world");
+        }
+
+        return request(target, PathCache.key(world.getUID(),
+                current.getBlockX(), current.getBlockY(), current.getBlockZ(),
+                target.getBlockX(), target.getBlockY(), target.getBlockZ()));
+    }
+
+    /**
+     * Replaces the pending request with one for a new path from {@link #current}.
+     */
+    private CompletableFuture<Path> request(Location target, PathCache.Key key) {
+        cancelRequestedPath();
+        EntityAI entityAI = EntityAI.getInstance();
+        requestedPath = entityAI.getPathRequests().request(current.getWorld(),
+                current.getBlockX(), current.getBlockY(), current.getBlockZ(),
+                target.getBlockX(), target.getBlockY(), target.getBlockZ(), entityAI.getCurrentTick());
+        requestedKey = key;
+        return requestedPath;
+    }
+
+    /**
+     * Switches to the requested path if it has arrived.
+     *
+     * @return Whether a request is still pending
+     */
+    private boolean pollRequestedPath() {
+        if (requestedPath == null) {
+            return false;
+        }
+        if (!requestedPath.isDone()) {
+            return true;
+        }
+
+        // Failed and cancelled requests leave the current path in place
+        Path arrived = requestedPath.isCompletedExceptionally() ? null : requestedPath.getNow(null);
+        requestedPath = null;
+        if (arrived != null) {
+            EntityAI.getInstance().getTraceRecorder()
+                    .recordNavigation(entity, arrived, false, arrived.getNodesExplored());
+            follow(arrived, requestedKey);
+        }
+        return false;
+    }
+
+    private void cancelRequestedPath() {
+        if (requestedPath != null) {
+            requestedPath.cancel(false);
+            requestedPath = null;
+        }
+    }
+
+    /**
+     * Steers towards a target along a path, or directly if no path is available.
+     * Expects {@link #current} to hold the entity's location.
+     *
+     * @param target The destination
+     */
+    private void steer(Location target) {
+        updatePath(target);
+
+        if (path != null && followPath()) {
+            return;
+        }
 
-        // Perform obstacle and terrain checks
-        Location nextStep = entity.getLocation().clone().add(direction.clone().multiply(speed));
+        // Calculate the unit direction
+        if (!VectorMath.setScaled(velocity, target.getX() - current.getX(),
+                target.getY() - current.getY(), target.getZ() - current.getZ(), 1.0)) {
+            return;
+        }
+        double directionX = velocity.getX();
+        double directionY = velocity.getY();
+        double directionZ = velocity.getZ();
 
-        if (isValidMove(nextStep)) {
+        // Perform obstacle and terrain checks on the next step
+        if (isValidMove(current.getX() + directionX * speed,
+                current.getY() + directionY * speed,
+                current.getZ() + directionZ * speed)) {
             // Apply movement with terrain adaptation
-            entity.setVelocity(direction.multiply(speed));
+            entity.setVelocity(velocity.multiply(speed));
         } else {
             // Attempt to navigate around obstacles
-            navigateAroundObstacle(direction);
+            navigateAroundObstacle(directionX, directionY, directionZ);
         }
     }
 
     /**
-     * Checks if a proposed movement location is valid.
+     * Plans a new path when the current one no longer leads to the target.
      *
-     * @param location Location to check
-     * @return Whether the location is safe to move to
+     * @param target The destination
      */
-    private boolean isValidMove(Location location) {
-        World world = location.getWorld();
-        Block feet = location.getBlock();
-        Block head = location.clone().add(0, 1, 0).getBlock();
-        Block below = location.clone().subtract(0, 1, 0).getBlock();
+    private void updatePath(Location target) {
+        World world = current.getWorld();
+        long goal = PathCache.goal(target.getBlockX(), target.getBlockY(), target.getBlockZ());
+
+        // Keep following the current path until the requested one arrives
+        if (pollRequestedPath() && requestedKey.goal() == goal && requestedKey.worldId().equals(world.getUID())) {
+            return;
+        }
+
+        // Compare the quantized goal first, the key is only built when planning
+        boolean goalChanged = pathKey == null
+                || !pathKey.worldId().equals(world.getUID())
+                || pathKey.goal() != goal;
+        boolean exhausted = path == null || waypointIndex >= path.length();
+        boolean stuck = ticksWithoutProgress >= STUCK_TICKS;
+
+        if (!goalChanged && !exhausted && !stuck) {
+            return;
+        }
+
+        // Moving targets and failed searches are re-planned at most every few ticks
+        long tick = EntityAI.getInstance().getCurrentTick();
+        if (!stuck && plannedTick != Long.MIN_VALUE && tick - plannedTick < REPLAN_INTERVAL_TICKS) {
+            return;
+        }
+
+        PathCache.Key key = PathCache.key(world.getUID(),
+                current.getBlockX(), current.getBlockY(), current.getBlockZ(),
+                target.getBlockX(), target.getBlockY(), target.getBlockZ());
 
-        // Check for walkable surface
-        boolean validSurface = below.getType().isSolid() &&
-                !below.getType().toString().contains("WATER") &&
-                !below.getType().toString().contains("LAVA");
+        NavigationRequestEvent event = new NavigationRequestEvent();
+        event.begin();
 
-        // Check for no obstructions
-        boolean noObstructions = !feet.getType().isSolid() &&
-                !head.getType().isSolid();
+        PathCache cache = EntityAI.getInstance().getPathCache();
+        if (stuck && pathKey != null) {
+            cache.invalidate(pathKey);
+        }
+
+        Path planned = stuck ? null : cache.get(key, tick);
+        if (planned == null && VectorMath.horizontalDistanceSquared(current.getX(), current.getZ(),
+                target.getX(), target.getZ()) >= ASYNC_PATH_DISTANCE * ASYNC_PATH_DISTANCE) {
+            request(target, key);
+            plannedTick = tick;
+            ticksWithoutProgress = 0;
+            return;
+        }
+        boolean cacheHit = planned != null;
+        int nodesProbed = 0;
+        if (planned == null) {
+            PathFinder pathFinder = EntityAI.getInstance().getPathFinder();
+            planned = pathFinder.findPath(terrainFor(world),
+                    current.getBlockX(), current.getBlockY(), current.getBlockZ(),
+                    target.getBlockX(), target.getBlockY(), target.getBlockZ());
+            if (planned != null) {
+                cache.put(key, planned, tick);
+            }
+            nodesProbed = pathFinder.getLastSearchNodes();
+        }
+
+        EntityAI.getInstance().getTraceRecorder()
+                .recordNavigation(entity, planned, cacheHit, nodesProbed);
+
+        if (event.shouldCommit()) {
+            event.setEntityId(entity.getEntityId());
+            event.setCacheHit(cacheHit);
+            event.setNodesProbed(nodesProbed);
+            event.setComplete(planned != null && planned.isComplete());
+            event.setFallback(planned == null);
+            event.setPathLength(planned != null ? planned.length() : 0);
+            event.setGoalDistance(Math.sqrt(VectorMath.distanceSquared(
+                    current.getX(), current.getY(), current.getZ(), target.getX(), target.getY(), target.getZ())));
+            event.commit();
+        }
+
+        plannedTick = tick;
+        follow(planned, key);
+    }
+
+    /**
+     * Switches to a planned path. Expects {@link #current} to hold the entity's location.
+     *
+     * @param planned The path, or {@code null} to steer directly
+     * @param key Cache key of the path
+     */
+    private void follow(Path planned, PathCache.Key key) {
+        path = planned;
+        pathKey = key;
+        ticksWithoutProgress = 0;
+        closestWaypointDistance = Double.MAX_VALUE;
+        // Cached paths may start a few blocks away, join them at the closest waypoint
+        waypointIndex = planned == null ? 0 : planned.closestWaypoint(current.getX(), current.getY(), current.getZ());
+    }
+
+    /**
+     * Steers the entity towards the next waypoint of the current path.
+     *
+     * @return Whether a waypoint was left to steer towards
+     */
+    private boolean followPath() {
+        // Skip waypoints that have been reached
+        while (waypointIndex < path.length() && isWaypointReached(waypointIndex)) {
+            waypointIndex++;
+            closestWaypointDistance = Double.MAX_VALUE;
+            ticksWithoutProgress = 0;
+        }
+
+        if (waypointIndex >= path.length()) {
+            return false;
+        }
+
+        double dx = path.getX(waypointIndex) + 0.5 - current.getX();
+        double dy = path.getY(waypointIndex) - current.getY();
+        double dz = path.getZ(waypointIndex) + 0.5 - current.getZ();
+
+        // Track progress so entities pushed off the path re-plan instead of walking into walls
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (distance < closestWaypointDistance - 0.01) {
+            closestWaypointDistance = distance;
+            ticksWithoutProgress = 0;
+        } else {
+            ticksWithoutProgress++;
+        }
+
+        if (VectorMath.setScaled(velocity, dx, dy, dz, speed)) {
+            entity.setVelocity(velocity);
+        }
+        return true;
+    }
+
+    private boolean isWaypointReached(int index) {
+        double dx = path.getX(index) + 0.5 - current.getX();
+        double dz = path.getZ(index) + 0.5 - current.getZ();
+        return dx * dx + dz * dz <= WAYPOINT_REACH_DISTANCE_SQUARED
+                && Math.abs(path.getY(index) - current.getY()) < MAX_CLIMB_HEIGHT;
+    }
+
+    private TerrainView terrainFor(World world) {
+        return EntityAI.getInstance().getWalkabilityCache().forWorld(world);
+    }
+
+    /**
+     * Checks if a proposed step from {@link #current} is valid.
+     *
+     * @param x X coordinate to check
+     * @param y Y coordinate to check
+     * @param z Z coordinate to check
+     * @return Whether the location is safe to move to
+     */
+    private boolean isValidMove(double x, double y, double z) {
+        // Safe floor below, room for feet and head: three bit lookups in the walkability cache
+        boolean walkable = terrainFor(current.getWorld())
+                .isWalkable((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
 
         // Check climb and fall limitations
-        double heightDifference = location.getY() - entity.getLocation().getY();
+        double heightDifference = y - current.getY();
         boolean withinClimbLimit = Math.abs(heightDifference) <= MAX_CLIMB_HEIGHT;
         boolean withinFallLimit = heightDifference >= -MAX_FALL_DISTANCE;
 
-        return validSurface && noObstructions && withinClimbLimit && withinFallLimit;
+        return walkable && withinClimbLimit && withinFallLimit;
     }
 
     /**
@@ -99,52 +430,30 @@ public class AdvancedNavigator {
      * is blocked. It systematically checks orthogonal and diagonal directions to find
      * a valid alternative route, applying a slight speed reduction to simulate cautious movement.
      *
-     * @param originalDirection The initial movement vector attempting to be traversed
+     * @param directionX X component of the blocked unit direction
+     * @param directionY Y component of the blocked unit direction
+     * @param directionZ Z component of the blocked unit direction
      * @throws IllegalStateException if no valid movement can be found after checking all potential paths
-     * @see Vector
-     * @see Location
-     */
-    private void navigateAroundObstacle(Vector originalDirection) {
-        // Define potential movement offsets covering all primary and diagonal directions
-        List<Vector> potentialMoves = List.of(
-                new Vector(1, 0, 0),   // Right
-                new Vector(-1, 0, 0),  // Left
-                new Vector(0, 0, 1),   // Forward
-                new Vector(0, 0, -1),  // Backward
-                new Vector(1, 0, 1),   // Diagonal right-forward
-                new Vector(-1, 0, -1), // Diagonal left-backward
-                new Vector(1, 0, -1),  // Diagonal right-backward
-                new Vector(-1, 0, 1)   // Diagonal left-forward
-        );
-
-        // Find a valid move using streams and Optional for efficient path exploration
-        Optional<Vector> safeMove = potentialMoves.stream()
-                .map(offset -> {
-                    // Create an alternate direction by combining original and offset vectors
-                    Vector alternateDirection = originalDirection.clone()
-                            .add(offset.normalize());
-
-                    // Calculate the potential new location after applying the alternate direction
-                    Location alternateStep = entity.getLocation().clone()
-                            .add(alternateDirection.multiply(speed));
-
-                    // Return the alternate direction if the move is valid, otherwise null
-                    return isValidMove(alternateStep) ? alternateDirection : null;
-                })
-                .filter(Objects::nonNull)
-                .findFirst();
-
-        // Apply the movement if a safe alternative is found, otherwise potentially throw an exception
-        safeMove.ifPresentOrElse(
-                move -> {
-                    // Reduce speed to 80% to simulate cautious navigation around obstacles
-                    entity.setVelocity(move.multiply(speed * 0.8));
-                },
-                () -> {
-                    // Optional: Log or handle the case where no valid move is found
-                    throw new IllegalStateException("No valid movement path found around obstacle");
-                }
-        );
+     */
+    private void navigateAroundObstacle(double directionX, double directionY, double directionZ) {
+        // Try the primary and diagonal directions in turn, each added to the original direction
+        for (int i = 0; i < VectorMath.DIRECTIONS; i++) {
+            double alternateX = directionX + VectorMath.directionX(i);
+            double alternateZ = directionZ + VectorMath.directionZ(i);
+
+            if (isValidMove(current.getX() + alternateX * speed,
+                    current.getY() + directionY * speed,
+                    current.getZ() + alternateZ * speed)) {
+                // Reduce speed to 80% to simulate cautious navigation around obstacles
+                double cautiousSpeed = speed * 0.8;
+                entity.setVelocity(velocity.setX(alternateX * cautiousSpeed)
+                        .setY(directionY * cautiousSpeed)
+                        .setZ(alternateZ * cautiousSpeed));
+                return;
+            }
+        }
+
+        throw new IllegalStateException("No valid movement path found around obstacle");
     }
 
     /**
@@ -154,14 +463,26 @@ public class AdvancedNavigator {
      */
     public boolean hasReachedDestination() {
         return destination != null &&
-                entity.getLocation().distance(destination) <= precision;
+                VectorMath.isWithin(entity.getLocation(current), destination, precision);
     }
 
     /**
      * Stops the entity's movement.
      */
     public void stop() {
-        entity.setVelocity(new Vector(0, 0, 0));
+        entity.setVelocity(velocity.zero());
         destination = null;
+        path = null;
+        pathKey = null;
+        plannedTick = Long.MIN_VALUE;
+        cancelRequestedPath();
+        releaseFlowField();
+    }
+
+    private void releaseFlowField() {
+        if (flowField != null) {
+            EntityAI.getInstance().getFlowFields().release(flowField);
+            flowField = null;
+        }
     }
 }
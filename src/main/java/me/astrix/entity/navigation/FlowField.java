@@ -0,0 +1,505 @@
+package me.astrix.entity.navigation;
+
+import lombok.Getter;
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import org.bukkit.World;
+
+import java.util.Arrays;
+
+/**
+ * Directions towards a single target for every walkable column around it.
+ * <p>
+ * The field covers a square of {@code 2 * radius + 1} columns centered on the target
+ * and is built by one breadth-first search outwards from the target, using the same
+ * step rules as the {@link PathFinder}. Each reached column stores the feet height it
+ * was reached at, its step distance to the target and the neighbouring column one
+ * step closer, so any number of entities heading for the target look their next step
+ * up in constant time. Columns are 2.5D: where several floors overlap, only the one
+ * closest to the target is covered and entities elsewhere fall back to A*.
+ * </p>
+ * <p>
+ * When blocks change, only the columns whose route to the target passes near the
+ * changes are searched again, outwards from the unaffected columns around them.
+ * </p>
+ * Fields are shared through the {@link FlowFieldService} and only used by the thread updating their world.
+ */
+public final class FlowField {
+
+    private static final int UNREACHED = Integer.MIN_VALUE;
+
+    // Marks of the columns while refreshing
+    private static final byte UNKNOWN = 0;
+    private static final byte KEPT = 1;
+    private static final byte CLEARED = 2;
+
+    // Indexed by direction, the opposite direction is at index ^ 1
+    private static final int[] DIRECTION_DX = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTION_DZ = {0, 0, 1, -1, 1, -1, -1, 1};
+
+    // Heights tried for a neighbour stepping into a column at height y, closest first
+    private static final int[] SOURCE_HEIGHT_OFFSETS = {0, 1, -1, 2, 3};
+
+    @Getter
+    private final World world;
+    @Getter
+    private final int targetX;
+    @Getter
+    private final int targetY;
+    @Getter
+    private final int targetZ;
+    @Getter
+    private final int radius;
+    private final int size;
+
+    private final int[] heights;
+    private final int[] distances;
+    private final byte[] directions;
+
+    /**
+     * Number of columns reached by the last build.
+     */
+    @Getter
+    private int reachedColumns;
+    private int minHeight;
+    private int maxHeight;
+
+    // Bookkeeping of the FlowFieldService
+    int references;
+    long releasedTick;
+    long usedTick;
+    long builtTick;
+    boolean queued;
+    // Whether the next build searches every column, otherwise only the ones around the changed columns
+    boolean fullBuild = true;
+    // Field coordinates of the columns next to changed blocks, none while dirtyMinX > dirtyMaxX
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMaxX = Integer.MIN_VALUE;
+    private int dirtyMinZ = Integer.MAX_VALUE;
+    private int dirtyMaxZ = Integer.MIN_VALUE;
+    @Getter
+    private boolean evicted;
+
+    FlowField(World world, int targetX, int targetY, int targetZ, int radius) {
+        this.world = world;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        this.targetZ = targetZ;
+        this.radius = radius;
+        this.size = 2 * radius + 1;
+
+        int columns = size * size;
+        this.heights = new int[columns];
+        this.distances = new int[columns];
+        this.directions = new byte[columns];
+        // Nothing is reached until the first build
+        Arrays.fill(heights, UNREACHED);
+    }
+
+    /**
+     * Checks whether this field leads to the given target.
+     *
+     * @param world The world of the target
+     * @param x Target block x coordinate
+     * @param y Target block y coordinate
+     * @param z Target block z coordinate
+     * @param radius Radius of the field
+     * @return Whether the field was built for exactly this target and radius
+     */
+    public boolean isFor(World world, int x, int y, int z, int radius) {
+        return x == targetX && y == targetY && z == targetZ && radius == this.radius
+                && world.getUID().equals(this.world.getUID());
+    }
+
+    /**
+     * Checks whether this field leads close to the given target.
+     *
+     * @param world The world of the target
+     * @param x Target block x coordinate
+     * @param y Target block y coordinate
+     * @param z Target block z coordinate
+     * @param radius Radius of the field
+     * @param distance Largest distance between the targets on each axis, in blocks
+     * @return Whether the field has this radius and its target is within the distance
+     */
+    public boolean isNear(World world, int x, int y, int z, int radius, int distance) {
+        return Math.abs(x - targetX) <= distance && Math.abs(y - targetY) <= distance
+                && Math.abs(z - targetZ) <= distance && radius == this.radius
+                && world.getUID().equals(this.world.getUID());
+    }
+
+    /**
+     * Returns the column an entity standing at a block is in.
+     *
+     * @param x Block x coordinate of the feet
+     * @param y Block y coordinate of the feet
+     * @param z Block z coordinate of the feet
+     * @return The column index, or -1 if the position is outside the field, was not
+     * reached, lies on another floor than the one the field covers or the field is not built yet
+     */
+    public int cellAt(int x, int y, int z) {
+        int localX = x - targetX + radius;
+        int localZ = z - targetZ + radius;
+        if (localX < 0 || localX >= size || localZ < 0 || localZ >= size) {
+            return -1;
+        }
+
+        int cell = localZ * size + localX;
+        int height = heights[cell];
+        // Entities may be mid-jump or standing on slabs, so allow one block of slack
+        return height != UNREACHED && Math.abs(height - y) <= 1 ? cell : -1;
+    }
+
+    /**
+     * Returns the column one step closer to the target.
+     *
+     * @param cell A reached column
+     * @return The next column, or {@code cell} itself for the target column
+     */
+    public int nextCell(int cell) {
+        int direction = directions[cell];
+        return direction < 0 ? cell : cell + DIRECTION_DZ[direction] * size + DIRECTION_DX[direction];
+    }
+
+    /**
+     * @return The number of columns of the field
+     */
+    public int getColumns() {
+        return size * size;
+    }
+
+    public int getX(int cell) {
+        return targetX - radius + cell % size;
+    }
+
+    public int getZ(int cell) {
+        return targetZ - radius + cell / size;
+    }
+
+    /**
+     * Returns the feet height a column was reached at.
+     *
+     * @param cell A reached column
+     * @return The feet y coordinate
+     */
+    public int getHeight(int cell) {
+        return heights[cell];
+    }
+
+    /**
+     * Returns the number of steps from a column to the target.
+     *
+     * @param cell A reached column
+     * @return The step distance, 0 for the target column
+     */
+    public int getDistance(int cell) {
+        return distances[cell];
+    }
+
+    /**
+     * Checks whether a changed block can affect this field.
+     *
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @return Whether the block lies within the field's columns, near the heights it covers
+     */
+    boolean isAffectedBy(int x, int y, int z) {
+        // A column's step depends on its neighbours, so include the ring around the field
+        if (Math.abs(x - targetX) > radius + 1 || Math.abs(z - targetZ) > radius + 1) {
+            return false;
+        }
+        // Floors, heads, step-up head room and drops reach a few blocks around the covered heights
+        return reachedColumns == 0
+                || (y >= minHeight - PathFinder.MAX_DROP - 1 && y <= maxHeight + PathFinder.MAX_DROP + 1);
+    }
+
+    /**
+     * Records a changed block, which {@link #refresh} takes into account.
+     *
+     * @param x Block x coordinate
+     * @param z Block z coordinate
+     */
+    void markChanged(int x, int z) {
+        // The steps into and out of a column depend on its neighbours
+        int localX = x - targetX + radius;
+        int localZ = z - targetZ + radius;
+        dirtyMinX = Math.max(0, Math.min(dirtyMinX, localX - 1));
+        dirtyMaxX = Math.min(size - 1, Math.max(dirtyMaxX, localX + 1));
+        dirtyMinZ = Math.max(0, Math.min(dirtyMinZ, localZ - 1));
+        dirtyMaxZ = Math.min(size - 1, Math.max(dirtyMaxZ, localZ + 1));
+    }
+
+    /**
+     * Brings the field up to date with the current terrain. Only the columns whose route
+     * to the target passes a column {@link #markChanged marked as changed} are searched
+     * again, unless the field is new, was {@link #fullBuild marked} for a full build or
+     * the target's column changed.
+     *
+     * @param terrain Terrain of the field's world
+     * @param queue Scratch queue with room for every column of the field
+     * @param marks Scratch marks with room for every column of the field
+     * @param seeds Scratch seeds with room for every column of the field
+     * @return Whether every column was searched again
+     */
+    boolean refresh(TerrainView terrain, int[] queue, byte[] marks, long[] seeds) {
+        boolean full = fullBuild || reachedColumns == 0 || isDirty(radius * size + radius);
+        if (full) {
+            build(terrain, queue);
+        } else if (dirtyMinX <= dirtyMaxX) {
+            repair(terrain, queue, marks, seeds);
+        }
+        fullBuild = false;
+        dirtyMinX = dirtyMinZ = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxZ = Integer.MIN_VALUE;
+        return full;
+    }
+
+    /**
+     * Recomputes the field from the current terrain.
+     *
+     * @param terrain Terrain of the field's world
+     * @param queue Scratch queue with room for every column of the field
+     */
+    void build(TerrainView terrain, int[] queue) {
+        Arrays.fill(heights, UNREACHED);
+        Arrays.fill(directions, (byte) -1);
+        reachedColumns = 0;
+        minHeight = Integer.MAX_VALUE;
+        maxHeight = Integer.MIN_VALUE;
+
+        int start = radius * size + radius;
+        int startY = resolveTargetHeight(terrain);
+        if (startY == UNREACHED) {
+            return;
+        }
+
+        int head = 0;
+        int tail = 0;
+        reach(start, startY, 0);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = getX(cell);
+            int z = getZ(cell);
+            int y = heights[cell];
+            int distance = distances[cell] + 1;
+
+            for (int direction = 0; direction < DIRECTION_DX.length; direction++) {
+                int dx = DIRECTION_DX[direction];
+                int dz = DIRECTION_DZ[direction];
+                int localX = x + dx - targetX + radius;
+                int localZ = z + dz - targetZ + radius;
+                if (localX < 0 || localX >= size || localZ < 0 || localZ >= size) {
+                    continue;
+                }
+
+                int neighbor = localZ * size + localX;
+                if (heights[neighbor] != UNREACHED) {
+                    continue;
+                }
+
+                // Search backwards: find a height from which an entity in the neighbour steps into this column at y
+                int ny = sourceHeight(terrain, x + dx, z + dz, -dx, -dz, y);
+                if (ny != UNREACHED) {
+                    reach(neighbor, ny, distance);
+                    // The opposite direction leads back into this column
+                    directions[neighbor] = (byte) (direction ^ 1);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the columns whose route to the target passes a changed column and searches
+     * them again, nearest first, from the kept columns next to cleared or changed ones.
+     * The search also shortens the routes of kept columns when the changes opened a shorter way.
+     */
+    private void repair(TerrainView terrain, int[] queue, byte[] marks, long[] seeds) {
+        int columns = size * size;
+        Arrays.fill(marks, 0, columns, UNKNOWN);
+
+        // Follow each route towards the target until a column with a known mark, then mark the route
+        for (int cell = 0; cell < columns; cell++) {
+            if (heights[cell] == UNREACHED || marks[cell] != UNKNOWN) {
+                continue;
+            }
+            int depth = 0;
+            int current = cell;
+            while (marks[current] == UNKNOWN) {
+                int next = nextCell(current);
+                if (isDirty(current)) {
+                    marks[current] = CLEARED;
+                } else if (next == current) {
+                    marks[current] = KEPT;
+                } else {
+                    queue[depth++] = current;
+                    current = next;
+                }
+            }
+            byte mark = marks[current];
+            while (depth > 0) {
+                marks[queue[--depth]] = mark;
+            }
+        }
+
+        for (int cell = 0; cell < columns; cell++) {
+            if (marks[cell] == CLEARED) {
+                heights[cell] = UNREACHED;
+                directions[cell] = -1;
+                reachedColumns--;
+            }
+        }
+
+        // Kept columns next to cleared or changed ones start the search, nearest to the target first
+        int seedCount = 0;
+        for (int cell = 0; cell < columns; cell++) {
+            if (marks[cell] == KEPT && bordersChange(cell, marks)) {
+                seeds[seedCount++] = (long) distances[cell] << 32 | cell;
+            }
+        }
+        Arrays.sort(seeds, 0, seedCount);
+
+        // Breadth-first from the seeds, taking seeds and queued columns in order of distance
+        int head = 0;
+        int tail = 0;
+        int seed = 0;
+        while (head < tail || seed < seedCount) {
+            int cell;
+            if (head < tail && (seed == seedCount || distances[queue[head]] <= (int) (seeds[seed] >>> 32))) {
+                cell = queue[head++];
+            } else {
+                long next = seeds[seed++];
+                cell = (int) next;
+                if (distances[cell] != (int) (next >>> 32)) {
+                    // Shortened after it was seeded, and queued again then
+                    continue;
+                }
+            }
+
+            int x = getX(cell);
+            int z = getZ(cell);
+            int y = heights[cell];
+            int distance = distances[cell] + 1;
+
+            for (int direction = 0; direction < DIRECTION_DX.length; direction++) {
+                int dx = DIRECTION_DX[direction];
+                int dz = DIRECTION_DZ[direction];
+                int localX = x + dx - targetX + radius;
+                int localZ = z + dz - targetZ + radius;
+                if (localX < 0 || localX >= size || localZ < 0 || localZ >= size) {
+                    continue;
+                }
+
+                int neighbor = localZ * size + localX;
+                int height = heights[neighbor];
+                if (height == UNREACHED) {
+                    int ny = sourceHeight(terrain, x + dx, z + dz, -dx, -dz, y);
+                    if (ny != UNREACHED) {
+                        reach(neighbor, ny, distance);
+                        directions[neighbor] = (byte) (direction ^ 1);
+                        queue[tail++] = neighbor;
+                    }
+                } else if (distances[neighbor] > distance && isSourceHeight(height - y)
+                        && terrain.isWalkable(x + dx, height, z + dz)
+                        && PathFinder.step(terrain, x + dx, height, z + dz, -dx, -dz) == y) {
+                    // A shorter way onto the floor the column already covers
+                    distances[neighbor] = distance;
+                    directions[neighbor] = (byte) (direction ^ 1);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        minHeight = Integer.MAX_VALUE;
+        maxHeight = Integer.MIN_VALUE;
+        for (int cell = 0; cell < columns; cell++) {
+            if (heights[cell] != UNREACHED) {
+                minHeight = Math.min(minHeight, heights[cell]);
+                maxHeight = Math.max(maxHeight, heights[cell]);
+            }
+        }
+    }
+
+    private boolean isDirty(int cell) {
+        int localX = cell % size;
+        int localZ = cell / size;
+        return localX >= dirtyMinX && localX <= dirtyMaxX && localZ >= dirtyMinZ && localZ <= dirtyMaxZ;
+    }
+
+    private boolean bordersChange(int cell, byte[] marks) {
+        int localX = cell % size;
+        int localZ = cell / size;
+        for (int direction = 0; direction < DIRECTION_DX.length; direction++) {
+            int neighborX = localX + DIRECTION_DX[direction];
+            int neighborZ = localZ + DIRECTION_DZ[direction];
+            if (neighborX < 0 || neighborX >= size || neighborZ < 0 || neighborZ >= size) {
+                continue;
+            }
+            // Changed columns that were not reached may have opened up
+            int neighbor = neighborZ * size + neighborX;
+            if (marks[neighbor] == CLEARED || isDirty(neighbor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the height from which an entity in a column steps into its neighbour at a given height.
+     *
+     * @param nx Block x coordinate of the column
+     * @param nz Block z coordinate of the column
+     * @param dx X offset of the neighbour
+     * @param dz Z offset of the neighbour
+     * @param y Feet y coordinate in the neighbour
+     * @return The feet y coordinate in the column, closest to {@code y} first, or {@link #UNREACHED}
+     */
+    private static int sourceHeight(TerrainView terrain, int nx, int nz, int dx, int dz, int y) {
+        for (int offset : SOURCE_HEIGHT_OFFSETS) {
+            int ny = y + offset;
+            if (terrain.isWalkable(nx, ny, nz) && PathFinder.step(terrain, nx, ny, nz, dx, dz) == y) {
+                return ny;
+            }
+        }
+        return UNREACHED;
+    }
+
+    private static boolean isSourceHeight(int offset) {
+        for (int candidate : SOURCE_HEIGHT_OFFSETS) {
+            if (candidate == offset) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void markEvicted() {
+        evicted = true;
+    }
+
+    private void reach(int cell, int height, int distance) {
+        heights[cell] = height;
+        distances[cell] = distance;
+        reachedColumns++;
+        minHeight = Math.min(minHeight, height);
+        maxHeight = Math.max(maxHeight, height);
+    }
+
+    /**
+     * Snaps the target to the floor below or just above it, so targets in mid-air or
+     * inside the ground still produce a field.
+     *
+     * @return The feet height at the target column, or {@link #UNREACHED}
+     */
+    private int resolveTargetHeight(TerrainView terrain) {
+        for (int offset = 0; offset <= PathFinder.MAX_DROP; offset++) {
+            if (terrain.isWalkable(targetX, targetY - offset, targetZ)) {
+                return targetY - offset;
+            }
+        }
+        return terrain.isWalkable(targetX, targetY + 1, targetZ) ? targetY + 1 : UNREACHED;
+    }
+}
@@ -0,0 +1,287 @@
+package me.astrix.entity.navigation;
+
+import lombok.Getter;
+import me.astrix.entity.navigation.pathfinding.BlockPositions;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one {@link FlowField} per world, target and radius between every entity
+ * heading for that target.
+ * <p>
+ * Fields are reference counted and built a few per world and tick, new fields first,
+ * so neither a moving target nor a burst of block changes can stall the tick. Until
+ * a new field is built it covers no column. Fields whose terrain changes are queued
+ * to refresh the columns around the changed blocks, and fields older than a fixed
+ * number of ticks are queued for a full rebuild; until then entities keep following
+ * the previous directions. A followed field is kept while
+ * its target moves less than {@link #RETARGET_DISTANCE} blocks, so prey does not
+ * cost a field per block it moves. Fields nobody
+ * references are evicted after a grace period so moving targets can hand fields
+ * back and forth without rebuilding them. Fields that are still referenced but
+ * have not been followed for a long time are evicted too, so navigators dropped
+ * without being stopped do not pin their field.
+ * </p>
+ * Thread-safe, so managers of different worlds can share the service while updating in
+ * parallel. Each world's fields are guarded by their own lock, so worlds do not wait on each other.
+ */
+public class FlowFieldService implements WalkabilityCache.ChangeListener {
+
+    /**
+     * Largest supported field radius, in blocks.
+     */
+    public static final int MAX_RADIUS = 64;
+
+    /**
+     * Blocks a target may move from a followed field's target before a field is
+     * acquired for its new position.
+     */
+    public static final int RETARGET_DISTANCE = 4;
+
+    private static final long EVICT_AFTER_TICKS = 100L;
+    private static final long STALE_AFTER_TICKS = 1200L;
+    private static final long MAX_AGE_TICKS = 600L;
+    private static final int REBUILDS_PER_TICK = 2;
+
+    private static final int MAX_COLUMNS = (2 * MAX_RADIUS + 1) * (2 * MAX_RADIUS + 1);
+
+    private final WalkabilityCache walkabilityCache;
+    private final Map<UUID, WorldFields> worlds = new ConcurrentHashMap<>();
+
+    // Scratch space of the builds, guarded by this service
+    private final int[] queue = new int[MAX_COLUMNS];
+    private final byte[] marks = new byte[MAX_COLUMNS];
+    private final long[] seeds = new long[MAX_COLUMNS];
+
+    private volatile long currentTick;
+
+    @Getter
+    private long builds;
+    @Getter
+    private long evictions;
+
+    /**
+     * Creates a flow field service.
+     *
+     * @param walkabilityCache Terrain the fields are built from; the service registers
+     *                         itself to hear about changed blocks
+     */
+    public FlowFieldService(WalkabilityCache walkabilityCache) {
+        this.walkabilityCache = walkabilityCache;
+        walkabilityCache.addChangeListener(this);
+    }
+
+    /**
+     * Acquires the field leading to a target. A field no entity follows yet is queued
+     * to be built by {@link #tick(long)} and covers no column until then.
+     * Every acquisition must be matched by a {@link #release(FlowField)}.
+     *
+     * @param world The world of the target
+     * @param x Target block x coordinate
+     * @param y Target block y coordinate
+     * @param z Target block z coordinate
+     * @param radius Radius of the field in blocks, at most {@link #MAX_RADIUS}
+     * @return The shared field
+     */
+    public FlowField acquire(World world, int x, int y, int z, int radius) {
+        if (radius <= 0 || radius > MAX_RADIUS) {
+            throw new IllegalArgumentException("Flow field radius must be between 1 and " + MAX_RADIUS);
+        }
+
+        WorldFields state = worlds.computeIfAbsent(world.getUID(), worldId -> new WorldFields());
+        synchronized (state) {
+            return state.acquire(world, x, y, z, radius, currentTick);
+        }
+    }
+
+    /**
+     * Returns the field an entity should follow towards a target. The held field is
+     * kept if its target is within {@link #RETARGET_DISTANCE} blocks of the target;
+     * otherwise it is released and the target's field is acquired. Calling this every tick marks the field as followed.
+     *
+     * @param held The field held so far, or {@code null}
+     * @param world The world of the target
+     * @param x Target block x coordinate
+     * @param y Target block y coordinate
+     * @param z Target block z coordinate
+     * @param radius Radius of the field in blocks, at most {@link #MAX_RADIUS}
+     * @return The field to follow, acquired on behalf of the caller
+     */
+    public FlowField follow(FlowField held, World world, int x, int y, int z, int radius) {
+        if (held != null && held.getWorld().getUID().equals(world.getUID())) {
+            WorldFields state = worlds.get(world.getUID());
+            synchronized (state) {
+                if (!held.isEvicted() && held.isNear(world, x, y, z, radius, RETARGET_DISTANCE)) {
+                    held.usedTick = currentTick;
+                    return held;
+                }
+            }
+        }
+
+        // Acquire first, so a field shared with the held one is not released in between
+        FlowField field = acquire(world, x, y, z, radius);
+        if (held != null) {
+            release(held);
+        }
+        return field;
+    }
+
+    /**
+     * Releases a field acquired through {@link #acquire} or {@link #follow}.
+     *
+     * @param field The field
+     */
+    public void release(FlowField field) {
+        WorldFields state = worlds.get(field.getWorld().getUID());
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (field.isEvicted() || field.references <= 0) {
+                return;
+            }
+            if (--field.references == 0) {
+                field.releasedTick = currentTick;
+            }
+        }
+    }
+
+    /**
+     * Evicts unused fields and builds new, changed or outdated ones. Called once per AI tick,
+     * after the walkability cache has been flushed.
+     *
+     * @param currentTick The current AI tick
+     */
+    public synchronized void tick(long currentTick) {
+        this.currentTick = currentTick;
+
+        for (WorldFields state : worlds.values()) {
+            synchronized (state) {
+                evictions += state.evict(currentTick);
+                for (int i = 0; i < REBUILDS_PER_TICK && !state.rebuildQueue.isEmpty(); i++) {
+                    FlowField field = state.rebuildQueue.poll();
+                    field.queued = false;
+                    if (!field.isEvicted()) {
+                        build(field);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void blockChanged(World world, int x, int y, int z) {
+        WorldFields state = worlds.get(world.getUID());
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            for (FlowField field : state.fields.values()) {
+                if (field.isAffectedBy(x, y, z)) {
+                    field.markChanged(x, z);
+                    state.enqueue(field);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of live fields
+     */
+    public int size() {
+        int size = 0;
+        for (WorldFields state : worlds.values()) {
+            synchronized (state) {
+                size += state.fields.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Evicts every field.
+     */
+    public void clear() {
+        for (WorldFields state : worlds.values()) {
+            synchronized (state) {
+                state.fields.values().forEach(FlowField::markEvicted);
+                state.fields.clear();
+                state.rebuildQueue.clear();
+            }
+        }
+    }
+
+    private void build(FlowField field) {
+        // Only full builds pick up chunks loaded since the last one
+        if (field.refresh(walkabilityCache.forWorld(field.getWorld()), queue, marks, seeds)) {
+            field.builtTick = currentTick;
+        }
+        builds++;
+    }
+
+    /**
+     * The fields of one world, guarded by this object.
+     */
+    private static final class WorldFields {
+
+        private final Map<Key, FlowField> fields = new HashMap<>();
+        private final ArrayDeque<FlowField> rebuildQueue = new ArrayDeque<>();
+
+        private FlowField acquire(World world, int x, int y, int z, int radius, long currentTick) {
+            Key key = new Key(BlockPositions.pack(x, y, z), radius);
+            FlowField field = fields.get(key);
+            if (field == null) {
+                field = new FlowField(world, x, y, z, radius);
+                fields.put(key, field);
+                // Ahead of rebuilds, which still have directions to follow meanwhile
+                field.queued = true;
+                rebuildQueue.addFirst(field);
+            }
+
+            field.references++;
+            field.usedTick = currentTick;
+            return field;
+        }
+
+        /**
+         * Evicts unused fields and queues outdated ones for a full rebuild.
+         *
+         * @return The number of evicted fields
+         */
+        private int evict(long currentTick) {
+            int evicted = 0;
+            Iterator<FlowField> iterator = fields.values().iterator();
+            while (iterator.hasNext()) {
+                FlowField field = iterator.next();
+                boolean unused = field.references == 0 && currentTick - field.releasedTick >= EVICT_AFTER_TICKS;
+                boolean stale = currentTick - field.usedTick >= STALE_AFTER_TICKS;
+                if (unused || stale) {
+                    field.markEvicted();
+                    iterator.remove();
+                    evicted++;
+                } else if (currentTick - field.builtTick >= MAX_AGE_TICKS) {
+                    // Pick up chunks loaded since the build, which raise no block events
+                    field.fullBuild = true;
+                    enqueue(field);
+                }
+            }
+            return evicted;
+        }
+
+        private void enqueue(FlowField field) {
+            if (!field.queued) {
+                field.queued = true;
+                rebuildQueue.add(field);
+            }
+        }
+    }
+
+    private record Key(long target, int radius) {
+    }
+}
@@ -0,0 +1,119 @@
+package me.astrix.entity.navigation;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+
+/**
+ * Movement-related traits of every material, computed once when the class is loaded.
+ * <p>
+ * Navigation checks read a byte from a table indexed by the material ordinal instead
+ * of inspecting material names on every probe.
+ * </p>
+ */
+@UtilityClass
+public class MaterialTraits {
+
+    public static final byte SOLID = 1;
+    public static final byte LIQUID = 1 << 1;
+    public static final byte HAZARDOUS = 1 << 2;
+    public static final byte CLIMBABLE = 1 << 3;
+
+    private static final String[] LIQUIDS = {"WATER", "LAVA", "BUBBLE_COLUMN"};
+
+    private static final String[] HAZARDS = {
+            "LAVA", "LAVA_CAULDRON", "FIRE", "SOUL_FIRE", "MAGMA_BLOCK", "CAMPFIRE", "SOUL_CAMPFIRE",
+            "CACTUS", "SWEET_BERRY_BUSH", "WITHER_ROSE", "POWDER_SNOW", "POINTED_DRIPSTONE", "COBWEB"
+    };
+
+    // Used when the server does not provide the climbable tag
+    private static final String[] CLIMBABLES = {
+            "LADDER", "VINE", "SCAFFOLDING", "TWISTING_VINES", "TWISTING_VINES_PLANT",
+            "WEEPING_VINES", "WEEPING_VINES_PLANT", "CAVE_VINES", "CAVE_VINES_PLANT"
+    };
+
+    private static final byte[] TRAITS = computeTraits();
+
+    /**
+     * Returns the trait flags of a material.
+     *
+     * @param material The material
+     * @return Combination of {@link #SOLID}, {@link #LIQUID}, {@link #HAZARDOUS} and {@link #CLIMBABLE}
+     */
+    public byte traits(Material material) {
+        return TRAITS[material.ordinal()];
+    }
+
+    public boolean isSolid(Material material) {
+        return (TRAITS[material.ordinal()] & SOLID) != 0;
+    }
+
+    public boolean isLiquid(Material material) {
+        return (TRAITS[material.ordinal()] & LIQUID) != 0;
+    }
+
+    public boolean isHazardous(Material material) {
+        return (TRAITS[material.ordinal()] & HAZARDOUS) != 0;
+    }
+
+    public boolean isClimbable(Material material) {
+        return (TRAITS[material.ordinal()] & CLIMBABLE) != 0;
+    }
+
+    /**
+     * Checks whether an entity's body may occupy a block of this material.
+     *
+     * @param material The material
+     * @return Whether the material neither obstructs nor hurts
+     */
+    public boolean isPassable(Material material) {
+        return (TRAITS[material.ordinal()] & (SOLID | HAZARDOUS)) == 0;
+    }
+
+    /**
+     * Checks whether an entity can safely stand on a block of this material.
+     *
+     * @param material The material
+     * @return Whether the material is solid, dry and harmless
+     */
+    public boolean isSafeFloor(Material material) {
+        return (TRAITS[material.ordinal()] & (SOLID | LIQUID | HAZARDOUS)) == SOLID;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static byte[] computeTraits() {
+        Material[] materials = Material.values();
+        byte[] traits = new byte[materials.length];
+
+        for (Material material : materials) {
+            if (material.isLegacy() || !material.isBlock()) {
+                continue;
+            }
+            if (material.isSolid()) {
+                traits[material.ordinal()] |= SOLID;
+            }
+        }
+
+        flag(traits, LIQUIDS, LIQUID);
+        flag(traits, HAZARDS, HAZARDOUS);
+
+        Tag<Material> climbable = Tag.CLIMBABLE;
+        if (climbable != null) {
+            for (Material material : climbable.getValues()) {
+                traits[material.ordinal()] |= CLIMBABLE;
+            }
+        } else {
+            flag(traits, CLIMBABLES, CLIMBABLE);
+        }
+        return traits;
+    }
+
+    private static void flag(byte[] traits, String[] names, byte flag) {
+        for (String name : names) {
+            Material material = Material.getMaterial(name);
+            if (material != null) {
+                traits[material.ordinal()] |= flag;
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package me.astrix.entity.navigation;
+
+import lombok.Getter;
+import me.astrix.entity.navigation.pathfinding.Path;
+import me.astrix.entity.navigation.pathfinding.PathCache;
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Searches paths on a small worker pool instead of the thread updating the entity.
+ * <p>
+ * A request captures an immutable {@link WalkabilityCache#snapshot snapshot} of the
+ * terrain around its start and goal, so the search never touches live world state.
+ * Identical requests in flight, keyed like the {@link PathCache}, share one search,
+ * and found paths are added to the cache. Every requester receives its own future;
+ * once all of them are cancelled, a search that has not started is skipped. The
+ * queue is bounded, requests beyond it fail immediately.
+ * </p>
+ */
+public class PathRequestService {
+
+    // Room the search has around the box spanned by start and goal
+    private static final int SNAPSHOT_MARGIN = 16;
+    private static final int SNAPSHOT_HEIGHT = 16;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    @Getter
+    private final int workerThreads;
+
+    private final WalkabilityCache walkabilityCache;
+    private final PathCache pathCache;
+    private final Map<PathCache.Key, Search> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<PathFinder> pathFinders = ThreadLocal.withInitial(PathFinder::new);
+    private ThreadPoolExecutor workers;
+    private Executor executor;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong sharedRequests = new AtomicLong();
+
+    /**
+     * Creates a service using half of the cores.
+     *
+     * @param walkabilityCache Terrain searched by the requests
+     * @param pathCache Cache consulted before searching and filled with the found paths
+     */
+    public PathRequestService(WalkabilityCache walkabilityCache, PathCache pathCache) {
+        this(walkabilityCache, pathCache, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Creates a service.
+     *
+     * @param walkabilityCache Terrain searched by the requests
+     * @param pathCache Cache consulted before searching and filled with the found paths
+     * @param workerThreads Number of threads searching in parallel
+     */
+    public PathRequestService(WalkabilityCache walkabilityCache, PathCache pathCache, int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        this.walkabilityCache = walkabilityCache;
+        this.pathCache = pathCache;
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Requests a path between two block positions. Must be called on the thread owning the world.
+     *
+     * @param world The world to search
+     * @param startX Start block x coordinate
+     * @param startY Start block y coordinate
+     * @param startZ Start block z coordinate
+     * @param goalX Goal block x coordinate
+     * @param goalY Goal block y coordinate
+     * @param goalZ Goal block z coordinate
+     * @param currentTick The current AI tick, used to age cached paths
+     * @return A future completing with the path, or with {@code null} if no step from
+     * the start is possible; it fails if the request could not be queued
+     */
+    public CompletableFuture<Path> request(World world, int startX, int startY, int startZ,
+                                           int goalX, int goalY, int goalZ, long currentTick) {
+        PathCache.Key key = PathCache.key(world.getUID(), startX, startY, startZ, goalX, goalY, goalZ);
+        Path cached = pathCache.get(key, currentTick);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        Search search = inFlight.get(key);
+        if (search != null) {
+            CompletableFuture<Path> shared = search.subscribe();
+            if (shared != null) {
+                sharedRequests.incrementAndGet();
+                return shared;
+            }
+        }
+
+        TerrainView terrain = walkabilityCache.snapshot(world,
+                Math.min(startX, goalX) - SNAPSHOT_MARGIN, Math.min(startY, goalY) - SNAPSHOT_HEIGHT,
+                Math.min(startZ, goalZ) - SNAPSHOT_MARGIN, Math.max(startX, goalX) + SNAPSHOT_MARGIN,
+                Math.max(startY, goalY) + SNAPSHOT_HEIGHT, Math.max(startZ, goalZ) + SNAPSHOT_MARGIN);
+        search = new Search(key, terrain, startX, startY, startZ, goalX, goalY, goalZ, currentTick);
+        CompletableFuture<Path> requested = search.subscribe();
+        inFlight.put(key, search);
+
+        try {
+            executor().execute(search);
+            searches.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, search);
+            search.result.completeExceptionally(e);
+        }
+        return requested;
+    }
+
+    /**
+     * Runs searches on an executor instead of the service's worker pool. Passing
+     * {@code Runnable::run} searches on the requesting thread, which makes headless
+     * simulations deterministic.
+     *
+     * @param executor The executor, or {@code null} for the worker pool
+     */
+    public synchronized void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the number of searches started, excluding requests served by the cache
+     * or by a search already in flight.
+     *
+     * @return The number of searches
+     */
+    public long getSearches() {
+        return searches.get();
+    }
+
+    /**
+     * Returns the number of requests that joined a search already in flight.
+     *
+     * @return The number of shared requests
+     */
+    public long getSharedRequests() {
+        return sharedRequests.get();
+    }
+
+    /**
+     * Returns the number of searches queued or running.
+     *
+     * @return The number of searches in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Stops the worker pool and cancels every request in flight.
+     */
+    public synchronized void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        for (Search search : inFlight.values()) {
+            search.result.cancel(false);
+        }
+        inFlight.clear();
+    }
+
+    private synchronized Executor executor() {
+        if (executor != null) {
+            return executor;
+        }
+        if (workers == null) {
+            AtomicInteger threadId = new AtomicInteger();
+            workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "EntityAI-Path-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * One search and the requesters waiting for it.
+     */
+    private final class Search implements Runnable {
+        final PathCache.Key key;
+        final TerrainView terrain;
+        final int startX, startY, startZ;
+        final int goalX, goalY, goalZ;
+        final long requestedTick;
+        final CompletableFuture<Path> result = new CompletableFuture<>();
+        private int waiters;
+
+        Search(PathCache.Key key, TerrainView terrain, int startX, int startY, int startZ,
+               int goalX, int goalY, int goalZ, long requestedTick) {
+            this.key = key;
+            this.terrain = terrain;
+            this.startX = startX;
+            this.startY = startY;
+            this.startZ = startZ;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.goalZ = goalZ;
+            this.requestedTick = requestedTick;
+        }
+
+        /**
+         * Adds a requester.
+         *
+         * @return The requester's own future, or {@code null} if the search was abandoned
+         */
+        synchronized CompletableFuture<Path> subscribe() {
+            if (result.isCancelled()) {
+                return null;
+            }
+            waiters++;
+
+            // Cancelling the copy leaves the shared result to the other requesters
+            CompletableFuture<Path> requested = result.copy();
+            requested.whenComplete((path, error) -> {
+                if (error instanceof CancellationException && !result.isDone()) {
+                    leave();
+                }
+            });
+            return requested;
+        }
+
+        private synchronized void leave() {
+            if (--waiters == 0 && result.cancel(false)) {
+                inFlight.remove(key, this);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+
+            try {
+                Path path = pathFinders.get().findPath(terrain, startX, startY, startZ, goalX, goalY, goalZ);
+                if (path != null) {
+                    pathCache.put(key, path, requestedTick);
+                }
+                result.complete(path);
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "Path search failed on worker thread", e);
+                result.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, this);
+            }
+        }
+    }
+}
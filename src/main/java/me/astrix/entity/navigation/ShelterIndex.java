@@ -0,0 +1,298 @@
+package me.astrix.entity.navigation;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import me.astrix.entity.utils.LongObjectHashMap;
+import org.bukkit.HeightMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-chunk index of sky exposure and shelter spots.
+ * <p>
+ * For every column the index stores the top rain-blocking block, read from the
+ * world's {@link HeightMap#MOTION_BLOCKING} heightmap, and the highest spot below
+ * that roof an entity can stand on. Columns are computed lazily on first query and
+ * reset when the {@link WalkabilityCache} reports a changed block in them, so
+ * nearest-shelter searches are array lookups after the first one in an area.
+ * Unloaded chunks and worlds are dropped.
+ * </p>
+ * Worlds are indexed independently, so managers of different worlds may use the index in parallel.
+ */
+public class ShelterIndex implements WalkabilityCache.ChangeListener {
+
+    private static final short UNKNOWN = Short.MIN_VALUE;
+    private static final short NONE = Short.MIN_VALUE + 1;
+
+    // How far below a roof the floor of a shelter may lie
+    private static final int MAX_SHELTER_DEPTH = 8;
+    // How far above or below the searching entity a shelter may lie
+    private static final int MAX_HEIGHT_DIFFERENCE = 4;
+
+    private final WalkabilityCache walkabilityCache;
+    private final Map<UUID, WorldShelters> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a shelter index.
+     *
+     * @param walkabilityCache Terrain shelters are searched in; the index registers
+     *                         itself to hear about changed blocks
+     */
+    public ShelterIndex(WalkabilityCache walkabilityCache) {
+        this.walkabilityCache = walkabilityCache;
+        walkabilityCache.addChangeListener(this);
+    }
+
+    /**
+     * Checks whether rain and lightning are blocked above a position.
+     *
+     * @param world The world
+     * @param x Block x coordinate of the feet
+     * @param y Block y coordinate of the feet
+     * @param z Block z coordinate of the feet
+     * @return Whether a rain-blocking block lies above the position; unloaded columns count as exposed
+     */
+    public boolean isSheltered(World world, int x, int y, int z) {
+        WorldShelters shelters = forWorld(world);
+        ChunkColumns columns = shelters.columns(x >> 4, z >> 4);
+        if (columns == null) {
+            return false;
+        }
+
+        int column = (z & 15) << 4 | (x & 15);
+        return shelters.ensureComputed(columns, column, x, z) && columns.roofs[column] > y;
+    }
+
+    /**
+     * Finds the sheltered spot closest to a location.
+     *
+     * @param origin The searching entity's location
+     * @param radius Horizontal search radius in blocks
+     * @return The center of the closest sheltered block, or {@code null} if there is none within the radius
+     */
+    public Location findNearestShelter(Location origin, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Search radius cannot be negative");
+        }
+
+        World world = origin.getWorld();
+        WorldShelters shelters = forWorld(world);
+        int originX = origin.getBlockX();
+        int originY = origin.getBlockY();
+        int originZ = origin.getBlockZ();
+
+        int bestX = 0;
+        int bestY = 0;
+        int bestZ = 0;
+        long bestDistance = Long.MAX_VALUE;
+
+        // Search rings of growing radius until no ring can hold a closer spot
+        for (int ring = 0; ring <= radius && (long) ring * ring < bestDistance; ring++) {
+            for (int dz = -ring; dz <= ring; dz++) {
+                // Inner rows of the ring only contribute their two edge columns
+                int step = dz == -ring || dz == ring ? 1 : Math.max(1, 2 * ring);
+                for (int dx = -ring; dx <= ring; dx += step) {
+                    int x = originX + dx;
+                    int z = originZ + dz;
+                    int y = shelters.shelterY(x, z);
+                    if (y == NONE || Math.abs(y - originY) > MAX_HEIGHT_DIFFERENCE) {
+                        continue;
+                    }
+
+                    long distance = (long) dx * dx + (long) dz * dz + (long) (y - originY) * (y - originY);
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        bestX = x;
+                        bestY = y;
+                        bestZ = z;
+                    }
+                }
+            }
+        }
+
+        return bestDistance == Long.MAX_VALUE ? null : new Location(world, bestX + 0.5, bestY, bestZ + 0.5);
+    }
+
+    /**
+     * Computes every column of the chunks within a radius of a position, so the
+     * position's world can then be searched by a thread that may not read it.
+     * Must be called on a thread that may read the world.
+     *
+     * @param world The world
+     * @param x Block x coordinate
+     * @param z Block z coordinate
+     * @param radius Horizontal radius in blocks
+     */
+    public void prepare(World world, int x, int z, int radius) {
+        WorldShelters shelters = forWorld(world);
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                ChunkColumns columns = shelters.columns(chunkX, chunkZ);
+                if (columns == null || columns.complete) {
+                    continue;
+                }
+                for (int column = 0; column < 256; column++) {
+                    shelters.ensureComputed(columns, column, chunkX << 4 | (column & 15), chunkZ << 4 | column >> 4);
+                }
+                columns.complete = true;
+            }
+        }
+    }
+
+    @Override
+    public void blockChanged(World world, int x, int y, int z) {
+        WorldShelters shelters = worlds.get(world.getUID());
+        if (shelters == null) {
+            return;
+        }
+
+        ChunkColumns columns = shelters.chunks.get(chunkKey(x >> 4, z >> 4));
+        if (columns != null) {
+            int column = (z & 15) << 4 | (x & 15);
+            columns.roofs[column] = UNKNOWN;
+            columns.shelters[column] = UNKNOWN;
+            columns.complete = false;
+        }
+    }
+
+    @Override
+    public void chunkDropped(World world, int chunkX, int chunkZ) {
+        WorldShelters shelters = worlds.get(world.getUID());
+        if (shelters != null) {
+            shelters.dropChunk(chunkX, chunkZ);
+        }
+    }
+
+    @Override
+    public void worldDropped(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Drops every indexed world.
+     */
+    public void clear() {
+        worlds.clear();
+    }
+
+    private WorldShelters forWorld(World world) {
+        return worlds.computeIfAbsent(world.getUID(), id -> new WorldShelters(world));
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private final class WorldShelters {
+        final World world;
+        final LongObjectHashMap<ChunkColumns> chunks = new LongObjectHashMap<>(64);
+
+        long lastChunkKey = Long.MIN_VALUE;
+        ChunkColumns lastChunk;
+
+        WorldShelters(World world) {
+            this.world = world;
+        }
+
+        /**
+         * Returns the feet height of the shelter spot in a column.
+         *
+         * @return The feet y coordinate, or {@link #NONE}
+         */
+        int shelterY(int x, int z) {
+            ChunkColumns columns = columns(x >> 4, z >> 4);
+            if (columns == null) {
+                return NONE;
+            }
+
+            int column = (z & 15) << 4 | (x & 15);
+            return ensureComputed(columns, column, x, z) ? columns.shelters[column] : NONE;
+        }
+
+        /**
+         * Returns the columns of a chunk, creating them on first access.
+         * Threads that may not read the world only get columns already created.
+         *
+         * @return The columns, or {@code null} if the chunk is not loaded
+         */
+        ChunkColumns columns(int chunkX, int chunkZ) {
+            long key = chunkKey(chunkX, chunkZ);
+            if (key == lastChunkKey) {
+                return lastChunk;
+            }
+
+            ChunkColumns columns = chunks.get(key);
+            if (columns == null) {
+                if (!canReadWorld() || !world.isChunkLoaded(chunkX, chunkZ)) {
+                    return null;
+                }
+                columns = new ChunkColumns();
+                chunks.put(key, columns);
+            }
+            lastChunkKey = key;
+            lastChunk = columns;
+            return columns;
+        }
+
+        /**
+         * Computes a column on first access.
+         *
+         * @return Whether the column is computed, never on threads that may not read the world
+         */
+        boolean ensureComputed(ChunkColumns columns, int column, int x, int z) {
+            if (columns.roofs[column] != UNKNOWN) {
+                return true;
+            }
+            if (!canReadWorld()) {
+                return false;
+            }
+
+            int roof = world.getHighestBlockYAt(x, z, HeightMap.MOTION_BLOCKING);
+            columns.roofs[column] = (short) roof;
+            columns.shelters[column] = findFloorBelow(walkabilityCache.forWorld(world), x, roof, z);
+            return true;
+        }
+
+        private boolean canReadWorld() {
+            return EntityAI.getInstance().getScheduler().canReadWorld(world);
+        }
+
+        void dropChunk(int chunkX, int chunkZ) {
+            long key = chunkKey(chunkX, chunkZ);
+            chunks.remove(key);
+            if (key == lastChunkKey) {
+                lastChunkKey = Long.MIN_VALUE;
+                lastChunk = null;
+            }
+        }
+
+        /**
+         * Finds the highest spot under a roof an entity can stand on, head below the roof.
+         */
+        private short findFloorBelow(TerrainView terrain, int x, int roof, int z) {
+            for (int y = roof - 2; y >= roof - 2 - MAX_SHELTER_DEPTH; y--) {
+                if (terrain.isWalkable(x, y, z)) {
+                    return (short) y;
+                }
+            }
+            return NONE;
+        }
+    }
+
+    private static final class ChunkColumns {
+        final short[] roofs = new short[256];
+        final short[] shelters = new short[256];
+        // Every column is computed, reset when one is changed
+        boolean complete;
+
+        ChunkColumns() {
+            Arrays.fill(roofs, UNKNOWN);
+            Arrays.fill(shelters, UNKNOWN);
+        }
+    }
+}
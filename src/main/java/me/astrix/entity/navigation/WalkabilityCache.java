@@ -0,0 +1,179 @@
+package me.astrix.entity.navigation;
+
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches per-chunk-section walkability bitmaps for every world the AI navigates in.
+ * <p>
+ * Sections are built lazily from chunk snapshots using the {@link MaterialTraits}
+ * table, after which navigation checks are bit lookups. Changed blocks are queued
+ * by the block event listener and re-read once at the start of the next AI tick;
+ * unloaded chunks are dropped. Structures derived from the terrain, such as flow
+ * fields, register a {@link ChangeListener} to hear about the re-read blocks.
+ * </p>
+ */
+public class WalkabilityCache {
+
+    // Concurrent so managers of different worlds can look up their world in parallel
+    private final Map<UUID, WorldWalkability> worlds = new ConcurrentHashMap<>();
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * Returns the cached terrain of a world.
+     *
+     * @param world The world
+     * @return A terrain view backed by the walkability bitmaps
+     */
+    public TerrainView forWorld(World world) {
+        return worlds.computeIfAbsent(world.getUID(), id -> new WorldWalkability(world));
+    }
+
+    /**
+     * Captures the cached terrain of a box of blocks for a search on another thread.
+     * Must be called on the thread owning the world; the returned view is immutable
+     * and treats blocks outside the box as solid.
+     *
+     * @param world The world
+     * @param fromX Lowest x coordinate of the box
+     * @param fromY Lowest y coordinate of the box
+     * @param fromZ Lowest z coordinate of the box
+     * @param toX Highest x coordinate of the box
+     * @param toY Highest y coordinate of the box
+     * @param toZ Highest z coordinate of the box
+     * @return An immutable terrain view of the box
+     */
+    public TerrainView snapshot(World world, int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+        if (fromX > toX || fromY > toY || fromZ > toZ) {
+            throw new IllegalArgumentException("Snapshot box is empty");
+        }
+        return worlds.computeIfAbsent(world.getUID(), id -> new WorldWalkability(world))
+                .snapshot(fromX, fromY, fromZ, toX, toY, toZ);
+    }
+
+    /**
+     * Builds the cached terrain a search from a position reads: the sections within a
+     * radius of chunks, at the position's height and one section above and below.
+     * Must be called on a thread that may read the world.
+     *
+     * @param world The world
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @param chunkRadius Radius in chunks around the position's chunk
+     */
+    public void prepare(World world, int x, int y, int z, int chunkRadius) {
+        worlds.computeIfAbsent(world.getUID(), id -> new WorldWalkability(world)).prepare(x, y, z, chunkRadius);
+    }
+
+    /**
+     * Marks a block as changed. The cached bits are refreshed on the next {@link #flush()}.
+     * Safe to call from any thread, it only queues the block.
+     *
+     * @param world The world of the block
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     */
+    public void invalidateBlock(World world, int x, int y, int z) {
+        WorldWalkability walkability = worlds.get(world.getUID());
+        if (walkability != null) {
+            walkability.markDirty(x, y, z);
+        }
+    }
+
+    /**
+     * Drops every cached section of a chunk.
+     *
+     * @param world The world of the chunk
+     * @param chunkX Chunk x coordinate
+     * @param chunkZ Chunk z coordinate
+     */
+    public void invalidateChunk(World world, int chunkX, int chunkZ) {
+        WorldWalkability walkability = worlds.get(world.getUID());
+        if (walkability != null) {
+            walkability.dropChunk(chunkX, chunkZ);
+        }
+        for (int i = 0, size = listeners.size(); i < size; i++) {
+            listeners.get(i).chunkDropped(world, chunkX, chunkZ);
+        }
+    }
+
+    /**
+     * Registers a listener notified of every block re-read by {@link #flush()}
+     * and of dropped chunks and worlds.
+     *
+     * @param listener The listener
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Re-reads all blocks changed since the last flush. Called once per AI tick.
+     */
+    public void flush() {
+        for (WorldWalkability walkability : worlds.values()) {
+            walkability.flushDirty(listeners);
+        }
+    }
+
+    /**
+     * Drops the cached state of a world.
+     *
+     * @param world The world
+     */
+    public void invalidateWorld(World world) {
+        worlds.remove(world.getUID());
+        for (int i = 0, size = listeners.size(); i < size; i++) {
+            listeners.get(i).worldDropped(world);
+        }
+    }
+
+    /**
+     * Drops every cached world.
+     */
+    public void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * Receives the blocks whose walkability was re-read and the chunks and worlds dropped from the cache.
+     */
+    public interface ChangeListener {
+
+        /**
+         * Called from the AI tick for every re-read block.
+         *
+         * @param world The world of the block
+         * @param x Block x coordinate
+         * @param y Block y coordinate
+         * @param z Block z coordinate
+         */
+        void blockChanged(World world, int x, int y, int z);
+
+        /**
+         * Called when a chunk unloads.
+         *
+         * @param world The world of the chunk
+         * @param chunkX Chunk x coordinate
+         * @param chunkZ Chunk z coordinate
+         */
+        default void chunkDropped(World world, int chunkX, int chunkZ) {
+        }
+
+        /**
+         * Called when a world unloads.
+         *
+         * @param world The world
+         */
+        default void worldDropped(World world) {
+        }
+    }
+}
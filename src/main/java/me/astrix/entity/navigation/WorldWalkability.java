@@ -0,0 +1,385 @@
+package me.astrix.entity.navigation;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.navigation.pathfinding.BlockPositions;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import me.astrix.entity.utils.LongIntHashMap;
+import me.astrix.entity.utils.LongObjectHashMap;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walkability bitmaps of the loaded chunks of one world.
+ * <p>
+ * Every 16x16x16 chunk section stores two 4096 bit sets: blocks an entity's body
+ * cannot occupy, and blocks that are a safe floor. Sections captured by a
+ * {@link #snapshot snapshot} are immutable; changed blocks are written to a copy.
+ * </p>
+ */
+final class WorldWalkability implements TerrainView {
+
+    private static final int SECTION_WORDS = 4096 / 64;
+
+    private final World world;
+    private final int minY;
+    private final int maxY;
+    private final int minSection;
+    private final int sectionCount;
+
+    private final LongObjectHashMap<ChunkEntry> chunks = new LongObjectHashMap<>(256);
+
+    private long lastChunkKey = Long.MIN_VALUE;
+    private ChunkEntry lastChunk;
+
+    // Changed blocks, queued by event handlers on any thread and deduplicated on insert.
+    // The lock is only held to queue a block or swap the buffers, never during an AI update
+    private final Object dirtyLock = new Object();
+    private DirtyBlocks dirtyBlocks = new DirtyBlocks();
+    private DirtyBlocks flushingBlocks = new DirtyBlocks();
+
+    WorldWalkability(World world) {
+        this.world = world;
+        this.minY = world.getMinHeight();
+        this.maxY = world.getMaxHeight();
+        this.minSection = minY >> 4;
+        this.sectionCount = ((maxY - 1) >> 4) - minSection + 1;
+    }
+
+    @Override
+    public boolean isSolid(int x, int y, int z) {
+        if (y < minY) {
+            return true;
+        }
+        if (y >= maxY) {
+            return false;
+        }
+
+        Section section = section(x, y, z);
+        return section == null || section.isBlocked(x, y, z);
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y, int z) {
+        if (y - 1 < minY || y + 1 >= maxY) {
+            return false;
+        }
+
+        Section floor = section(x, y - 1, z);
+        if (floor == null || !floor.isFloor(x, y - 1, z)) {
+            return false;
+        }
+
+        Section feet = (y >> 4) == ((y - 1) >> 4) ? floor : section(x, y, z);
+        Section head = ((y + 1) >> 4) == (y >> 4) ? feet : section(x, y + 1, z);
+        return !feet.isBlocked(x, y, z) && !head.isBlocked(x, y + 1, z);
+    }
+
+    /**
+     * Queues a changed block. Safe to call from any thread; a block queued again
+     * before the next flush costs one lookup.
+     */
+    void markDirty(int x, int y, int z) {
+        if (y >= minY && y < maxY) {
+            long position = BlockPositions.pack(x, y, z);
+            synchronized (dirtyLock) {
+                dirtyBlocks.add(position);
+            }
+        }
+    }
+
+    void flushDirty(List<WalkabilityCache.ChangeListener> listeners) {
+        DirtyBlocks blocks;
+        synchronized (dirtyLock) {
+            blocks = dirtyBlocks;
+            dirtyBlocks = flushingBlocks;
+            flushingBlocks = blocks;
+        }
+
+        for (int i = 0; i < blocks.count; i++) {
+            long position = blocks.positions[i];
+            int x = BlockPositions.unpackX(position);
+            int y = BlockPositions.unpackY(position);
+            int z = BlockPositions.unpackZ(position);
+
+            // Chunks nobody navigated in have nothing to refresh
+            ChunkEntry chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+            if (chunk == null) {
+                continue;
+            }
+
+            int index = (y >> 4) - minSection;
+            Section section = chunk.sections[index];
+            if (section != null) {
+                if (section.shared) {
+                    // Snapshots searched on other threads keep the previous bits
+                    section = section.copy();
+                    chunk.sections[index] = section;
+                }
+                section.set(x, y, z, world.getBlockAt(x, y, z).getType());
+            }
+
+            for (int j = 0, size = listeners.size(); j < size; j++) {
+                listeners.get(j).blockChanged(world, x, y, z);
+            }
+        }
+
+        blocks.clear();
+    }
+
+    /**
+     * Captures the sections overlapping a box of blocks, building missing ones, so
+     * the box can be searched on another thread while the cache keeps changing.
+     * Blocks outside the box or in unloaded chunks count as solid.
+     *
+     * @return An immutable view of the box
+     */
+    TerrainView snapshot(int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+        int minChunkX = fromX >> 4;
+        int minChunkZ = fromZ >> 4;
+        int fromSection = Math.max(minSection, fromY >> 4);
+        int toSection = Math.min(minSection + sectionCount - 1, toY >> 4);
+
+        int sizeX = (toX >> 4) - minChunkX + 1;
+        int sizeZ = (toZ >> 4) - minChunkZ + 1;
+        int sizeY = Math.max(0, toSection - fromSection + 1);
+        Section[] sections = new Section[sizeX * sizeZ * sizeY];
+
+        for (int cx = 0; cx < sizeX; cx++) {
+            for (int cz = 0; cz < sizeZ; cz++) {
+                for (int sy = 0; sy < sizeY; sy++) {
+                    Section section = section((minChunkX + cx) << 4, (fromSection + sy) << 4, (minChunkZ + cz) << 4);
+                    if (section != null) {
+                        section.shared = true;
+                        sections[(cx * sizeZ + cz) * sizeY + sy] = section;
+                    }
+                }
+            }
+        }
+        return new Snapshot(sections, minChunkX, minChunkZ, fromSection, sizeX, sizeZ, sizeY);
+    }
+
+    /**
+     * Builds the missing sections around a block, within a radius of chunks and one
+     * section above and below, so searches from the block find them built.
+     */
+    void prepare(int x, int y, int z, int chunkRadius) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        int fromY = Math.max(minY, y - 16);
+        int toY = Math.min(maxY - 1, y + 16);
+        for (int cx = chunkX - chunkRadius; cx <= chunkX + chunkRadius; cx++) {
+            for (int cz = chunkZ - chunkRadius; cz <= chunkZ + chunkRadius; cz++) {
+                for (int sectionY = fromY; sectionY <= toY; sectionY += 16) {
+                    section(cx << 4, sectionY, cz << 4);
+                }
+            }
+        }
+    }
+
+    void dropChunk(int chunkX, int chunkZ) {
+        long key = chunkKey(chunkX, chunkZ);
+        chunks.remove(key);
+        if (key == lastChunkKey) {
+            lastChunkKey = Long.MIN_VALUE;
+            lastChunk = null;
+        }
+    }
+
+    /**
+     * Returns the section containing a block, building it on first access.
+     * Threads that may not read the world only get sections already built.
+     *
+     * @return The section, or {@code null} if the chunk is not loaded or the section cannot be built
+     */
+    private Section section(int x, int y, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        long key = chunkKey(chunkX, chunkZ);
+
+        ChunkEntry chunk;
+        if (key == lastChunkKey) {
+            chunk = lastChunk;
+        } else {
+            chunk = chunks.get(key);
+            if (chunk == null) {
+                if (!canReadWorld() || !world.isChunkLoaded(chunkX, chunkZ)) {
+                    return null;
+                }
+                chunk = new ChunkEntry(sectionCount);
+                chunks.put(key, chunk);
+            }
+            lastChunkKey = key;
+            lastChunk = chunk;
+        }
+
+        int index = (y >> 4) - minSection;
+        Section section = chunk.sections[index];
+        if (section == null) {
+            if (!canReadWorld()) {
+                return null;
+            }
+            buildSections(chunk, chunkX, chunkZ, index);
+            section = chunk.sections[index];
+        }
+        return section;
+    }
+
+    /**
+     * Builds a missing section together with the missing sections above and below it,
+     * which searches crossing a section boundary read next. The chunk snapshot is only
+     * held while building, a later missing section takes a fresh one.
+     */
+    private void buildSections(ChunkEntry chunk, int chunkX, int chunkZ, int index) {
+        ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+        int from = Math.max(0, index - 1);
+        int to = Math.min(sectionCount - 1, index + 1);
+        for (int i = from; i <= to; i++) {
+            if (chunk.sections[i] == null) {
+                chunk.sections[i] = Section.build(snapshot, i + minSection);
+            }
+        }
+    }
+
+    private boolean canReadWorld() {
+        return EntityAI.getInstance().getScheduler().canReadWorld(world);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX << 32 | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static final class ChunkEntry {
+        final Section[] sections;
+
+        ChunkEntry(int sectionCount) {
+            this.sections = new Section[sectionCount];
+        }
+    }
+
+    /**
+     * Distinct changed block positions, in the order they were first queued.
+     */
+    private static final class DirtyBlocks {
+        final LongIntHashMap queued = new LongIntHashMap(64);
+        long[] positions = new long[64];
+        int count;
+
+        void add(long position) {
+            if (queued.containsKey(position)) {
+                return;
+            }
+            queued.put(position, 1);
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count << 1);
+            }
+            positions[count++] = position;
+        }
+
+        void clear() {
+            queued.clear();
+            count = 0;
+        }
+    }
+
+    /**
+     * Sections of a box of chunks, indexed by chunk and section offsets.
+     */
+    private record Snapshot(Section[] sections, int minChunkX, int minChunkZ, int fromSection,
+                            int sizeX, int sizeZ, int sizeY) implements TerrainView {
+
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            Section section = section(x, y, z);
+            return section == null || section.isBlocked(x, y, z);
+        }
+
+        @Override
+        public boolean isWalkable(int x, int y, int z) {
+            Section floor = section(x, y - 1, z);
+            Section feet = section(x, y, z);
+            Section head = section(x, y + 1, z);
+            return floor != null && feet != null && head != null && floor.isFloor(x, y - 1, z)
+                    && !feet.isBlocked(x, y, z) && !head.isBlocked(x, y + 1, z);
+        }
+
+        private Section section(int x, int y, int z) {
+            int cx = (x >> 4) - minChunkX;
+            int cz = (z >> 4) - minChunkZ;
+            int sy = (y >> 4) - fromSection;
+            if (cx < 0 || cx >= sizeX || cz < 0 || cz >= sizeZ || sy < 0 || sy >= sizeY) {
+                return null;
+            }
+            return sections[(cx * sizeZ + cz) * sizeY + sy];
+        }
+    }
+
+    private static final class Section {
+        final long[] blocked;
+        final long[] floor;
+        // Captured by a snapshot, so never changed in place again
+        boolean shared;
+
+        Section() {
+            this(new long[SECTION_WORDS], new long[SECTION_WORDS]);
+        }
+
+        private Section(long[] blocked, long[] floor) {
+            this.blocked = blocked;
+            this.floor = floor;
+        }
+
+        Section copy() {
+            return new Section(blocked.clone(), floor.clone());
+        }
+
+        static Section build(ChunkSnapshot snapshot, int sectionY) {
+            Section section = new Section();
+            int baseY = sectionY << 4;
+
+            for (int ly = 0; ly < 16; ly++) {
+                for (int lz = 0; lz < 16; lz++) {
+                    for (int lx = 0; lx < 16; lx++) {
+                        section.set(lx, baseY + ly, lz, snapshot.getBlockType(lx, baseY + ly, lz));
+                    }
+                }
+            }
+            return section;
+        }
+
+        void set(int x, int y, int z, Material material) {
+            int bit = bitIndex(x, y, z);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+
+            if (MaterialTraits.isPassable(material)) {
+                blocked[word] &= ~mask;
+            } else {
+                blocked[word] |= mask;
+            }
+
+            if (MaterialTraits.isSafeFloor(material)) {
+                floor[word] |= mask;
+            } else {
+                floor[word] &= ~mask;
+            }
+        }
+
+        boolean isBlocked(int x, int y, int z) {
+            int bit = bitIndex(x, y, z);
+            return (blocked[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        boolean isFloor(int x, int y, int z) {
+            int bit = bitIndex(x, y, z);
+            return (floor[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private static int bitIndex(int x, int y, int z) {
+            return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package me.astrix.entity.navigation.pathfinding;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Packs block coordinates into a single {@code long}: 26 bits x, 26 bits z, 12 bits y.
+ */
+@UtilityClass
+public class BlockPositions {
+
+    /**
+     * Packs block coordinates.
+     *
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @return The packed position
+     */
+    public long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    public int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    public int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    public int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
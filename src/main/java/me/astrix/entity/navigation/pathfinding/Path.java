@@ -0,0 +1,83 @@
+package me.astrix.entity.navigation.pathfinding;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Immutable sequence of block positions produced by the {@link PathFinder}.
+ * Paths are shared between entities through the {@link PathCache}.
+ */
+@Getter
+public final class Path {
+
+    /** Packed block positions from start to end, see {@link BlockPositions} */
+    @Getter(AccessLevel.NONE)
+    private final long[] waypoints;
+
+    /** Whether the path reaches the goal, or only gets as close as the node budget allowed */
+    private final boolean complete;
+
+    /** Number of nodes the search expanded */
+    private final int nodesExplored;
+
+    Path(long[] waypoints, boolean complete, int nodesExplored) {
+        this.waypoints = waypoints;
+        this.complete = complete;
+        this.nodesExplored = nodesExplored;
+    }
+
+    /**
+     * @return The number of waypoints
+     */
+    public int length() {
+        return waypoints.length;
+    }
+
+    /**
+     * Returns a waypoint as a packed block position.
+     *
+     * @param index Waypoint index
+     * @return The packed position
+     */
+    public long getWaypoint(int index) {
+        return waypoints[index];
+    }
+
+    public int getX(int index) {
+        return BlockPositions.unpackX(waypoints[index]);
+    }
+
+    public int getY(int index) {
+        return BlockPositions.unpackY(waypoints[index]);
+    }
+
+    public int getZ(int index) {
+        return BlockPositions.unpackZ(waypoints[index]);
+    }
+
+    /**
+     * Finds the waypoint closest to a position, used when a cached path is
+     * picked up by an entity that did not start at its first waypoint.
+     *
+     * @param x Position x coordinate
+     * @param y Position y coordinate
+     * @param z Position z coordinate
+     * @return Index of the closest waypoint
+     */
+    public int closestWaypoint(double x, double y, double z) {
+        int closest = 0;
+        double closestDistance = Double.MAX_VALUE;
+
+        for (int i = 0; i < waypoints.length; i++) {
+            double dx = getX(i) + 0.5 - x;
+            double dy = getY(i) - y;
+            double dz = getZ(i) + 0.5 - z;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance < closestDistance) {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+}
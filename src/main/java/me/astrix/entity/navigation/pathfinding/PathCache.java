@@ -0,0 +1,157 @@
+package me.astrix.entity.navigation.pathfinding;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Least-recently-used cache of computed paths.
+ * <p>
+ * Keys are quantized: starts are snapped to 4x4 block columns and goals to 2x2x2
+ * block cells, so entities setting off from roughly the same place towards the same
+ * home, territory center or prey share one search. Entries expire after a fixed
+ * number of ticks so paths pick up terrain changes. Thread-safe.
+ * </p>
+ */
+public class PathCache {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long DEFAULT_MAX_AGE_TICKS = 200L;
+
+    private static final int START_QUANTUM_SHIFT = 2;
+    private static final int GOAL_QUANTUM_SHIFT = 1;
+
+    @Getter
+    private final int capacity;
+    @Getter
+    private final long maxAgeTicks;
+    private final Map<Key, Entry> entries;
+
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+
+    /**
+     * Creates a cache holding up to 1024 paths for 200 ticks.
+     */
+    public PathCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE_TICKS);
+    }
+
+    /**
+     * Creates a path cache.
+     *
+     * @param capacity Maximum number of cached paths
+     * @param maxAgeTicks Number of ticks a path stays valid
+     */
+    public PathCache(int capacity, long maxAgeTicks) {
+        if (capacity <= 0 || maxAgeTicks <= 0) {
+            throw new IllegalArgumentException("Capacity and max age must be positive");
+        }
+        this.capacity = capacity;
+        this.maxAgeTicks = maxAgeTicks;
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PathCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Builds the cache key for a search.
+     *
+     * @param worldId World the path is in
+     * @param startX Start block x coordinate
+     * @param startY Start block y coordinate
+     * @param startZ Start block z coordinate
+     * @param goalX Goal block x coordinate
+     * @param goalY Goal block y coordinate
+     * @param goalZ Goal block z coordinate
+     * @return The quantized key
+     */
+    public static Key key(UUID worldId, int startX, int startY, int startZ, int goalX, int goalY, int goalZ) {
+        return new Key(worldId,
+                BlockPositions.pack(startX >> START_QUANTUM_SHIFT, startY, startZ >> START_QUANTUM_SHIFT),
+                goal(goalX, goalY, goalZ));
+    }
+
+    /**
+     * Quantizes a goal the way {@link #key} does, so callers can tell whether a goal
+     * moved to another cell without building a key.
+     *
+     * @param goalX Goal block x coordinate
+     * @param goalY Goal block y coordinate
+     * @param goalZ Goal block z coordinate
+     * @return The quantized goal, as stored in {@link Key#goal()}
+     */
+    public static long goal(int goalX, int goalY, int goalZ) {
+        return BlockPositions.pack(goalX >> GOAL_QUANTUM_SHIFT, goalY >> GOAL_QUANTUM_SHIFT, goalZ >> GOAL_QUANTUM_SHIFT);
+    }
+
+    /**
+     * Looks up a path.
+     *
+     * @param key The quantized key
+     * @param currentTick The current AI tick
+     * @return The cached path, or {@code null} if absent or expired
+     */
+    public synchronized Path get(Key key, long currentTick) {
+        Entry entry = entries.get(key);
+        if (entry == null || currentTick - entry.createdTick() > maxAgeTicks) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.path();
+    }
+
+    /**
+     * Stores a path.
+     *
+     * @param key The quantized key
+     * @param path The path to share
+     * @param currentTick The current AI tick
+     */
+    public synchronized void put(Key key, Path path, long currentTick) {
+        entries.put(key, new Entry(path, currentTick));
+    }
+
+    /**
+     * Drops a path, e.g. after an entity got stuck following it.
+     *
+     * @param key The quantized key
+     */
+    public synchronized void invalidate(Key key) {
+        entries.remove(key);
+    }
+
+    /**
+     * @return The number of cached paths
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops every cached path.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Quantized start and goal of a search.
+     */
+    public record Key(UUID worldId, long start, long goal) {
+    }
+
+    private record Entry(Path path, long createdTick) {
+    }
+}
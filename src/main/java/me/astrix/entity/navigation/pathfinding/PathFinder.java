@@ -0,0 +1,339 @@
+package me.astrix.entity.navigation.pathfinding;
+
+import lombok.Getter;
+import me.astrix.entity.utils.LongIntHashMap;
+
+/**
+ * Grid A* search over walkable block positions.
+ * <p>
+ * Positions are packed into {@code long}s and every node lives in flat primitive
+ * arrays indexed by a node id; the open set is a binary heap of node ids. All
+ * storage is reused between searches, so a search allocates only the resulting
+ * {@link Path}. Each search creates at most {@code maxNodes} nodes; when the
+ * budget runs out the path to the node closest to the goal is returned instead.
+ * </p>
+ * Instances are not thread-safe.
+ */
+public class PathFinder {
+
+    private static final int DEFAULT_MAX_NODES = 4096;
+
+    static final double STRAIGHT_COST = 1.0;
+    static final double DIAGONAL_COST = Math.sqrt(2);
+    static final double STEP_UP_COST = 0.5;
+    static final double DROP_COST_PER_BLOCK = 0.25;
+    public static final int MAX_DROP = 3;
+
+    private static final int[] NEIGHBOR_DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] NEIGHBOR_DZ = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    // Heights tried when moving an unwalkable goal, nearest first
+    private static final int[] GOAL_DY = {0, -1, 1, -2, -MAX_DROP};
+
+    @Getter
+    private final int maxNodes;
+
+    private final LongIntHashMap nodeByPosition;
+    private final long[] positions;
+    private final double[] gScores;
+    private final double[] fScores;
+    private final int[] parents;
+    private final int[] heapSlots;
+    private final boolean[] closed;
+    private final int[] heap;
+
+    private int nodeCount;
+    private int heapSize;
+
+    /**
+     * Creates a path finder with the default node budget.
+     */
+    public PathFinder() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Creates a path finder.
+     *
+     * @param maxNodes Maximum number of nodes a single search may create
+     */
+    public PathFinder(int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("Node budget must be at least 2");
+        }
+        this.maxNodes = maxNodes;
+        this.nodeByPosition = new LongIntHashMap(maxNodes);
+        this.positions = new long[maxNodes];
+        this.gScores = new double[maxNodes];
+        this.fScores = new double[maxNodes];
+        this.parents = new int[maxNodes];
+        this.heapSlots = new int[maxNodes];
+        this.closed = new boolean[maxNodes];
+        this.heap = new int[maxNodes];
+    }
+
+    /**
+     * Returns the number of nodes created by the most recent search, including
+     * searches that found no path.
+     *
+     * @return The number of nodes probed
+     */
+    public int getLastSearchNodes() {
+        return nodeCount;
+    }
+
+    /**
+     * Searches a path between two walkable block positions.
+     * <p>
+     * A goal that cannot be walked, e.g. mid-air, inside a wall or in water, is first
+     * moved to the nearest walkable block in its column or a neighbouring one, up to
+     * one block above and {@value #MAX_DROP} below. Otherwise the search could never
+     * reach it and would use up its whole node budget.
+     * </p>
+     *
+     * @param terrain Terrain to search
+     * @param startX Start block x coordinate
+     * @param startY Start block y coordinate
+     * @param startZ Start block z coordinate
+     * @param goalX Goal block x coordinate
+     * @param goalY Goal block y coordinate
+     * @param goalZ Goal block z coordinate
+     * @return The path, a partial path towards the goal if the budget ran out,
+     * or {@code null} if no step from the start is possible
+     */
+    public Path findPath(TerrainView terrain, int startX, int startY, int startZ, int goalX, int goalY, int goalZ) {
+        reset();
+
+        long goal = nearestWalkable(terrain, goalX, goalY, goalZ);
+        goalX = BlockPositions.unpackX(goal);
+        goalY = BlockPositions.unpackY(goal);
+        goalZ = BlockPositions.unpackZ(goal);
+        int start = addNode(BlockPositions.pack(startX, startY, startZ), 0,
+                heuristic(startX, startY, startZ, goalX, goalY, goalZ), -1);
+
+        int best = start;
+        double bestHeuristic = fScores[start];
+        int expanded = 0;
+        boolean budgetExhausted = false;
+
+        while (heapSize > 0 && !budgetExhausted) {
+            int current = pop();
+            long position = positions[current];
+            if (position == goal) {
+                return buildPath(current, true, expanded);
+            }
+
+            closed[current] = true;
+            expanded++;
+
+            int x = BlockPositions.unpackX(position);
+            int y = BlockPositions.unpackY(position);
+            int z = BlockPositions.unpackZ(position);
+
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int dx = NEIGHBOR_DX[direction];
+                int dz = NEIGHBOR_DZ[direction];
+                int ny = step(terrain, x, y, z, dx, dz);
+                if (ny == Integer.MIN_VALUE) {
+                    continue;
+                }
+
+                int nx = x + dx;
+                int nz = z + dz;
+                double stepCost = dx != 0 && dz != 0 ? DIAGONAL_COST : STRAIGHT_COST;
+                stepCost += ny > y ? STEP_UP_COST : (y - ny) * DROP_COST_PER_BLOCK;
+                double tentative = gScores[current] + stepCost;
+
+                long neighbor = BlockPositions.pack(nx, ny, nz);
+                int node = nodeByPosition.get(neighbor, -1);
+
+                if (node < 0) {
+                    if (nodeCount == maxNodes) {
+                        budgetExhausted = true;
+                        break;
+                    }
+                    double h = heuristic(nx, ny, nz, goalX, goalY, goalZ);
+                    node = addNode(neighbor, tentative, tentative + h, current);
+                    if (h < bestHeuristic) {
+                        best = node;
+                        bestHeuristic = h;
+                    }
+                } else if (!closed[node] && tentative < gScores[node]) {
+                    fScores[node] += tentative - gScores[node];
+                    gScores[node] = tentative;
+                    parents[node] = current;
+                    siftUp(heapSlots[node]);
+                }
+            }
+        }
+
+        return best == start ? null : buildPath(best, false, expanded);
+    }
+
+    /**
+     * Resolves a single step of an entity standing at a walkable position into a neighbouring column.
+     * Shared with flow fields so they and paths agree on what is traversable.
+     *
+     * @param terrain Terrain to step in
+     * @param x Block x coordinate of the feet
+     * @param y Block y coordinate of the feet
+     * @param z Block z coordinate of the feet
+     * @param dx X offset of the neighbouring column, -1 to 1
+     * @param dz Z offset of the neighbouring column, -1 to 1
+     * @return The feet y coordinate after the step, or {@link Integer#MIN_VALUE} if the step is impossible
+     */
+    public static int step(TerrainView terrain, int x, int y, int z, int dx, int dz) {
+        // Do not cut corners: both orthogonal neighbours must leave room for the body
+        if (dx != 0 && dz != 0 && (!isPassable(terrain, x + dx, y, z) || !isPassable(terrain, x, y, z + dz))) {
+            return Integer.MIN_VALUE;
+        }
+        return resolveStepHeight(terrain, x, y, z, x + dx, z + dz);
+    }
+
+    /**
+     * Resolves the height an entity ends up at when stepping from one column into the next.
+     *
+     * @return The feet y coordinate, or {@link Integer#MIN_VALUE} if the step is impossible
+     */
+    private static int resolveStepHeight(TerrainView terrain, int x, int y, int z, int nx, int nz) {
+        if (terrain.isWalkable(nx, y, nz)) {
+            return y;
+        }
+
+        if (!isPassable(terrain, nx, y, nz)) {
+            // Blocked at body height: try to step up one block with head room above us
+            return terrain.isWalkable(nx, y + 1, nz) && !terrain.isSolid(x, y + 2, z) ? y + 1 : Integer.MIN_VALUE;
+        }
+
+        // Open in front of us: drop down to the first floor within reach
+        for (int drop = 1; drop <= MAX_DROP; drop++) {
+            if (terrain.isWalkable(nx, y - drop, nz)) {
+                return y - drop;
+            }
+            if (terrain.isSolid(nx, y - drop, nz)) {
+                break;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Finds the walkable block nearest to a goal, searching its column before the neighbouring ones.
+     *
+     * @return The packed walkable position, or the goal itself if none is near
+     */
+    private static long nearestWalkable(TerrainView terrain, int x, int y, int z) {
+        for (int dy : GOAL_DY) {
+            if (terrain.isWalkable(x, y + dy, z)) {
+                return BlockPositions.pack(x, y + dy, z);
+            }
+        }
+        for (int dy : GOAL_DY) {
+            for (int direction = 0; direction < NEIGHBOR_DX.length; direction++) {
+                int nx = x + NEIGHBOR_DX[direction];
+                int nz = z + NEIGHBOR_DZ[direction];
+                if (terrain.isWalkable(nx, y + dy, nz)) {
+                    return BlockPositions.pack(nx, y + dy, nz);
+                }
+            }
+        }
+        return BlockPositions.pack(x, y, z);
+    }
+
+    private static boolean isPassable(TerrainView terrain, int x, int y, int z) {
+        return !terrain.isSolid(x, y, z) && !terrain.isSolid(x, y + 1, z);
+    }
+
+    /**
+     * Octile distance on the horizontal plane plus the height difference at the cheapest
+     * vertical cost per block. Every block climbed or dropped costs at least
+     * {@link #DROP_COST_PER_BLOCK} extra, so the estimate never exceeds the real cost
+     * and the search returns shortest paths.
+     */
+    private static double heuristic(int x, int y, int z, int goalX, int goalY, int goalZ) {
+        int dx = Math.abs(goalX - x);
+        int dz = Math.abs(goalZ - z);
+        return Math.max(dx, dz) + (DIAGONAL_COST - 1) * Math.min(dx, dz)
+                + Math.abs(goalY - y) * Math.min(STEP_UP_COST, DROP_COST_PER_BLOCK);
+    }
+
+    private Path buildPath(int end, boolean complete, int expanded) {
+        int length = 0;
+        for (int node = end; node >= 0; node = parents[node]) {
+            length++;
+        }
+
+        long[] waypoints = new long[length];
+        for (int node = end, i = length - 1; node >= 0; node = parents[node], i--) {
+            waypoints[i] = positions[node];
+        }
+        return new Path(waypoints, complete, expanded);
+    }
+
+    private void reset() {
+        nodeByPosition.clear();
+        nodeCount = 0;
+        heapSize = 0;
+    }
+
+    private int addNode(long position, double g, double f, int parent) {
+        int node = nodeCount++;
+        positions[node] = position;
+        gScores[node] = g;
+        fScores[node] = f;
+        parents[node] = parent;
+        closed[node] = false;
+        nodeByPosition.put(position, node);
+
+        heap[heapSize] = node;
+        heapSlots[node] = heapSize;
+        siftUp(heapSize++);
+        return node;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heap[0] = heap[--heapSize];
+        heapSlots[heap[0]] = 0;
+        siftDown(0);
+        return top;
+    }
+
+    private void siftUp(int slot) {
+        int node = heap[slot];
+        double f = fScores[node];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parentNode = heap[parentSlot];
+            if (fScores[parentNode] <= f) {
+                break;
+            }
+            heap[slot] = parentNode;
+            heapSlots[parentNode] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = node;
+        heapSlots[node] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int node = heap[slot];
+        double f = fScores[node];
+        int half = heapSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < heapSize && fScores[heap[right]] < fScores[heap[child]]) {
+                child = right;
+            }
+            if (f <= fScores[heap[child]]) {
+                break;
+            }
+            heap[slot] = heap[child];
+            heapSlots[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = node;
+        heapSlots[node] = slot;
+    }
+}
@@ -0,0 +1,28 @@
+package me.astrix.entity.navigation.pathfinding;
+
+/**
+ * Read access to the block properties the pathfinder needs.
+ */
+public interface TerrainView {
+
+    /**
+     * Checks whether a block obstructs movement.
+     *
+     * @param x Block x coordinate
+     * @param y Block y coordinate
+     * @param z Block z coordinate
+     * @return Whether the block is solid; unloaded blocks count as solid
+     */
+    boolean isSolid(int x, int y, int z);
+
+    /**
+     * Checks whether an entity can stand at a block: a solid, non-liquid floor
+     * below and room for its feet and head.
+     *
+     * @param x Block x coordinate of the feet
+     * @param y Block y coordinate of the feet
+     * @param z Block z coordinate of the feet
+     * @return Whether the position can be stood on
+     */
+    boolean isWalkable(int x, int y, int z);
+}
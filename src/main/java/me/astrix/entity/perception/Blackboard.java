@@ -0,0 +1,269 @@
+package me.astrix.entity.perception;
+
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.enums.WeatherType;
+import me.astrix.entity.jfr.PerceptionScanEvent;
+import me.astrix.entity.managers.AIManager;
+import org.bukkit.Location;
+import org.bukkit.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-entity perception cache shared by all behaviors of one mob.
+ * <p>
+ * Each perception is computed lazily on first access and reused for the rest of
+ * the AI tick, so behaviors asking the same question in {@code canRun()} and
+ * {@code update()} trigger only one scan. The blackboard invalidates itself when
+ * the AI tick advances.
+ * </p>
+ */
+public class Blackboard {
+
+    /** Radius of the shared nearby-mob scan */
+    public static final double NEARBY_RADIUS = 5.0;
+
+    /** Distance below which a stronger mob counts as a threat */
+    public static final double THREAT_RADIUS = 3.0;
+
+    private static final int NEARBY_MOBS = 1;
+    private static final int NEAREST_MOB = 1 << 1;
+    private static final int NEAREST_THREAT = 1 << 2;
+    private static final int DISTANCE_TO_HOME = 1 << 3;
+    private static final int WEATHER = 1 << 4;
+    private static final int LOCATION = 1 << 5;
+    private static final int SHELTERED = 1 << 6;
+
+    // Blackboards update on the scheduler's threads, so the totals are summed without contention
+    private static final LongAdder totalHits = new LongAdder();
+    private static final LongAdder totalMisses = new LongAdder();
+
+    private final Mob entity;
+    private final AIManager manager;
+
+    private final List<Mob> nearbyMobs = new ArrayList<>();
+    private final List<Mob> nearbyMobsView = Collections.unmodifiableList(nearbyMobs);
+    private Mob nearestMob;
+    private Mob nearestThreat;
+    private double distanceToHome;
+    private WeatherType weather;
+    private boolean sheltered;
+
+    private final Location entityLocation = new Location(null, 0, 0, 0);
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    private long stamp = -1;
+    private int computed;
+
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+
+    /**
+     * Creates a blackboard for an entity.
+     *
+     * @param entity The mob whose perceptions are cached
+     * @param manager The manager owning the entity, or {@code null} for detached behaviors
+     */
+    public Blackboard(Mob entity, AIManager manager) {
+        this.entity = entity;
+        this.manager = manager;
+    }
+
+    /**
+     * Returns the mobs within {@link #NEARBY_RADIUS} of the entity, excluding itself.
+     *
+     * @return Read-only view of the nearby mobs, valid for the current tick
+     */
+    public List<Mob> getNearbyMobs() {
+        if (!isCached(NEARBY_MOBS)) {
+            PerceptionScanEvent event = new PerceptionScanEvent();
+            event.begin();
+
+            nearbyMobs.clear();
+            EntityAI.getInstance().getSpatialIndex()
+                    .collect(entity, NEARBY_RADIUS, Mob.class, null, nearbyMobs);
+
+            if (event.shouldCommit()) {
+                event.setEntityId(entity.getEntityId());
+                event.setRadius(NEARBY_RADIUS);
+                event.setFound(nearbyMobs.size());
+                event.commit();
+            }
+        }
+        return nearbyMobsView;
+    }
+
+    /**
+     * Returns the closest mob within {@link #NEARBY_RADIUS}.
+     *
+     * @return The nearest mob, or {@code null} if there is none
+     */
+    public Mob getNearestMob() {
+        if (!isCached(NEAREST_MOB)) {
+            nearestMob = null;
+            double nearestDistance = Double.MAX_VALUE;
+            Location location = getEntityLocation();
+
+            for (Mob mob : getNearbyMobs()) {
+                double distance = mob.getLocation(scratch).distanceSquared(location);
+                if (distance < nearestDistance) {
+                    nearestMob = mob;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearestMob;
+    }
+
+    /**
+     * Returns the closest mob within {@link #THREAT_RADIUS} that has more health than the entity.
+     *
+     * @return The nearest threat, or {@code null} if the entity is safe
+     */
+    public Mob getNearestThreat() {
+        if (!isCached(NEAREST_THREAT)) {
+            nearestThreat = null;
+            double nearestDistance = THREAT_RADIUS * THREAT_RADIUS;
+            Location location = getEntityLocation();
+            double health = entity.getHealth();
+
+            for (Mob mob : getNearbyMobs()) {
+                double distance = mob.getLocation(scratch).distanceSquared(location);
+                if (distance < nearestDistance && mob.getHealth() > health) {
+                    nearestThreat = mob;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearestThreat;
+    }
+
+    /**
+     * Determines if the entity is currently in danger.
+     *
+     * @return Whether a threat is within {@link #THREAT_RADIUS}
+     */
+    public boolean isInDanger() {
+        return getNearestThreat() != null;
+    }
+
+    /**
+     * Returns the distance between the entity and its manager's home location.
+     *
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if there is no home in this world
+     */
+    public double getDistanceToHome() {
+        if (!isCached(DISTANCE_TO_HOME)) {
+            Location home = manager != null ? manager.getHomeLocation() : null;
+            Location location = getEntityLocation();
+
+            distanceToHome = home == null || home.getWorld() != location.getWorld()
+                    ? Double.POSITIVE_INFINITY
+                    : home.distance(location);
+        }
+        return distanceToHome;
+    }
+
+    /**
+     * Returns the current weather in the entity's world, as tracked by the {@link WeatherCache}.
+     *
+     * @return The current weather type
+     */
+    public WeatherType getWeather() {
+        if (!isCached(WEATHER)) {
+            weather = EntityAI.getInstance().getWeatherCache().getWeather(entity.getWorld());
+        }
+        return weather;
+    }
+
+    /**
+     * Checks whether the entity stands under a rain-blocking block.
+     *
+     * @return Whether the entity is sheltered from rain and lightning
+     */
+    public boolean isSheltered() {
+        if (!isCached(SHELTERED)) {
+            Location location = getEntityLocation();
+            sheltered = EntityAI.getInstance().getShelterIndex().isSheltered(location.getWorld(),
+                    location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
+        return sheltered;
+    }
+
+    /**
+     * Discards every cached perception before the tick ends,
+     * e.g. after the entity was teleported.
+     */
+    public void invalidate() {
+        computed = 0;
+        nearbyMobs.clear();
+        nearestMob = null;
+        nearestThreat = null;
+    }
+
+    /**
+     * @return The number of cache hits summed over all blackboards
+     */
+    public static long getTotalHits() {
+        return totalHits.sum();
+    }
+
+    /**
+     * @return The number of cache misses summed over all blackboards
+     */
+    public static long getTotalMisses() {
+        return totalMisses.sum();
+    }
+
+    /**
+     * Resets the hit and miss counters summed over all blackboards.
+     */
+    public static void resetTotals() {
+        totalHits.reset();
+        totalMisses.reset();
+    }
+
+    /**
+     * Returns the entity location for the current tick, read once per tick without allocating.
+     */
+    private Location getEntityLocation() {
+        refresh();
+        if ((computed & LOCATION) == 0) {
+            entity.getLocation(entityLocation);
+            computed |= LOCATION;
+        }
+        return entityLocation;
+    }
+
+    /**
+     * Checks whether a perception is cached for the current tick, recording a hit or a miss.
+     * A miss marks the perception as computed, so the caller must compute it.
+     */
+    private boolean isCached(int perception) {
+        refresh();
+        if ((computed & perception) != 0) {
+            hits++;
+            totalHits.increment();
+            return true;
+        }
+
+        misses++;
+        totalMisses.increment();
+        computed |= perception;
+        return false;
+    }
+
+    private void refresh() {
+        long tick = EntityAI.getInstance().getCurrentTick();
+        if (tick != stamp) {
+            stamp = tick;
+            invalidate();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package me.astrix.entity.perception;
+
+import me.astrix.entity.enums.WeatherType;
+import org.bukkit.World;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current weather of every world, kept up to date by weather and thunder change events
+ * instead of being polled by every entity.
+ * <p>
+ * A world's weather is read once on first access. Instances without a plugin register
+ * no listeners; simulations changing the weather call {@link #update(World, boolean, boolean)}.
+ * </p>
+ */
+public class WeatherCache {
+
+    private final Map<UUID, WeatherType> weather = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the current weather of a world.
+     *
+     * @param world The world
+     * @return The weather type
+     */
+    public WeatherType getWeather(World world) {
+        WeatherType type = weather.get(world.getUID());
+        if (type == null) {
+            type = classify(world.hasStorm(), world.isThundering());
+            weather.put(world.getUID(), type);
+        }
+        return type;
+    }
+
+    /**
+     * Records a weather change. Called by the event listener with the state the
+     * world is about to change to.
+     *
+     * @param world The world
+     * @param storm Whether it rains or snows
+     * @param thundering Whether it thunders
+     */
+    public void update(World world, boolean storm, boolean thundering) {
+        weather.put(world.getUID(), classify(storm, thundering));
+    }
+
+    /**
+     * Forgets the weather of a world, e.g. after it unloaded.
+     *
+     * @param world The world
+     */
+    public void invalidate(World world) {
+        weather.remove(world.getUID());
+    }
+
+    /**
+     * Forgets the weather of every world.
+     */
+    public void clear() {
+        weather.clear();
+    }
+
+    private static WeatherType classify(boolean storm, boolean thundering) {
+        // The thunder flag can outlive the storm, but lightning only strikes while it rains
+        if (!storm) {
+            return WeatherType.CLEAR;
+        }
+        return thundering ? WeatherType.THUNDERSTORM : WeatherType.RAIN;
+    }
+}
@@ -0,0 +1,154 @@
+package me.astrix.entity.pipeline;
+
+import lombok.Getter;
+import me.astrix.entity.scheduler.AIScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Three phase sense/think/act pipeline for AI work.
+ * <p>
+ * During a tick, behaviors sense on the threads updating their managers and
+ * {@link #submit(PipelineTask) submit} tasks holding immutable snapshots. At the end of
+ * the tick the tasks are split into batches and decided in parallel on a worker pool.
+ * Decisions are applied at the start of the next tick on the threads owning their
+ * entities, so the think phase overlaps with the rest of the server tick.
+ * </p>
+ */
+public class AIPipeline {
+
+    private static final int TASKS_PER_BATCH_MIN = 16;
+
+    @Getter
+    private final int workerThreads;
+
+    private final List<PipelineTask> pending = new ArrayList<>();
+    private final Queue<PipelineTask> completed = new ConcurrentLinkedQueue<>();
+    private ExecutorService workers;
+
+    @Getter
+    private long dispatchedTasks;
+
+    /**
+     * Creates a pipeline using all cores but one.
+     */
+    public AIPipeline() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param workerThreads Number of threads deciding in parallel
+     */
+    public AIPipeline(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Queues a task for the think phase of this tick. May be called from any thread updating a manager.
+     *
+     * @param task The task holding its sensed snapshot
+     */
+    public synchronized void submit(PipelineTask task) {
+        pending.add(task);
+    }
+
+    /**
+     * Applies every decision completed since the last call. Decisions for entities owned
+     * by another thread are handed off to it through the scheduler.
+     *
+     * @param scheduler The scheduler of the AI being ticked
+     */
+    public void applyDecisions(AIScheduler scheduler) {
+        PipelineTask task;
+        while ((task = completed.poll()) != null) {
+            Entity owner = task.getOwner();
+            if (owner != null && !scheduler.isOwnedByCurrentThread(owner)) {
+                scheduler.execute(owner, task::act);
+                continue;
+            }
+
+            try {
+                task.act();
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "Failed to apply AI decision", e);
+            }
+        }
+    }
+
+    /**
+     * Sends the tasks submitted this tick to the worker pool. Called at the end of the tick.
+     */
+    public synchronized void dispatch() {
+        int count = pending.size();
+        if (count == 0) {
+            return;
+        }
+
+        ExecutorService executor = workers();
+        int batchSize = Math.max(TASKS_PER_BATCH_MIN, (count + workerThreads - 1) / workerThreads);
+
+        for (int from = 0; from < count; from += batchSize) {
+            PipelineTask[] batch = pending.subList(from, Math.min(count, from + batchSize)).toArray(new PipelineTask[0]);
+            try {
+                executor.execute(() -> think(batch));
+            } catch (RejectedExecutionException e) {
+                // Shutting down, the remaining decisions are dropped
+                break;
+            }
+        }
+
+        dispatchedTasks += count;
+        pending.clear();
+    }
+
+    /**
+     * Stops the worker pool and drops all pending and completed tasks.
+     */
+    public synchronized void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        pending.clear();
+        completed.clear();
+    }
+
+    private void think(PipelineTask[] batch) {
+        for (PipelineTask task : batch) {
+            try {
+                task.think();
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "AI decision failed on worker thread", e);
+            }
+            // Failed tasks are still handed back so their behavior can submit again
+            completed.add(task);
+        }
+    }
+
+    private ExecutorService workers() {
+        if (workers == null) {
+            AtomicInteger threadId = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "EntityAI-Worker-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+}
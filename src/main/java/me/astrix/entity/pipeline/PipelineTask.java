@@ -0,0 +1,28 @@
+package me.astrix.entity.pipeline;
+
+import org.bukkit.entity.Entity;
+
+/**
+ * Unit of work passed through the {@link AIPipeline}.
+ */
+public interface PipelineTask {
+
+    /**
+     * Runs the decision phase. Called on a worker thread, so it must not touch the Bukkit API.
+     */
+    void think();
+
+    /**
+     * Applies the result of {@link #think()}. Called on the thread owning {@link #getOwner()}.
+     */
+    void act();
+
+    /**
+     * Returns the entity the task acts on, whose owning thread applies the decision.
+     *
+     * @return The entity, or {@code null} to apply the decision on the thread ticking the AI
+     */
+    default Entity getOwner() {
+        return null;
+    }
+}
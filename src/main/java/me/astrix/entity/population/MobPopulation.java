@@ -0,0 +1,318 @@
+package me.astrix.entity.population;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.enums.EntityEmotionalState;
+import me.astrix.entity.utils.LongIntHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Mob;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays storage for large populations of simple mobs in one world.
+ * <p>
+ * Instead of an {@code AIManager} with its behaviors, navigators and locations per mob,
+ * every property is a primitive array indexed by the mob's slot: positions, home
+ * coordinates, emotional state, current behavior index, cooldowns and random state,
+ * about a hundred bytes per mob. Each tick the positions are read from the entities,
+ * the {@link PopulationKernel kernels} run as batch loops over the arrays, and the
+ * resulting velocities are applied. Slots are dense; removing a mob moves the last
+ * mob into its slot.
+ * </p>
+ * <p>
+ * The array getters return the live arrays, valid for indices below {@link #size()}.
+ * Main thread only.
+ * </p>
+ */
+@Getter
+public class MobPopulation {
+
+    public static final int NO_BEHAVIOR = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final EntityEmotionalState[] EMOTIONAL_STATES = EntityEmotionalState.values();
+    private static final byte NEUTRAL = (byte) EntityEmotionalState.NEUTRAL.ordinal();
+
+    // Vanilla mob physics, applied to the vertical movement of the last tick to get the current velocity
+    private static final double GRAVITY = 0.08;
+    private static final double VERTICAL_DRAG = 0.98;
+
+    private final World world;
+    @Getter(AccessLevel.NONE)
+    private int size;
+
+    @Getter(AccessLevel.NONE)
+    private Mob[] mobs = new Mob[INITIAL_CAPACITY];
+    @Getter(AccessLevel.NONE)
+    private final LongIntHashMap slotByEntityId = new LongIntHashMap(INITIAL_CAPACITY);
+    @Getter(AccessLevel.NONE)
+    private final List<PopulationKernel> kernels = new ArrayList<>();
+
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] z = new double[INITIAL_CAPACITY];
+    private double[] homeX = new double[INITIAL_CAPACITY];
+    private double[] homeY = new double[INITIAL_CAPACITY];
+    private double[] homeZ = new double[INITIAL_CAPACITY];
+
+    /** Horizontal velocity written by the kernels, applied to mobs whose behavior index is set */
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityZ = new double[INITIAL_CAPACITY];
+
+    /**
+     * Vertical velocity of the mobs, derived from their vertical movement since the previous
+     * tick as the server derives it, so falls and jumps carry on without reading every mob's
+     * velocity. A vertical push a mob gets after it moved in a tick is overwritten.
+     */
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+
+    /** Scratch values for kernels, e.g. squared distances, overwritten by every kernel */
+    private double[] scratch = new double[INITIAL_CAPACITY];
+
+    /** Per-kernel targets, e.g. wander destinations */
+    private double[] targetX = new double[INITIAL_CAPACITY];
+    private double[] targetZ = new double[INITIAL_CAPACITY];
+
+    /** {@link EntityEmotionalState} ordinals */
+    private byte[] emotionalStates = new byte[INITIAL_CAPACITY];
+
+    /** Index of the kernel that claimed the mob this tick, or {@link #NO_BEHAVIOR} */
+    private int[] behaviorIndices = new int[INITIAL_CAPACITY];
+
+    /** Tick until which a kernel leaves the mob alone */
+    private long[] cooldowns = new long[INITIAL_CAPACITY];
+
+    /** xorshift64* state per mob, see {@link #nextDouble(int)} */
+    private long[] randomStates = new long[INITIAL_CAPACITY];
+
+    @Getter(AccessLevel.NONE)
+    private final Location location = new Location(null, 0, 0, 0);
+    @Getter(AccessLevel.NONE)
+    private final Vector velocity = new Vector();
+
+    /**
+     * Creates an empty population.
+     *
+     * @param world The world all mobs of the population are in
+     */
+    public MobPopulation(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Adds a kernel, run after the kernels added before it.
+     *
+     * @param kernel The kernel
+     */
+    public void addKernel(PopulationKernel kernel) {
+        kernels.add(kernel);
+    }
+
+    /**
+     * Adds a mob with its current location as home.
+     *
+     * @param mob The mob, which must be in this population's world
+     * @return The mob's slot
+     */
+    public int add(Mob mob) {
+        if (mob.getWorld() != world) {
+            throw new IllegalArgumentException("Mob is not in the population's world");
+        }
+        if (slotByEntityId.containsKey(mob.getEntityId())) {
+            throw new IllegalArgumentException("Mob is already part of the population");
+        }
+        if (size == mobs.length) {
+            grow();
+        }
+
+        int slot = size++;
+        mobs[slot] = mob;
+        slotByEntityId.put(mob.getEntityId(), slot);
+
+        mob.getLocation(location);
+        x[slot] = homeX[slot] = location.getX();
+        y[slot] = homeY[slot] = location.getY();
+        z[slot] = homeZ[slot] = location.getZ();
+        velocityY[slot] = mob.getVelocity().getY();
+        targetX[slot] = location.getX();
+        targetZ[slot] = location.getZ();
+        emotionalStates[slot] = NEUTRAL;
+        behaviorIndices[slot] = NO_BEHAVIOR;
+        cooldowns[slot] = 0L;
+        // Any non-zero seed works for xorshift
+        randomStates[slot] = mob.getUniqueId().getLeastSignificantBits() | 1L;
+        return slot;
+    }
+
+    /**
+     * Removes a mob.
+     *
+     * @param mob The mob
+     * @return Whether the mob was part of the population
+     */
+    public boolean remove(Mob mob) {
+        int slot = slotOf(mob);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Returns the slot of a mob.
+     *
+     * @param mob The mob
+     * @return The slot, or -1 if the mob is not part of the population
+     */
+    public int slotOf(Mob mob) {
+        return slotByEntityId.get(mob.getEntityId(), -1);
+    }
+
+    /**
+     * @return The number of mobs
+     */
+    public int size() {
+        return size;
+    }
+
+    public Mob getMob(int slot) {
+        return mobs[slot];
+    }
+
+    public void setHome(int slot, double homeX, double homeY, double homeZ) {
+        this.homeX[slot] = homeX;
+        this.homeY[slot] = homeY;
+        this.homeZ[slot] = homeZ;
+    }
+
+    public EntityEmotionalState getEmotionalState(int slot) {
+        return EMOTIONAL_STATES[emotionalStates[slot]];
+    }
+
+    public void setEmotionalState(int slot, EntityEmotionalState state) {
+        emotionalStates[slot] = (byte) state.ordinal();
+    }
+
+    /**
+     * Returns the next random value of a mob, in [0, 1).
+     *
+     * @param slot The mob's slot
+     * @return A uniformly distributed double
+     */
+    public double nextDouble(int slot) {
+        long state = randomStates[slot];
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        randomStates[slot] = state;
+        return ((state * 0x2545F4914F6CDD1DL) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Reads the positions of all mobs, runs the kernels and applies the velocities.
+     * Mobs that are no longer valid or left the world are removed first.
+     *
+     * @param tick The current AI tick
+     */
+    public void tick(long tick) {
+        readPositions();
+
+        Arrays.fill(behaviorIndices, 0, size, NO_BEHAVIOR);
+        for (int i = 0, count = kernels.size(); i < count; i++) {
+            kernels.get(i).process(this, i, tick);
+        }
+
+        applyVelocities();
+    }
+
+    /**
+     * Removes every mob and kernel.
+     */
+    public void clear() {
+        Arrays.fill(mobs, 0, size, null);
+        slotByEntityId.clear();
+        kernels.clear();
+        size = 0;
+    }
+
+    private void readPositions() {
+        // Backwards, so the mob swapped into a removed slot has already been read
+        for (int i = size - 1; i >= 0; i--) {
+            Mob mob = mobs[i];
+            if (!mob.isValid() || mob.getWorld() != world) {
+                removeSlot(i);
+                continue;
+            }
+            mob.getLocation(location);
+            x[i] = location.getX();
+            velocityY[i] = (location.getY() - y[i] - GRAVITY) * VERTICAL_DRAG;
+            y[i] = location.getY();
+            z[i] = location.getZ();
+        }
+    }
+
+    private void applyVelocities() {
+        for (int i = 0; i < size; i++) {
+            if (behaviorIndices[i] == NO_BEHAVIOR) {
+                continue;
+            }
+            // Keep the vertical velocity, so mobs still fall, jump and take knockback.
+            // Entities copy the vector, so one instance serves every mob
+            velocity.setX(velocityX[i]).setY(velocityY[i]).setZ(velocityZ[i]);
+            mobs[i].setVelocity(velocity);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int last = --size;
+        slotByEntityId.remove(mobs[slot].getEntityId());
+
+        if (slot != last) {
+            mobs[slot] = mobs[last];
+            slotByEntityId.put(mobs[slot].getEntityId(), slot);
+            x[slot] = x[last];
+            y[slot] = y[last];
+            z[slot] = z[last];
+            homeX[slot] = homeX[last];
+            homeY[slot] = homeY[last];
+            homeZ[slot] = homeZ[last];
+            velocityX[slot] = velocityX[last];
+            velocityZ[slot] = velocityZ[last];
+            velocityY[slot] = velocityY[last];
+            targetX[slot] = targetX[last];
+            targetZ[slot] = targetZ[last];
+            emotionalStates[slot] = emotionalStates[last];
+            behaviorIndices[slot] = behaviorIndices[last];
+            cooldowns[slot] = cooldowns[last];
+            randomStates[slot] = randomStates[last];
+        }
+        mobs[last] = null;
+    }
+
+    private void grow() {
+        int capacity = mobs.length << 1;
+        mobs = Arrays.copyOf(mobs, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        homeX = Arrays.copyOf(homeX, capacity);
+        homeY = Arrays.copyOf(homeY, capacity);
+        homeZ = Arrays.copyOf(homeZ, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityZ = Arrays.copyOf(velocityZ, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        scratch = new double[capacity];
+        targetX = Arrays.copyOf(targetX, capacity);
+        targetZ = Arrays.copyOf(targetZ, capacity);
+        emotionalStates = Arrays.copyOf(emotionalStates, capacity);
+        behaviorIndices = Arrays.copyOf(behaviorIndices, capacity);
+        cooldowns = Arrays.copyOf(cooldowns, capacity);
+        randomStates = Arrays.copyOf(randomStates, capacity);
+    }
+}
@@ -0,0 +1,24 @@
+package me.astrix.entity.population;
+
+/**
+ * Behavior applied to every mob of a {@link MobPopulation} in one batch loop.
+ * <p>
+ * Kernels run in the order they were added. A kernel only processes mobs that no
+ * earlier kernel claimed this tick, and claims a mob by setting its behavior index
+ * to its own kernel index, like the first runnable behavior of an {@code AIManager}.
+ * Kernels should read and write the population's arrays only, so their loops stay
+ * free of calls and allocation.
+ * </p>
+ */
+@FunctionalInterface
+public interface PopulationKernel {
+
+    /**
+     * Processes the population for one tick.
+     *
+     * @param population The population, with positions read for this tick
+     * @param kernelIndex Index of this kernel, to be written into {@link MobPopulation#getBehaviorIndices()}
+     * @param tick The current AI tick
+     */
+    void process(MobPopulation population, int kernelIndex, long tick);
+}
@@ -0,0 +1,65 @@
+package me.astrix.entity.population;
+
+import me.astrix.entity.enums.EntityEmotionalState;
+
+/**
+ * Walks mobs back towards their home when they strayed too far. Scared mobs
+ * always head home, at twice the speed.
+ */
+public class ReturnHomeKernel implements PopulationKernel {
+
+    private static final byte SCARED = (byte) EntityEmotionalState.SCARED.ordinal();
+    private static final double SCARED_SPEED_MULTIPLIER = 2.0;
+    private static final double ARRIVAL_DISTANCE_SQUARED = 1.0;
+
+    private final double maxDistanceSquared;
+    private final double speed;
+
+    /**
+     * @param maxDistance Distance from home beyond which mobs return
+     * @param speed Walking speed in blocks per tick
+     */
+    public ReturnHomeKernel(double maxDistance, double speed) {
+        this.maxDistanceSquared = maxDistance * maxDistance;
+        this.speed = speed;
+    }
+
+    @Override
+    public void process(MobPopulation population, int kernelIndex, long tick) {
+        int size = population.size();
+        double[] x = population.getX();
+        double[] z = population.getZ();
+        double[] homeX = population.getHomeX();
+        double[] homeZ = population.getHomeZ();
+        double[] distanceSquared = population.getScratch();
+
+        // Branch-free pass the JIT can vectorize
+        for (int i = 0; i < size; i++) {
+            double dx = homeX[i] - x[i];
+            double dz = homeZ[i] - z[i];
+            distanceSquared[i] = dx * dx + dz * dz;
+        }
+
+        int[] behaviorIndices = population.getBehaviorIndices();
+        byte[] emotionalStates = population.getEmotionalStates();
+        double[] velocityX = population.getVelocityX();
+        double[] velocityZ = population.getVelocityZ();
+
+        for (int i = 0; i < size; i++) {
+            if (behaviorIndices[i] != MobPopulation.NO_BEHAVIOR) {
+                continue;
+            }
+
+            boolean scared = emotionalStates[i] == SCARED;
+            double distance = distanceSquared[i];
+            if ((!scared && distance <= maxDistanceSquared) || distance <= ARRIVAL_DISTANCE_SQUARED) {
+                continue;
+            }
+
+            double scale = (scared ? speed * SCARED_SPEED_MULTIPLIER : speed) / Math.sqrt(distance);
+            velocityX[i] = (homeX[i] - x[i]) * scale;
+            velocityZ[i] = (homeZ[i] - z[i]) * scale;
+            behaviorIndices[i] = kernelIndex;
+        }
+    }
+}
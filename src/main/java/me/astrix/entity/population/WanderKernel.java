@@ -0,0 +1,78 @@
+package me.astrix.entity.population;
+
+/**
+ * Moves mobs towards random destinations around their home, pausing between destinations.
+ */
+public class WanderKernel implements PopulationKernel {
+
+    private static final double ARRIVAL_DISTANCE_SQUARED = 1.0;
+
+    private final double radius;
+    private final double speed;
+    private final int minPauseTicks;
+    private final int maxPauseTicks;
+
+    /**
+     * @param radius Maximum distance of destinations from home
+     * @param speed Walking speed in blocks per tick
+     * @param minPauseTicks Minimum ticks to idle after reaching a destination
+     * @param maxPauseTicks Maximum ticks to idle after reaching a destination
+     */
+    public WanderKernel(double radius, double speed, int minPauseTicks, int maxPauseTicks) {
+        if (minPauseTicks < 0 || maxPauseTicks < minPauseTicks) {
+            throw new IllegalArgumentException("Invalid pause range");
+        }
+        this.radius = radius;
+        this.speed = speed;
+        this.minPauseTicks = minPauseTicks;
+        this.maxPauseTicks = maxPauseTicks;
+    }
+
+    @Override
+    public void process(MobPopulation population, int kernelIndex, long tick) {
+        int size = population.size();
+        double[] x = population.getX();
+        double[] z = population.getZ();
+        double[] targetX = population.getTargetX();
+        double[] targetZ = population.getTargetZ();
+        double[] distanceSquared = population.getScratch();
+
+        // Branch-free pass the JIT can vectorize
+        for (int i = 0; i < size; i++) {
+            double dx = targetX[i] - x[i];
+            double dz = targetZ[i] - z[i];
+            distanceSquared[i] = dx * dx + dz * dz;
+        }
+
+        int[] behaviorIndices = population.getBehaviorIndices();
+        long[] cooldowns = population.getCooldowns();
+        double[] homeX = population.getHomeX();
+        double[] homeZ = population.getHomeZ();
+        double[] velocityX = population.getVelocityX();
+        double[] velocityZ = population.getVelocityZ();
+
+        for (int i = 0; i < size; i++) {
+            if (behaviorIndices[i] != MobPopulation.NO_BEHAVIOR || tick < cooldowns[i]) {
+                continue;
+            }
+
+            double distance = distanceSquared[i];
+            if (distance <= ARRIVAL_DISTANCE_SQUARED) {
+                // Arrived: idle for a while, then pick the next destination
+                int pause = minPauseTicks + (int) (population.nextDouble(i) * (maxPauseTicks - minPauseTicks + 1));
+                cooldowns[i] = tick + pause;
+
+                double angle = population.nextDouble(i) * 2 * Math.PI;
+                double offset = Math.sqrt(population.nextDouble(i)) * radius;
+                targetX[i] = homeX[i] + Math.cos(angle) * offset;
+                targetZ[i] = homeZ[i] + Math.sin(angle) * offset;
+                continue;
+            }
+
+            double scale = speed / Math.sqrt(distance);
+            velocityX[i] = (targetX[i] - x[i]) * scale;
+            velocityZ[i] = (targetZ[i] - z[i]) * scale;
+            behaviorIndices[i] = kernelIndex;
+        }
+    }
+}
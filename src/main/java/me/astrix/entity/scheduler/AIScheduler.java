@@ -0,0 +1,96 @@
+package me.astrix.entity.scheduler;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.managers.AIManager;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Decides on which threads the AI ticks and its managers update.
+ * <p>
+ * Every tick has a global phase, run by {@link EntityAI#tick()} on one thread at a
+ * time, which flushes the shared caches, delivers signals and ticks packs and
+ * populations. Between its start and end the scheduler updates the due managers,
+ * either on the same thread or on the threads owning their entities. Interactions
+ * with an entity owned by another thread, such as damaging it, are handed off
+ * through {@link #execute(Entity, Runnable)}.
+ * </p>
+ */
+public interface AIScheduler {
+
+    /**
+     * Starts ticking the AI. Called once when the scheduler is installed on an
+     * instance bound to a plugin.
+     *
+     * @param entityAI The AI to tick
+     */
+    void start(EntityAI entityAI);
+
+    /**
+     * Stops ticking the AI. Managers updated on other threads finish their current update.
+     */
+    void stop();
+
+    /**
+     * Updates the managers due this tick. Called by {@link EntityAI#tick()} during
+     * the global phase, on the thread running it.
+     *
+     * @param entityAI The AI being ticked
+     */
+    void updateManagers(EntityAI entityAI);
+
+    /**
+     * Checks whether the calling thread may use an entity and its manager directly.
+     *
+     * @param entity The entity
+     * @return Whether the calling thread owns the entity
+     */
+    boolean isOwnedByCurrentThread(Entity entity);
+
+    /**
+     * Checks whether the calling thread may read the blocks, chunks and entities of a
+     * world through the Bukkit API. Caches built from the world, such as walkability
+     * sections, only serve what they already hold to threads that may not, treating
+     * the rest as unloaded.
+     *
+     * @param world The world
+     * @return Whether the calling thread may read the world
+     */
+    default boolean canReadWorld(World world) {
+        return true;
+    }
+
+    /**
+     * Runs a task on the thread owning an entity, immediately if that is the calling thread.
+     * The task is dropped if the entity is removed before it runs.
+     *
+     * @param entity The entity the task uses
+     * @param task The task
+     */
+    void execute(Entity entity, Runnable task);
+
+    /**
+     * Called when a manager is created, from the creating thread.
+     *
+     * @param manager The new manager
+     */
+    default void track(AIManager manager) {
+    }
+
+    /**
+     * Acquires what the scheduler requires before AI state of a world is changed from
+     * outside a tick, such as from an event handler. Must be paired with {@link #exit(World)}.
+     *
+     * @param world The world whose state is changed
+     */
+    default void enter(World world) {
+    }
+
+    /**
+     * Releases what {@link #enter(World)} acquired.
+     *
+     * @param world The world whose state was changed
+     */
+    default void exit(World world) {
+    }
+}
@@ -0,0 +1,58 @@
+package me.astrix.entity.scheduler;
+
+import me.astrix.entity.EntityAI;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Ticks the AI and updates every manager on the server main thread, once per server tick.
+ * Honors the {@link me.astrix.entity.enums.TickMode tick mode} and its budget.
+ */
+public class GlobalTickScheduler implements AIScheduler {
+
+    private Plugin plugin;
+    private BukkitTask task;
+
+    @Override
+    public void start(EntityAI entityAI) {
+        if (task != null) {
+            throw new IllegalStateException("Scheduler is already running");
+        }
+        plugin = entityAI.getPlugin();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, entityAI::tick, 0L, 1L); // Run every tick
+    }
+
+    @Override
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    public void updateManagers(EntityAI entityAI) {
+        entityAI.updateManagers(entityAI.collectDueManagers());
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        // Headless instances tick on whichever thread calls them
+        return plugin == null || Bukkit.isPrimaryThread();
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable task) {
+        if (isOwnedByCurrentThread(entity)) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (entity.isValid()) {
+                    task.run();
+                }
+            });
+        }
+    }
+}
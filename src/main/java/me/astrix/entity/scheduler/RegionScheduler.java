@@ -0,0 +1,243 @@
+package me.astrix.entity.scheduler;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.managers.AIManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Mob;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Experimental scheduler for Folia servers, where there is no main thread and every
+ * entity is ticked by the thread owning its region. It is never selected automatically,
+ * install it with {@link EntityAI#setScheduler(AIScheduler)}.
+ * <p>
+ * Each manager updates from its entity's scheduler, on the thread owning the entity,
+ * and the global phase of the AI runs on the global region scheduler. This is not
+ * region parallelism: the AI's per-world state, such as the spatial grid and walkability
+ * bitmaps, is not split by region, so managers of the same world update one at a
+ * time under a per-world lock, and the global phase excludes all manager updates.
+ * Only managers of different worlds update in parallel. Block changes are queued
+ * without taking the world lock. The level-of-detail intervals apply; the
+ * {@link me.astrix.entity.enums.TickMode tick budget} does not.
+ * </p>
+ * <p>
+ * The global phase still reads world and entity state owned by region threads: it
+ * re-reads changed blocks, sweeps invalid managers, indexes world entities, resolves
+ * pack targets and dispatches triggers. Folia rejects some of these calls from the
+ * global region thread, so this scheduler only suits servers whose AI avoids them,
+ * until those reads move into the owning regions' tasks.
+ * </p>
+ * <p>
+ * The Folia scheduler API is not part of the Spigot API this library compiles
+ * against, so it is bound reflectively when the scheduler is created.
+ * </p>
+ */
+public class RegionScheduler implements AIScheduler {
+
+    private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+    private static final String GLOBAL_REGION_SCHEDULER = "io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler";
+    private static final String ENTITY_SCHEDULER = "io.papermc.paper.threadedregions.scheduler.EntityScheduler";
+    private static final String SCHEDULED_TASK = "io.papermc.paper.threadedregions.scheduler.ScheduledTask";
+
+    private final MethodHandle isOwnedByCurrentRegion;
+    private final MethodHandle getGlobalRegionScheduler;
+    private final MethodHandle runGlobalAtFixedRate;
+    private final MethodHandle getEntityScheduler;
+    private final MethodHandle runEntityAtFixedRate;
+    private final MethodHandle executeOnEntity;
+    private final MethodHandle cancelTask;
+
+    // Held exclusively by the global phase and shared by manager updates and event handlers
+    private final ReentrantReadWriteLock tickLock = new ReentrantReadWriteLock();
+    private final Map<UUID, ReentrantLock> worldLocks = new ConcurrentHashMap<>();
+
+    private EntityAI entityAI;
+    private Plugin plugin;
+    private Object globalTask;
+    // Bumped when stopping, so the repeating entity tasks of the previous run cancel themselves
+    private volatile int generation;
+
+    /**
+     * Creates a scheduler bound to the running server's region schedulers.
+     *
+     * @throws IllegalStateException If the server is not region-threaded
+     */
+    public RegionScheduler() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Region scheduling requires a region-threaded server");
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> globalScheduler = Class.forName(GLOBAL_REGION_SCHEDULER);
+            Class<?> entityScheduler = Class.forName(ENTITY_SCHEDULER);
+            Class<?> scheduledTask = Class.forName(SCHEDULED_TASK);
+
+            // Checked for every hand-off, so typed for an exact invocation
+            isOwnedByCurrentRegion = lookup.unreflect(Server.class.getMethod("isOwnedByCurrentRegion", Entity.class))
+                    .asType(MethodType.methodType(boolean.class, Server.class, Entity.class));
+            getGlobalRegionScheduler = lookup.unreflect(Server.class.getMethod("getGlobalRegionScheduler"));
+            runGlobalAtFixedRate = lookup.unreflect(globalScheduler.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class));
+            getEntityScheduler = lookup.unreflect(Entity.class.getMethod("getScheduler"));
+            runEntityAtFixedRate = lookup.unreflect(entityScheduler.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, Runnable.class, long.class, long.class));
+            executeOnEntity = lookup.unreflect(entityScheduler.getMethod("execute",
+                    Plugin.class, Runnable.class, Runnable.class, long.class));
+            cancelTask = lookup.unreflect(scheduledTask.getMethod("cancel"));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported region scheduler API", e);
+        }
+    }
+
+    /**
+     * Checks whether the server is region-threaded.
+     *
+     * @return Whether a {@link RegionScheduler} can be created
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void start(EntityAI entityAI) {
+        if (globalTask != null) {
+            throw new IllegalStateException("Scheduler is already running");
+        }
+        this.entityAI = entityAI;
+        this.plugin = entityAI.getPlugin();
+
+        Object globalScheduler = invoke(getGlobalRegionScheduler, plugin.getServer());
+        Consumer<Object> tick = task -> tickGlobal(entityAI);
+        globalTask = invoke(runGlobalAtFixedRate, globalScheduler, plugin, tick, 1L, 1L);
+
+        List<AIManager> managers = entityAI.getManagedEntities();
+        for (int i = 0, size = managers.size(); i < size; i++) {
+            track(managers.get(i));
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (globalTask != null) {
+            invoke(cancelTask, globalTask);
+            globalTask = null;
+        }
+        generation++;
+        entityAI = null;
+    }
+
+    @Override
+    public void updateManagers(EntityAI entityAI) {
+        // Managers update from their entity's scheduler, see track()
+    }
+
+    @Override
+    public void track(AIManager manager) {
+        EntityAI ai = entityAI;
+        if (ai == null) {
+            return;
+        }
+
+        int trackedGeneration = generation;
+        Consumer<Object> update = task -> updateManager(ai, manager, trackedGeneration, task);
+        invoke(runEntityAtFixedRate, invoke(getEntityScheduler, manager.getEntity()), plugin, update, null, 1L, 1L);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        try {
+            return (boolean) isOwnedByCurrentRegion.invokeExact(Bukkit.getServer(), entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Region scheduler call failed", e);
+        }
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable task) {
+        if (isOwnedByCurrentThread(entity)) {
+            task.run();
+            return;
+        }
+
+        Runnable locked = () -> {
+            World world = entity.getWorld();
+            enter(world);
+            try {
+                task.run();
+            } finally {
+                exit(world);
+            }
+        };
+        invoke(executeOnEntity, invoke(getEntityScheduler, entity), plugin, locked, null, 1L);
+    }
+
+    @Override
+    public void enter(World world) {
+        tickLock.readLock().lock();
+        worldLocks.computeIfAbsent(world.getUID(), id -> new ReentrantLock()).lock();
+    }
+
+    @Override
+    public void exit(World world) {
+        worldLocks.get(world.getUID()).unlock();
+        tickLock.readLock().unlock();
+    }
+
+    private void tickGlobal(EntityAI ai) {
+        tickLock.writeLock().lock();
+        try {
+            ai.tick();
+        } finally {
+            tickLock.writeLock().unlock();
+        }
+    }
+
+    private void updateManager(EntityAI ai, AIManager manager, int trackedGeneration, Object task) {
+        Mob entity = manager.getEntity();
+        // Released, hibernated, or tracked by a previous run of the scheduler
+        if (trackedGeneration != generation || ai.getManager(entity) != manager) {
+            invoke(cancelTask, task);
+            return;
+        }
+
+        World world = entity.getWorld();
+        enter(world);
+        try {
+            ai.updateOwnedManager(manager);
+        } finally {
+            exit(world);
+        }
+    }
+
+    private static Object invoke(MethodHandle handle, Object... arguments) {
+        try {
+            return handle.invokeWithArguments(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Region scheduler call failed", e);
+        }
+    }
+}
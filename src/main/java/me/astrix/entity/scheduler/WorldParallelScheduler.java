@@ -0,0 +1,230 @@
+package me.astrix.entity.scheduler;
+
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.managers.AIManager;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Ticks the AI on the server main thread and updates the managers of different
+ * worlds in parallel, one thread per world, before the tick ends.
+ * <p>
+ * The state the AI keeps per world, such as its spatial grid and walkability
+ * bitmaps, is only touched by the thread updating that world, and the services
+ * shared between worlds are thread-safe. Tasks for entities of another world are
+ * run on the main thread once every world has been updated. With a single busy
+ * world, managers update on the main thread as with {@link GlobalTickScheduler};
+ * with several, the {@link me.astrix.entity.enums.TickMode tick budget} is not applied.
+ * </p>
+ * <p>
+ * Reading chunks off the main thread hands the read to the main thread and waits for
+ * it, which deadlocks while the main thread waits for the workers. Before handing a
+ * world to a worker, the main thread therefore {@link EntityAI#prepareWorld(List) prepares}
+ * what its managers read from the world: its entities and the terrain and shelter
+ * columns around each manager. Workers {@link #canReadWorld(World) may not read the world}
+ * and only see these caches.
+ * </p>
+ * <p>
+ * Behaviors of worlds updated on a worker call the Bukkit API off the main thread,
+ * so only select this scheduler when every behavior in use limits itself to its
+ * own entity, never reads blocks itself and hands other interactions off through
+ * {@link #execute(Entity, Runnable)}.
+ * </p>
+ */
+public class WorldParallelScheduler extends GlobalTickScheduler {
+
+    private final int workerThreads;
+    private ExecutorService workers;
+
+    private final Map<UUID, List<AIManager>> managersByWorld = new HashMap<>();
+    private final List<List<AIManager>> busyWorlds = new ArrayList<>();
+    private final Queue<Runnable> handoffs = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<UUID> updatingWorld = new ThreadLocal<>();
+    private volatile boolean parallel;
+    private volatile Thread tickThread;
+
+    /**
+     * Creates a scheduler using all cores but one next to the main thread.
+     */
+    public WorldParallelScheduler() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param workerThreads Number of threads updating worlds next to the main thread
+     */
+    public WorldParallelScheduler(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+        this.workerThreads = workerThreads;
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    @Override
+    public void updateManagers(EntityAI entityAI) {
+        List<AIManager> dueManagers = entityAI.collectDueManagers();
+        for (int i = 0, size = dueManagers.size(); i < size; i++) {
+            AIManager manager = dueManagers.get(i);
+            List<AIManager> managers = managersByWorld.computeIfAbsent(
+                    manager.getEntity().getWorld().getUID(), id -> new ArrayList<>());
+            if (managers.isEmpty()) {
+                busyWorlds.add(managers);
+            }
+            managers.add(manager);
+        }
+
+        try {
+            if (busyWorlds.size() == 1) {
+                entityAI.updateManagers(busyWorlds.get(0));
+            } else if (busyWorlds.size() > 1) {
+                updateInParallel(entityAI);
+            }
+        } finally {
+            for (int i = 0, size = busyWorlds.size(); i < size; i++) {
+                busyWorlds.get(i).clear();
+            }
+            busyWorlds.clear();
+            runHandoffs();
+        }
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        if (!parallel) {
+            return super.isOwnedByCurrentThread(entity);
+        }
+        UUID worldId = updatingWorld.get();
+        return worldId != null && worldId.equals(entity.getWorld().getUID());
+    }
+
+    @Override
+    public boolean canReadWorld(World world) {
+        return !parallel || Thread.currentThread() == tickThread;
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable task) {
+        if (isOwnedByCurrentThread(entity)) {
+            task.run();
+        } else if (parallel) {
+            handoffs.add(() -> {
+                if (entity.isValid()) {
+                    task.run();
+                }
+            });
+        } else {
+            super.execute(entity, task);
+        }
+    }
+
+    /**
+     * Updates the first busy world on the calling thread and the others on the workers,
+     * returning once all are done. The worlds of the workers are prepared first, while
+     * the calling thread may still read them.
+     */
+    private void updateInParallel(EntityAI entityAI) {
+        for (int i = 1, size = busyWorlds.size(); i < size; i++) {
+            entityAI.prepareWorld(busyWorlds.get(i));
+        }
+
+        ExecutorService executor = workers();
+        CountDownLatch done = new CountDownLatch(busyWorlds.size() - 1);
+        tickThread = Thread.currentThread();
+        parallel = true;
+        try {
+            for (int i = 1, size = busyWorlds.size(); i < size; i++) {
+                List<AIManager> managers = busyWorlds.get(i);
+                executor.execute(() -> {
+                    try {
+                        updateWorld(entityAI, managers);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            updateWorld(entityAI, busyWorlds.get(0));
+            awaitUninterruptibly(done);
+        } finally {
+            parallel = false;
+        }
+    }
+
+    private void updateWorld(EntityAI entityAI, List<AIManager> managers) {
+        updatingWorld.set(managers.get(0).getEntity().getWorld().getUID());
+        try {
+            for (int i = 0, size = managers.size(); i < size; i++) {
+                try {
+                    entityAI.updateManager(managers.get(i));
+                } catch (RuntimeException e) {
+                    Bukkit.getLogger().log(Level.WARNING, "Failed to update the AI of an entity", e);
+                }
+            }
+        } finally {
+            updatingWorld.remove();
+        }
+    }
+
+    private void runHandoffs() {
+        Runnable task;
+        while ((task = handoffs.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Bukkit.getLogger().log(Level.WARNING, "Failed to run AI task handed off between worlds", e);
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService workers() {
+        if (workers == null) {
+            AtomicInteger threadId = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "EntityAI-World-" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+}
@@ -0,0 +1,18 @@
+package me.astrix.entity.signals;
+
+import org.bukkit.World;
+
+/**
+ * A change of world state delivered through the {@link SignalBus}.
+ * <p>
+ * World-wide signals reach every subscription in their world; {@link LocalSignal}s
+ * only reach subscriptions whose region contains them.
+ * </p>
+ */
+public sealed interface AISignal permits WeatherSignal, DayPhaseSignal, LocalSignal {
+
+    /**
+     * @return The world the change happened in
+     */
+    World world();
+}
@@ -0,0 +1,14 @@
+package me.astrix.entity.signals;
+
+import org.bukkit.World;
+
+/**
+ * A block changed in a way that may affect movement, published once per block and tick.
+ *
+ * @param world The world of the block
+ * @param x Block x coordinate
+ * @param y Block y coordinate
+ * @param z Block z coordinate
+ */
+public record BlockChangeSignal(World world, int x, int y, int z) implements LocalSignal {
+}
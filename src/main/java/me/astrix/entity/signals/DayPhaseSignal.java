@@ -0,0 +1,13 @@
+package me.astrix.entity.signals;
+
+import me.astrix.entity.enums.DayPhase;
+import org.bukkit.World;
+
+/**
+ * The time of day of a world entered a new phase.
+ *
+ * @param world The world
+ * @param phase The new phase
+ */
+public record DayPhaseSignal(World world, DayPhase phase) implements AISignal {
+}
@@ -0,0 +1,17 @@
+package me.astrix.entity.signals;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * An entity took damage.
+ *
+ * @param entity The damaged entity
+ * @param damage The damage dealt
+ * @param world The world of the entity
+ * @param x Block x coordinate of the entity
+ * @param y Block y coordinate of the entity
+ * @param z Block z coordinate of the entity
+ */
+public record EntityDamageSignal(Entity entity, double damage, World world, int x, int y, int z) implements LocalSignal {
+}
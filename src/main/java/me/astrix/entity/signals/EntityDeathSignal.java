@@ -0,0 +1,16 @@
+package me.astrix.entity.signals;
+
+import org.bukkit.World;
+import org.bukkit.entity.LivingEntity;
+
+/**
+ * An entity died.
+ *
+ * @param entity The dead entity
+ * @param world The world it died in
+ * @param x Block x coordinate of its death
+ * @param y Block y coordinate of its death
+ * @param z Block z coordinate of its death
+ */
+public record EntityDeathSignal(LivingEntity entity, World world, int x, int y, int z) implements LocalSignal {
+}
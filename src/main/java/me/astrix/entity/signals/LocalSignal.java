@@ -0,0 +1,13 @@
+package me.astrix.entity.signals;
+
+/**
+ * A signal that happened at a block position.
+ */
+public sealed interface LocalSignal extends AISignal permits BlockChangeSignal, EntityDeathSignal, EntityDamageSignal {
+
+    int x();
+
+    int y();
+
+    int z();
+}
@@ -0,0 +1,350 @@
+package me.astrix.entity.signals;
+
+import me.astrix.entity.enums.DayPhase;
+import me.astrix.entity.navigation.WalkabilityCache;
+import me.astrix.entity.utils.LongObjectHashMap;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Delivers changes of world state to the behaviors and managers subscribed to them.
+ * <p>
+ * Server events are converted into typed {@link AISignal}s and queued as they happen;
+ * once per AI tick, every subscription receives the signals of the tick that reach its
+ * {@link SignalRegion} in one batch. World state is thus observed once per change
+ * instead of being polled by every entity. Block changes come deduplicated from the
+ * {@link WalkabilityCache} and the time of day is checked once per second and world.
+ * </p>
+ * <p>
+ * Bounded subscriptions are indexed by 32x32 block cells, so a local signal is only
+ * matched against the subscriptions overlapping its cell. Signals nobody subscribed
+ * to are not queued. Thread-safe; listeners are called from the thread running the AI tick.
+ * </p>
+ */
+public class SignalBus implements WalkabilityCache.ChangeListener {
+
+    // Concrete signal types, a subscription to a supertype is registered for each subtype
+    private static final List<Class<? extends AISignal>> SIGNAL_TYPES = List.of(
+            WeatherSignal.class, DayPhaseSignal.class, BlockChangeSignal.class,
+            EntityDeathSignal.class, EntityDamageSignal.class);
+
+    private static final int CELL_SHIFT = 5;
+    // Larger regions are checked against every signal instead of being indexed
+    private static final int MAX_INDEXED_CELLS = 64;
+    private static final long DAY_PHASE_CHECK_TICKS = 20L;
+
+    private final TypeIndex[] indices = new TypeIndex[SIGNAL_TYPES.size()];
+
+    private List<AISignal> pending = new ArrayList<>();
+    private List<AISignal> delivering = new ArrayList<>();
+    private final List<Subscription> receiving = new ArrayList<>();
+    private final Map<UUID, DayPhase> dayPhases = new HashMap<>();
+
+    /**
+     * Creates a signal bus.
+     *
+     * @param walkabilityCache Cache whose re-read blocks are published as {@link BlockChangeSignal}s
+     */
+    public SignalBus(WalkabilityCache walkabilityCache) {
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = new TypeIndex();
+        }
+        walkabilityCache.addChangeListener(this);
+    }
+
+    /**
+     * Subscribes a listener to the signals of a type within a region.
+     *
+     * @param type The signal type; supertypes such as {@link LocalSignal} subscribe to all their subtypes
+     * @param region The region to receive signals from
+     * @param listener The listener, called once per tick with the matching signals
+     * @param <T> Type of the signals
+     * @return The subscription, used to move or cancel it
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends AISignal> Subscription subscribe(Class<T> type, SignalRegion region, SignalListener<? super T> listener) {
+        if (type == null || region == null || listener == null) {
+            throw new IllegalArgumentException("Type, region and listener cannot be null");
+        }
+
+        int typeMask = 0;
+        for (int i = 0; i < SIGNAL_TYPES.size(); i++) {
+            if (type.isAssignableFrom(SIGNAL_TYPES.get(i))) {
+                typeMask |= 1 << i;
+            }
+        }
+
+        // The listener only ever receives signals of the subscribed type
+        Subscription subscription = new Subscription(this, (SignalListener<AISignal>) listener, typeMask, region);
+        index(subscription);
+        return subscription;
+    }
+
+    /**
+     * Queues a signal for delivery on the next AI tick.
+     *
+     * @param signal The signal
+     */
+    public synchronized void publish(AISignal signal) {
+        if (indices[typeIndex(signal)].size > 0) {
+            pending.add(signal);
+        }
+    }
+
+    /**
+     * Checks whether any subscription receives signals of a type, so publishers can
+     * skip building signals nobody listens to.
+     *
+     * @param type A concrete signal type
+     * @return Whether the type has subscribers
+     */
+    public boolean hasSubscribers(Class<? extends AISignal> type) {
+        int index = SIGNAL_TYPES.indexOf(type);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not a concrete signal type: " + type.getName());
+        }
+        return indices[index].size > 0;
+    }
+
+    /**
+     * Checks the time of day and delivers the signals queued since the previous tick.
+     * Called once per AI tick, after the walkability cache has been flushed.
+     *
+     * @param currentTick The current AI tick
+     */
+    public synchronized void tick(long currentTick) {
+        if (currentTick % DAY_PHASE_CHECK_TICKS == 0) {
+            pollDayPhases();
+        }
+
+        // Signals published by listeners during delivery are delivered on the next tick
+        List<AISignal> batch = pending;
+        pending = delivering;
+        delivering = batch;
+
+        try {
+            for (int i = 0, size = batch.size(); i < size; i++) {
+                route(batch.get(i));
+            }
+
+            for (int i = 0, size = receiving.size(); i < size; i++) {
+                Subscription subscription = receiving.get(i);
+                if (!subscription.isCancelled()) {
+                    subscription.listener.onSignals(subscription.batch);
+                }
+                subscription.batch.clear();
+            }
+        } finally {
+            for (int i = 0, size = receiving.size(); i < size; i++) {
+                receiving.get(i).batch.clear();
+            }
+            receiving.clear();
+            batch.clear();
+        }
+    }
+
+    @Override
+    public synchronized void blockChanged(World world, int x, int y, int z) {
+        if (indices[typeIndex(BlockChangeSignal.class)].size > 0) {
+            pending.add(new BlockChangeSignal(world, x, y, z));
+        }
+    }
+
+    @Override
+    public synchronized void worldDropped(World world) {
+        dayPhases.remove(world.getUID());
+    }
+
+    /**
+     * Drops queued signals and every subscription.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        dayPhases.clear();
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = new TypeIndex();
+        }
+    }
+
+    synchronized void index(Subscription subscription) {
+        forEachType(subscription, index -> index.add(subscription));
+    }
+
+    synchronized void unindex(Subscription subscription) {
+        forEachType(subscription, index -> index.remove(subscription));
+    }
+
+    private void forEachType(Subscription subscription, Consumer<TypeIndex> action) {
+        for (int i = 0; i < indices.length; i++) {
+            if ((subscription.typeMask & (1 << i)) != 0) {
+                action.accept(indices[i]);
+            }
+        }
+    }
+
+    /**
+     * Collects a signal into the batch of every subscription it reaches.
+     */
+    private void route(AISignal signal) {
+        TypeIndex index = indices[typeIndex(signal)];
+        collect(index.unbounded, signal);
+
+        UUID worldId = signal.world().getUID();
+        if (signal instanceof LocalSignal local) {
+            LongObjectHashMap<List<Subscription>> cells = index.cells.get(worldId);
+            if (cells != null) {
+                List<Subscription> cell = cells.get(cellKey(local.x() >> CELL_SHIFT, local.z() >> CELL_SHIFT));
+                if (cell != null) {
+                    collect(cell, signal);
+                }
+            }
+        } else {
+            // World-wide signals reach every bounded region of their world
+            List<Subscription> bounded = index.boundedByWorld.get(worldId);
+            if (bounded != null) {
+                collect(bounded, signal);
+            }
+        }
+    }
+
+    private void collect(List<Subscription> subscriptions, AISignal signal) {
+        for (int i = 0, size = subscriptions.size(); i < size; i++) {
+            Subscription subscription = subscriptions.get(i);
+            if (subscription.getRegion().contains(signal)) {
+                if (subscription.batch.isEmpty()) {
+                    receiving.add(subscription);
+                }
+                subscription.batch.add(signal);
+            }
+        }
+    }
+
+    private void pollDayPhases() {
+        if (indices[typeIndex(DayPhaseSignal.class)].size == 0 || Bukkit.getServer() == null) {
+            return;
+        }
+
+        List<World> worlds = Bukkit.getWorlds();
+        if (worlds == null) {
+            return;
+        }
+
+        for (World world : worlds) {
+            DayPhase phase = dayPhase(world.getTime());
+            DayPhase previous = dayPhases.put(world.getUID(), phase);
+            if (previous != null && previous != phase) {
+                pending.add(new DayPhaseSignal(world, phase));
+            }
+        }
+    }
+
+    private static DayPhase dayPhase(long time) {
+        long timeOfDay = time % 24000L;
+        if (timeOfDay < 12000L) {
+            return DayPhase.DAY;
+        }
+        if (timeOfDay < 13000L) {
+            return DayPhase.DUSK;
+        }
+        return timeOfDay < 23000L ? DayPhase.NIGHT : DayPhase.DAWN;
+    }
+
+    private static int typeIndex(AISignal signal) {
+        return typeIndex(signal.getClass());
+    }
+
+    private static int typeIndex(Class<?> type) {
+        for (int i = 0; i < SIGNAL_TYPES.size(); i++) {
+            if (SIGNAL_TYPES.get(i) == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a concrete signal type: " + type.getName());
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return (long) cellX << 32 | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Subscriptions to one concrete signal type.
+     */
+    private static final class TypeIndex {
+        final List<Subscription> unbounded = new ArrayList<>();
+        final Map<UUID, List<Subscription>> boundedByWorld = new HashMap<>();
+        final Map<UUID, LongObjectHashMap<List<Subscription>>> cells = new HashMap<>();
+        int size;
+
+        void add(Subscription subscription) {
+            size++;
+            SignalRegion region = subscription.getRegion();
+            if (!isIndexed(region)) {
+                unbounded.add(subscription);
+                return;
+            }
+
+            boundedByWorld.computeIfAbsent(region.getWorldId(), id -> new ArrayList<>()).add(subscription);
+            LongObjectHashMap<List<Subscription>> worldCells =
+                    cells.computeIfAbsent(region.getWorldId(), id -> new LongObjectHashMap<>(64));
+            for (int cellX = region.getMinX() >> CELL_SHIFT; cellX <= region.getMaxX() >> CELL_SHIFT; cellX++) {
+                for (int cellZ = region.getMinZ() >> CELL_SHIFT; cellZ <= region.getMaxZ() >> CELL_SHIFT; cellZ++) {
+                    long key = cellKey(cellX, cellZ);
+                    List<Subscription> cell = worldCells.get(key);
+                    if (cell == null) {
+                        cell = new ArrayList<>(4);
+                        worldCells.put(key, cell);
+                    }
+                    cell.add(subscription);
+                }
+            }
+        }
+
+        void remove(Subscription subscription) {
+            SignalRegion region = subscription.getRegion();
+            if (!isIndexed(region)) {
+                if (unbounded.remove(subscription)) {
+                    size--;
+                }
+                return;
+            }
+
+            // Subscriptions dropped by clear() are no longer indexed
+            List<Subscription> bounded = boundedByWorld.get(region.getWorldId());
+            if (bounded == null || !bounded.remove(subscription)) {
+                return;
+            }
+            size--;
+            if (bounded.isEmpty()) {
+                boundedByWorld.remove(region.getWorldId());
+            }
+
+            LongObjectHashMap<List<Subscription>> worldCells = cells.get(region.getWorldId());
+            for (int cellX = region.getMinX() >> CELL_SHIFT; cellX <= region.getMaxX() >> CELL_SHIFT; cellX++) {
+                for (int cellZ = region.getMinZ() >> CELL_SHIFT; cellZ <= region.getMaxZ() >> CELL_SHIFT; cellZ++) {
+                    long key = cellKey(cellX, cellZ);
+                    List<Subscription> cell = worldCells.get(key);
+                    cell.remove(subscription);
+                    if (cell.isEmpty()) {
+                        worldCells.remove(key);
+                    }
+                }
+            }
+        }
+
+        private static boolean isIndexed(SignalRegion region) {
+            if (!region.isBounded()) {
+                return false;
+            }
+            long cellsX = (long) (region.getMaxX() >> CELL_SHIFT) - (region.getMinX() >> CELL_SHIFT) + 1;
+            long cellsZ = (long) (region.getMaxZ() >> CELL_SHIFT) - (region.getMinZ() >> CELL_SHIFT) + 1;
+            return cellsX * cellsZ <= MAX_INDEXED_CELLS;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package me.astrix.entity.signals;
+
+import java.util.List;
+
+/**
+ * Receives the signals of one tick matching a subscription.
+ *
+ * @param <T> Type of the signals
+ */
+@FunctionalInterface
+public interface SignalListener<T extends AISignal> {
+
+    /**
+     * Called once per AI tick on the thread running it, if any signal matched.
+     *
+     * @param signals The matching signals in publication order, only valid during the call
+     */
+    void onSignals(List<T> signals);
+}
@@ -0,0 +1,110 @@
+package me.astrix.entity.signals;
+
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.UUID;
+
+/**
+ * The area a subscription receives signals from: everywhere, one world, or a
+ * horizontal box of block columns in one world. World-wide signals reach every
+ * region of their world.
+ */
+@Getter
+public final class SignalRegion {
+
+    private static final SignalRegion EVERYWHERE =
+            new SignalRegion(null, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * The world of the region, or {@code null} for every world.
+     */
+    private final UUID worldId;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+
+    private SignalRegion(UUID worldId, int minX, int minZ, int maxX, int maxZ) {
+        if (minX > maxX || minZ > maxZ) {
+            throw new IllegalArgumentException("Region minimum cannot exceed its maximum");
+        }
+        this.worldId = worldId;
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * @return A region covering every world
+     */
+    public static SignalRegion everywhere() {
+        return EVERYWHERE;
+    }
+
+    /**
+     * Creates a region covering a whole world.
+     *
+     * @param world The world
+     * @return The region
+     */
+    public static SignalRegion world(World world) {
+        return new SignalRegion(world.getUID(), Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a region covering the columns within a square around a location.
+     *
+     * @param center Center of the region
+     * @param radius Half the side length of the square, in blocks
+     * @return The region
+     */
+    public static SignalRegion around(Location center, double radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius cannot be negative");
+        }
+        return new SignalRegion(center.getWorld().getUID(),
+                (int) Math.floor(center.getX() - radius), (int) Math.floor(center.getZ() - radius),
+                (int) Math.floor(center.getX() + radius), (int) Math.floor(center.getZ() + radius));
+    }
+
+    /**
+     * Creates a region covering a box of block columns.
+     *
+     * @param world The world
+     * @param minX Smallest block x coordinate, inclusive
+     * @param minZ Smallest block z coordinate, inclusive
+     * @param maxX Largest block x coordinate, inclusive
+     * @param maxZ Largest block z coordinate, inclusive
+     * @return The region
+     */
+    public static SignalRegion box(World world, int minX, int minZ, int maxX, int maxZ) {
+        return new SignalRegion(world.getUID(), minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Checks whether a signal reaches this region.
+     *
+     * @param signal The signal
+     * @return Whether the signal is in the region's world and, for local signals, inside its box
+     */
+    public boolean contains(AISignal signal) {
+        if (worldId != null && !worldId.equals(signal.world().getUID())) {
+            return false;
+        }
+        if (signal instanceof LocalSignal local) {
+            return local.x() >= minX && local.x() <= maxX && local.z() >= minZ && local.z() <= maxZ;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the region is a box rather than whole worlds
+     */
+    public boolean isBounded() {
+        return worldId != null && (minX != Integer.MIN_VALUE || minZ != Integer.MIN_VALUE
+                || maxX != Integer.MAX_VALUE || maxZ != Integer.MAX_VALUE);
+    }
+}
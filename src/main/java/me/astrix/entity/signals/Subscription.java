@@ -0,0 +1,69 @@
+package me.astrix.entity.signals;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A listener's registration with the {@link SignalBus}.
+ */
+@Getter
+public final class Subscription {
+
+    @Getter(AccessLevel.NONE)
+    private final SignalBus bus;
+    @Getter(AccessLevel.NONE)
+    final SignalListener<AISignal> listener;
+
+    /**
+     * Bit set of the indices of the concrete signal types this subscription receives.
+     */
+    @Getter(AccessLevel.NONE)
+    final int typeMask;
+
+    private SignalRegion region;
+    private boolean cancelled;
+
+    /**
+     * Signals collected for the listener during the current delivery.
+     */
+    @Getter(AccessLevel.NONE)
+    final List<AISignal> batch = new ArrayList<>();
+
+    Subscription(SignalBus bus, SignalListener<AISignal> listener, int typeMask, SignalRegion region) {
+        this.bus = bus;
+        this.listener = listener;
+        this.typeMask = typeMask;
+        this.region = region;
+    }
+
+    /**
+     * Moves the subscription to another region, e.g. to follow a moving entity.
+     * Takes effect with the next delivery.
+     *
+     * @param region The new region
+     */
+    public void setRegion(SignalRegion region) {
+        if (region == null) {
+            throw new IllegalArgumentException("Region cannot be null");
+        }
+        if (cancelled) {
+            return;
+        }
+        bus.unindex(this);
+        this.region = region;
+        bus.index(this);
+    }
+
+    /**
+     * Stops delivering signals to the listener, including signals of the current tick not delivered yet.
+     */
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            bus.unindex(this);
+        }
+    }
+}
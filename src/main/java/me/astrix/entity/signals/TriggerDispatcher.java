@@ -0,0 +1,79 @@
+package me.astrix.entity.signals;
+
+import me.astrix.entity.enums.BehaviorTrigger;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.managers.ManagerRegistry;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fires {@link BehaviorTrigger}s on the managers affected by each tick's signals,
+ * so their behaviors are re-evaluated on the next update. Signals reaching many
+ * managers are handled in a single pass over the registry per tick.
+ */
+public class TriggerDispatcher {
+
+    private final ManagerRegistry registry;
+    private final Set<UUID> changedWorlds = new HashSet<>();
+
+    /**
+     * Creates a dispatcher for the managers of a registry.
+     *
+     * @param registry The registry of managed entities
+     */
+    public TriggerDispatcher(ManagerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Subscribes the dispatcher to the signals it turns into triggers.
+     *
+     * @param bus The signal bus
+     */
+    public void register(SignalBus bus) {
+        SignalRegion everywhere = SignalRegion.everywhere();
+        bus.subscribe(EntityDamageSignal.class, everywhere, this::onDamage);
+        bus.subscribe(EntityDeathSignal.class, everywhere, this::onDeaths);
+        bus.subscribe(WeatherSignal.class, everywhere,
+                signals -> fireInWorlds(signals, BehaviorTrigger.WEATHER_CHANGED));
+        bus.subscribe(DayPhaseSignal.class, everywhere,
+                signals -> fireInWorlds(signals, BehaviorTrigger.DAY_PHASE_CHANGED));
+    }
+
+    private void onDamage(List<EntityDamageSignal> signals) {
+        for (int i = 0, size = signals.size(); i < size; i++) {
+            AIManager manager = registry.get(signals.get(i).entity().getUniqueId());
+            if (manager != null) {
+                manager.fireTrigger(BehaviorTrigger.DAMAGED);
+            }
+        }
+    }
+
+    private void onDeaths(List<EntityDeathSignal> signals) {
+        registry.forEach(manager -> {
+            for (int i = 0, size = signals.size(); i < size; i++) {
+                if (manager.isTargeting(signals.get(i).entity())) {
+                    manager.setTarget(null);
+                    manager.fireTrigger(BehaviorTrigger.TARGET_DIED);
+                    return;
+                }
+            }
+        });
+    }
+
+    private void fireInWorlds(List<? extends AISignal> signals, BehaviorTrigger trigger) {
+        for (int i = 0, size = signals.size(); i < size; i++) {
+            changedWorlds.add(signals.get(i).world().getUID());
+        }
+
+        registry.forEach(manager -> {
+            if (changedWorlds.contains(manager.getEntity().getWorld().getUID())) {
+                manager.fireTrigger(trigger);
+            }
+        });
+        changedWorlds.clear();
+    }
+}
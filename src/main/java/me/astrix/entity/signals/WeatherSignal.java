@@ -0,0 +1,13 @@
+package me.astrix.entity.signals;
+
+import me.astrix.entity.enums.WeatherType;
+import org.bukkit.World;
+
+/**
+ * The weather of a world changed.
+ *
+ * @param world The world
+ * @param weather The new weather
+ */
+public record WeatherSignal(World world, WeatherType weather) implements AISignal {
+}
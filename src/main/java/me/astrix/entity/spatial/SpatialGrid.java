@@ -0,0 +1,181 @@
+package me.astrix.entity.spatial;
+
+import me.astrix.entity.utils.LongIntHashMap;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the living entities of a single world.
+ * <p>
+ * Entities are stored in flat arrays and chained per cell. Every cell also keeps
+ * a bit set of the {@link EntityType}s it contains, so type-filtered queries
+ * skip whole cells without touching their entities.
+ * </p>
+ */
+final class SpatialGrid {
+
+    static final EntityType[] ENTITY_TYPES = EntityType.values();
+    static final int TYPE_WORDS = (ENTITY_TYPES.length + 63) >>> 6;
+
+    private final int cellShift;
+
+    /** Tick this grid was last rebuilt on. */
+    long builtTick = -1;
+
+    LivingEntity[] entities = new LivingEntity[64];
+    double[] xs = new double[64];
+    double[] ys = new double[64];
+    double[] zs = new double[64];
+    int[] typeOrdinals = new int[64];
+    int[] nextInCell = new int[64];
+    int entityCount;
+
+    /** Slots of the players indexed this tick. */
+    int[] playerSlots = new int[8];
+    int playerCount;
+
+    int[] cellHeads = new int[64];
+    long[] cellTypeBits = new long[64 * TYPE_WORDS];
+    int cellCount;
+
+    private final LongIntHashMap cellsByKey = new LongIntHashMap(64);
+    private final LongIntHashMap slotsByEntityId = new LongIntHashMap(64);
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    /** Center of the query being executed, resolved without allocating. */
+    double queryX, queryY, queryZ;
+
+    SpatialGrid(int cellShift) {
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Re-indexes the grid from the given entities.
+     *
+     * @param living All living entities of the world
+     * @param tick The current AI tick
+     */
+    void rebuild(List<LivingEntity> living, long tick) {
+        builtTick = tick;
+        entityCount = 0;
+        playerCount = 0;
+        cellCount = 0;
+        cellsByKey.clear();
+        slotsByEntityId.clear();
+
+        for (LivingEntity entity : living) {
+            if (entity.isDead()) {
+                continue;
+            }
+            entity.getLocation(scratch);
+            insert(entity, scratch.getX(), scratch.getY(), scratch.getZ());
+        }
+
+        // Drop references so removed entities can be collected
+        Arrays.fill(entities, entityCount, entities.length, null);
+    }
+
+    private void insert(LivingEntity entity, double x, double y, double z) {
+        if (entityCount == entities.length) {
+            growEntities();
+        }
+
+        int slot = entityCount++;
+        int typeOrdinal = entity.getType().ordinal();
+        entities[slot] = entity;
+        xs[slot] = x;
+        ys[slot] = y;
+        zs[slot] = z;
+        typeOrdinals[slot] = typeOrdinal;
+
+        if (entity.getType() == EntityType.PLAYER) {
+            if (playerCount == playerSlots.length) {
+                playerSlots = Arrays.copyOf(playerSlots, playerCount << 1);
+            }
+            playerSlots[playerCount++] = slot;
+        }
+
+        long key = packCell(cellCoord(x), cellCoord(y), cellCoord(z));
+        int cell = cellsByKey.get(key, -1);
+        if (cell < 0) {
+            if (cellCount == cellHeads.length) {
+                growCells();
+            }
+            cell = cellCount++;
+            cellsByKey.put(key, cell);
+            cellHeads[cell] = -1;
+            Arrays.fill(cellTypeBits, cell * TYPE_WORDS, (cell + 1) * TYPE_WORDS, 0L);
+        }
+
+        nextInCell[slot] = cellHeads[cell];
+        cellHeads[cell] = slot;
+        cellTypeBits[cell * TYPE_WORDS + (typeOrdinal >>> 6)] |= 1L << typeOrdinal;
+
+        slotsByEntityId.put(entity.getEntityId(), slot);
+    }
+
+    /**
+     * Returns the slot of an indexed entity.
+     *
+     * @param entityId The entity id
+     * @return The slot, or -1 when the entity was not indexed this tick
+     */
+    int slotOf(int entityId) {
+        return slotsByEntityId.get(entityId, -1);
+    }
+
+    /**
+     * Returns the first entity slot of a cell.
+     *
+     * @param cx Cell x coordinate
+     * @param cy Cell y coordinate
+     * @param cz Cell z coordinate
+     * @param typeMask Types the caller is interested in
+     * @return The head slot, or -1 when the cell is empty or holds none of the types
+     */
+    int cellHead(int cx, int cy, int cz, long[] typeMask) {
+        int cell = cellsByKey.get(packCell(cx, cy, cz), -1);
+        if (cell < 0) {
+            return -1;
+        }
+
+        int base = cell * TYPE_WORDS;
+        for (int word = 0; word < TYPE_WORDS; word++) {
+            if ((cellTypeBits[base + word] & typeMask[word]) != 0) {
+                return cellHeads[cell];
+            }
+        }
+        return -1;
+    }
+
+    int cellCoord(double coordinate) {
+        return (int) Math.floor(coordinate) >> cellShift;
+    }
+
+    /**
+     * Packs cell coordinates into a single key: 24 bits x, 24 bits z, 16 bits y.
+     */
+    static long packCell(int cx, int cy, int cz) {
+        return ((long) cx & 0xFFFFFFL) << 40 | ((long) cz & 0xFFFFFFL) << 16 | (cy & 0xFFFFL);
+    }
+
+    private void growEntities() {
+        int capacity = entities.length << 1;
+        entities = Arrays.copyOf(entities, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        typeOrdinals = Arrays.copyOf(typeOrdinals, capacity);
+        nextInCell = Arrays.copyOf(nextInCell, capacity);
+    }
+
+    private void growCells() {
+        int capacity = cellHeads.length << 1;
+        cellHeads = Arrays.copyOf(cellHeads, capacity);
+        cellTypeBits = Arrays.copyOf(cellTypeBits, capacity * TYPE_WORDS);
+    }
+}
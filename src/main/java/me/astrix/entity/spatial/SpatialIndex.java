@@ -0,0 +1,310 @@
+package me.astrix.entity.spatial;
+
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Shared spatial hash over the living entities of every world the AI runs in.
+ * <p>
+ * Each world is indexed into a uniform grid at most once per AI tick, the first
+ * time it is queried in that tick. Queries walk only the cells overlapping the
+ * search sphere, skip cells holding none of the requested entity types and
+ * allocate nothing, which replaces the per-behavior {@code getNearbyEntities} scans.
+ * </p>
+ * <p>
+ * Worlds are indexed independently, so managers of different worlds may query
+ * in parallel; a single world is queried by one thread at a time.
+ * </p>
+ */
+public class SpatialIndex {
+
+    private static final int DEFAULT_CELL_SHIFT = 3; // 8 block cells
+    private static final long STALE_GRID_TICKS = 1200L;
+
+    private static final ClassValue<long[]> TYPE_MASKS = new ClassValue<>() {
+        @Override
+        protected long[] computeValue(Class<?> type) {
+            long[] mask = new long[SpatialGrid.TYPE_WORDS];
+            for (int i = 0; i < SpatialGrid.ENTITY_TYPES.length; i++) {
+                Class<?> entityClass = SpatialGrid.ENTITY_TYPES[i].getEntityClass();
+                // Types without a known class are kept and filtered by the instance check instead
+                if (entityClass == null || type.isAssignableFrom(entityClass)) {
+                    mask[i >>> 6] |= 1L << i;
+                }
+            }
+            return mask;
+        }
+    };
+
+    @Getter
+    private final int cellShift;
+    private final Map<UUID, SpatialGrid> grids = new ConcurrentHashMap<>();
+    @Getter
+    private long currentTick;
+
+    /**
+     * Creates an index with 8 block cells.
+     */
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SHIFT);
+    }
+
+    /**
+     * Creates an index with cells of {@code 2^cellShift} blocks.
+     *
+     * @param cellShift Cell size as a power of two
+     */
+    public SpatialIndex(int cellShift) {
+        if (cellShift < 0 || cellShift > 8) {
+            throw new IllegalArgumentException("Cell shift must be between 0 and 8");
+        }
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Advances the index to the next AI tick, so every world is re-indexed on its next query.
+     */
+    public void nextTick() {
+        currentTick++;
+
+        if (currentTick % STALE_GRID_TICKS == 0) {
+            grids.values().removeIf(grid -> currentTick - grid.builtTick > STALE_GRID_TICKS);
+        }
+    }
+
+    /**
+     * Finds the living entity of a type nearest to a source entity.
+     *
+     * @param source Entity to search around, never returned itself
+     * @param radius Maximum search distance
+     * @param type Type of entity to look for
+     * @param filter Optional additional filter, may be {@code null}
+     * @param <T> Type of entity
+     * @return The nearest match, or {@code null} if none is within the radius
+     */
+    public <T extends LivingEntity> T findNearest(Entity source, double radius,
+                                                  Class<T> type, Predicate<? super T> filter) {
+        SpatialGrid grid = gridFor(source.getWorld());
+        long[] typeMask = TYPE_MASKS.get(type);
+        double radiusSquared = radius * radius;
+
+        int sourceSlot = resolveQueryCenter(grid, source);
+        double x = grid.queryX, y = grid.queryY, z = grid.queryZ;
+
+        T nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+
+        int maxCx = grid.cellCoord(x + radius), maxCy = grid.cellCoord(y + radius), maxCz = grid.cellCoord(z + radius);
+        for (int cx = grid.cellCoord(x - radius); cx <= maxCx; cx++) {
+            for (int cz = grid.cellCoord(z - radius); cz <= maxCz; cz++) {
+                for (int cy = grid.cellCoord(y - radius); cy <= maxCy; cy++) {
+                    for (int slot = grid.cellHead(cx, cy, cz, typeMask); slot >= 0; slot = grid.nextInCell[slot]) {
+                        if (slot == sourceSlot || !matchesType(grid, slot, typeMask)) {
+                            continue;
+                        }
+
+                        double distance = distanceSquared(grid, slot, x, y, z);
+                        if (distance > radiusSquared || distance >= nearestDistance) {
+                            continue;
+                        }
+
+                        LivingEntity candidate = grid.entities[slot];
+                        if (candidate == source || !type.isInstance(candidate)) {
+                            continue;
+                        }
+
+                        T match = type.cast(candidate);
+                        if (filter == null || filter.test(match)) {
+                            nearest = match;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Checks whether any living entity of a type is near a source entity.
+     *
+     * @param source Entity to search around, never matched itself
+     * @param radius Maximum search distance
+     * @param type Type of entity to look for
+     * @param filter Optional additional filter, may be {@code null}
+     * @param <T> Type of entity
+     * @return Whether at least one match is within the radius
+     */
+    public <T extends LivingEntity> boolean anyMatch(Entity source, double radius,
+                                                     Class<T> type, Predicate<? super T> filter) {
+        return collect(source, radius, type, filter, null, 1) > 0;
+    }
+
+    /**
+     * Counts the living entities of a type near a source entity.
+     *
+     * @param source Entity to search around, never counted itself
+     * @param radius Maximum search distance
+     * @param type Type of entity to look for
+     * @param filter Optional additional filter, may be {@code null}
+     * @param <T> Type of entity
+     * @return Number of matches within the radius
+     */
+    public <T extends LivingEntity> int count(Entity source, double radius,
+                                              Class<T> type, Predicate<? super T> filter) {
+        return collect(source, radius, type, filter, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds the living entities of a type near a source entity to a caller-owned collection.
+     *
+     * @param source Entity to search around, never added itself
+     * @param radius Maximum search distance
+     * @param type Type of entity to look for
+     * @param filter Optional additional filter, may be {@code null}
+     * @param out Collection receiving the matches, in no particular order
+     * @param <T> Type of entity
+     * @return Number of matches added
+     */
+    public <T extends LivingEntity> int collect(Entity source, double radius, Class<T> type,
+                                                Predicate<? super T> filter, Collection<? super T> out) {
+        return collect(source, radius, type, filter, out, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the squared distance from a source entity to the nearest player in its world.
+     *
+     * @param source Entity to measure from, ignored if it is a player itself
+     * @return The squared distance, or {@link Double#POSITIVE_INFINITY} if the world has no other player
+     */
+    public double nearestPlayerDistanceSquared(Entity source) {
+        SpatialGrid grid = gridFor(source.getWorld());
+        if (grid.playerCount == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int sourceSlot = resolveQueryCenter(grid, source);
+        double x = grid.queryX, y = grid.queryY, z = grid.queryZ;
+
+        double nearest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < grid.playerCount; i++) {
+            int slot = grid.playerSlots[i];
+            if (slot != sourceSlot) {
+                nearest = Math.min(nearest, distanceSquared(grid, slot, x, y, z));
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Indexes a world for the current tick if it is not yet, so threads that may not
+     * read the world's entities can query it.
+     *
+     * @param world The world
+     */
+    public void prepare(World world) {
+        gridFor(world);
+    }
+
+    /**
+     * Drops every indexed world.
+     */
+    public void clear() {
+        grids.clear();
+    }
+
+    private <T extends LivingEntity> int collect(Entity source, double radius, Class<T> type,
+                                                 Predicate<? super T> filter, Collection<? super T> out, int limit) {
+        SpatialGrid grid = gridFor(source.getWorld());
+        long[] typeMask = TYPE_MASKS.get(type);
+        double radiusSquared = radius * radius;
+
+        int sourceSlot = resolveQueryCenter(grid, source);
+        double x = grid.queryX, y = grid.queryY, z = grid.queryZ;
+
+        int found = 0;
+        int maxCx = grid.cellCoord(x + radius), maxCy = grid.cellCoord(y + radius), maxCz = grid.cellCoord(z + radius);
+        for (int cx = grid.cellCoord(x - radius); cx <= maxCx; cx++) {
+            for (int cz = grid.cellCoord(z - radius); cz <= maxCz; cz++) {
+                for (int cy = grid.cellCoord(y - radius); cy <= maxCy; cy++) {
+                    for (int slot = grid.cellHead(cx, cy, cz, typeMask); slot >= 0; slot = grid.nextInCell[slot]) {
+                        if (slot == sourceSlot || !matchesType(grid, slot, typeMask)
+                                || distanceSquared(grid, slot, x, y, z) > radiusSquared) {
+                            continue;
+                        }
+
+                        LivingEntity candidate = grid.entities[slot];
+                        if (candidate == source || !type.isInstance(candidate)) {
+                            continue;
+                        }
+
+                        T match = type.cast(candidate);
+                        if (filter != null && !filter.test(match)) {
+                            continue;
+                        }
+
+                        if (out != null) {
+                            out.add(match);
+                        }
+                        if (++found >= limit) {
+                            return found;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private SpatialGrid gridFor(World world) {
+        UUID worldId = world.getUID();
+        SpatialGrid grid = grids.computeIfAbsent(worldId, id -> new SpatialGrid(cellShift));
+
+        if (grid.builtTick != currentTick) {
+            grid.rebuild(world.getLivingEntities(), currentTick);
+        }
+        return grid;
+    }
+
+    /**
+     * Resolves the query center from the grid when the source is indexed,
+     * falling back to its live location otherwise.
+     *
+     * @return The source slot in the grid, or -1 if it is not indexed
+     */
+    private int resolveQueryCenter(SpatialGrid grid, Entity source) {
+        int sourceSlot = grid.slotOf(source.getEntityId());
+        if (sourceSlot >= 0) {
+            grid.queryX = grid.xs[sourceSlot];
+            grid.queryY = grid.ys[sourceSlot];
+            grid.queryZ = grid.zs[sourceSlot];
+        } else {
+            Location location = source.getLocation();
+            grid.queryX = location.getX();
+            grid.queryY = location.getY();
+            grid.queryZ = location.getZ();
+        }
+        return sourceSlot;
+    }
+
+    private static boolean matchesType(SpatialGrid grid, int slot, long[] typeMask) {
+        int ordinal = grid.typeOrdinals[slot];
+        return (typeMask[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    private static double distanceSquared(SpatialGrid grid, int slot, double x, double y, double z) {
+        double dx = grid.xs[slot] - x;
+        double dy = grid.ys[slot] - y;
+        double dz = grid.zs[slot] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,69 @@
+package me.astrix.entity.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Layout of AI trace files.
+ * <p>
+ * A trace starts with {@link #MAGIC}, {@link #VERSION} and the recording start time
+ * in epoch milliseconds, followed by records that each start with a type byte.
+ * Ticks are stored as zigzag deltas to the previous record; entity and behavior
+ * ids as unsigned varints, with behavior id 0 meaning no behavior.
+ * </p>
+ * <pre>
+ * BEHAVIOR_NAME   id, UTF class name
+ * BEHAVIOR_SWITCH tick delta, entity id, previous behavior, new behavior
+ * TARGET          tick delta, entity id, has target byte, [UUID most, UUID least]
+ * NAVIGATION      tick delta, entity id, flag byte, nodes probed, path length
+ * END             number of records dropped because the buffer was full
+ * </pre>
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x45415452; // "EATR"
+    static final short VERSION = 1;
+
+    static final byte BEHAVIOR_NAME = 0;
+    static final byte BEHAVIOR_SWITCH = 1;
+    static final byte TARGET = 2;
+    static final byte NAVIGATION = 3;
+    static final byte END = 4;
+
+    static final int NAV_CACHE_HIT = 1;
+    static final int NAV_COMPLETE = 1 << 1;
+    static final int NAV_FALLBACK = 1 << 2;
+
+    private TraceFormat() {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeZigZag(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
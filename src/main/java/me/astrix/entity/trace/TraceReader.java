@@ -0,0 +1,293 @@
+package me.astrix.entity.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads AI trace files written by {@link TraceRecorder}.
+ * <p>
+ * Runs standalone, without a server:
+ * {@code java -cp EntityAI.jar me.astrix.entity.trace.TraceReader <summary|replay> <trace file>}.
+ * {@code summary} prints switch rates per behavior, navigation statistics and the
+ * entities oscillating most between two behaviors; {@code replay} prints every record.
+ * </p>
+ */
+public class TraceReader {
+
+    private static final double TICKS_PER_SECOND = 20.0;
+
+    /** Switches back to the behavior before the previous one within this many ticks count as oscillation */
+    private static final long OSCILLATION_WINDOW_TICKS = 40;
+    private static final int TOP_ENTITIES = 10;
+
+    /**
+     * Receives the records of a trace in file order.
+     */
+    public interface Listener {
+
+        default void onStart(long startMillis) {
+        }
+
+        default void onSwitch(long tick, int entityId, String previousBehavior, String newBehavior) {
+        }
+
+        default void onTarget(long tick, int entityId, UUID targetId) {
+        }
+
+        default void onNavigation(long tick, int entityId, boolean cacheHit, boolean complete,
+                                  boolean fallback, int nodesProbed, int pathLength) {
+        }
+
+        default void onEnd(long droppedRecords) {
+        }
+    }
+
+    private final InputStream input;
+
+    /**
+     * @param input Stream positioned at the start of a trace
+     */
+    public TraceReader(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads the whole trace.
+     *
+     * @param listener Receiver of the records
+     * @throws IOException If the stream is not a trace or cannot be read
+     */
+    public void read(Listener listener) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != TraceFormat.MAGIC) {
+            throw new IOException("Not an AI trace file");
+        }
+        short version = in.readShort();
+        if (version != TraceFormat.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        listener.onStart(in.readLong());
+
+        Map<Integer, String> names = new HashMap<>();
+        long tick = 0;
+
+        while (true) {
+            int type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                // Recording was not stopped cleanly, the records up to here are intact
+                return;
+            }
+
+            if (type == TraceFormat.BEHAVIOR_NAME) {
+                names.put((int) TraceFormat.readVarLong(in), in.readUTF());
+                continue;
+            }
+            if (type == TraceFormat.END) {
+                listener.onEnd(TraceFormat.readVarLong(in));
+                return;
+            }
+
+            tick += TraceFormat.readZigZag(in);
+            int entityId = (int) TraceFormat.readVarLong(in);
+
+            switch (type) {
+                case TraceFormat.BEHAVIOR_SWITCH -> listener.onSwitch(tick, entityId,
+                        names.get((int) TraceFormat.readVarLong(in)), names.get((int) TraceFormat.readVarLong(in)));
+                case TraceFormat.TARGET -> listener.onTarget(tick, entityId,
+                        in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null);
+                case TraceFormat.NAVIGATION -> {
+                    int flags = in.readUnsignedByte();
+                    listener.onNavigation(tick, entityId,
+                            (flags & TraceFormat.NAV_CACHE_HIT) != 0,
+                            (flags & TraceFormat.NAV_COMPLETE) != 0,
+                            (flags & TraceFormat.NAV_FALLBACK) != 0,
+                            (int) TraceFormat.readVarLong(in), (int) TraceFormat.readVarLong(in));
+                }
+                default -> throw new IOException("Unknown trace record type " + type);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !(args[0].equals("summary") || args[0].equals("replay"))) {
+            System.err.println("Usage: TraceReader <summary|replay> <trace file>");
+            System.exit(2);
+            return;
+        }
+
+        try (InputStream input = Files.newInputStream(new File(args[1]).toPath())) {
+            TraceReader reader = new TraceReader(input);
+            if (args[0].equals("replay")) {
+                reader.read(new Replay(System.out));
+            } else {
+                Summary summary = new Summary();
+                reader.read(summary);
+                summary.print(System.out);
+            }
+        }
+    }
+
+    /**
+     * Prints every record as a line of text.
+     */
+    private record Replay(PrintStream out) implements Listener {
+
+        @Override
+        public void onStart(long startMillis) {
+            out.println("# recorded " + Instant.ofEpochMilli(startMillis));
+        }
+
+        @Override
+        public void onSwitch(long tick, int entityId, String previousBehavior, String newBehavior) {
+            out.println(tick + " switch #" + entityId + " " + simpleName(previousBehavior) + " -> " + simpleName(newBehavior));
+        }
+
+        @Override
+        public void onTarget(long tick, int entityId, UUID targetId) {
+            out.println(tick + " target #" + entityId + " " + (targetId != null ? targetId : "none"));
+        }
+
+        @Override
+        public void onNavigation(long tick, int entityId, boolean cacheHit, boolean complete,
+                                 boolean fallback, int nodesProbed, int pathLength) {
+            String result = fallback ? "fallback" : complete ? "complete" : "partial";
+            out.println(tick + " navigate #" + entityId + " " + result + (cacheHit ? " cached" : "")
+                    + " nodes=" + nodesProbed + " length=" + pathLength);
+        }
+
+        @Override
+        public void onEnd(long droppedRecords) {
+            out.println("# end, " + droppedRecords + " records dropped");
+        }
+    }
+
+    /**
+     * Aggregates switch rates, navigation statistics and oscillating entities.
+     */
+    private static final class Summary implements Listener {
+
+        private long firstTick = Long.MAX_VALUE;
+        private long lastTick = Long.MIN_VALUE;
+        private long switches;
+        private long targets;
+        private long navigations;
+        private long cacheHits;
+        private long fallbacks;
+        private long nodesProbed;
+        private long dropped = -1;
+
+        private final Map<String, Long> switchesInto = new HashMap<>();
+        private final Map<Integer, EntityHistory> entities = new HashMap<>();
+
+        @Override
+        public void onSwitch(long tick, int entityId, String previousBehavior, String newBehavior) {
+            seen(tick, entityId).onSwitch(tick, newBehavior);
+            switches++;
+            switchesInto.merge(simpleName(newBehavior), 1L, Long::sum);
+        }
+
+        @Override
+        public void onTarget(long tick, int entityId, UUID targetId) {
+            seen(tick, entityId);
+            targets++;
+        }
+
+        @Override
+        public void onNavigation(long tick, int entityId, boolean cacheHit, boolean complete,
+                                 boolean fallback, int probed, int pathLength) {
+            seen(tick, entityId);
+            navigations++;
+            cacheHits += cacheHit ? 1 : 0;
+            fallbacks += fallback ? 1 : 0;
+            nodesProbed += probed;
+        }
+
+        @Override
+        public void onEnd(long droppedRecords) {
+            dropped = droppedRecords;
+        }
+
+        private EntityHistory seen(long tick, int entityId) {
+            firstTick = Math.min(firstTick, tick);
+            lastTick = Math.max(lastTick, tick);
+            return entities.computeIfAbsent(entityId, id -> new EntityHistory());
+        }
+
+        void print(PrintStream out) {
+            long ticks = switches + targets + navigations == 0 ? 0 : lastTick - firstTick + 1;
+            double seconds = Math.max(ticks, 1) / TICKS_PER_SECOND;
+
+            out.printf("Ticks: %d (%.1f s), entities: %d, dropped records: %s%n",
+                    ticks, ticks / TICKS_PER_SECOND, entities.size(), dropped < 0 ? "unknown, trace not closed" : dropped);
+            out.printf("Behavior switches: %d (%.1f/s), target changes: %d%n", switches, switches / seconds, targets);
+
+            List<Map.Entry<String, Long>> behaviors = new ArrayList<>(switchesInto.entrySet());
+            behaviors.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            for (Map.Entry<String, Long> entry : behaviors) {
+                out.printf("  %-32s %8d switches into  %8.2f/s%n", entry.getKey(), entry.getValue(), entry.getValue() / seconds);
+            }
+
+            out.printf("Navigation requests: %d, cache hits: %.1f%%, fallbacks: %.1f%%, mean nodes per search: %.1f%n",
+                    navigations, percent(cacheHits, navigations), percent(fallbacks, navigations),
+                    navigations - cacheHits == 0 ? 0.0 : (double) nodesProbed / (navigations - cacheHits));
+
+            List<Map.Entry<Integer, EntityHistory>> oscillating = new ArrayList<>();
+            for (Map.Entry<Integer, EntityHistory> entry : entities.entrySet()) {
+                if (entry.getValue().oscillations > 0) {
+                    oscillating.add(entry);
+                }
+            }
+            oscillating.sort((a, b) -> Long.compare(b.getValue().oscillations, a.getValue().oscillations));
+
+            out.println("Oscillating entities (back to the previous behavior within "
+                    + OSCILLATION_WINDOW_TICKS + " ticks): " + oscillating.size());
+            for (Map.Entry<Integer, EntityHistory> entry : oscillating.subList(0, Math.min(TOP_ENTITIES, oscillating.size()))) {
+                EntityHistory history = entry.getValue();
+                out.printf("  #%-10d %6d oscillations  %6d switches  last between %s and %s%n",
+                        entry.getKey(), history.oscillations, history.switches,
+                        simpleName(history.previous), simpleName(history.current));
+            }
+        }
+
+        private static double percent(long part, long total) {
+            return total == 0 ? 0.0 : part * 100.0 / total;
+        }
+    }
+
+    private static final class EntityHistory {
+        String previous;
+        String current;
+        long lastSwitchTick = Long.MIN_VALUE;
+        long switches;
+        long oscillations;
+
+        void onSwitch(long tick, String behavior) {
+            switches++;
+            // A -> B -> A in quick succession
+            if (behavior != null && behavior.equals(previous) && tick - lastSwitchTick <= OSCILLATION_WINDOW_TICKS) {
+                oscillations++;
+            }
+            previous = current;
+            current = behavior;
+            lastSwitchTick = tick;
+        }
+    }
+
+    private static String simpleName(String className) {
+        return className == null ? "none" : className.substring(className.lastIndexOf('.') + 1);
+    }
+}
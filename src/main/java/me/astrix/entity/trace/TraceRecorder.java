@@ -0,0 +1,261 @@
+package me.astrix.entity.trace;
+
+import lombok.Getter;
+import me.astrix.entity.EntityAI;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.navigation.pathfinding.Path;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Records behavior switches, target changes and navigation requests into a binary trace file.
+ * <p>
+ * Recording appends fixed-size records to a lock-free ring buffer; a background thread
+ * drains the buffer, encodes the records and writes them to disk, so the AI tick never
+ * builds strings or performs I/O. While not recording, every record call is a single
+ * volatile read. Traces are read back with {@link TraceReader}.
+ * </p>
+ */
+public class TraceRecorder {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Whether a trace is being recorded.
+     */
+    @Getter
+    private volatile boolean recording;
+
+    private final Map<Class<?>, Integer> behaviorIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> behaviorNames = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBehaviorId = new AtomicInteger(1);
+
+    private TraceRingBuffer buffer;
+    private Thread writer;
+    private volatile boolean stopping;
+
+    /**
+     * Starts recording into a file, replacing it if it exists.
+     *
+     * @param file The trace file
+     * @throws IOException If the file cannot be created
+     */
+    public void start(File file) throws IOException {
+        start(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts recording into a file, replacing it if it exists.
+     *
+     * @param file The trace file
+     * @param capacity Number of records buffered before new records are dropped
+     * @throws IOException If the file cannot be created
+     */
+    public synchronized void start(File file, int capacity) throws IOException {
+        if (recording) {
+            throw new IllegalStateException("A trace is already being recorded");
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath()), 1 << 16));
+        out.writeInt(TraceFormat.MAGIC);
+        out.writeShort(TraceFormat.VERSION);
+        out.writeLong(System.currentTimeMillis());
+
+        TraceRingBuffer ringBuffer = new TraceRingBuffer(capacity);
+        this.buffer = ringBuffer;
+        this.stopping = false;
+        this.writer = new Thread(() -> drainLoop(ringBuffer, out), "EntityAI-Trace-Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        this.recording = true;
+    }
+
+    /**
+     * Stops recording, writes the remaining records and closes the file.
+     */
+    public synchronized void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        stopping = true;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        buffer = null;
+    }
+
+    /**
+     * Records that an entity changed its primary behavior.
+     *
+     * @param entity The entity
+     * @param previous The previous behavior, or {@code null}
+     * @param current The new behavior, or {@code null}
+     */
+    public void recordSwitch(Entity entity, AIBehavior previous, AIBehavior current) {
+        if (!recording) {
+            return;
+        }
+        offer(TraceFormat.BEHAVIOR_SWITCH, entity, behaviorId(previous), behaviorId(current));
+    }
+
+    /**
+     * Records that an entity changed the entity its behaviors are focused on.
+     *
+     * @param entity The entity
+     * @param targetId The new target, or {@code null} if cleared
+     */
+    public void recordTarget(Entity entity, UUID targetId) {
+        if (!recording) {
+            return;
+        }
+        if (targetId == null) {
+            offer(TraceFormat.TARGET, entity, 0L, 0L);
+        } else {
+            offer(TraceFormat.TARGET, entity, targetId.getMostSignificantBits(), targetId.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * Records a navigation request.
+     *
+     * @param entity The navigating entity
+     * @param path The planned path, or {@code null} if the entity steers directly
+     * @param cacheHit Whether the path came from the path cache
+     * @param nodesProbed Nodes created by the search, 0 for cache hits
+     */
+    public void recordNavigation(Entity entity, Path path, boolean cacheHit, int nodesProbed) {
+        if (!recording) {
+            return;
+        }
+        int flags = (cacheHit ? TraceFormat.NAV_CACHE_HIT : 0)
+                | (path != null && path.isComplete() ? TraceFormat.NAV_COMPLETE : 0)
+                | (path == null ? TraceFormat.NAV_FALLBACK : 0);
+        offer(TraceFormat.NAVIGATION, entity, (long) flags << 32 | nodesProbed, path != null ? path.length() : 0);
+    }
+
+    /**
+     * @return Records dropped from the current recording because the buffer was full
+     */
+    public long getDroppedRecords() {
+        TraceRingBuffer ringBuffer = buffer;
+        return ringBuffer != null ? ringBuffer.getDropped() : 0L;
+    }
+
+    private void offer(byte type, Entity entity, long a, long b) {
+        TraceRingBuffer ringBuffer = buffer;
+        if (ringBuffer != null) {
+            long meta = (long) type << 32 | (entity.getEntityId() & 0xFFFFFFFFL);
+            ringBuffer.offer(EntityAI.getInstance().getCurrentTick(), meta, a, b);
+        }
+    }
+
+    private int behaviorId(AIBehavior behavior) {
+        if (behavior == null) {
+            return 0;
+        }
+        Integer id = behaviorIds.get(behavior.getClass());
+        return id != null ? id : behaviorIds.computeIfAbsent(behavior.getClass(), type -> {
+            int assigned = nextBehaviorId.getAndIncrement();
+            behaviorNames.put(assigned, type.getName());
+            return assigned;
+        });
+    }
+
+    private void drainLoop(TraceRingBuffer ringBuffer, DataOutputStream out) {
+        long[] record = new long[TraceRingBuffer.RECORD_LONGS];
+        BitSet writtenNames = new BitSet();
+        long previousTick = 0;
+
+        try (out) {
+            while (true) {
+                boolean finalDrain = stopping;
+                boolean wrote = false;
+                while (ringBuffer.poll(record)) {
+                    previousTick = write(out, record, previousTick, writtenNames);
+                    wrote = true;
+                }
+
+                if (finalDrain) {
+                    out.writeByte(TraceFormat.END);
+                    TraceFormat.writeVarLong(out, ringBuffer.getDropped());
+                    return;
+                }
+                if (wrote) {
+                    out.flush();
+                }
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+            }
+        } catch (IOException e) {
+            recording = false;
+            Bukkit.getLogger().log(Level.WARNING, "Failed to write AI trace", e);
+        }
+    }
+
+    private long write(DataOutputStream out, long[] record, long previousTick, BitSet writtenNames) throws IOException {
+        long tick = record[0];
+        byte type = (byte) (record[1] >>> 32);
+        int entityId = (int) record[1];
+
+        if (type == TraceFormat.BEHAVIOR_SWITCH) {
+            writeName(out, (int) record[2], writtenNames);
+            writeName(out, (int) record[3], writtenNames);
+        }
+
+        out.writeByte(type);
+        TraceFormat.writeZigZag(out, tick - previousTick);
+        TraceFormat.writeVarLong(out, entityId & 0xFFFFFFFFL);
+
+        switch (type) {
+            case TraceFormat.BEHAVIOR_SWITCH -> {
+                TraceFormat.writeVarLong(out, record[2]);
+                TraceFormat.writeVarLong(out, record[3]);
+            }
+            case TraceFormat.TARGET -> {
+                boolean hasTarget = record[2] != 0L || record[3] != 0L;
+                out.writeBoolean(hasTarget);
+                if (hasTarget) {
+                    out.writeLong(record[2]);
+                    out.writeLong(record[3]);
+                }
+            }
+            case TraceFormat.NAVIGATION -> {
+                out.writeByte((int) (record[2] >>> 32));
+                TraceFormat.writeVarLong(out, record[2] & 0xFFFFFFFFL);
+                TraceFormat.writeVarLong(out, record[3]);
+            }
+            default -> throw new IllegalStateException("Unknown trace record type " + type);
+        }
+        return tick;
+    }
+
+    private void writeName(DataOutputStream out, int id, BitSet writtenNames) throws IOException {
+        if (id == 0 || writtenNames.get(id)) {
+            return;
+        }
+        writtenNames.set(id);
+        out.writeByte(TraceFormat.BEHAVIOR_NAME);
+        TraceFormat.writeVarLong(out, id);
+        out.writeUTF(behaviorNames.get(id));
+    }
+}
@@ -0,0 +1,95 @@
+package me.astrix.entity.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer queue of fixed-size trace records.
+ * <p>
+ * Every record is four longs: tick, type and entity id, and two payload words.
+ * Producers claim a slot by advancing the head with a CAS and publish it through the
+ * slot's sequence number, so the consumer never sees a half-written record. When the
+ * buffer is full, records are dropped and counted instead of blocking the caller.
+ * </p>
+ */
+final class TraceRingBuffer {
+
+    static final int RECORD_LONGS = 4;
+
+    private final int mask;
+    private final long[] records;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long tail; // Consumer thread only
+
+    /**
+     * @param capacity Number of records, rounded up to a power of two
+     */
+    TraceRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.records = new long[size * RECORD_LONGS];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @return Whether the record was stored, {@code false} if the buffer was full
+     */
+    boolean offer(long tick, long meta, long a, long b) {
+        long position;
+        int slot;
+        while (true) {
+            position = head.get();
+            slot = (int) (position & mask);
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            // Another producer claimed the slot first, retry with the new head
+        }
+
+        int base = slot * RECORD_LONGS;
+        records[base] = tick;
+        records[base + 1] = meta;
+        records[base + 2] = a;
+        records[base + 3] = b;
+        sequences.set(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest record. Consumer thread only.
+     *
+     * @param into Array of at least {@link #RECORD_LONGS} receiving the record
+     * @return Whether a record was available
+     */
+    boolean poll(long[] into) {
+        int slot = (int) (tail & mask);
+        if (sequences.get(slot) != tail + 1) {
+            return false;
+        }
+
+        System.arraycopy(records, slot * RECORD_LONGS, into, 0, RECORD_LONGS);
+        sequences.set(slot, tail + mask + 1);
+        tail++;
+        return true;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,21 @@
+package me.astrix.entity.tree;
+
+import me.astrix.entity.perception.Blackboard;
+import org.bukkit.entity.Mob;
+
+/**
+ * Condition leaf of a {@link BehaviorTree}, succeeding when the test passes and failing otherwise.
+ * Conditions are shared by every entity running the tree and must not keep per-entity state.
+ */
+@FunctionalInterface
+public interface BehaviorCondition {
+
+    /**
+     * Tests the condition for an entity.
+     *
+     * @param entity The entity ticking the tree
+     * @param blackboard The entity's perceptions for this tick
+     * @return Whether the condition holds
+     */
+    boolean test(Mob entity, Blackboard blackboard);
+}
@@ -0,0 +1,329 @@
+package me.astrix.entity.tree;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.behaviors.BehaviorFactory;
+import me.astrix.entity.managers.AIManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Immutable behavior tree compiled into flat arrays.
+ * <p>
+ * Nodes are stored in pre-order: the first child of a composite or decorator is the
+ * next node, and every node links to its next sibling. A single tree is shared by any
+ * number of entities; per-entity state such as leaf behaviors, running flags and
+ * cooldowns lives in a {@link BehaviorTreeInstance}, created through
+ * {@link AIManager#setBehaviorTree(BehaviorTree)}.
+ * </p>
+ * <pre>
+ * BehaviorTree tree = BehaviorTree.builder()
+ *         .selector()
+ *             .sequence()
+ *                 .condition((mob, blackboard) -&gt; blackboard.isInDanger())
+ *                 .leaf(mob -&gt; new PanicBehavior(mob, 0.3))
+ *             .end()
+ *             .cooldown(100)
+ *                 .leaf(mob -&gt; new SocialInteractionBehavior(mob))
+ *             .end()
+ *             .leaf(mob -&gt; new RandomWanderBehavior(mob, 10))
+ *         .end()
+ *         .build();
+ * </pre>
+ */
+@Getter(AccessLevel.PACKAGE)
+public final class BehaviorTree {
+
+    static final byte SELECTOR = 0;
+    static final byte SEQUENCE = 1;
+    static final byte PARALLEL = 2;
+    static final byte INVERTER = 3;
+    static final byte SUCCEEDER = 4;
+    static final byte COOLDOWN = 5;
+    static final byte CONDITION = 6;
+    static final byte LEAF = 7;
+
+    private final byte[] opcodes;
+    private final int[] nextSiblings;
+    private final int[] params;
+    private final int[] childCounts;
+    private final int[] slots;
+    private final BehaviorFactory[] leafFactories;
+    private final BehaviorCondition[] conditions;
+    private final int cooldownCount;
+    private final int maxDepth;
+
+    private BehaviorTree(Node root) {
+        List<Node> order = new ArrayList<>();
+        flatten(root, order);
+
+        int size = order.size();
+        this.opcodes = new byte[size];
+        this.nextSiblings = new int[size];
+        this.params = new int[size];
+        this.childCounts = new int[size];
+        this.slots = new int[size];
+
+        List<BehaviorFactory> factories = new ArrayList<>();
+        List<BehaviorCondition> conditionList = new ArrayList<>();
+        int cooldowns = 0;
+
+        for (int i = 0; i < size; i++) {
+            Node node = order.get(i);
+            opcodes[i] = node.opcode;
+            params[i] = node.param;
+            childCounts[i] = node.children.size();
+            nextSiblings[i] = node.nextSibling != null ? node.nextSibling.index : -1;
+
+            switch (node.opcode) {
+                case LEAF -> {
+                    slots[i] = factories.size();
+                    factories.add(node.factory);
+                }
+                case CONDITION -> {
+                    slots[i] = conditionList.size();
+                    conditionList.add(node.condition);
+                }
+                case COOLDOWN -> slots[i] = cooldowns++;
+                default -> slots[i] = -1;
+            }
+        }
+
+        this.leafFactories = factories.toArray(new BehaviorFactory[0]);
+        this.conditions = conditionList.toArray(new BehaviorCondition[0]);
+        this.cooldownCount = cooldowns;
+        this.maxDepth = depth(root);
+    }
+
+    /**
+     * Creates the per-entity state of this tree.
+     *
+     * @param manager The manager of the entity running the tree
+     * @return A new instance with freshly created leaf behaviors
+     */
+    public BehaviorTreeInstance instantiate(AIManager manager) {
+        return new BehaviorTreeInstance(this, manager);
+    }
+
+    /**
+     * @return The number of nodes
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * @return The number of {@link AIBehavior} leaves each entity instantiates
+     */
+    public int getLeafCount() {
+        return leafFactories.length;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static void flatten(Node node, List<Node> order) {
+        node.index = order.size();
+        order.add(node);
+        Node previous = null;
+        for (Node child : node.children) {
+            flatten(child, order);
+            if (previous != null) {
+                previous.nextSibling = child;
+            }
+            previous = child;
+        }
+    }
+
+    private static int depth(Node node) {
+        int deepest = 0;
+        for (Node child : node.children) {
+            deepest = Math.max(deepest, depth(child));
+        }
+        return deepest + 1;
+    }
+
+    private static final class Node {
+        final byte opcode;
+        final int param;
+        final BehaviorFactory factory;
+        final BehaviorCondition condition;
+        final List<Node> children = new ArrayList<>();
+        Node nextSibling;
+        int index;
+
+        Node(byte opcode, int param, BehaviorFactory factory, BehaviorCondition condition) {
+            this.opcode = opcode;
+            this.param = param;
+            this.factory = factory;
+            this.condition = condition;
+        }
+
+        boolean isDecorator() {
+            return opcode == INVERTER || opcode == SUCCEEDER || opcode == COOLDOWN;
+        }
+    }
+
+    /**
+     * Builds a tree top-down. Composites and decorators are opened by their method
+     * and closed by {@link #end()}; leaves and conditions are added to the open node.
+     */
+    public static final class Builder {
+
+        private final Deque<Node> open = new ArrayDeque<>();
+        private Node root;
+
+        private Builder() {
+        }
+
+        /**
+         * Opens a node running its children in order until one does not fail.
+         *
+         * @return This builder
+         */
+        public Builder selector() {
+            return push(new Node(SELECTOR, 0, null, null));
+        }
+
+        /**
+         * Opens a node running its children in order until one does not succeed.
+         *
+         * @return This builder
+         */
+        public Builder sequence() {
+            return push(new Node(SEQUENCE, 0, null, null));
+        }
+
+        /**
+         * Opens a node running all children every tick.
+         *
+         * @param successThreshold Number of children that must succeed for the node to succeed
+         * @return This builder
+         */
+        public Builder parallel(int successThreshold) {
+            if (successThreshold <= 0) {
+                throw new IllegalArgumentException("Success threshold must be positive");
+            }
+            return push(new Node(PARALLEL, successThreshold, null, null));
+        }
+
+        /**
+         * Opens a decorator swapping the success and failure of its child.
+         *
+         * @return This builder
+         */
+        public Builder inverter() {
+            return push(new Node(INVERTER, 0, null, null));
+        }
+
+        /**
+         * Opens a decorator turning the failure of its child into success.
+         *
+         * @return This builder
+         */
+        public Builder succeeder() {
+            return push(new Node(SUCCEEDER, 0, null, null));
+        }
+
+        /**
+         * Opens a decorator that fails for a number of ticks after its child finished,
+         * i.e. succeeded, or stopped running.
+         *
+         * @param ticks Cooldown in AI ticks
+         * @return This builder
+         */
+        public Builder cooldown(int ticks) {
+            if (ticks <= 0) {
+                throw new IllegalArgumentException("Cooldown must be positive");
+            }
+            return push(new Node(COOLDOWN, ticks, null, null));
+        }
+
+        /**
+         * Adds a leaf running a behavior. The leaf fails while {@code canRun()} is false,
+         * otherwise the behavior is started if needed, updated and the leaf is running.
+         *
+         * @param factory Creates the behavior for each entity running the tree
+         * @return This builder
+         */
+        public Builder leaf(BehaviorFactory factory) {
+            if (factory == null) {
+                throw new IllegalArgumentException("Factory cannot be null");
+            }
+            return add(new Node(LEAF, 0, factory, null));
+        }
+
+        /**
+         * Adds a leaf succeeding when a condition holds and failing otherwise.
+         *
+         * @param condition The condition
+         * @return This builder
+         */
+        public Builder condition(BehaviorCondition condition) {
+            if (condition == null) {
+                throw new IllegalArgumentException("Condition cannot be null");
+            }
+            return add(new Node(CONDITION, 0, null, condition));
+        }
+
+        /**
+         * Closes the most recently opened composite or decorator.
+         *
+         * @return This builder
+         */
+        public Builder end() {
+            if (open.isEmpty()) {
+                throw new IllegalStateException("No open node to end");
+            }
+            Node node = open.pop();
+            if (node.children.isEmpty()) {
+                throw new IllegalStateException("Composite and decorator nodes need at least one child");
+            }
+            if (node.isDecorator() && node.children.size() > 1) {
+                throw new IllegalStateException("Decorator nodes take exactly one child");
+            }
+            if (node.opcode == PARALLEL && node.param > node.children.size()) {
+                throw new IllegalStateException("Parallel success threshold exceeds its number of children");
+            }
+            return this;
+        }
+
+        /**
+         * Compiles the tree.
+         *
+         * @return The immutable tree
+         */
+        public BehaviorTree build() {
+            if (!open.isEmpty()) {
+                throw new IllegalStateException(open.size() + " node(s) were not ended");
+            }
+            if (root == null) {
+                throw new IllegalStateException("Tree is empty");
+            }
+            return new BehaviorTree(root);
+        }
+
+        private Builder push(Node node) {
+            add(node);
+            open.push(node);
+            return this;
+        }
+
+        private Builder add(Node node) {
+            if (open.isEmpty()) {
+                if (root != null) {
+                    throw new IllegalStateException("Tree already has a root");
+                }
+                root = node;
+            } else {
+                open.peek().children.add(node);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package me.astrix.entity.tree;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.astrix.entity.behaviors.AIBehavior;
+import me.astrix.entity.enums.NodeStatus;
+import me.astrix.entity.managers.AIManager;
+import me.astrix.entity.perception.Blackboard;
+import org.bukkit.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-entity state of a {@link BehaviorTree}: the leaf behaviors, which of them are
+ * running, cooldown timers and the traversal stack.
+ * <p>
+ * Every tick the tree is evaluated from the root with an explicit stack, so ticking
+ * neither recurses nor allocates. Leaves that were running on the previous tick but
+ * were not reached on this one are stopped.
+ * </p>
+ */
+@Getter
+public final class BehaviorTreeInstance {
+
+    private static final NodeStatus[] STATUSES = NodeStatus.values();
+
+    private static final byte SUCCESS = (byte) NodeStatus.SUCCESS.ordinal();
+    private static final byte FAILURE = (byte) NodeStatus.FAILURE.ordinal();
+    private static final byte RUNNING = (byte) NodeStatus.RUNNING.ordinal();
+    private static final byte ENTERING = -1;
+
+    private final BehaviorTree tree;
+    private final Mob entity;
+
+    @Getter(AccessLevel.NONE)
+    private final Blackboard blackboard;
+    @Getter(AccessLevel.NONE)
+    private final AIBehavior[] leaves;
+    @Getter(AccessLevel.NONE)
+    private final boolean[] leafRunning;
+    @Getter(AccessLevel.NONE)
+    private final long[] leafTickedPass;
+    @Getter(AccessLevel.NONE)
+    private final long[] cooldownUntil;
+    @Getter(AccessLevel.NONE)
+    private final boolean[] cooldownChildRunning;
+
+    // Traversal stack, one frame per tree level
+    @Getter(AccessLevel.NONE)
+    private final int[] stackNodes;
+    @Getter(AccessLevel.NONE)
+    private final int[] stackCursors;
+    @Getter(AccessLevel.NONE)
+    private final int[] stackSuccesses;
+    @Getter(AccessLevel.NONE)
+    private final int[] stackFailures;
+
+    @Getter(AccessLevel.NONE)
+    private long pass;
+
+    /**
+     * Status of the root after the most recent tick, {@code null} before the first tick.
+     */
+    private NodeStatus lastStatus;
+
+    BehaviorTreeInstance(BehaviorTree tree, AIManager manager) {
+        this.tree = tree;
+        this.entity = manager.getEntity();
+        this.blackboard = manager.getBlackboard();
+
+        int leafCount = tree.getLeafCount();
+        this.leaves = new AIBehavior[leafCount];
+        for (int i = 0; i < leafCount; i++) {
+            leaves[i] = tree.getLeafFactories()[i].create(entity);
+            leaves[i].attach(manager);
+        }
+        this.leafRunning = new boolean[leafCount];
+        this.leafTickedPass = new long[leafCount];
+
+        this.cooldownUntil = new long[tree.getCooldownCount()];
+        this.cooldownChildRunning = new boolean[tree.getCooldownCount()];
+
+        int depth = tree.getMaxDepth();
+        this.stackNodes = new int[depth];
+        this.stackCursors = new int[depth];
+        this.stackSuccesses = new int[depth];
+        this.stackFailures = new int[depth];
+    }
+
+    /**
+     * Evaluates the tree once.
+     *
+     * @param tick The current AI tick
+     * @return The status of the root
+     */
+    public NodeStatus tick(long tick) {
+        byte[] opcodes = tree.getOpcodes();
+        int[] nextSiblings = tree.getNextSiblings();
+        int[] params = tree.getParams();
+        int[] slots = tree.getSlots();
+
+        long currentPass = ++pass;
+        int sp = 0;
+        stackNodes[sp++] = 0;
+        byte status = ENTERING;
+
+        while (sp > 0) {
+            int top = sp - 1;
+            int node = stackNodes[top];
+
+            switch (opcodes[node]) {
+                case BehaviorTree.LEAF -> {
+                    status = tickLeaf(slots[node], currentPass);
+                    sp--;
+                }
+                case BehaviorTree.CONDITION -> {
+                    status = tree.getConditions()[slots[node]].test(entity, blackboard) ? SUCCESS : FAILURE;
+                    sp--;
+                }
+                case BehaviorTree.SELECTOR, BehaviorTree.SEQUENCE -> {
+                    // A selector continues past failures, a sequence past successes
+                    byte proceed = opcodes[node] == BehaviorTree.SELECTOR ? FAILURE : SUCCESS;
+                    int child;
+                    if (status == ENTERING) {
+                        child = node + 1;
+                    } else if (status != proceed) {
+                        sp--;
+                        continue;
+                    } else {
+                        child = nextSiblings[stackCursors[top]];
+                    }
+
+                    if (child < 0) {
+                        status = proceed;
+                        sp--;
+                    } else {
+                        stackCursors[top] = child;
+                        stackNodes[sp++] = child;
+                        status = ENTERING;
+                    }
+                }
+                case BehaviorTree.PARALLEL -> {
+                    int child;
+                    if (status == ENTERING) {
+                        stackSuccesses[top] = 0;
+                        stackFailures[top] = 0;
+                        child = node + 1;
+                    } else {
+                        if (status == SUCCESS) {
+                            stackSuccesses[top]++;
+                        } else if (status == FAILURE) {
+                            stackFailures[top]++;
+                        }
+                        child = nextSiblings[stackCursors[top]];
+                    }
+
+                    if (child >= 0) {
+                        stackCursors[top] = child;
+                        stackNodes[sp++] = child;
+                        status = ENTERING;
+                    } else {
+                        status = stackSuccesses[top] >= params[node] ? SUCCESS : RUNNING;
+                        // Fail once enough children failed that the threshold cannot be reached
+                        if (status == RUNNING && stackFailures[top] > tree.getChildCounts()[node] - params[node]) {
+                            status = FAILURE;
+                        }
+                        sp--;
+                    }
+                }
+                case BehaviorTree.INVERTER, BehaviorTree.SUCCEEDER -> {
+                    if (status == ENTERING) {
+                        stackNodes[sp++] = node + 1;
+                    } else {
+                        if (opcodes[node] == BehaviorTree.INVERTER && status != RUNNING) {
+                            status = status == SUCCESS ? FAILURE : SUCCESS;
+                        } else if (opcodes[node] == BehaviorTree.SUCCEEDER && status == FAILURE) {
+                            status = SUCCESS;
+                        }
+                        sp--;
+                    }
+                }
+                case BehaviorTree.COOLDOWN -> {
+                    int slot = slots[node];
+                    if (status == ENTERING) {
+                        if (tick < cooldownUntil[slot]) {
+                            status = FAILURE;
+                            sp--;
+                        } else {
+                            stackNodes[sp++] = node + 1;
+                        }
+                    } else {
+                        if (status == SUCCESS || (status == FAILURE && cooldownChildRunning[slot])) {
+                            cooldownUntil[slot] = tick + params[node];
+                        }
+                        cooldownChildRunning[slot] = status == RUNNING;
+                        sp--;
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown behavior tree opcode " + opcodes[node]);
+            }
+        }
+
+        // Stop the leaves of branches that were not reached this tick
+        for (int i = 0; i < leaves.length; i++) {
+            if (leafRunning[i] && leafTickedPass[i] != currentPass) {
+                leafRunning[i] = false;
+                leaves[i].stop();
+            }
+        }
+
+        lastStatus = STATUSES[status];
+        return lastStatus;
+    }
+
+    /**
+     * Returns the leaf behaviors that ran on the most recent tick.
+     *
+     * @return The running behaviors, in tree order
+     */
+    public List<AIBehavior> getRunningBehaviors() {
+        List<AIBehavior> running = new ArrayList<>();
+        for (int i = 0; i < leaves.length; i++) {
+            if (leafRunning[i]) {
+                running.add(leaves[i]);
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Stops every running leaf and detaches the leaves from their manager.
+     */
+    public void release() {
+        for (int i = 0; i < leaves.length; i++) {
+            if (leafRunning[i]) {
+                leafRunning[i] = false;
+                leaves[i].stop();
+            }
+            leaves[i].attach(null);
+        }
+    }
+
+    private byte tickLeaf(int leaf, long currentPass) {
+        AIBehavior behavior = leaves[leaf];
+        leafTickedPass[leaf] = currentPass;
+
+        if (!behavior.canRun()) {
+            if (leafRunning[leaf]) {
+                leafRunning[leaf] = false;
+                behavior.stop();
+            }
+            return FAILURE;
+        }
+
+        if (!leafRunning[leaf]) {
+            leafRunning[leaf] = true;
+            behavior.start();
+        }
+        behavior.update();
+        return RUNNING;
+    }
+}
@@ -1,11 +1,11 @@
 package me.astrix.entity.utils;
 
 import lombok.experimental.UtilityClass;
+import me.astrix.entity.EntityAI;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -51,10 +51,27 @@ public class EntityUtils {
             double maxDistance,
             Predicate<T> filter
     ) {
-        return entities.stream()
-                .filter(e -> source.getLocation().distance(e.getLocation()) <= maxDistance)
-                .filter(filter == null ? e -> true : filter)
-                .min(Comparator.comparingDouble(e -> source.getLocation().distance(e.getLocation())));
+        // Squared distances against one read of each location, reusing a single instance
+        Location origin = source.getLocation();
+        Location location = new Location(null, 0, 0, 0);
+        double nearestDistance = maxDistance * maxDistance;
+        T nearest = null;
+        for (int i = 0, size = entities.size(); i < size; i++) {
+            T candidate = entities.get(i);
+            candidate.getLocation(location);
+            if (location.getWorld() != origin.getWorld()) {
+                continue;
+            }
+
+            double distance = VectorMath.distanceSquared(origin.getX(), origin.getY(), origin.getZ(),
+                    location.getX(), location.getY(), location.getZ());
+            if (distance <= nearestDistance && (nearest == null || distance < nearestDistance)
+                    && (filter == null || filter.test(candidate))) {
+                nearest = candidate;
+                nearestDistance = distance;
+            }
+        }
+        return Optional.ofNullable(nearest);
     }
 
     /**
@@ -74,6 +91,44 @@ public class EntityUtils {
         return findNearestEntity(source, entities, maxDistance, null);
     }
 
+    /**
+     * Finds the nearest entity of a type to a source entity using the shared spatial index,
+     * without scanning or collecting nearby entities first.
+     *
+     * @param source Source entity for distance calculation
+     * @param type Target entity type
+     * @param maxDistance Maximum search distance
+     * @param filter Optional additional filtering predicate
+     * @param <T> Type of entity
+     * @return Optional containing the nearest entity
+     */
+    public <T extends LivingEntity> Optional<T> findNearestEntity(
+            LivingEntity source,
+            Class<T> type,
+            double maxDistance,
+            Predicate<? super T> filter
+    ) {
+        return Optional.ofNullable(EntityAI.getInstance().getSpatialIndex()
+                .findNearest(source, maxDistance, type, filter));
+    }
+
+    /**
+     * Convenience method to find the nearest entity of a type using the shared spatial index.
+     *
+     * @param source Source entity for distance calculation
+     * @param type Target entity type
+     * @param maxDistance Maximum search distance
+     * @param <T> Type of entity
+     * @return Optional containing the nearest entity
+     */
+    public <T extends LivingEntity> Optional<T> findNearestEntity(
+            LivingEntity source,
+            Class<T> type,
+            double maxDistance
+    ) {
+        return findNearestEntity(source, type, maxDistance, null);
+    }
+
     /**
      * Calculates the average location of a group of entities.
      *
@@ -85,22 +140,20 @@ public class EntityUtils {
             throw new IllegalArgumentException("Entity list cannot be empty");
         }
 
-        double avgX = entities.stream()
-                .mapToDouble(e -> e.getLocation().getX())
-                .average()
-                .orElse(0.0);
-
-        double avgY = entities.stream()
-                .mapToDouble(e -> e.getLocation().getY())
-                .average()
-                .orElse(0.0);
-
-        double avgZ = entities.stream()
-                .mapToDouble(e -> e.getLocation().getZ())
-                .average()
-                .orElse(0.0);
+        // One pass, reading each location into the same instance
+        Location location = new Location(null, 0, 0, 0);
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumZ = 0.0;
+        for (int i = 0, size = entities.size(); i < size; i++) {
+            entities.get(i).getLocation(location);
+            sumX += location.getX();
+            sumY += location.getY();
+            sumZ += location.getZ();
+        }
 
-        return new Location(entities.get(0).getWorld(), avgX, avgY, avgZ);
+        int count = entities.size();
+        return new Location(entities.get(0).getWorld(), sumX / count, sumY / count, sumZ / count);
     }
 
     /**
@@ -116,7 +169,13 @@ public class EntityUtils {
             List<? extends LivingEntity> entities,
             double maxGroupRadius
     ) {
-        return entities.stream()
-                .anyMatch(e -> reference.getLocation().distance(e.getLocation()) <= maxGroupRadius);
+        Location origin = reference.getLocation();
+        Location location = new Location(null, 0, 0, 0);
+        for (int i = 0, size = entities.size(); i < size; i++) {
+            if (VectorMath.isWithin(origin, entities.get(i).getLocation(location), maxGroupRadius)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,184 @@
+package me.astrix.entity.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to {@code int} values.
+ * <p>
+ * Built for the per-tick indexes of the AI system: lookups never box, and
+ * {@link #clear()} is O(1) because entries are tagged with a generation stamp
+ * instead of being wiped. Not thread-safe.
+ * </p>
+ */
+public final class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int[] stamps;
+    private int generation = 1;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    /**
+     * Creates a map sized for the expected number of entries.
+     *
+     * @param expectedSize Number of entries the map should hold without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key The key to look up
+     * @param missingValue Value returned when the key is absent
+     * @return The mapped value, or {@code missingValue}
+     */
+    public int get(long key, int missingValue) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key The key to look up
+     * @return Whether the key is mapped
+     */
+    public boolean containsKey(long key) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous mapping.
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public void put(long key, int value) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        stamps[slot] = generation;
+
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key The key
+     * @return Whether the key was mapped
+     */
+    public boolean remove(long key) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                closeHole(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all mappings without touching the backing arrays.
+     */
+    public void clear() {
+        size = 0;
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Moves the entries probed past a removed slot back into it, so lookups
+     * still reach them without tombstones.
+     */
+    private void closeHole(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (stamps[slot] != generation) {
+                break;
+            }
+            // An entry may move into the hole if the hole lies between its home slot and its slot
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        // Generations start at 1, so 0 is never current
+        stamps[hole] = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+
+        allocate(oldKeys.length << 1);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == oldGeneration) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        stamps = new int[capacity];
+        generation = 1;
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,117 @@
+package me.astrix.entity.utils;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+
+/**
+ * Primitive vector math for the per-tick paths of the AI system.
+ * <p>
+ * Works on plain coordinates and caller-owned scratch {@link Vector}s and {@link Location}s
+ * instead of cloning, so steering and range checks allocate nothing. Distances are
+ * compared squared, and the unit offsets of the eight horizontal directions are
+ * computed once.
+ * </p>
+ */
+@UtilityClass
+public class VectorMath {
+
+    /**
+     * Number of horizontal neighbour directions.
+     */
+    public final int DIRECTIONS = 8;
+
+    // The four axes first, then the diagonals, each already of length one
+    private final double DIAGONAL = Math.sqrt(0.5);
+    private final double[] DIRECTION_X = {1, -1, 0, 0, DIAGONAL, -DIAGONAL, DIAGONAL, -DIAGONAL};
+    private final double[] DIRECTION_Z = {0, 0, 1, -1, DIAGONAL, -DIAGONAL, -DIAGONAL, DIAGONAL};
+
+    private final double EPSILON_SQUARED = 1.0E-12;
+
+    /**
+     * Returns the x component of a horizontal unit direction.
+     *
+     * @param direction Index of the direction, below {@link #DIRECTIONS}
+     * @return The x component
+     */
+    public double directionX(int direction) {
+        return DIRECTION_X[direction];
+    }
+
+    /**
+     * Returns the z component of a horizontal unit direction.
+     *
+     * @param direction Index of the direction, below {@link #DIRECTIONS}
+     * @return The z component
+     */
+    public double directionZ(int direction) {
+        return DIRECTION_Z[direction];
+    }
+
+    /**
+     * Calculates the squared distance between two points.
+     *
+     * @param x1 First point x coordinate
+     * @param y1 First point y coordinate
+     * @param z1 First point z coordinate
+     * @param x2 Second point x coordinate
+     * @param y2 Second point y coordinate
+     * @param z2 Second point z coordinate
+     * @return The squared distance
+     */
+    public double distanceSquared(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        double dz = z1 - z2;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Calculates the squared distance between two points, ignoring height.
+     *
+     * @param x1 First point x coordinate
+     * @param z1 First point z coordinate
+     * @param x2 Second point x coordinate
+     * @param z2 Second point z coordinate
+     * @return The squared horizontal distance
+     */
+    public double horizontalDistanceSquared(double x1, double z1, double x2, double z2) {
+        double dx = x1 - x2;
+        double dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Checks whether two locations are in the same world and at most a distance apart,
+     * without taking a square root.
+     *
+     * @param a First location
+     * @param b Second location
+     * @param distance Maximum distance
+     * @return Whether the locations are within the distance
+     */
+    public boolean isWithin(Location a, Location b, double distance) {
+        return a.getWorld() == b.getWorld()
+                && distanceSquared(a.getX(), a.getY(), a.getZ(), b.getX(), b.getY(), b.getZ()) <= distance * distance;
+    }
+
+    /**
+     * Sets a vector to a direction scaled to a length.
+     *
+     * @param out The vector to overwrite
+     * @param dx Direction x component
+     * @param dy Direction y component
+     * @param dz Direction z component
+     * @param length Length of the result
+     * @return Whether the direction had a length; {@code out} is left unchanged otherwise
+     */
+    public boolean setScaled(Vector out, double dx, double dy, double dz, double length) {
+        double lengthSquared = dx * dx + dy * dy + dz * dz;
+        if (lengthSquared < EPSILON_SQUARED) {
+            return false;
+        }
+        double scale = length / Math.sqrt(lengthSquared);
+        out.setX(dx * scale).setY(dy * scale).setZ(dz * scale);
+        return true;
+    }
+}
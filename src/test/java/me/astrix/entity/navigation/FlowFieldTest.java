@@ -0,0 +1,114 @@
+package me.astrix.entity.navigation;
+
+import me.astrix.entity.navigation.pathfinding.PathFinder;
+import me.astrix.entity.navigation.pathfinding.TerrainView;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlowFieldTest {
+
+    private static final int SIZE = 32;
+    private static final int RADIUS = 15;
+    private static final int TARGET = 16;
+    private static final int WALL_HEIGHT = 24;
+
+    @Test
+    void refreshMatchesFullBuildAfterBlockChanges() {
+        int columns = (2 * RADIUS + 1) * (2 * RADIUS + 1);
+        int[] queue = new int[columns];
+        byte[] marks = new byte[columns];
+        long[] seeds = new long[columns];
+
+        for (int terrainSeed = 0; terrainSeed < 20; terrainSeed++) {
+            Random random = new Random(terrainSeed);
+            HeightmapTerrain terrain = HeightmapTerrain.random(random);
+            int targetY = terrain.heights[TARGET][TARGET];
+            FlowField refreshed = new FlowField(null, TARGET, targetY, TARGET, RADIUS);
+            refreshed.refresh(terrain, queue, marks, seeds);
+
+            for (int round = 0; round < 40; round++) {
+                // Raise, dig or wall off a few columns, never the target's, so the field is refreshed rather than rebuilt
+                int changes = 1 + random.nextInt(6);
+                for (int i = 0; i < changes; i++) {
+                    int x = random.nextInt(SIZE);
+                    int z = random.nextInt(SIZE);
+                    if (x == TARGET && z == TARGET) {
+                        continue;
+                    }
+                    int height = random.nextInt(4) == 0
+                            ? WALL_HEIGHT
+                            : terrain.heights[x][z] + (random.nextBoolean() ? 1 + random.nextInt(3) : -1 - random.nextInt(3));
+                    terrain.heights[x][z] = Math.max(1, Math.min(WALL_HEIGHT, height));
+                    refreshed.markChanged(x, z);
+                }
+                refreshed.refresh(terrain, queue, marks, seeds);
+
+                FlowField built = new FlowField(null, TARGET, targetY, TARGET, RADIUS);
+                built.build(terrain, queue);
+                assertSameField(built, refreshed, terrain, "terrain " + terrainSeed + ", round " + round);
+            }
+        }
+    }
+
+    private static void assertSameField(FlowField expected, FlowField actual, TerrainView terrain, String message) {
+        assertEquals(expected.getReachedColumns(), actual.getReachedColumns(), "Reached columns on " + message);
+        for (int cell = 0; cell < expected.getColumns(); cell++) {
+            int x = expected.getX(cell);
+            int z = expected.getZ(cell);
+            int height = expected.getHeight(cell);
+            assertEquals(expected.cellAt(x, height, z), actual.cellAt(x, height, z), "Column " + x + "," + z + " on " + message);
+            if (expected.cellAt(x, height, z) < 0) {
+                continue;
+            }
+            assertEquals(expected.getDistance(cell), actual.getDistance(cell), "Distance of " + x + "," + z + " on " + message);
+
+            // Directions may differ between routes of equal length, but must lead one step closer
+            int next = actual.nextCell(cell);
+            if (next != cell) {
+                int step = PathFinder.step(terrain, x, actual.getHeight(cell), z, actual.getX(next) - x, actual.getZ(next) - z);
+                assertEquals(actual.getHeight(next), step, "Step from " + x + "," + z + " on " + message);
+                assertEquals(actual.getDistance(cell) - 1, actual.getDistance(next), "Step from " + x + "," + z + " on " + message);
+            }
+        }
+    }
+
+    /**
+     * Terrain of solid columns; everything outside the grid is solid, like unloaded blocks.
+     */
+    private static final class HeightmapTerrain implements TerrainView {
+
+        private final int[][] heights = new int[SIZE][SIZE];
+
+        /**
+         * Rolling terrain of single steps and drops of up to 5 blocks.
+         */
+        static HeightmapTerrain random(Random random) {
+            HeightmapTerrain terrain = new HeightmapTerrain();
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    int neighbour = x > 0 ? terrain.heights[x - 1][z] : z > 0 ? terrain.heights[x][z - 1] : 10;
+                    if (x > 0 && z > 0 && random.nextBoolean()) {
+                        neighbour = terrain.heights[x][z - 1];
+                    }
+                    int change = random.nextInt(10);
+                    int height = change < 5 ? neighbour : change < 8 ? neighbour + 1 : neighbour - 1 - random.nextInt(5);
+                    terrain.heights[x][z] = Math.max(1, Math.min(20, height));
+                }
+            }
+            return terrain;
+        }
+
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            return x < 0 || z < 0 || x >= SIZE || z >= SIZE || y < heights[x][z];
+        }
+
+        @Override
+        public boolean isWalkable(int x, int y, int z) {
+            return isSolid(x, y - 1, z) && !isSolid(x, y, z) && !isSolid(x, y + 1, z);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package me.astrix.entity.navigation.pathfinding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathFinderTest {
+
+    private static final int SIZE = 32;
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void findsShortestPathsOverStepsAndDrops() {
+        Random random = new Random(7);
+        PathFinder pathFinder = new PathFinder(SIZE * SIZE * 4);
+
+        for (int terrainSeed = 0; terrainSeed < 20; terrainSeed++) {
+            HeightmapTerrain terrain = HeightmapTerrain.random(new Random(terrainSeed));
+
+            for (int attempt = 0; attempt < 20; attempt++) {
+                int startX = random.nextInt(SIZE);
+                int startZ = random.nextInt(SIZE);
+                int goalX = random.nextInt(SIZE);
+                int goalZ = random.nextInt(SIZE);
+                int startY = terrain.height(startX, startZ);
+                int goalY = terrain.height(goalX, goalZ);
+
+                double expected = referenceCost(terrain, startX, startY, startZ, goalX, goalY, goalZ);
+                if (Double.isInfinite(expected) || expected == 0) {
+                    continue;
+                }
+
+                Path path = pathFinder.findPath(terrain, startX, startY, startZ, goalX, goalY, goalZ);
+                assertNotNull(path, "No path from a start with reachable neighbours");
+                assertTrue(path.isComplete(), "Reachable goal was not reached");
+                assertEquals(expected, cost(terrain, path), EPSILON,
+                        "Path cost on terrain " + terrainSeed + " from " + startX + "," + startZ
+                                + " to " + goalX + "," + goalZ);
+            }
+        }
+    }
+
+    /**
+     * Sums the step costs along a path, checking that every step is one the pathfinder can take.
+     */
+    private static double cost(TerrainView terrain, Path path) {
+        double cost = 0;
+        for (int i = 1; i < path.length(); i++) {
+            int dx = path.getX(i) - path.getX(i - 1);
+            int dz = path.getZ(i) - path.getZ(i - 1);
+            int y = path.getY(i - 1);
+            int ny = PathFinder.step(terrain, path.getX(i - 1), y, path.getZ(i - 1), dx, dz);
+            assertEquals(path.getY(i), ny, "Waypoint " + i + " is not reachable from the previous one");
+            cost += stepCost(dx, dz, y, ny);
+        }
+        return cost;
+    }
+
+    /**
+     * Dijkstra search over the same steps and costs as the pathfinder.
+     */
+    private static double referenceCost(TerrainView terrain, int startX, int startY, int startZ,
+                                        int goalX, int goalY, int goalZ) {
+        double[][] distances = new double[SIZE][SIZE];
+        for (double[] row : distances) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        // On a heightmap every column has a single walkable height, so columns identify nodes
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        distances[startX][startZ] = 0;
+        open.add(new double[]{0, startX, startY, startZ});
+
+        while (!open.isEmpty()) {
+            double[] node = open.poll();
+            int x = (int) node[1];
+            int y = (int) node[2];
+            int z = (int) node[3];
+            if (node[0] > distances[x][z]) {
+                continue;
+            }
+            if (x == goalX && y == goalY && z == goalZ) {
+                return node[0];
+            }
+
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (dx == 0 && dz == 0) {
+                        continue;
+                    }
+                    int ny = PathFinder.step(terrain, x, y, z, dx, dz);
+                    if (ny == Integer.MIN_VALUE) {
+                        continue;
+                    }
+                    double distance = node[0] + stepCost(dx, dz, y, ny);
+                    if (distance < distances[x + dx][z + dz]) {
+                        distances[x + dx][z + dz] = distance;
+                        open.add(new double[]{distance, x + dx, ny, z + dz});
+                    }
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static double stepCost(int dx, int dz, int y, int ny) {
+        double cost = dx != 0 && dz != 0 ? PathFinder.DIAGONAL_COST : PathFinder.STRAIGHT_COST;
+        return cost + (ny > y ? PathFinder.STEP_UP_COST : (y - ny) * PathFinder.DROP_COST_PER_BLOCK);
+    }
+
+    /**
+     * Terrain of solid columns; everything outside the grid is solid, like unloaded blocks.
+     */
+    private static final class HeightmapTerrain implements TerrainView {
+
+        private final int[][] heights = new int[SIZE][SIZE];
+
+        /**
+         * Rolling terrain of single steps, drops of up to 5 blocks and a few walls.
+         */
+        static HeightmapTerrain random(Random random) {
+            HeightmapTerrain terrain = new HeightmapTerrain();
+            for (int x = 0; x < SIZE; x++) {
+                for (int z = 0; z < SIZE; z++) {
+                    int neighbour = x > 0 ? terrain.heights[x - 1][z] : z > 0 ? terrain.heights[x][z - 1] : 10;
+                    if (x > 0 && z > 0 && random.nextBoolean()) {
+                        neighbour = terrain.heights[x][z - 1];
+                    }
+                    int change = random.nextInt(10);
+                    int height = change < 5 ? neighbour : change < 8 ? neighbour + 1 : neighbour - 1 - random.nextInt(5);
+                    terrain.heights[x][z] = Math.max(1, Math.min(20, height));
+                }
+            }
+            for (int wall = 0; wall < 3; wall++) {
+                int x = random.nextInt(SIZE);
+                int z = random.nextInt(SIZE);
+                for (int i = 0; i < 8 && z + i < SIZE; i++) {
+                    terrain.heights[x][z + i] = 24;
+                }
+            }
+            return terrain;
+        }
+
+        int height(int x, int z) {
+            return heights[x][z];
+        }
+
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            return x < 0 || z < 0 || x >= SIZE || z >= SIZE || y < heights[x][z];
+        }
+
+        @Override
+        public boolean isWalkable(int x, int y, int z) {
+            return isSolid(x, y - 1, z) && !isSolid(x, y, z) && !isSolid(x, y + 1, z);
+        }
+    }
+}
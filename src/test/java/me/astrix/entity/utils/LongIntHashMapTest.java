@@ -0,0 +1,42 @@
+package me.astrix.entity.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> reference = new HashMap<>();
+
+        for (int operation = 0; operation < 200_000; operation++) {
+            // Few distinct keys, so probe chains collide and removals shift entries back
+            long key = random.nextInt(512);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int value = random.nextInt();
+                    map.put(key, value);
+                    reference.put(key, value);
+                }
+                case 1 -> assertEquals(reference.remove(key) != null, map.remove(key), "Removing " + key);
+                default -> assertEquals((int) reference.getOrDefault(key, -1), map.get(key, -1), "Value of " + key);
+            }
+            if (operation % 50_000 == 0) {
+                map.clear();
+                reference.clear();
+            }
+            assertEquals(reference.size(), map.size(), "Size after operation " + operation);
+        }
+
+        for (long key = 0; key < 512; key++) {
+            assertEquals((int) reference.getOrDefault(key, -1), map.get(key, -1), "Value of " + key);
+        }
+    }
+}